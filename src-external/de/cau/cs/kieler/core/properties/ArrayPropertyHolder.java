@@ -0,0 +1,268 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2015 by
+ * + Christian-Albrechts-University of Kiel
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This code is provided under the terms of the Eclipse Public License (EPL).
+ * See the file epl-v10.html for the license text.
+ */
+package de.cau.cs.kieler.core.properties;
+
+import java.io.Serializable;
+import java.util.*;
+
+import de.cau.cs.kieler.core.math.KVector;
+import de.cau.cs.kieler.core.math.KVectorChain;
+
+/**
+ * A holder class for properties that stores the values in arrays instead of
+ * a hash map. Every property identifier gets a dense index on first use, which
+ * {@link Property} instances remember, and each holder keeps the indices and
+ * values of its own properties in two small arrays. Graph elements usually
+ * have only a few properties, so a linear search of the indices is faster than
+ * hashing the identifier and needs far less memory than a hash map.
+ *
+ * <p>
+ * Properties with equal identifiers share their index, like they share their
+ * key in {@link MapPropertyHolder}.
+ * </p>
+ */
+public class ArrayPropertyHolder implements IPropertyHolder, Serializable {
+
+	/** the serial version UID. */
+	private static final long serialVersionUID = -2387924371684208327L;
+
+	/** indices of the property identifiers, shared by all holders. */
+	private static final Map<String, Integer> INDICES = new HashMap<String, Integer>();
+	/** the first registered property for each index. */
+	private static IProperty<?>[] registeredProperties = new IProperty<?>[64];
+
+	/** indices of the properties of this holder. */
+	private int[] propertyIndices;
+	/** values of the properties of this holder. */
+	private Object[] propertyValues;
+	/** number of properties of this holder. */
+	private int propertyCount = 0;
+
+	/**
+	 * Returns the dense index of the given property, registering its
+	 * identifier if it is new.
+	 *
+	 * @param property
+	 *            a property
+	 * @return the index of the property identifier
+	 */
+	static int indexOf(final IProperty<?> property) {
+		if (property instanceof Property<?>) {
+			final Property<?> cachedProperty = (Property<?>) property;
+			if (cachedProperty.index < 0) {
+				cachedProperty.index = register(property);
+			}
+			return cachedProperty.index;
+		}
+		return register(property);
+	}
+
+	private static synchronized int register(final IProperty<?> property) {
+		final Integer index = INDICES.get(property.getId());
+		if (index != null) {
+			return index;
+		}
+
+		final int newIndex = INDICES.size();
+		if (newIndex == registeredProperties.length) {
+			final IProperty<?>[] newProperties = new IProperty<?>[newIndex * 2];
+			System.arraycopy(registeredProperties, 0, newProperties, 0, newIndex);
+			registeredProperties = newProperties;
+		}
+		registeredProperties[newIndex] = property;
+		INDICES.put(property.getId(), newIndex);
+		return newIndex;
+	}
+
+	private static synchronized IProperty<?> getRegisteredProperty(final int index) {
+		return registeredProperties[index];
+	}
+
+	private int find(final int index) {
+		for (int i = 0; i < propertyCount; i++) {
+			if (propertyIndices[i] == index) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void put(final int index, final Object value) {
+		final int slot = find(index);
+		if (slot >= 0) {
+			propertyValues[slot] = value;
+			return;
+		}
+
+		if (propertyIndices == null) {
+			propertyIndices = new int[4];
+			propertyValues = new Object[4];
+		} else if (propertyCount == propertyIndices.length) {
+			final int[] newIndices = new int[propertyCount * 2];
+			final Object[] newValues = new Object[propertyCount * 2];
+			System.arraycopy(propertyIndices, 0, newIndices, 0, propertyCount);
+			System.arraycopy(propertyValues, 0, newValues, 0, propertyCount);
+			propertyIndices = newIndices;
+			propertyValues = newValues;
+		}
+		propertyIndices[propertyCount] = index;
+		propertyValues[propertyCount] = value;
+		propertyCount++;
+	}
+
+	private void remove(final int slot) {
+		propertyCount--;
+		propertyIndices[slot] = propertyIndices[propertyCount];
+		propertyValues[slot] = propertyValues[propertyCount];
+		propertyValues[propertyCount] = null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public <T> ArrayPropertyHolder setProperty(final IProperty<? super T> property, final T value) {
+		final int index = indexOf(property);
+		if (value == null) {
+			final int slot = find(index);
+			if (slot >= 0) {
+				remove(slot);
+			}
+		} else {
+			put(index, value);
+		}
+
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public <T> T getProperty(final IProperty<T> property) {
+		if (propertyCount > 0) {
+			final int slot = find(indexOf(property));
+			if (slot >= 0) {
+				@SuppressWarnings("unchecked")
+				final T value = (T) propertyValues[slot];
+				return value;
+			}
+		}
+
+		// Retrieve the default value and memorize a copy of it for our property
+		final T defaultValue = property.getDefault();
+		if (defaultValue instanceof Cloneable) {
+			@SuppressWarnings("unchecked")
+			final T copy = (T) copyDefault(defaultValue);
+			setProperty(property, copy);
+			return copy;
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Copies a cloneable default value, so holders do not share it. Object.clone()
+	 * is not available in GWT, thus the cloneable types of the layout properties
+	 * are copied explicitly. Values of other types are shared.
+	 *
+	 * @param defaultValue
+	 *            a cloneable default value
+	 * @return a copy of the value, or the value itself
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object copyDefault(final Object defaultValue) {
+		if (defaultValue instanceof KVector) {
+			return ((KVector) defaultValue).clone();
+		} else if (defaultValue instanceof KVectorChain) {
+			return new KVectorChain((KVectorChain) defaultValue);
+		} else if (defaultValue instanceof EnumSet) {
+			return EnumSet.copyOf((EnumSet) defaultValue);
+		} else if (defaultValue instanceof ArrayList) {
+			return new ArrayList((Collection) defaultValue);
+		} else if (defaultValue instanceof LinkedList) {
+			return new LinkedList((Collection) defaultValue);
+		} else if (defaultValue instanceof LinkedHashSet) {
+			return new LinkedHashSet((Collection) defaultValue);
+		} else if (defaultValue instanceof HashSet) {
+			return new HashSet((Collection) defaultValue);
+		} else if (defaultValue instanceof LinkedHashMap) {
+			return new LinkedHashMap((Map) defaultValue);
+		} else if (defaultValue instanceof HashMap) {
+			return new HashMap((Map) defaultValue);
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public ArrayPropertyHolder copyProperties(final IPropertyHolder other) {
+		if (other == null) {
+			return this;
+		}
+
+		if (other instanceof ArrayPropertyHolder) {
+			final ArrayPropertyHolder otherHolder = (ArrayPropertyHolder) other;
+			for (int i = 0; i < otherHolder.propertyCount; i++) {
+				put(otherHolder.propertyIndices[i], otherHolder.propertyValues[i]);
+			}
+		} else {
+			for (final Map.Entry<IProperty<?>, Object> entry : other.getAllProperties().entrySet()) {
+				put(indexOf(entry.getKey()), entry.getValue());
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Returns a new map of all assigned properties, changes to the map are
+	 * not reflected in this holder.
+	 *
+	 * @return a map of all properties
+	 */
+	public Map<IProperty<?>, Object> getAllProperties() {
+		if (propertyCount == 0) {
+			return Collections.emptyMap();
+		}
+
+		final Map<IProperty<?>, Object> properties = new HashMap<IProperty<?>, Object>();
+		for (int i = 0; i < propertyCount; i++) {
+			properties.put(getRegisteredProperty(propertyIndices[i]), propertyValues[i]);
+		}
+		return properties;
+	}
+
+	/**
+	 * Check for upper and lower bounds. If a property value does not fit into
+	 * the bounds, it is reset to the respective bound or to the default value.
+	 *
+	 * @param newProperties
+	 *            the properties that shall be checked
+	 */
+	public void checkProperties(final IProperty<?>... newProperties) {
+		for (final IProperty<?> property : newProperties) {
+			final int slot = find(indexOf(property));
+			if (slot >= 0) {
+				final Object value = propertyValues[slot];
+				@SuppressWarnings("unchecked")
+				final Comparable<Object> lowbo = (Comparable<Object>) property.getLowerBound();
+				@SuppressWarnings("unchecked")
+				final Comparable<Object> uppbo = (Comparable<Object>) property.getUpperBound();
+				if ((lowbo.compareTo(value) > 0) || (uppbo.compareTo(value) < 0)) {
+					remove(slot);
+				}
+			}
+		}
+	}
+
+}
@@ -48,6 +48,8 @@ public class Property<T> implements IProperty<T>, Comparable<IProperty<?>> {
 	private Comparable<? super T> lowerBound = NEGATIVE_INFINITY;
 	/** the upper bound of this property. */
 	private Comparable<? super T> upperBound = POSITIVE_INFINITY;
+	/** index of the identifier in {@link ArrayPropertyHolder}, -1 until first use. */
+	int index = -1;
 
 	/**
 	 * Creates a property with given identifier and {@code null} as default
@@ -0,0 +1,35 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2015 by
+ * + Christian-Albrechts-University of Kiel
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This code is provided under the terms of the Eclipse Public License (EPL).
+ * See the file epl-v10.html for the license text.
+ */
+package de.cau.cs.kieler.klay.layered;
+
+import java.util.List;
+
+/**
+ * Executes the layouts of the sibling nested graphs of a compound graph. Implementations may run
+ * them in parallel, since every nested graph is laid out by its own {@link KlayLayered} instance and
+ * only its own subtree is changed. The results are transferred to the compound nodes afterwards.
+ *
+ * @see KlayLayered#setSubgraphExecutor(ISubgraphExecutor)
+ */
+public interface ISubgraphExecutor {
+
+    /**
+     * Runs all given layouts and returns after the last one has finished.
+     *
+     * @param layouts
+     *            the layouts of the nested graphs to run
+     */
+    void executeAll(final List<Runnable> layouts);
+
+}
@@ -107,6 +107,35 @@ public final class KlayLayered {
 	private final CompoundGraphPreprocessor compoundGraphPreprocessor = new CompoundGraphPreprocessor();
 	/** compound graph postprocessor. */
 	private final CompoundGraphPostprocessor compoundGraphPostprocessor = new CompoundGraphPostprocessor();
+	/**
+	 * executor for the layouts of sibling nested graphs, or {@code null} to
+	 * lay them out one after another.
+	 */
+	private static ISubgraphExecutor subgraphExecutor;
+
+	/**
+	 * Sets the executor used to lay out the nested graphs of one compound
+	 * graph. The layout of each nested graph only depends on its own subtree
+	 * and the results are transferred to the compound nodes in the original
+	 * order afterwards, so the layout is the same as the sequential one.
+	 *
+	 * @param executor
+	 *            the executor, or {@code null} to lay out the nested graphs
+	 *            sequentially
+	 */
+	public static void setSubgraphExecutor(final ISubgraphExecutor executor) {
+		subgraphExecutor = executor;
+	}
+
+	/**
+	 * Returns the executor used for the layouts of nested graphs.
+	 *
+	 * @return the executor, or {@code null} if the nested graphs are laid
+	 *         out sequentially
+	 */
+	public static ISubgraphExecutor getSubgraphExecutor() {
+		return subgraphExecutor;
+	}
 
 	// //////////////////////////////////////////////////////////////////////////////
 	// Regular Layout
@@ -205,9 +234,19 @@ public final class KlayLayered {
 		if (!lgraph.getLayerlessNodes().isEmpty()) {
 			// Process all contained nested graphs recursively
 			final float workPerSubgraph = 1.0f / lgraph.getLayerlessNodes().size();
+			final List<LNode> compoundNodes = new ArrayList<LNode>();
 			for (final LNode node : lgraph.getLayerlessNodes()) {
-				final LGraph nestedGraph = node.getProperty(InternalProperties.NESTED_LGRAPH);
-				if (nestedGraph != null) {
+				if (node.getProperty(InternalProperties.NESTED_LGRAPH) != null) {
+					compoundNodes.add(node);
+				}
+			}
+
+			final ISubgraphExecutor executor = subgraphExecutor;
+			if ((executor != null) && (compoundNodes.size() > 1)) {
+				parallelNestedLayout(compoundNodes, executor, monitor, workPerSubgraph);
+			} else {
+				for (final LNode node : compoundNodes) {
+					final LGraph nestedGraph = node.getProperty(InternalProperties.NESTED_LGRAPH);
 					recursiveLayout(nestedGraph, monitor.subTask(workPerSubgraph));
 					graphLayoutToNode(node, nestedGraph);
 				}
@@ -227,6 +266,44 @@ public final class KlayLayered {
 		monitor.done();
 	}
 
+	/**
+	 * Lays out the graphs nested in the given compound nodes with the
+	 * executor. The layout processors keep state between their calls, hence
+	 * every nested graph gets its own {@link KlayLayered} instance, and the
+	 * progress monitors are not thread safe, hence the progress is reported
+	 * when all are done.
+	 *
+	 * @param compoundNodes
+	 *            the nodes with nested graphs, in the order of the graph
+	 * @param executor
+	 *            the executor for the layouts of the nested graphs
+	 * @param monitor
+	 *            a progress monitor to show progress information
+	 * @param workPerSubgraph
+	 *            the work of one nested graph in the monitor
+	 */
+	private void parallelNestedLayout(final List<LNode> compoundNodes,
+			final ISubgraphExecutor executor, final IKielerProgressMonitor monitor,
+			final float workPerSubgraph) {
+		final List<Runnable> layouts = new ArrayList<Runnable>(compoundNodes.size());
+		for (final LNode node : compoundNodes) {
+			final LGraph nestedGraph = node.getProperty(InternalProperties.NESTED_LGRAPH);
+			layouts.add(new Runnable() {
+				@Override
+				public void run() {
+					new KlayLayered().recursiveLayout(nestedGraph, new BasicProgressMonitor(0));
+				}
+			});
+		}
+		executor.executeAll(layouts);
+
+		// this changes the compound nodes and their graph, so not in parallel
+		for (final LNode node : compoundNodes) {
+			graphLayoutToNode(node, node.getProperty(InternalProperties.NESTED_LGRAPH));
+			monitor.worked(workPerSubgraph);
+		}
+	}
+
 	// //////////////////////////////////////////////////////////////////////////////
 	// Layout Testing
 
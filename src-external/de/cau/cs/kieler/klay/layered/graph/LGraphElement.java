@@ -13,7 +13,7 @@
  */
 package de.cau.cs.kieler.klay.layered.graph;
 
-import de.cau.cs.kieler.core.properties.MapPropertyHolder;
+import de.cau.cs.kieler.core.properties.ArrayPropertyHolder;
 
 /**
  * Abstract superclass for the layers, nodes, ports, and edges of a layered graph
@@ -33,7 +33,7 @@ import de.cau.cs.kieler.core.properties.MapPropertyHolder;
  * @kieler.design proposed by msp
  * @kieler.rating yellow 2013-03-22 review KI-35 by chsch, grh
  */
-public abstract class LGraphElement extends MapPropertyHolder {
+public abstract class LGraphElement extends ArrayPropertyHolder {
 
     /** the serial version UID. */
     private static final long serialVersionUID = 5480383439314459124L;
@@ -0,0 +1,806 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2015 by
+ * + Christian-Albrechts-University of Kiel
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This code is provided under the terms of the Eclipse Public License (EPL).
+ * See the file epl-v10.html for the license text.
+ */
+package de.cau.cs.kieler.klay.layered.p2layers;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import de.cau.cs.kieler.core.alg.IKielerProgressMonitor;
+import de.cau.cs.kieler.klay.layered.ILayoutPhase;
+import de.cau.cs.kieler.klay.layered.IntermediateProcessingConfiguration;
+import de.cau.cs.kieler.klay.layered.graph.LEdge;
+import de.cau.cs.kieler.klay.layered.graph.LGraph;
+import de.cau.cs.kieler.klay.layered.graph.LNode;
+import de.cau.cs.kieler.klay.layered.graph.LPort;
+import de.cau.cs.kieler.klay.layered.graph.Layer;
+import de.cau.cs.kieler.klay.layered.properties.Properties;
+import de.cau.cs.kieler.klay.layered.properties.WideNodesStrategy;
+
+/**
+ * A network simplex layerer that works on primitive arrays. The graph is first mapped onto
+ * int arrays: a compressed adjacency list of the incident edges of each node, the end points,
+ * minimal spans, tree flags and cut values of the edges, and the tree parent, {@code low} and
+ * {@code lim} numbers of the nodes. The simplex iterations then run on these arrays only, and
+ * without recursion, so long chains of dummy nodes cannot overflow the stack.
+ *
+ * <p>
+ * The algorithm takes the same decisions as {@link NetworkSimplexLayerer}, so both produce the
+ * same layering. After an exchange only the {@code low} and {@code lim} numbers and cut values
+ * below the lowest common ancestor of the entering edge are recomputed, and only the nodes of
+ * the subtree cut off by the leaving edge are moved. Besides the iteration limit derived from
+ * {@link Properties#THOROUGHNESS}, the iterations stop once
+ * {@link Properties#NETWORK_SIMPLEX_TIME_LIMIT} is exceeded; the layering is feasible in any
+ * case, just possibly not optimal.
+ * </p>
+ *
+ * <dl>
+ * <dt>Precondition:</dt>
+ * <dd>the graph has no cycles</dd>
+ * <dt>Postcondition:</dt>
+ * <dd>all nodes have been assigned a layer such that edges connect only nodes from layers with
+ * increasing indices</dd>
+ * </dl>
+ *
+ * @see NetworkSimplexLayerer
+ */
+public final class ArrayNetworkSimplexLayerer implements ILayoutPhase {
+
+    /** factor by which the maximal number of iterations is multiplied. */
+    private static final int ITER_LIMIT_FACTOR = 4;
+
+    // ================================== Attributes ==============================================
+
+    /** The layered graph all methods in this class operate on. */
+    private LGraph layeredGraph;
+
+    /** the layerless nodes of the graph, indexed by their id. */
+    private LNode[] graphNodes;
+
+    /** index of the first outgoing edge of each node; self loops are not numbered. */
+    private int[] outStart;
+
+    /** index of the first incident edge of each node in {@link #adjacentEdges}. */
+    private int[] adjacentStart;
+
+    /** the incident edges of all nodes, in the order of their ports and connected edges. */
+    private int[] adjacentEdges;
+
+    /** the source node of each edge. */
+    private int[] edgeSource;
+
+    /** the target node of each edge. */
+    private int[] edgeTarget;
+
+    /** the nodes of the current connected component, in depth first order. */
+    private int[] nodes;
+
+    /** the number of nodes of the current connected component. */
+    private int nodeCount;
+
+    /** the edges of the current connected component, in the order of their source nodes. */
+    private int[] edges;
+
+    /** the number of edges of the current connected component. */
+    private int edgeCount;
+
+    private int[] inDegree;
+
+    private int[] outDegree;
+
+    private int[] layer;
+
+    private int[] revLayer;
+
+    private int[] minSpan;
+
+    private boolean[] treeNode;
+
+    private boolean[] treeEdge;
+
+    private boolean[] edgeVisited;
+
+    /** the tree edge to the parent of each node, or -1 for the root. */
+    private int[] parentEdge;
+
+    /** the postorder number of each node in the spanning tree. */
+    private int[] lim;
+
+    /** the lowest postorder number in the subtree of each node. */
+    private int[] low;
+
+    /** the node of each postorder number, offset by one. */
+    private int[] nodeByLim;
+
+    /**
+     * the number of edges leaving minus the number of edges entering the subtree of each node.
+     */
+    private int[] subtreeBalance;
+
+    private int[] cutvalue;
+
+    /** the next incident edge to visit for each node on the depth first search stack. */
+    private int[] cursor;
+
+    /** the depth first search stack, or queue for the topological numbering. */
+    private int[] stack;
+
+    private WideNodesStrategy wideNodesStrategy = WideNodesStrategy.OFF;
+
+    // =============================== Initialization Methods =====================================
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("deprecation")
+    public IntermediateProcessingConfiguration getIntermediateProcessingConfiguration(
+            final LGraph graph) {
+
+        // Basic strategy
+        IntermediateProcessingConfiguration strategy = IntermediateProcessingConfiguration
+                .fromExisting(NetworkSimplexLayerer.BASELINE_PROCESSING_CONFIGURATION);
+
+        // Additional dependencies
+        if (graph.getProperty(Properties.DISTRIBUTE_NODES)
+                || graph.getProperty(Properties.WIDE_NODES_ON_MULTIPLE_LAYERS)
+                        == WideNodesStrategy.AGGRESSIVE) {
+            strategy.addAll(NetworkSimplexLayerer.BIG_NODES_PROCESSING_ADDITIONS_AGGRESSIVE);
+            wideNodesStrategy = WideNodesStrategy.AGGRESSIVE;
+
+        } else if (graph.getProperty(Properties.WIDE_NODES_ON_MULTIPLE_LAYERS)
+                        == WideNodesStrategy.CAREFUL) {
+            strategy.addAll(NetworkSimplexLayerer.BIG_NODES_PROCESSING_ADDITIONS_CAREFUL);
+            wideNodesStrategy = WideNodesStrategy.CAREFUL;
+        }
+
+        return strategy;
+    }
+
+    /**
+     * Maps the layerless nodes and their edges onto the arrays. Self loops are left out, they
+     * have no influence on the layering.
+     *
+     * @param theNodes
+     *            the layerless nodes of the graph
+     */
+    private void initialize(final List<LNode> theNodes) {
+        int numNodes = theNodes.size();
+        graphNodes = theNodes.toArray(new LNode[numNodes]);
+        for (int i = 0; i < numNodes; i++) {
+            graphNodes[i].id = i;
+        }
+
+        // number the edges by their source nodes and count the incident edges
+        outStart = new int[numNodes + 1];
+        adjacentStart = new int[numNodes + 1];
+        int numEdges = 0;
+        for (int i = 0; i < numNodes; i++) {
+            outStart[i] = numEdges;
+            for (LPort port : graphNodes[i].getPorts()) {
+                for (LEdge edge : port.getOutgoingEdges()) {
+                    if (edge.getTarget().getNode() != graphNodes[i]) {
+                        edge.id = numEdges++;
+                        adjacentStart[i + 1]++;
+                        adjacentStart[edge.getTarget().getNode().id + 1]++;
+                    }
+                }
+            }
+        }
+        outStart[numNodes] = numEdges;
+        for (int i = 0; i < numNodes; i++) {
+            adjacentStart[i + 1] += adjacentStart[i];
+        }
+
+        edgeSource = new int[numEdges];
+        edgeTarget = new int[numEdges];
+        adjacentEdges = new int[2 * numEdges];
+        inDegree = new int[numNodes];
+        outDegree = new int[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            int next = adjacentStart[i];
+            for (LPort port : graphNodes[i].getPorts()) {
+                for (LEdge edge : port.getConnectedEdges()) {
+                    LNode source = edge.getSource().getNode();
+                    LNode target = edge.getTarget().getNode();
+                    if (source != target) {
+                        adjacentEdges[next++] = edge.id;
+                        if (source == graphNodes[i]) {
+                            edgeSource[edge.id] = i;
+                            edgeTarget[edge.id] = target.id;
+                            outDegree[i]++;
+                        } else {
+                            inDegree[i]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        layer = new int[numNodes];
+        revLayer = new int[numNodes];
+        treeNode = new boolean[numNodes];
+        parentEdge = new int[numNodes];
+        lim = new int[numNodes];
+        low = new int[numNodes];
+        nodeByLim = new int[numNodes + 1];
+        subtreeBalance = new int[numNodes];
+        cursor = new int[numNodes];
+        stack = new int[numNodes];
+        nodes = new int[numNodes];
+        edges = new int[numEdges];
+        minSpan = new int[numEdges];
+        treeEdge = new boolean[numEdges];
+        edgeVisited = new boolean[numEdges];
+        cutvalue = new int[numEdges];
+    }
+
+    /**
+     * Returns the connected components of the graph, the largest one first, each with its nodes
+     * in depth first order.
+     *
+     * @return the nodes of each connected component
+     */
+    private List<int[]> connectedComponents() {
+        int numNodes = graphNodes.length;
+        boolean[] nodeVisited = new boolean[numNodes];
+        LinkedList<int[]> components = Lists.newLinkedList();
+
+        for (int start = 0; start < numNodes; start++) {
+            if (!nodeVisited[start]) {
+                int size = 0;
+                int top = 0;
+                nodeVisited[start] = true;
+                nodes[size++] = start;
+                stack[top++] = start;
+                cursor[start] = adjacentStart[start];
+                while (top > 0) {
+                    int node = stack[top - 1];
+                    if (cursor[node] < adjacentStart[node + 1]) {
+                        int opposite = opposite(adjacentEdges[cursor[node]++], node);
+                        if (!nodeVisited[opposite]) {
+                            nodeVisited[opposite] = true;
+                            nodes[size++] = opposite;
+                            stack[top++] = opposite;
+                            cursor[opposite] = adjacentStart[opposite];
+                        }
+                    } else {
+                        top--;
+                    }
+                }
+
+                // the largest component is layered first, like in NetworkSimplexLayerer
+                // gwt 2.6 does not support Arrays.copyOf
+                int[] component = new int[size];
+                System.arraycopy(nodes, 0, component, 0, size);
+                if (components.isEmpty() || components.getFirst().length < size) {
+                    components.addFirst(component);
+                } else {
+                    components.addLast(component);
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Selects the nodes and edges of the given connected component.
+     *
+     * @param component
+     *            the nodes of the component in depth first order
+     */
+    private void initializeComponent(final int[] component) {
+        nodeCount = component.length;
+        System.arraycopy(component, 0, nodes, 0, nodeCount);
+        edgeCount = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            int node = nodes[i];
+            for (int edge = outStart[node]; edge < outStart[node + 1]; edge++) {
+                edges[edgeCount++] = edge;
+            }
+            revLayer[node] = nodeCount;
+        }
+    }
+
+    private void dispose() {
+        this.layeredGraph = null;
+        this.graphNodes = null;
+        this.outStart = null;
+        this.adjacentStart = null;
+        this.adjacentEdges = null;
+        this.edgeSource = null;
+        this.edgeTarget = null;
+        this.nodes = null;
+        this.edges = null;
+        this.inDegree = null;
+        this.outDegree = null;
+        this.layer = null;
+        this.revLayer = null;
+        this.minSpan = null;
+        this.treeNode = null;
+        this.treeEdge = null;
+        this.edgeVisited = null;
+        this.parentEdge = null;
+        this.lim = null;
+        this.low = null;
+        this.nodeByLim = null;
+        this.subtreeBalance = null;
+        this.cutvalue = null;
+        this.cursor = null;
+        this.stack = null;
+    }
+
+    // ============================== Network-Simplex Algorithm ===================================
+
+    /**
+     * Determines an optimal layering of all nodes in the graph concerning a minimal length of all
+     * edges, see {@link NetworkSimplexLayerer#process(LGraph, IKielerProgressMonitor)}.
+     *
+     * @param theLayeredGraph
+     *            a layered graph which initially only contains layerless nodes and is
+     *            then filled with layers
+     * @param monitor
+     *            the progress monitor
+     */
+    public void process(final LGraph theLayeredGraph, final IKielerProgressMonitor monitor) {
+        monitor.begin("Array network simplex layering", 1);
+
+        layeredGraph = theLayeredGraph;
+        int thoroughness = theLayeredGraph.getProperty(Properties.THOROUGHNESS) * ITER_LIMIT_FACTOR;
+        int timeLimit = theLayeredGraph.getProperty(Properties.NETWORK_SIMPLEX_TIME_LIMIT);
+        long deadline = timeLimit > 0 ? System.currentTimeMillis() + timeLimit : Long.MAX_VALUE;
+
+        List<LNode> theNodes = layeredGraph.getLayerlessNodes();
+        if (theNodes.size() < 1) {
+            monitor.done();
+            return;
+        }
+
+        initialize(theNodes);
+
+        // layer graph, each connected component separately
+        for (int[] component : connectedComponents()) {
+            // determine a limit on the number of iterations
+            int iterLimit = thoroughness * (int) Math.sqrt(component.length);
+
+            initializeComponent(component);
+            // determine an initial feasible layering
+            feasibleTree();
+            // improve the initial layering until it is optimal or the time is up
+            int leave = leaveEdge();
+            int iter = 0;
+            while (leave >= 0 && iter < iterLimit && System.currentTimeMillis() < deadline) {
+                int enter = enterEdge(leave);
+                if (enter < 0) {
+                    break;
+                }
+                exchange(leave, enter);
+                leave = leaveEdge();
+                iter++;
+            }
+
+            if (wideNodesStrategy == WideNodesStrategy.AGGRESSIVE) {
+                normalize();
+            } else {
+                balance(normalize());
+            }
+            // put nodes into their assigned layers
+            for (int i = 0; i < nodeCount; i++) {
+                putNode(nodes[i]);
+            }
+        }
+
+        // empty the list of unlayered nodes
+        theNodes.clear();
+
+        // release the created resources
+        dispose();
+        monitor.done();
+    }
+
+    /**
+     * Determines an initial feasible layering and a spanning tree of tight edges, see
+     * {@code NetworkSimplexLayerer.feasibleTree()}.
+     */
+    private void feasibleTree() {
+        initLayering();
+        if (edgeCount > 0) {
+            while (tightTree() < nodeCount) {
+                // some nodes are still not part of the tree
+                int edge = minimalSlack();
+                int slack = layer[edgeTarget[edge]] - layer[edgeSource[edge]] - minSpan[edge];
+                if (treeNode[edgeTarget[edge]]) {
+                    slack = -slack;
+                }
+
+                // update tree
+                for (int i = 0; i < nodeCount; i++) {
+                    if (treeNode[nodes[i]]) {
+                        layer[nodes[i]] += slack;
+                    }
+                }
+            }
+            // update tree-related attributes
+            parentEdge[nodes[0]] = -1;
+            postorderTraversal(nodes[0], 1);
+        }
+    }
+
+    /**
+     * Assigns each node its longest path layer from the sources and from the sinks, and derives
+     * the minimal span of each edge from them.
+     */
+    private void initLayering() {
+        layeringTopologicalNumbering(false);
+        layeringTopologicalNumbering(true);
+
+        // normalize revLayer
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < nodeCount; i++) {
+            if (inDegree[nodes[i]] == 0 && revLayer[nodes[i]] < min) {
+                min = revLayer[nodes[i]];
+            }
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            revLayer[nodes[i]] -= min;
+        }
+
+        // determine minimal length of each edge
+        for (int i = 0; i < edgeCount; i++) {
+            int edge = edges[i];
+            int source = edgeSource[edge];
+            int target = edgeTarget[edge];
+            if (layer[target] <= revLayer[source]) {
+                minSpan[edge] = 1;
+            } else {
+                minSpan[edge] = Math.min(layer[target] - layer[source], Math.min(revLayer[target]
+                        - revLayer[source], layer[target] - revLayer[source]));
+            }
+        }
+    }
+
+    /**
+     * Numbers the nodes topologically, from the sources forward into {@link #layer} or from the
+     * sinks backward into {@link #revLayer}.
+     *
+     * @param reverse
+     *            whether to number from the sinks
+     */
+    private void layeringTopologicalNumbering(final boolean reverse) {
+        int[] incident = reverse ? outDegree.clone() : inDegree.clone();
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (incident[nodes[i]] == 0) {
+                stack[tail++] = nodes[i];
+            }
+        }
+
+        while (head < tail) {
+            int node = stack[head++];
+            for (int i = adjacentStart[node]; i < adjacentStart[node + 1]; i++) {
+                int edge = adjacentEdges[i];
+                if (reverse && edgeTarget[edge] == node) {
+                    int source = edgeSource[edge];
+                    revLayer[source] = Math.min(revLayer[source], revLayer[node] - 1);
+                    if (--incident[source] == 0) {
+                        stack[tail++] = source;
+                    }
+                } else if (!reverse && edgeSource[edge] == node) {
+                    int target = edgeTarget[edge];
+                    layer[target] = Math.max(layer[target], layer[node] + 1);
+                    if (--incident[target] == 0) {
+                        stack[tail++] = target;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Extends the tree by tight edges in a depth first search from the root, see
+     * {@code NetworkSimplexLayerer.tightTreeDFS(LNode)}.
+     *
+     * @return the number of nodes in the tree
+     */
+    private int tightTree() {
+        for (int i = 0; i < edgeCount; i++) {
+            edgeVisited[edges[i]] = false;
+        }
+        int root = nodes[0];
+        int count = 1;
+        int top = 0;
+        treeNode[root] = true;
+        stack[top++] = root;
+        cursor[root] = adjacentStart[root];
+        while (top > 0) {
+            int node = stack[top - 1];
+            if (cursor[node] < adjacentStart[node + 1]) {
+                int edge = adjacentEdges[cursor[node]++];
+                if (!edgeVisited[edge]) {
+                    edgeVisited[edge] = true;
+                    int opposite = opposite(edge, node);
+                    if (treeEdge[edge]
+                            || !treeNode[opposite] && minSpan[edge] == layer[edgeTarget[edge]]
+                                    - layer[edgeSource[edge]]) {
+                        // follow a tree edge or a tight non-tree edge
+                        treeEdge[edge] = true;
+                        treeNode[opposite] = true;
+                        count++;
+                        stack[top++] = opposite;
+                        cursor[opposite] = adjacentStart[opposite];
+                    }
+                }
+            } else {
+                top--;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the first non-tree edge with minimal slack that is incident to the tree
+     */
+    private int minimalSlack() {
+        int minSlack = Integer.MAX_VALUE;
+        int minSlackEdge = -1;
+        for (int i = 0; i < edgeCount; i++) {
+            int edge = edges[i];
+            if (treeNode[edgeSource[edge]] ^ treeNode[edgeTarget[edge]]) {
+                // edge is non-tree edge and incident on the tree
+                int curSlack = layer[edgeTarget[edge]] - layer[edgeSource[edge]] - minSpan[edge];
+                if (curSlack < minSlack) {
+                    minSlack = curSlack;
+                    minSlackEdge = edge;
+                }
+            }
+        }
+        return minSlackEdge;
+    }
+
+    /**
+     * Numbers the subtree of the given node in postorder and determines the cut values of its
+     * tree edges. The cut value of a tree edge is the balance of the subtree below it, as seen
+     * from the edge's direction.
+     *
+     * @param root
+     *            the root of the subtree, whose parent edge is already set
+     * @param firstLim
+     *            the lowest postorder number of the subtree
+     */
+    private void postorderTraversal(final int root, final int firstLim) {
+        int nextLim = firstLim;
+        int top = 0;
+        stack[top++] = root;
+        cursor[root] = adjacentStart[root];
+        low[root] = nextLim;
+        subtreeBalance[root] = outDegree[root] - inDegree[root];
+        while (top > 0) {
+            int node = stack[top - 1];
+            if (cursor[node] < adjacentStart[node + 1]) {
+                int edge = adjacentEdges[cursor[node]++];
+                if (treeEdge[edge] && edge != parentEdge[node]) {
+                    int child = opposite(edge, node);
+                    parentEdge[child] = edge;
+                    low[child] = nextLim;
+                    subtreeBalance[child] = outDegree[child] - inDegree[child];
+                    stack[top++] = child;
+                    cursor[child] = adjacentStart[child];
+                }
+            } else {
+                top--;
+                lim[node] = nextLim;
+                nodeByLim[nextLim++] = node;
+                int edge = parentEdge[node];
+                if (node != root) {
+                    subtreeBalance[opposite(edge, node)] += subtreeBalance[node];
+                    cutvalue[edge] =
+                            edgeSource[edge] == node ? subtreeBalance[node] : -subtreeBalance[node];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the first tree edge with a negative cut value, or -1 if the layering is optimal
+     */
+    private int leaveEdge() {
+        for (int i = 0; i < edgeCount; i++) {
+            int edge = edges[i];
+            if (treeEdge[edge] && cutvalue[edge] < 0) {
+                return edge;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param edge
+     *            a tree edge
+     * @return the end point of the edge that is further from the root
+     */
+    private int lowerNode(final int edge) {
+        return lim[edgeSource[edge]] < lim[edgeTarget[edge]] ? edgeSource[edge]
+                : edgeTarget[edge];
+    }
+
+    /**
+     * Determines the non-tree edge that replaces the given tree edge: the first one with
+     * minimal slack that leads from the target's component of the tree to the source's.
+     *
+     * @param leave
+     *            the tree edge to remove
+     * @return the entering edge, or -1 if there is none
+     */
+    private int enterEdge(final int leave) {
+        int subtree = lowerNode(leave);
+        int subtreeLow = low[subtree];
+        int subtreeLim = lim[subtree];
+        // the subtree below the leaving edge is its head if it contains the edge's target
+        boolean headIsSubtree = subtree == edgeTarget[leave];
+
+        int replace = -1;
+        int repSlack = Integer.MAX_VALUE;
+        for (int i = 0; i < edgeCount; i++) {
+            int edge = edges[i];
+            int sourceLim = lim[edgeSource[edge]];
+            int targetLim = lim[edgeTarget[edge]];
+            boolean sourceInSubtree = subtreeLow <= sourceLim && sourceLim <= subtreeLim;
+            boolean targetInSubtree = subtreeLow <= targetLim && targetLim <= subtreeLim;
+            if (sourceInSubtree == headIsSubtree && targetInSubtree != headIsSubtree) {
+                int slack = layer[edgeTarget[edge]] - layer[edgeSource[edge]] - minSpan[edge];
+                if (slack < repSlack) {
+                    repSlack = slack;
+                    replace = edge;
+                }
+            }
+        }
+        return replace;
+    }
+
+    /**
+     * Replaces the leaving by the entering tree edge. The subtree below the leaving edge is
+     * moved so that the entering edge becomes tight, and the tree attributes are recomputed
+     * below the lowest common ancestor of the entering edge's end points.
+     *
+     * @param leave
+     *            the tree edge to remove
+     * @param enter
+     *            the non-tree edge to add
+     */
+    private void exchange(final int leave, final int enter) {
+        int subtree = lowerNode(leave);
+        int subtreeLow = low[subtree];
+        int subtreeLim = lim[subtree];
+        int enterSourceLim = lim[edgeSource[enter]];
+        boolean sourceInSubtree = subtreeLow <= enterSourceLim && enterSourceLim <= subtreeLim;
+
+        // move the subtree, relative to the rest this is what NetworkSimplexLayerer does
+        int delta = layer[edgeTarget[enter]] - layer[edgeSource[enter]] - minSpan[enter];
+        if (!sourceInSubtree) {
+            delta = -delta;
+        }
+        for (int i = subtreeLow; i <= subtreeLim; i++) {
+            layer[nodeByLim[i]] += delta;
+        }
+
+        // the lowest common ancestor of the entering edge in the old tree
+        int inner = sourceInSubtree ? edgeSource[enter] : edgeTarget[enter];
+        int ancestor = sourceInSubtree ? edgeTarget[enter] : edgeSource[enter];
+        while (low[ancestor] > lim[inner] || lim[inner] > lim[ancestor]) {
+            ancestor = opposite(parentEdge[ancestor], ancestor);
+        }
+
+        // update tree
+        treeEdge[leave] = false;
+        treeEdge[enter] = true;
+        postorderTraversal(ancestor, low[ancestor]);
+    }
+
+    /**
+     * Shifts the layers so that the lowest one is zero.
+     *
+     * @return the number of nodes in each layer, including the already layered components
+     */
+    private int[] normalize() {
+        // determine lowest assigned layer and layer count
+        int highest = Integer.MIN_VALUE;
+        int lowest = Integer.MAX_VALUE;
+        for (int i = 0; i < nodeCount; i++) {
+            int node = nodes[i];
+            if (inDegree[node] == 0 && layer[node] < lowest) {
+                lowest = layer[node];
+            }
+            if (outDegree[node] == 0 && layer[node] > highest) {
+                highest = layer[node];
+            }
+        }
+        // normalize and determine layer filling
+        int layerID = 0;
+        int[] filling = new int[highest - lowest + 1];
+        for (int i = 0; i < nodeCount; i++) {
+            layer[nodes[i]] -= lowest;
+            filling[layer[nodes[i]]]++;
+        }
+        // also consider nodes of already layered connected components
+        for (Layer eLayer : layeredGraph) {
+            filling[layerID++] += eLayer.getNodes().size();
+            if (filling.length == layerID) {
+                break;
+            }
+        }
+        return filling;
+    }
+
+    /**
+     * Moves nodes with as many incoming as outgoing edges into the least filled layer within
+     * their span, see {@code NetworkSimplexLayerer.balance(int[])}.
+     *
+     * @param filling
+     *            the number of nodes in each layer
+     */
+    private void balance(final int[] filling) {
+        for (int i = 0; i < nodeCount; i++) {
+            int node = nodes[i];
+            if (inDegree[node] == outDegree[node]) {
+                // determine the possible layers, with the same quirk as the original: incoming
+                // edges that are not shorter than the shortest incoming one count as outgoing
+                int minSpanIn = Integer.MAX_VALUE;
+                int minSpanOut = Integer.MAX_VALUE;
+                for (int j = adjacentStart[node]; j < adjacentStart[node + 1]; j++) {
+                    int edge = adjacentEdges[j];
+                    int currentSpan = layer[edgeTarget[edge]] - layer[edgeSource[edge]];
+                    if (edgeTarget[edge] == node && currentSpan < minSpanIn) {
+                        minSpanIn = currentSpan;
+                    } else if (currentSpan < minSpanOut) {
+                        minSpanOut = currentSpan;
+                    }
+                }
+                if (minSpanIn == Integer.MAX_VALUE) {
+                    minSpanIn = -1;
+                }
+                if (minSpanOut == Integer.MAX_VALUE) {
+                    minSpanOut = -1;
+                }
+
+                int newLayer = layer[node];
+                for (int l = layer[node] - minSpanIn + 1; l < layer[node] + minSpanOut; l++) {
+                    if (filling[l] < filling[newLayer]) {
+                        newLayer = l;
+                    }
+                }
+                // assign new layer
+                if (filling[newLayer] < filling[layer[node]]) {
+                    filling[layer[node]]--;
+                    filling[newLayer]++;
+                    layer[node] = newLayer;
+                }
+            }
+        }
+    }
+
+    private void putNode(final int node) {
+        List<Layer> layers = layeredGraph.getLayers();
+        // add additional layers to match required amount
+        while (layers.size() <= layer[node]) {
+            layers.add(layers.size(), new Layer(layeredGraph));
+        }
+        graphNodes[node].setLayer(layers.get(layer[node]));
+    }
+
+    private int opposite(final int edge, final int node) {
+        return edgeSource[edge] == node ? edgeTarget[edge] : edgeSource[edge];
+    }
+
+}
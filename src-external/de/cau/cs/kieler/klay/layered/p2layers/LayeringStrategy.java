@@ -30,6 +30,11 @@ public enum LayeringStrategy implements ILayoutPhaseFactory {
      * All nodes will be layered with minimal edge length by using the network-simplex-algorithm.
      */
     NETWORK_SIMPLEX,
+    /**
+     * The same layering as {@link #NETWORK_SIMPLEX}, computed on primitive arrays, which is
+     * much faster for large graphs.
+     */
+    ARRAY_NETWORK_SIMPLEX,
     /**
      * All nodes will be layered according to the longest path to any sink.
      */
@@ -50,6 +55,9 @@ public enum LayeringStrategy implements ILayoutPhaseFactory {
         case NETWORK_SIMPLEX:
             return new NetworkSimplexLayerer();
             
+        case ARRAY_NETWORK_SIMPLEX:
+            return new ArrayNetworkSimplexLayerer();
+            
         case LONGEST_PATH:
             return new LongestPathLayerer();
             
@@ -60,20 +60,20 @@ import de.cau.cs.kieler.klay.layered.properties.WideNodesStrategy;
 public final class NetworkSimplexLayerer implements ILayoutPhase {
 
     /** intermediate processing configuration. */
-    private static final IntermediateProcessingConfiguration BASELINE_PROCESSING_CONFIGURATION =
+    static final IntermediateProcessingConfiguration BASELINE_PROCESSING_CONFIGURATION =
         IntermediateProcessingConfiguration.createEmpty()
             .addBeforePhase1(IntermediateProcessorStrategy.EDGE_AND_LAYER_CONSTRAINT_EDGE_REVERSER)
             .addBeforePhase3(IntermediateProcessorStrategy.LAYER_CONSTRAINT_PROCESSOR);
 
     /** additional processor dependencies for handling big nodes. */
-    private static final IntermediateProcessingConfiguration BIG_NODES_PROCESSING_ADDITIONS_AGGRESSIVE =
+    static final IntermediateProcessingConfiguration BIG_NODES_PROCESSING_ADDITIONS_AGGRESSIVE =
             IntermediateProcessingConfiguration.createEmpty()
                     .addBeforePhase2(IntermediateProcessorStrategy.BIG_NODES_PREPROCESSOR)
                     .addBeforePhase3(IntermediateProcessorStrategy.BIG_NODES_INTERMEDIATEPROCESSOR)
                     .addAfterPhase5(IntermediateProcessorStrategy.BIG_NODES_POSTPROCESSOR);
 
     /** additional processor dependencies for handling big nodes after cross min. */
-    private static final IntermediateProcessingConfiguration BIG_NODES_PROCESSING_ADDITIONS_CAREFUL =
+    static final IntermediateProcessingConfiguration BIG_NODES_PROCESSING_ADDITIONS_CAREFUL =
             IntermediateProcessingConfiguration.createEmpty()
                     .addBeforePhase4(IntermediateProcessorStrategy.BIG_NODES_SPLITTER)
                     .addAfterPhase5(IntermediateProcessorStrategy.BIG_NODES_POSTPROCESSOR);
@@ -41,6 +41,8 @@ public final class BarycenterHeuristic implements ICrossingMinimizationHeuristic
     private final Random random;
     /** the constraint resolver for ordering constraints. */
     private final IConstraintResolver constraintResolver;
+    /** the single-node node groups indexed by node id. */
+    private final NodeGroup[] nodeGroups;
 
     /**
      * Constructs a Barycenter heuristic for crossing minimization between two layers.
@@ -51,12 +53,15 @@ public final class BarycenterHeuristic implements ICrossingMinimizationHeuristic
      *            the random number generator
      * @param portRanks
      *            the array of port ranks
+     * @param nodeGroups
+     *            the single-node node groups indexed by node id
      */
     public BarycenterHeuristic(final IConstraintResolver constraintResolver,
-            final Random graphRandom, final float[] portRanks) {
+            final Random graphRandom, final float[] portRanks, final NodeGroup[] nodeGroups) {
         this.constraintResolver = constraintResolver;
         random = graphRandom;
         this.portRanks = portRanks;
+        this.nodeGroups = nodeGroups;
     }
 
     /**
@@ -228,8 +233,7 @@ public final class BarycenterHeuristic implements ICrossingMinimizationHeuristic
                     // Self-loops are ignored
                     if (fixedNode != node) {
                         // Find the fixed node's node group and calculate its barycenter
-                        NodeGroup fixedNodeGroup =
-                                fixedNode.getProperty(InternalProperties.NODE_GROUP);
+                        NodeGroup fixedNodeGroup = nodeGroups[fixedNode.id];
                         calculateBarycenter(fixedNodeGroup, forward);
 
                         // Update this node group's values
@@ -251,8 +255,7 @@ public final class BarycenterHeuristic implements ICrossingMinimizationHeuristic
                 // Make sure the associate is in the same layer as this node
                 if (node.getLayer() == associate.getLayer()) {
                     // Find the associate's node group and calculate its barycenter
-                    NodeGroup associateNodeGroup =
-                            associate.getProperty(InternalProperties.NODE_GROUP);
+                    NodeGroup associateNodeGroup = nodeGroups[associate.id];
                     calculateBarycenter(associateNodeGroup, forward);
 
                     // Update this vertex's values
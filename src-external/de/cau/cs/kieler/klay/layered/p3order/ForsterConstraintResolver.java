@@ -43,15 +43,21 @@ public final class ForsterConstraintResolver implements IConstraintResolver {
 
     /** the layout units for handling dummy nodes for north / south ports. */
     private final Multimap<LNode, LNode> layoutUnits;
+    /** the single-node node groups indexed by node id. */
+    private final NodeGroup[] singleNodeGroups;
     
     /**
      * Constructs a Forster constraint resolver.
      * 
      * @param layoutUnits
      *            a map associating layout units with their respective members
+     * @param singleNodeGroups
+     *            the single-node node groups indexed by node id
      */
-    public ForsterConstraintResolver(final Multimap<LNode, LNode> layoutUnits) {
+    public ForsterConstraintResolver(final Multimap<LNode, LNode> layoutUnits,
+            final NodeGroup[] singleNodeGroups) {
         this.layoutUnits = layoutUnits;
+        this.singleNodeGroups = singleNodeGroups;
     }
     
     /**
@@ -93,7 +99,7 @@ public final class ForsterConstraintResolver implements IConstraintResolver {
             // Add the constraints given by the vertex's node
             for (LNode successor : node.getProperty(
                     InternalProperties.IN_LAYER_SUCCESSOR_CONSTRAINTS)) {
-                NodeGroup successorNodeGroup = successor.getProperty(InternalProperties.NODE_GROUP);
+                NodeGroup successorNodeGroup = singleNodeGroups[successor.id];
                 nodeGroup.getOutgoingConstraints().add(successorNodeGroup);
                 successorNodeGroup.incomingConstraintsCount++;
             }
@@ -105,12 +111,11 @@ public final class ForsterConstraintResolver implements IConstraintResolver {
                 // node's layout unit's vertices
                 if (lastNonDummyNode != null) {
                     for (LNode lastUnitNode : layoutUnits.get(lastNonDummyNode)) {
-                        NodeGroup lastUnitNodeGroup = lastUnitNode.getProperty(
-                                InternalProperties.NODE_GROUP);
+                        NodeGroup lastUnitNodeGroup = singleNodeGroups[lastUnitNode.id];
 
                         for (LNode currentUnitNode : layoutUnits.get(node)) {
-                            NodeGroup currentUnitNodeGroup = currentUnitNode.getProperty(
-                                    InternalProperties.NODE_GROUP);
+                            NodeGroup currentUnitNodeGroup =
+                                    singleNodeGroups[currentUnitNode.id];
                             lastUnitNodeGroup.getOutgoingConstraints().add(currentUnitNodeGroup);
                             currentUnitNodeGroup.incomingConstraintsCount++;
                         }
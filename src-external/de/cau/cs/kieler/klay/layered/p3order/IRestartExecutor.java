@@ -0,0 +1,35 @@
+/*
+ * KIELER - Kiel Integrated Environment for Layout Eclipse RichClient
+ *
+ * http://www.informatik.uni-kiel.de/rtsys/kieler/
+ *
+ * Copyright 2015 by
+ * + Christian-Albrechts-University of Kiel
+ *   + Department of Computer Science
+ *     + Real-Time and Embedded Systems Group
+ *
+ * This code is provided under the terms of the Eclipse Public License (EPL).
+ * See the file epl-v10.html for the license text.
+ */
+package de.cau.cs.kieler.klay.layered.p3order;
+
+import java.util.List;
+
+/**
+ * Executes the independent restarts of the layer sweep crossing minimizer. Implementations may run
+ * them in parallel, since every restart works on its own node groups, port ranks and crossings
+ * counters and only reads the layered graph.
+ *
+ * @see LayerSweepCrossingMinimizer#setRestartExecutor(IRestartExecutor)
+ */
+public interface IRestartExecutor {
+
+    /**
+     * Runs all given restarts and returns after the last one has finished.
+     *
+     * @param restarts
+     *            the restarts to run
+     */
+    void executeAll(final List<Runnable> restarts);
+
+}
@@ -94,68 +94,88 @@ public final class LayerSweepCrossingMinimizer implements ILayoutPhase {
     }
     
     /**
-     * Array of port ranks used for sorting nodes and ports.
+     * Minimum number of nodes for which the runs are executed as parallel restarts.
      */
-    private float[] portRanks;
+    private static final int MIN_PARALLEL_NODE_COUNT = 32;
     /**
-     * Complete node order of the best layer sweep.
+     * Executor for independent restarts, or {@code null} to perform all runs sequentially.
      */
-    private NodeGroup[][] bestSweep;
+    private static IRestartExecutor restartExecutor;
+
+    /**
+     * Sets the executor used to perform the requested runs as independent restarts. Each restart
+     * gets its own random seed, drawn from the graph's randomizer, and the result with the fewest
+     * crossings is kept, preferring earlier restarts on ties, so the layout stays deterministic.
+     * 
+     * @param executor the executor, or {@code null} to perform all runs sequentially
+     */
+    public static void setRestartExecutor(final IRestartExecutor executor) {
+        restartExecutor = executor;
+    }
+
     /**
-     * Complete node order of the current layer sweep.
+     * Returns the executor used for independent restarts.
+     * 
+     * @return the executor, or {@code null} if all runs are performed sequentially
+     */
+    public static IRestartExecutor getRestartExecutor() {
+        return restartExecutor;
+    }
+
+    /**
+     * Node order of the layered graph before crossing minimization.
      */
-    private NodeGroup[][] curSweep;
+    private LNode[][] initialOrder;
     /**
-     * Complete node order of the previous layer sweep.
+     * Number of nodes in the layered graph.
      */
-    private NodeGroup[][] prevSweep;
+    private int nodeCount;
     /**
-     * Crossings counter for normal edges.
+     * Number of ports in the layered graph.
      */
-    private BarthJuengerMutzelCrossingsCounter normalCrossingsCounter;
+    private int portCount;
     /**
-     * Crossings counter for hyperedges.
+     * Number of in-layer edges per layer.
      */
-    private HyperedgeCrossingsCounter hyperedgeCrossingsCounter;
+    private int[] inLayerEdgeCount;
     /**
-     * Both of the two previous crossing counters use the same 
-     * code to count in-layer crossings.
+     * Whether the layers contain north / south port dummies or not.
      */
-    private AbstractCrossingsCounter inlayerCrossingsCounter;
+    private boolean[] hasNorthSouthPorts;
     /**
      * Whether the layers contain hyperedges or not.
      */
     private boolean[] hasHyperedgesEast;
     private boolean[] hasHyperedgesWest;
+    /**
+     * Whether a crossings counter for normal edges or for hyperedges is needed.
+     */
+    private boolean needsNormalCrossingsCounter;
+    private boolean needsHyperedgeCrossingsCounter;
     /**
      * Layout units represented by a single node.
      */
     private final Multimap<LNode, LNode> layoutUnits = HashMultimap.create();
     
     /**
-     * Initialize all data for the layer sweep crossing minimizer.
+     * Initialize all data shared by the runs of the layer sweep crossing minimizer.
      * 
      * @param layeredGraph a layered graph
      */
     private void initialize(final LGraph layeredGraph) {
         int layerCount = layeredGraph.getLayers().size();
 
-        // Remember the best, current and previous sweep; they basically save the node oder
-        // per layer for the different sweeps of the algorithm
-        bestSweep = new NodeGroup[layerCount][];
-        curSweep = new NodeGroup[layerCount][];
-        prevSweep = new NodeGroup[layerCount][];
-
-        int[] inLayerEdgeCount = new int[layerCount];
-        boolean[] hasNorthSouthPorts = new boolean[layerCount];
+        initialOrder = new LNode[layerCount][];
+        inLayerEdgeCount = new int[layerCount];
+        hasNorthSouthPorts = new boolean[layerCount];
         hasHyperedgesEast = new boolean[layerCount];
         hasHyperedgesWest = new boolean[layerCount];
 
-        int nodeCount = 0;
-        int portCount = 0;
+        nodeCount = 0;
+        portCount = 0;
 
-        // Iterate through the layers, initializing port and node IDs, collecting
-        // the nodes into the current sweep and building the layout unit map
+        // Iterate through the layers, initializing port and node IDs, remembering
+        // the initial node order and building the layout unit map
         ListIterator<Layer> layerIter = layeredGraph.getLayers().listIterator();
         while (layerIter.hasNext()) {
             Layer layer = layerIter.next();
@@ -165,10 +185,7 @@ public final class LayerSweepCrossingMinimizer implements ILayoutPhase {
             // Empty layers are not allowed!
             assert layerNodeCount > 0;
 
-            // Initialize this layer's node arrays in the different sweeps
-            bestSweep[layerIndex] = new NodeGroup[layerNodeCount];
-            prevSweep[layerIndex] = new NodeGroup[layerNodeCount];
-            curSweep[layerIndex] = new NodeGroup[layerNodeCount];
+            initialOrder[layerIndex] = new LNode[layerNodeCount];
             inLayerEdgeCount[layerIndex] = 0;
             hasNorthSouthPorts[layerIndex] = false;
 
@@ -176,15 +193,16 @@ public final class LayerSweepCrossingMinimizer implements ILayoutPhase {
             while (nodeIter.hasNext()) {
                 LNode node = nodeIter.next();
 
-                // Create node group and register layout unit
-                NodeGroup nodeGroup = new NodeGroup(node);
-                curSweep[layerIndex][nodeIter.previousIndex()] = nodeGroup;
+                // Remember the node and register its layout unit
+                initialOrder[layerIndex][nodeIter.previousIndex()] = node;
                 node.id = nodeCount++;
-                node.setProperty(InternalProperties.NODE_GROUP, nodeGroup);
                 LNode layoutUnit = node.getProperty(InternalProperties.IN_LAYER_LAYOUT_UNIT);
                 if (layoutUnit != null) {
                     layoutUnits.put(layoutUnit, node);
                 }
+                // Reading the constraints stores their default value, so do it before the runs
+                // possibly read them concurrently
+                node.getProperty(InternalProperties.IN_LAYER_SUCCESSOR_CONSTRAINTS);
 
                 // Count in-layer edges
                 for (LPort port : node.getPorts()) {
@@ -227,35 +245,17 @@ public final class LayerSweepCrossingMinimizer implements ILayoutPhase {
             allLayerCombinationsHaveHyperedges &= b;
             noLayerCombinationHasHyperedges &= !b;
         }
-        
-        // Initialize the port positions and ranks arrays
-        portRanks = new float[portCount];
-        int[] portPos = new int[portCount];
-        
-        // Create the crossings counter modules
-        if (!allLayerCombinationsHaveHyperedges) {
-            normalCrossingsCounter = new BarthJuengerMutzelCrossingsCounter(inLayerEdgeCount,
-                    hasNorthSouthPorts, portPos);
-            inlayerCrossingsCounter = normalCrossingsCounter;
-        }
-        
-        if (!noLayerCombinationHasHyperedges) {
-            hyperedgeCrossingsCounter = new HyperedgeCrossingsCounter(inLayerEdgeCount,
-                    hasNorthSouthPorts, portPos);
-            inlayerCrossingsCounter = hyperedgeCrossingsCounter;
-        }
+        needsNormalCrossingsCounter = !allLayerCombinationsHaveHyperedges;
+        needsHyperedgeCrossingsCounter = !noLayerCombinationHasHyperedges;
     }
 
     /**
      * Releases all created data so the GC can reap them.
      */
     private void dispose() {
-        portRanks = null;
-        bestSweep = null;
-        curSweep = null;
-        prevSweep = null;
-        normalCrossingsCounter = null;
-        hyperedgeCrossingsCounter = null;
+        initialOrder = null;
+        inLayerEdgeCount = null;
+        hasNorthSouthPorts = null;
         hasHyperedgesEast = null;
         hasHyperedgesWest = null;
         layoutUnits.clear();
@@ -279,36 +279,204 @@ public final class LayerSweepCrossingMinimizer implements ILayoutPhase {
         
         // Initialize the algorithm
         initialize(layeredGraph);
-        int bestSweepCrossings = Integer.MAX_VALUE;
 
         // Determine the requested number of runs
         int runCount = layeredGraph.getProperty(Properties.THOROUGHNESS);
 
-        // Initialize the compound graph layer crossing minimizer
-        IConstraintResolver constraintResolver = new ForsterConstraintResolver(layoutUnits);
-        ICrossingMinimizationHeuristic crossminHeuristic = new BarycenterHeuristic(constraintResolver,
-                random, portRanks);
+        NodeGroup[][] bestSweep;
+        IRestartExecutor executor = restartExecutor;
+        if (executor != null && runCount > 1 && nodeCount >= MIN_PARALLEL_NODE_COUNT) {
+            bestSweep = performRestarts(executor, random, runCount);
+        } else {
+            // All runs continue on the same node order, as long as crossings remain
+            SweepRun sweepRun = new SweepRun(random);
+            for (int run = 0; run < runCount && sweepRun.bestSweepCrossings > 0; run++) {
+                sweepRun.run();
+            }
+            bestSweep = sweepRun.bestSweep;
+        }
+
+        // Apply the ordering to the original layered graph
+        ListIterator<Layer> layerIter = layeredGraph.getLayers().listIterator();
+        while (layerIter.hasNext()) {
+            Layer layer = layerIter.next();
+            NodeGroup[] nodes = bestSweep[layerIter.previousIndex()];
+            ListIterator<LNode> nodeIter = layer.getNodes().listIterator();
+            while (nodeIter.hasNext()) {
+                nodeIter.next();
+                nodeIter.set(nodes[nodeIter.previousIndex()].getNode());
+            }
+        }
+        
+        // In the old days, the ports were distributed at this point in time. This has been moved to a
+        // separate processor, the PortDistributionProcessor.
+
+        dispose();
+        monitor.done();
+    }
+
+    /**
+     * Performs the requested number of runs as independent restarts on the given executor.
+     * 
+     * @param executor the executor for the restarts
+     * @param random the graph's randomizer, used to seed the restarts
+     * @param runCount the number of restarts
+     * @return the node order with the fewest crossings
+     */
+    private NodeGroup[][] performRestarts(final IRestartExecutor executor, final Random random,
+            final int runCount) {
+        
+        // The seeds are drawn up front, so the result does not depend on the execution order
+        final SweepRun[] sweepRuns = new SweepRun[runCount];
+        List<Runnable> restarts = Lists.newArrayListWithCapacity(runCount);
+        for (int run = 0; run < runCount; run++) {
+            final long seed = random.nextLong();
+            final int index = run;
+            restarts.add(new Runnable() {
+                public void run() {
+                    SweepRun sweepRun = new SweepRun(new Random(seed));
+                    sweepRun.run();
+                    sweepRuns[index] = sweepRun;
+                }
+            });
+        }
+        executor.executeAll(restarts);
         
-        // Create port distributors
-        NodeRelativePortDistributor nodeRelativePortDistributor
-                = new NodeRelativePortDistributor(portRanks);
-        LayerTotalPortDistributor layerTotalPortDistributor
-                = new LayerTotalPortDistributor(portRanks);
-        AbstractPortDistributor portDistributor;
-
-        // Perform the requested number of runs, each consisting of several sweeps
-        for (int run = 0; run < runCount && bestSweepCrossings > 0; run++) {
+        SweepRun bestRun = sweepRuns[0];
+        for (int run = 1; run < runCount; run++) {
+            if (sweepRuns[run].bestSweepCrossings < bestRun.bestSweepCrossings) {
+                bestRun = sweepRuns[run];
+            }
+        }
+        return bestRun.bestSweep;
+    }
+
+    /**
+     * The state of one or more layer sweep runs: node groups, port ranks and crossings counters.
+     * Apart from reading the layered graph, a run only touches its own state, so independent runs
+     * may be executed in parallel.
+     */
+    private final class SweepRun {
+        /**
+         * Randomizer of this run.
+         */
+        private final Random random;
+        /**
+         * Array of port ranks used for sorting nodes and ports.
+         */
+        private final float[] portRanks;
+        /**
+         * Single-node node groups indexed by node id.
+         */
+        private final NodeGroup[] nodeGroups;
+        /**
+         * Complete node order of the best layer sweep.
+         */
+        private final NodeGroup[][] bestSweep;
+        /**
+         * Complete node order of the current layer sweep.
+         */
+        private final NodeGroup[][] curSweep;
+        /**
+         * Complete node order of the previous layer sweep.
+         */
+        private final NodeGroup[][] prevSweep;
+        /**
+         * Crossings of the best layer sweep.
+         */
+        private int bestSweepCrossings = Integer.MAX_VALUE;
+        /**
+         * Crossings counter for normal edges.
+         */
+        private BarthJuengerMutzelCrossingsCounter normalCrossingsCounter;
+        /**
+         * Crossings counter for hyperedges.
+         */
+        private HyperedgeCrossingsCounter hyperedgeCrossingsCounter;
+        /**
+         * Both of the two previous crossing counters use the same 
+         * code to count in-layer crossings.
+         */
+        private AbstractCrossingsCounter inlayerCrossingsCounter;
+        /**
+         * The compound graph layer crossing minimizer.
+         */
+        private final ICrossingMinimizationHeuristic crossminHeuristic;
+        /**
+         * Port distributors.
+         */
+        private final NodeRelativePortDistributor nodeRelativePortDistributor;
+        private final LayerTotalPortDistributor layerTotalPortDistributor;
+
+        /**
+         * Creates the node groups, port ranks and crossings counters of a run.
+         * 
+         * @param random the randomizer of this run
+         */
+        SweepRun(final Random random) {
+            this.random = random;
+            int layerCount = initialOrder.length;
+
+            // Remember the best, current and previous sweep; they basically save the node oder
+            // per layer for the different sweeps of the algorithm
+            bestSweep = new NodeGroup[layerCount][];
+            curSweep = new NodeGroup[layerCount][];
+            prevSweep = new NodeGroup[layerCount][];
+            nodeGroups = new NodeGroup[nodeCount];
+            for (int layerIndex = 0; layerIndex < layerCount; layerIndex++) {
+                LNode[] layer = initialOrder[layerIndex];
+                bestSweep[layerIndex] = new NodeGroup[layer.length];
+                prevSweep[layerIndex] = new NodeGroup[layer.length];
+                curSweep[layerIndex] = new NodeGroup[layer.length];
+                for (int i = 0; i < layer.length; i++) {
+                    NodeGroup nodeGroup = new NodeGroup(layer[i]);
+                    curSweep[layerIndex][i] = nodeGroup;
+                    nodeGroups[layer[i].id] = nodeGroup;
+                }
+            }
+
+            // Initialize the port positions and ranks arrays
+            portRanks = new float[portCount];
+            int[] portPos = new int[portCount];
+
+            // Create the crossings counter modules
+            if (needsNormalCrossingsCounter) {
+                normalCrossingsCounter = new BarthJuengerMutzelCrossingsCounter(inLayerEdgeCount,
+                        hasNorthSouthPorts, portPos);
+                inlayerCrossingsCounter = normalCrossingsCounter;
+            }
+            if (needsHyperedgeCrossingsCounter) {
+                hyperedgeCrossingsCounter = new HyperedgeCrossingsCounter(inLayerEdgeCount,
+                        hasNorthSouthPorts, portPos);
+                inlayerCrossingsCounter = hyperedgeCrossingsCounter;
+            }
+
+            IConstraintResolver constraintResolver =
+                    new ForsterConstraintResolver(layoutUnits, nodeGroups);
+            crossminHeuristic = new BarycenterHeuristic(constraintResolver, random, portRanks,
+                    nodeGroups);
+            nodeRelativePortDistributor = new NodeRelativePortDistributor(portRanks);
+            layerTotalPortDistributor = new LayerTotalPortDistributor(portRanks);
+        }
+
+        /**
+         * Performs one run consisting of several sweeps, updating the best sweep if the run
+         * improved it.
+         */
+        void run() {
+            int layerCount = curSweep.length;
+
             // Each run is randomly determined to be a forward or a backward run
             boolean forward = random.nextBoolean();
             int fixedLayerIndex = forward ? 0 : layerCount - 1;
             NodeGroup[] fixedLayer = curSweep[fixedLayerIndex];
             
             // Randomly choose a port distribution method for this run
-            portDistributor = random.nextBoolean()
+            AbstractPortDistributor portDistributor = random.nextBoolean()
                     ? nodeRelativePortDistributor : layerTotalPortDistributor;
 
             // The fixed layer is randomized
-            minimizeCrossings(fixedLayer, crossminHeuristic, forward, false, true);
+            minimizeCrossings(fixedLayer, forward, false, true);
 
             // Reset last and current run crossing counters
             int curSweepCrossings = Integer.MAX_VALUE;
@@ -324,7 +492,8 @@ public final class LayerSweepCrossingMinimizer implements ILayoutPhase {
                 curSweepCrossings = 0;
                 
                 // count in-layer crossings
-                curSweepCrossings += inlayerCrossingsCounter.countCrossings(fixedLayer, fixedLayerIndex);
+                curSweepCrossings +=
+                        inlayerCrossingsCounter.countCrossings(fixedLayer, fixedLayerIndex);
                 
                 if (forward) {
                     // Perform a forward sweep
@@ -332,7 +501,7 @@ public final class LayerSweepCrossingMinimizer implements ILayoutPhase {
                         NodeGroup[] freeLayer = curSweep[layerIndex];
 
                         portDistributor.calculatePortRanks(fixedLayer, PortType.OUTPUT);
-                        minimizeCrossings(freeLayer, crossminHeuristic, true, !firstSweep, false);
+                        minimizeCrossings(freeLayer, true, !firstSweep, false);
 
                         // in-layer crossings
                         curSweepCrossings +=
@@ -345,7 +514,6 @@ public final class LayerSweepCrossingMinimizer implements ILayoutPhase {
                             curSweepCrossings += 
                                     normalCrossingsCounter.countCrossings(fixedLayer, freeLayer);
                         }
-                        
 
                         fixedLayer = freeLayer;
                     }
@@ -356,7 +524,7 @@ public final class LayerSweepCrossingMinimizer implements ILayoutPhase {
                         NodeGroup[] freeLayer = curSweep[layerIndex];
 
                         portDistributor.calculatePortRanks(fixedLayer, PortType.INPUT);
-                        minimizeCrossings(freeLayer, crossminHeuristic, false, !firstSweep, false);
+                        minimizeCrossings(freeLayer, false, !firstSweep, false);
 
                         // in-layer crossings
                         curSweepCrossings +=
@@ -392,53 +560,33 @@ public final class LayerSweepCrossingMinimizer implements ILayoutPhase {
                 }
             }
         }
-
-        // Apply the ordering to the original layered graph
-        ListIterator<Layer> layerIter = layeredGraph.getLayers().listIterator();
-        while (layerIter.hasNext()) {
-            Layer layer = layerIter.next();
-            NodeGroup[] nodes = bestSweep[layerIter.previousIndex()];
-            ListIterator<LNode> nodeIter = layer.getNodes().listIterator();
-            while (nodeIter.hasNext()) {
-                nodeIter.next();
-                nodeIter.set(nodes[nodeIter.previousIndex()].getNode());
-            }
-        }
-        
-        // In the old days, the ports were distributed at this point in time. This has been moved to a
-        // separate processor, the PortDistributionProcessor.
-
-        dispose();
-        monitor.done();
-    }
     
-    /**
-     * Minimize crossings between the given layer and its preceding or subsequent layer.
-     * 
-     * @param layer the layer that is to be reordered
-     * @param heuristic the crossing minimization heuristic
-     * @param forward if true the preceding layer is taken as fixed layer, otherwise the subsequent
-     *          layer is taken
-     * @param preOrdered whether the nodes of the given layer are already ordered
-     * @param randomize whether to randomize all node positions
-     */
-    private void minimizeCrossings(final NodeGroup[] layer,
-            final ICrossingMinimizationHeuristic heuristic,
-            final boolean forward, final boolean preOrdered, final boolean randomize) {
-        
-        List<NodeGroup> nodeGroups = Lists.newArrayList();
-        for (NodeGroup ng : layer) {
-            nodeGroups.add(ng);
-        }
-        
-        // minimize crossings in the given layer
-        heuristic.minimizeCrossings(nodeGroups, preOrdered, randomize, forward);
-        
-        // apply the new ordering
-        int index = 0;
-        for (NodeGroup nodeGroup : nodeGroups) {
-            for (LNode node : nodeGroup.getNodes()) {
-                layer[index++] = node.getProperty(InternalProperties.NODE_GROUP);
+        /**
+         * Minimize crossings between the given layer and its preceding or subsequent layer.
+         * 
+         * @param layer the layer that is to be reordered
+         * @param forward if true the preceding layer is taken as fixed layer, otherwise the
+         *          subsequent layer is taken
+         * @param preOrdered whether the nodes of the given layer are already ordered
+         * @param randomize whether to randomize all node positions
+         */
+        private void minimizeCrossings(final NodeGroup[] layer, final boolean forward,
+                final boolean preOrdered, final boolean randomize) {
+            
+            List<NodeGroup> layerGroups = Lists.newArrayList();
+            for (NodeGroup ng : layer) {
+                layerGroups.add(ng);
+            }
+            
+            // minimize crossings in the given layer
+            crossminHeuristic.minimizeCrossings(layerGroups, preOrdered, randomize, forward);
+            
+            // apply the new ordering
+            int index = 0;
+            for (NodeGroup nodeGroup : layerGroups) {
+                for (LNode node : nodeGroup.getNodes()) {
+                    layer[index++] = nodeGroups[node.id];
+                }
             }
         }
     }
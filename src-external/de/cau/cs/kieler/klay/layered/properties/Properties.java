@@ -140,6 +140,13 @@ public final class Properties {
     public static final IProperty<Integer> THOROUGHNESS = new Property<Integer>(
             "de.cau.cs.kieler.klay.layered.thoroughness", 7, 1);
 
+    /**
+     * Time in milliseconds after which the array network simplex layerer stops improving the
+     * layering, or 0 for no limit.
+     */
+    public static final IProperty<Integer> NETWORK_SIMPLEX_TIME_LIMIT = new Property<Integer>(
+            "de.cau.cs.kieler.klay.layered.networkSimplexTimeLimit", 0, 0);
+
     /**
      * Property to set constraints on the node layering.
      */
@@ -4,14 +4,12 @@ import java.io.*;
 import java.util.*;
 import java.util.Map.Entry;
 
-import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 
 import explorviz.server.login.LoginServiceImpl;
 import explorviz.server.main.Configuration;
 import explorviz.server.main.FileSystemHelper;
-import explorviz.server.repository.LandscapePreparer;
-import explorviz.server.repository.RepositoryStorage;
+import explorviz.server.repository.*;
 import explorviz.shared.model.Landscape;
 
 public class LandscapeReplayer {
@@ -20,10 +18,14 @@ public class LandscapeReplayer {
 
 	private static final Map<String, LandscapeReplayer> replayers = new HashMap<String, LandscapeReplayer>();
 
+	private static final long MODIFICATION_GRANULARITY_IN_MILLIS = 2000;
+	private static SortedMap<Long, Long> replayIndex;
+	private static long replayIndexLastModified;
+	private static long replayIndexScanTime;
+
 	private long maxTimestamp;
 	private long lastTimestamp = 0;
 	private long lastActivity = 0;
-	private final Kryo kryo;
 
 	/**
 	 * Attention: Instance only single threaded!
@@ -40,8 +42,6 @@ public class LandscapeReplayer {
 
 	private LandscapeReplayer() {
 		setMaxTimestamp(0);
-
-		kryo = RepositoryStorage.createKryoInstance();
 	}
 
 	public void setMaxTimestamp(final long maxTimestamp) {
@@ -90,6 +90,28 @@ public class LandscapeReplayer {
 	}
 
 	private SortedMap<Long, Long> listAllLandscapes() {
+		return getReplayIndex();
+	}
+
+	/**
+	 * The replay folder is only scanned again if it was modified since the
+	 * last scan. Modifications within the timestamp granularity of the file
+	 * system right before a scan also cause the next scan.
+	 */
+	private static synchronized SortedMap<Long, Long> getReplayIndex() {
+		final long lastModified = new File(FULL_FOLDER).lastModified();
+
+		if ((replayIndex == null) || (lastModified != replayIndexLastModified)
+				|| ((replayIndexScanTime - lastModified) < MODIFICATION_GRANULARITY_IN_MILLIS)) {
+			replayIndexScanTime = java.lang.System.currentTimeMillis();
+			replayIndexLastModified = lastModified;
+			replayIndex = Collections.unmodifiableSortedMap(scanReplayFolder());
+		}
+
+		return replayIndex;
+	}
+
+	private static SortedMap<Long, Long> scanReplayFolder() {
 		final SortedMap<Long, Long> result = new TreeMap<Long, Long>();
 
 		final File[] fileList = new File(FULL_FOLDER).listFiles();
@@ -109,21 +131,40 @@ public class LandscapeReplayer {
 	}
 
 	private Landscape getLandscape(final long timestamp, final long activity) {
-		Input input = null;
-		Landscape landscape = null;
 		try {
-			input = new Input(new FileInputStream(FULL_FOLDER + File.separator + timestamp + "-"
-					+ activity + Configuration.MODEL_EXTENSION));
-			landscape = kryo.readObject(input, Landscape.class);
+			return readPreparedReplayLandscape(timestamp, activity);
 		} catch (final FileNotFoundException e) {
 			e.printStackTrace();
-		} finally {
-			if (input != null) {
+		}
+
+		return LandscapePreparer.prepareLandscape(null);
+	}
+
+	/**
+	 * Reads and prepares a landscape of the replay folder. Prepared landscapes
+	 * are cached and shared between users, so they must not be modified.
+	 */
+	public static Landscape readPreparedReplayLandscape(final long timestamp, final long activity)
+			throws FileNotFoundException {
+		final File file = new File(FULL_FOLDER + File.separator + timestamp + "-" + activity
+				+ Configuration.MODEL_EXTENSION);
+		// a replaced file gets a new id
+		final String snapshotId = "replay-" + timestamp + "-" + activity + "@"
+				+ file.lastModified() + ":" + file.length();
+
+		final PreparedLandscapeCache cache = PreparedLandscapeCache.getSharedInstance();
+		Landscape landscape = cache.get(snapshotId);
+		if (landscape == null) {
+			final Input input = new Input(new FileInputStream(file));
+			try {
+				landscape = LandscapePreparer.prepareLandscape(RepositoryStorage
+						.readLandscape(input));
+			} finally {
 				input.close();
 			}
+			cache.put(snapshotId, landscape, PreparedLandscapeCache.estimateWeight(file.length()));
 		}
-
-		return LandscapePreparer.prepareLandscape(landscape);
+		return landscape;
 	}
 
 	public Landscape getLandscape(final long timestampToGet) {
@@ -4,6 +4,8 @@ import java.util.List;
 
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
+import explorviz.shared.landscapeexchange.LandscapeLayoutState;
+import explorviz.shared.landscapeexchange.LandscapeUpdate;
 import explorviz.shared.model.Landscape;
 import explorviz.visualization.experiment.landscapeexchange.TutorialLandscapeExchangeService;
 
@@ -30,6 +32,12 @@ public class TutorialLandscapeExchangeServiceImpl extends RemoteServiceServlet
 		// empty
 	}
 
+	@Override
+	public LandscapeUpdate getCurrentLandscapeUpdate(final long knownHash,
+			final LandscapeLayoutState layoutState) {
+		return LandscapeUpdate.full(getCurrentLandscape());
+	}
+
 	@Override
 	public Landscape getLandscape(final long timestamp) {
 		return TutorialLandscapeCreator.createTutorialLandscape();
@@ -85,6 +85,16 @@ class RSFTreeNode {
 		return maxDepth + 1;
 	}
 
+	public int getHierarchySize() {
+		int size = 1;
+
+		for (final RSFTreeNode child : children) {
+			size += child.getHierarchySize();
+		}
+
+		return size;
+	}
+
 	public String toString() {
 		return name;
 	}
@@ -8,18 +8,30 @@ import explorviz.live_trace_processing.record.trace.Trace
 import explorviz.server.main.Configuration
 import explorviz.server.main.FileSystemHelper
 import explorviz.server.repository.InsertionRepositoryPart
+import explorviz.server.repository.helper.SignatureCache
+import java.io.BufferedWriter
 import java.io.File
 import java.io.FileNotFoundException
 import java.io.FileOutputStream
+import java.io.Writer
+import java.nio.channels.Channels
+import java.nio.charset.Charset
 import java.util.ArrayList
+import java.util.LinkedHashMap
 import java.util.Random
 import java.util.Stack
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
 
 class RigiStandardFormatExporter {
-	val static threadPool = Executors.newCachedThreadPool()
-	var static exportBuffer = new ConcurrentHashMap<Long, RigiStandardFormatExporter>()
+	// one slot per second, a round of the wheel is longer than the write delay
+	val static flushWheel = new TimerWheel<RigiStandardFormatExporter>(1000, 128)
+	val static flusher = startFlusher()
+	val static exportBuffer = new ConcurrentHashMap<Long, RigiStandardFormatExporter>()
+
+	val static WRITE_BUFFER_SIZE = 64 * 1024
 
 	val static String HEADER = '"LevelSeparator" "."
 "ElmType" "0" "Class"
@@ -29,59 +41,93 @@ class RigiStandardFormatExporter {
 	val hierarchyRoot = new RSFTreeNode("root")
 	var hierarchyId = 0
 
-	var parentChildRelationsCount = 0
-
-	val signatures = new ArrayList<RSFSignature>
+	val signatures = new LinkedHashMap<String, RSFSignature>
 	var signatureId = 0
 
 	val relations = new ArrayList<RSFCall>
 	var relationId = 0
 
-	long traceId
+	val long traceId
 	String appName
 	String hostname
-	var volatile lastInsertTimestamp = 0L
+	var lastInsertTimestamp = 0L
+	var finished = false
+
+	new(long traceId) {
+		this.traceId = traceId
+	}
 
 	def static void insertTrace(Trace trace) {
 		if (trace.traceEvents.empty) return
 
 		val traceId = trace.traceEvents.get(0).traceId
 
-		var bufferedExporter = exportBuffer.get(traceId)
-		if (bufferedExporter == null) {
-			bufferedExporter = new RigiStandardFormatExporter()
-			exportBuffer.put(traceId, bufferedExporter)
+		var inserted = false
+		while (!inserted) {
+			var bufferedExporter = exportBuffer.get(traceId)
+			if (bufferedExporter == null) {
+				val newExporter = new RigiStandardFormatExporter(traceId)
+				bufferedExporter = exportBuffer.putIfAbsent(traceId, newExporter)
+				if (bufferedExporter == null) {
+					bufferedExporter = newExporter
+				}
+			}
+			// fails if the exporter has just been written, the next one starts a new file
+			inserted = bufferedExporter.insertTraceEvents(trace)
 		}
-
-		runInThread(bufferedExporter, trace)
 	}
 
-	private def static void runInThread(RigiStandardFormatExporter exporter, Trace trace) {
-		threadPool.execute(
+	/**
+	 * Writes all exporters without traces in the last write delay, once per
+	 * second on a single thread.
+	 */
+	private def static startFlusher() {
+		val flusher = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactory() {
+				override newThread(Runnable runnable) {
+					val thread = new Thread(runnable, "rsf-export")
+					thread.daemon = true
+					thread
+				}
+			})
+		flusher.scheduleWithFixedDelay(
 			new Runnable() {
 				override run() {
-					exporter.insertTraceThreaded(trace)
+					for (exporter : flushWheel.expire(System.currentTimeMillis())) {
+						try {
+							exporter.finishAndWrite()
+						} catch (Exception e) {
+							e.printStackTrace()
+						}
+					}
 				}
-			})
+			}, 1, 1, TimeUnit.SECONDS)
+		flusher
 	}
 
-	protected def void insertTraceThreaded(Trace trace) {
+	private def static long getWriteDelayInMs() {
+		(Configuration::outputIntervalSeconds + 60) * 1000L
+	}
+
+	protected def boolean insertTraceEvents(Trace trace) {
 		synchronized (this) {
+			if (finished) {
+				return false
+			}
+
 			val firstEntry = trace.traceEvents.get(0)
 
 			for (hostMeta : firstEntry.hostApplicationMetadataList) {
 				var RSFTreeNode caller = null
 				val Stack<RSFTreeNode> callerHistory = new Stack<RSFTreeNode>()
 
-				lastInsertTimestamp = System.currentTimeMillis()
 				appName = hostMeta.application.replaceAll("<", "").replaceAll(">", "")
 				hostname = hostMeta.hostname.replaceAll("<", "").replaceAll(">", "")
-				traceId = firstEntry.traceId
 
 				for (event : trace.traceEvents) {
 					if (event instanceof AbstractBeforeOperationEventRecord) {
 						val clazzname = InsertionRepositoryPart.getClazzName(event)
-						val callee = hierarchyRoot.insertIntoHierarchy(clazzname.split("\\."))
+						val callee = hierarchyRoot.insertIntoHierarchy(SignatureCache.splitClazzName(clazzname))
 
 						if (caller != null) {
 							val isConstructor = event instanceof BeforeConstructorEventRecord
@@ -124,30 +170,32 @@ class RigiStandardFormatExporter {
 					}
 				}
 			}
-		}
 
-		val waitIntervalInMs = (Configuration::outputIntervalSeconds + 60) * 1000
-		Thread.sleep(waitIntervalInMs)
-		if (System.currentTimeMillis() - waitIntervalInMs > lastInsertTimestamp) {
-			finishAndWrite()
+			lastInsertTimestamp = System.currentTimeMillis()
+			flushWheel.schedule(this, lastInsertTimestamp + writeDelayInMs)
 		}
+		true
 	}
 
-	protected def finishAndWrite() {
+	protected def void finishAndWrite() {
 		synchronized (this) {
+			if (System.currentTimeMillis() - writeDelayInMs < lastInsertTimestamp) {
+				// a trace arrived while the exporter was taken from the wheel
+				flushWheel.schedule(this, lastInsertTimestamp + writeDelayInMs)
+				return
+			}
+			finished = true
+			exportBuffer.remove(traceId, this)
 			if (!relations.empty) {
 				write(traceId, appName, hostname)
-				relations.clear()
-				exportBuffer.remove(traceId)
 			}
 		}
 	}
 
 	def RSFSignature seekOrCreateSignature(String sigSeeked, String classname) {
-		for (signature : signatures) {
-			if (signature.signature == sigSeeked) {
-				return signature
-			}
+		val existingSig = signatures.get(sigSeeked)
+		if (existingSig != null) {
+			return existingSig
 		}
 
 		val newSig = new RSFSignature()
@@ -155,107 +203,103 @@ class RigiStandardFormatExporter {
 		newSig.classname = classname
 		newSig.id = signatureId
 		signatureId = signatureId + 1
-		signatures.add(newSig)
+		signatures.put(sigSeeked, newSig)
 
 		return newSig
 	}
 
-	private def String constructFullHeader() {
-		HEADER + "\n" + attributeToRSF("HierarchyDepth", hierarchyRoot.maxHierarchyDepth + 1) +
-			attributeToRSF("HierarchyElements", hierarchyId) +
-			attributeToRSF("ParentChildRelations", parentChildRelationsCount) +
-			attributeToRSF("Signatures", signatures.size) + attributeToRSF("Relations", relations.size) +
-			attributeToRSF("Root", 0)
+	private def void constructFullHeader(Writer out) {
+		val hierarchySize = hierarchyRoot.hierarchySize
+		out.write(
+			HEADER + "\n" + attributeToRSF("HierarchyDepth", hierarchyRoot.maxHierarchyDepth + 1) +
+				attributeToRSF("HierarchyElements", hierarchySize) +
+				attributeToRSF("ParentChildRelations", hierarchySize - 1) +
+				attributeToRSF("Signatures", signatures.size) + attributeToRSF("Relations", relations.size) +
+				attributeToRSF("Root", 0))
 	}
 
 	private def attributeToRSF(String name, int attribute) {
 		'"' + name + '" ' + '"' + attribute + '"\n'
 	}
 
-	private def void constructHierarchy(StringBuilder sb) {
-		hierarchyToRSF(hierarchyRoot, hierarchyRoot.getName, true, sb)
-		constructHierarchyHelper(hierarchyRoot, "", sb)
+	private def void constructHierarchy(Writer out) {
+		hierarchyToRSF(hierarchyRoot, hierarchyRoot.getName, true, out)
+		constructHierarchyHelper(hierarchyRoot, "", out)
 	}
 
-	private def void constructHierarchyHelper(RSFTreeNode node, String previousNames, StringBuilder sb) {
+	private def void constructHierarchyHelper(RSFTreeNode node, String previousNames, Writer out) {
 		val thisName = node.getName()
 
 		for (child : node.getChildren) {
 			val childName = previousNames + thisName + "." + child.getName
 
 			if (child.getChildren.empty)
-				hierarchyToRSF(child, childName, false, sb)
+				hierarchyToRSF(child, childName, false, out)
 			else {
-				hierarchyToRSF(child, childName, true, sb)
-				constructHierarchyHelper(child, previousNames + thisName + ".", sb)
+				hierarchyToRSF(child, childName, true, out)
+				constructHierarchyHelper(child, previousNames + thisName + ".", out)
 			}
 
 		}
 	}
 
-	private def void hierarchyToRSF(RSFTreeNode node, String name, boolean isPackage, StringBuilder sb) {
+	private def void hierarchyToRSF(RSFTreeNode node, String name, boolean isPackage, Writer out) {
 		val packageId = if (isPackage) 1 else 0
 
-		sb.append('"H" "').append(hierarchyId).append('" "').append(name).append('" "').append(packageId).append('"').
-			append('\n')
+		out.write('"H" "' + hierarchyId + '" "' + name + '" "' + packageId + '"\n')
 		node.id = hierarchyId
 		hierarchyId = hierarchyId + 1
 	}
 
-	private def void constructParentChildRelation(StringBuilder sb) {
-		constructParentChildRelationHelper(hierarchyRoot, sb)
+	private def void constructParentChildRelation(Writer out) {
+		constructParentChildRelationHelper(hierarchyRoot, out)
 	}
 
-	private def void constructParentChildRelationHelper(RSFTreeNode node, StringBuilder sb) {
+	private def void constructParentChildRelationHelper(RSFTreeNode node, Writer out) {
 		if (node.getChildren.empty) return;
 
 		for (child : node.getChildren) {
-			parentChildRelationToRSF(node, child, sb)
+			parentChildRelationToRSF(node, child, out)
 		}
 
 		for (child : node.getChildren) {
-			constructParentChildRelationHelper(child, sb)
+			constructParentChildRelationHelper(child, out)
 		}
 	}
 
-	private def void parentChildRelationToRSF(RSFTreeNode parent, RSFTreeNode child, StringBuilder sb) {
-		parentChildRelationsCount = parentChildRelationsCount + 1
-
-		sb.append('"PCR" "').append(parent.getId).append('" "').append(child.getId).append('"').append('\n')
+	private def void parentChildRelationToRSF(RSFTreeNode parent, RSFTreeNode child, Writer out) {
+		out.write('"PCR" "' + parent.getId + '" "' + child.getId + '"\n')
 	}
 
-	private def void constructSignature(StringBuilder sb) {
-		for (signature : signatures) {
-			signatureToRSF(signature, sb)
+	private def void constructSignature(Writer out) {
+		for (signature : signatures.values) {
+			signatureToRSF(signature, out)
 		}
 	}
 
-	private def void signatureToRSF(RSFSignature signature, StringBuilder sb) {
+	private def void signatureToRSF(RSFSignature signature, Writer out) {
 		val filename = signature.classname.replaceAll("\\.", "/") + ".java"
 
-		sb.append('"S" "').append(signature.id).append('" "').append(signature.signature).append('" "').append(filename).
-			append('" "').append('1').append('"').append('\n')
+		out.write('"S" "' + signature.id + '" "' + signature.signature + '" "' + filename + '" "1"\n')
 	}
 
-	private def void constructRelation(StringBuilder sb) {
+	private def void constructRelation(Writer out) {
 		for (relation : relations) {
-			relationToRSF(relation.caller.getId, relation.callee.getId, relation.signature.id, sb)
+			relationToRSF(relation.caller.getId, relation.callee.getId, relation.signature.id, out)
 		}
 	}
 
-	private def void relationToRSF(int callerId, int calleeId, int signatureId, StringBuilder sb) {
-		sb.append('"R" "').append(callerId).append('" "').append(calleeId).append('" "').append('0').append('" "').
-			append(relationId).append('" "').append(signatureId).append('" "').append('A').append('"').append('\n')
+	private def void relationToRSF(int callerId, int calleeId, int signatureId, Writer out) {
+		out.write(
+			'"R" "' + callerId + '" "' + calleeId + '" "0" "' + relationId + '" "' + signatureId + '" "A"\n')
 		relationId = relationId + 1
 	}
 
 	def void write(long traceId, String application, String hostname) {
-		val toWriteRSF = buildString()
-
 		val FOLDER = FileSystemHelper::getExplorVizDirectory() + "/" + "rsfExport"
 		new File(FOLDER).mkdir()
 
-		var FileOutputStream output = null
+		var Writer out = null
 		try {
 			var file = new File(FOLDER + "/" + application + "_" + hostname + "_" + traceId + ".initial.rsf")
 			if (file.exists) {
@@ -263,27 +307,22 @@ class RigiStandardFormatExporter {
 					FOLDER + "/" + application + "_" + hostname + "_" + traceId + "_" + new Random().nextInt +
 						".initial.rsf")
 			}
-			output = new FileOutputStream(file)
-			output.write(toWriteRSF.getBytes())
-			output.flush()
-			output.close()
+			// the sections are streamed in order, the header only needs the sizes
+			out = new BufferedWriter(
+				Channels.newWriter(new FileOutputStream(file).channel, Charset.defaultCharset.name),
+				WRITE_BUFFER_SIZE)
+			constructFullHeader(out)
+			constructHierarchy(out)
+			constructParentChildRelation(out)
+			constructSignature(out)
+			constructRelation(out)
+			out.flush()
 		} catch (FileNotFoundException e) {
 			e.printStackTrace()
 		} finally {
-			if (output != null) {
-				output.close()
+			if (out != null) {
+				out.close()
 			}
 		}
 	}
-
-	private def String buildString() {
-		val sb = new StringBuilder(8 * 1024 * 1024)
-		constructHierarchy(sb)
-		constructParentChildRelation(sb)
-		constructSignature(sb)
-		constructRelation(sb)
-
-		sb.insert(0, constructFullHeader())
-		sb.toString()
-	}
 }
@@ -0,0 +1,82 @@
+package explorviz.server.export.rsf;
+
+import java.util.*;
+
+/**
+ * Hashed timer wheel for entries whose deadline moves back every time they
+ * are touched, like the exporters that are written once no trace arrived for
+ * a while. An entry is put into the slot of its latest deadline only; copies
+ * left in the slots of earlier deadlines are dropped when those slots come
+ * round, so rescheduling costs no search.
+ */
+class TimerWheel<T> {
+	private final long tickMillis;
+	private final List<Set<T>> slots;
+	// the tick of the slot holding the latest deadline of each entry
+	private final Map<T, Long> deadlineTicks = new HashMap<T, Long>();
+	// the first tick that has not been expired yet
+	private long nextTick = 0L;
+
+	public TimerWheel(final long tickMillis, final int slotCount) {
+		this.tickMillis = tickMillis;
+		slots = new ArrayList<Set<T>>(slotCount);
+		for (int i = 0; i < slotCount; i++) {
+			slots.add(new HashSet<T>());
+		}
+	}
+
+	/**
+	 * Sets the deadline of the entry, replacing an earlier one. Deadlines
+	 * that have already passed expire with the next call of
+	 * {@link #expire(long)}.
+	 */
+	public synchronized void schedule(final T entry, final long deadlineMillis) {
+		// rounded up, an entry never expires before its deadline
+		final long tick = Math.max(((deadlineMillis + tickMillis) - 1L) / tickMillis, nextTick);
+		deadlineTicks.put(entry, tick);
+		slotOf(tick).add(entry);
+	}
+
+	public synchronized void cancel(final T entry) {
+		deadlineTicks.remove(entry);
+	}
+
+	public synchronized int size() {
+		return deadlineTicks.size();
+	}
+
+	/**
+	 * Removes and returns all entries whose deadline is not after the given
+	 * time.
+	 */
+	public synchronized List<T> expire(final long nowMillis) {
+		final long nowTick = nowMillis / tickMillis;
+		final List<T> expired = new ArrayList<T>();
+		// every slot is visited at most once, even after a long pause
+		final long firstTick = Math.max(nextTick, (nowTick - slots.size()) + 1L);
+
+		for (long tick = firstTick; tick <= nowTick; tick++) {
+			final Set<T> slot = slotOf(tick);
+			final Iterator<T> iterator = slot.iterator();
+			while (iterator.hasNext()) {
+				final T entry = iterator.next();
+				final Long deadlineTick = deadlineTicks.get(entry);
+				if ((deadlineTick != null) && (deadlineTick <= nowTick)) {
+					deadlineTicks.remove(entry);
+					expired.add(entry);
+					iterator.remove();
+				} else if ((deadlineTick == null) || (slotOf(deadlineTick) != slot)) {
+					// cancelled or rescheduled into another slot
+					iterator.remove();
+				}
+				// otherwise the deadline is a full round of the wheel away
+			}
+		}
+		nextTick = Math.max(nextTick, nowTick + 1L);
+		return expired;
+	}
+
+	private Set<T> slotOf(final long tick) {
+		return slots.get((int) (tick % slots.size()));
+	}
+}
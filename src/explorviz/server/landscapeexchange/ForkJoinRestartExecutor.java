@@ -0,0 +1,53 @@
+package explorviz.server.landscapeexchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import de.cau.cs.kieler.klay.layered.ISubgraphExecutor;
+import de.cau.cs.kieler.klay.layered.p3order.IRestartExecutor;
+
+/**
+ * Runs the random restarts of the crossing minimization and the layouts of
+ * sibling nested graphs (systems, node groups) of the landscape layout on a
+ * fork join pool. Nested calls from tasks of the pool are fine, the waiting
+ * worker helps with the queued tasks. The client has no threads, so it keeps
+ * the sequential layout.
+ */
+public class ForkJoinRestartExecutor implements IRestartExecutor, ISubgraphExecutor {
+	private final ForkJoinPool pool;
+
+	public ForkJoinRestartExecutor(final int parallelism) {
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	@Override
+	public void executeAll(final List<Runnable> runnables) {
+		final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(runnables.size());
+		for (final Runnable runnable : runnables) {
+			tasks.add(Executors.callable(runnable));
+		}
+
+		for (final Future<Object> future : pool.invokeAll(tasks)) {
+			try {
+				future.get();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (final ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+		}
+	}
+
+	public void shutdown() {
+		pool.shutdown();
+	}
+}
@@ -1,17 +1,26 @@
 package explorviz.server.landscapeexchange;
 
-import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
-import com.esotericsoftware.kryo.Kryo;
-import com.esotericsoftware.kryo.io.Input;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
+import de.cau.cs.kieler.klay.layered.KlayLayered;
+import de.cau.cs.kieler.klay.layered.p3order.LayerSweepCrossingMinimizer;
+
+import explorviz.live_trace_processing.reader.IPeriodicTimeSignalReceiver;
+import explorviz.live_trace_processing.reader.TimeSignalReader;
 import explorviz.server.experiment.LandscapeReplayer;
 import explorviz.server.main.Configuration;
 import explorviz.server.main.FileSystemHelper;
 import explorviz.server.repository.*;
+import explorviz.server.repository.helper.SignatureCache;
+import explorviz.server.repository.ingestion.IngestionStatistics;
+import explorviz.shared.landscapeexchange.LandscapeLayoutState;
+import explorviz.shared.landscapeexchange.LandscapeUpdate;
 import explorviz.shared.model.Landscape;
 import explorviz.visualization.landscapeexchange.LandscapeExchangeService;
 
@@ -20,6 +29,14 @@ public class LandscapeExchangeServiceImpl extends RemoteServiceServlet
 
 	private static final long serialVersionUID = 4310863128987822861L;
 	private static LandscapeRepositoryModel model;
+	private static final RepositoryStarter repositoryStarter = new RepositoryStarter();
+
+	private static final LandscapeUpdateEncoder updateEncoder = new LandscapeUpdateEncoder();
+	private static final LandscapeLayoutCache layoutCache = new LandscapeLayoutCache(
+			Configuration.landscapeLayoutCacheSize);
+
+	// the last validation of each replay file
+	private static final Map<String, ReplayValidation> replayValidationCache = new ConcurrentHashMap<String, ReplayValidation>();
 
 	private static Long timestamp = null;
 	private static Long activity = null;
@@ -28,7 +45,20 @@ public class LandscapeExchangeServiceImpl extends RemoteServiceServlet
 			+ "replay";
 
 	static {
+		if (Configuration.landscapeLayoutThreads > 1) {
+			final ForkJoinRestartExecutor executor = new ForkJoinRestartExecutor(
+					Configuration.landscapeLayoutThreads);
+			LayerSweepCrossingMinimizer.setRestartExecutor(executor);
+			KlayLayered.setSubgraphExecutor(executor);
+		}
 		startRepository();
+		startStatisticsOutput();
+	}
+
+	@Override
+	public void destroy() {
+		RepositoryStorage.close();
+		super.destroy();
 	}
 
 	@Override
@@ -58,6 +88,21 @@ public class LandscapeExchangeServiceImpl extends RemoteServiceServlet
 		}
 	}
 
+	@Override
+	public LandscapeUpdate getCurrentLandscapeUpdate(final long knownHash,
+			final LandscapeLayoutState layoutState) {
+		final LandscapeUpdate update = updateEncoder.encode(getCurrentLandscape(), knownHash);
+		if (Configuration.serverSideLandscapeLayout && (update.getLandscape() != null)) {
+			// the update is created per poll, so the layout can be set on it
+			update.setLayout(layoutCache.getLayout(update.getLandscape(), layoutState));
+		}
+		return update;
+	}
+
+	public static LandscapeLayoutCache getLayoutCache() {
+		return layoutCache;
+	}
+
 	@Override
 	public Landscape getCurrentLandscapeByFlag(final boolean isExperiment) {
 		if (isExperiment) {
@@ -80,22 +125,13 @@ public class LandscapeExchangeServiceImpl extends RemoteServiceServlet
 		// serialization.
 		// Landscapes that are serialized with an older JDK
 		// are not supported for deserialization.
-		Input input = null;
-		Landscape landscape = null;
 		try {
-			input = new Input(new FileInputStream(FULL_FOLDER + File.separator + timestamp + "-"
-					+ activity + Configuration.MODEL_EXTENSION));
-			final Kryo kryo = RepositoryStorage.createKryoInstance();
-			landscape = kryo.readObject(input, Landscape.class);
+			return LandscapeReplayer.readPreparedReplayLandscape(timestamp, activity);
 		} catch (final FileNotFoundException e) {
 			e.printStackTrace();
-		} finally {
-			if (input != null) {
-				input.close();
-			}
 		}
 
-		return LandscapePreparer.prepareLandscape(landscape);
+		return LandscapePreparer.prepareLandscape(null);
 	}
 
 	@Override
@@ -105,6 +141,7 @@ public class LandscapeExchangeServiceImpl extends RemoteServiceServlet
 		final File directory = new File(FULL_FOLDER);
 
 		final File[] fList = directory.listFiles();
+		final Set<String> filenames = new HashSet<String>();
 
 		for (final File f : fList) {
 
@@ -113,31 +150,64 @@ public class LandscapeExchangeServiceImpl extends RemoteServiceServlet
 			if (filename.endsWith(".expl")) {
 
 				// first validation check -> filename
-				long timestamp;
-				long activity;
-
 				try {
-					timestamp = Long.parseLong(filename.split("-")[0]);
-					activity = Long.parseLong(filename.split("-")[1].split(".expl")[0]);
+					Long.parseLong(filename.split("-")[0]);
+					Long.parseLong(filename.split("-")[1].split(".expl")[0]);
 				} catch (final NumberFormatException e) {
 					continue;
 				}
-
-				// second validation check -> deserialization
-				try {
-					LandscapeExchangeServiceImpl.getLandscapeStatic(timestamp, activity);
-				} catch (final Exception e) {
-					continue;
+				filenames.add(filename);
+
+				// second validation check -> deserialization, only repeated
+				// if the file changed
+				ReplayValidation validation = replayValidationCache.get(filename);
+				if ((validation == null) || !validation.isOf(f)) {
+					validation = new ReplayValidation(f);
+					replayValidationCache.put(filename, validation);
 				}
 
-				names.add(filename);
+				if (validation.valid) {
+					names.add(filename);
+				}
 			}
 
 		}
 
+		// forget removed files
+		replayValidationCache.keySet().retainAll(filenames);
+
 		return names;
 	}
 
+	private static final class ReplayValidation {
+		private final long lastModified;
+		private final long length;
+		private final boolean valid;
+
+		private ReplayValidation(final File file) {
+			lastModified = file.lastModified();
+			length = file.length();
+			valid = isDeserializable(file);
+		}
+
+		private boolean isOf(final File file) {
+			return (lastModified == file.lastModified()) && (length == file.length());
+		}
+
+		/**
+		 * Read without preparing, so validating does not fill the prepared
+		 * landscape cache
+		 */
+		private static boolean isDeserializable(final File file) {
+			try {
+				RepositoryStorage.readFromFileGeneric(file.getParent(), file.getName());
+				return true;
+			} catch (final Exception e) {
+				return false;
+			}
+		}
+	}
+
 	@Override
 	public Landscape getLandscape(final long timestamp) {
 		try {
@@ -168,33 +238,43 @@ public class LandscapeExchangeServiceImpl extends RemoteServiceServlet
 
 			@Override
 			public void run() {
-				new RepositoryStarter().start(model);
+				repositoryStarter.start(model);
 			}
 		}).start();
 	}
 
+	private static void startStatisticsOutput() {
+		if (Configuration.statisticsOutputIntervalSeconds <= 0) {
+			return;
+		}
+		new TimeSignalReader(
+				TimeUnit.SECONDS.toMillis(Configuration.statisticsOutputIntervalSeconds),
+				new IPeriodicTimeSignalReceiver() {
+					@Override
+					public void periodicTimeSignal(final long timestamp) {
+						printStatistics();
+					}
+				}).start();
+	}
+
+	private static void printStatistics() {
+		if (Configuration.serverSideLandscapeLayout) {
+			System.out.println("Server side landscape " + layoutCache.getStatistics());
+		}
+		System.out.println("Prepared landscapes: " + PreparedLandscapeCache.getSharedInstance());
+		for (final IngestionStatistics statistics : repositoryStarter.getIngestionStatistics()) {
+			System.out.println(statistics);
+		}
+		System.out.println("Signature caches\n" + SignatureCache.getStatistics());
+	}
+
 	public static Landscape getLandscapeStatic(final long timestamp, final long activity)
 			throws Exception {
 		// IMPORTANT: Kryo depends heavily on used JDK version for
 		// serialization.
 		// Landscapes that are serialized with an older JDK
 		// are not supported for deserialization.
-		Input input = null;
-		Landscape landscape = null;
-		try {
-			input = new Input(new FileInputStream(FULL_FOLDER + File.separator + timestamp + "-"
-					+ activity + Configuration.MODEL_EXTENSION));
-			final Kryo kryo = RepositoryStorage.createKryoInstance();
-			landscape = kryo.readObject(input, Landscape.class);
-		} catch (final Exception e) {
-			throw e;
-		} finally {
-			if (input != null) {
-				input.close();
-			}
-		}
-
-		return LandscapePreparer.prepareLandscape(landscape);
+		return LandscapeReplayer.readPreparedReplayLandscape(timestamp, activity);
 	}
 
 	public static Landscape getLandscapeByByte(final byte[] landscapeBytes) throws Exception {
@@ -202,20 +282,6 @@ public class LandscapeExchangeServiceImpl extends RemoteServiceServlet
 		// serialization.
 		// Landscapes that are serialized with an older JDK
 		// are not supported for deserialization.
-		Input input = null;
-		Landscape landscape = null;
-		try {
-			input = new Input(landscapeBytes);
-			final Kryo kryo = RepositoryStorage.createKryoInstance();
-			landscape = kryo.readObject(input, Landscape.class);
-		} catch (final Exception e) {
-			throw e;
-		} finally {
-			if (input != null) {
-				input.close();
-			}
-		}
-
-		return LandscapePreparer.prepareLandscape(landscape);
+		return LandscapePreparer.prepareLandscape(RepositoryStorage.deserialize(landscapeBytes));
 	}
 }
\ No newline at end of file
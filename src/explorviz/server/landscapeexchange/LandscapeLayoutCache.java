@@ -0,0 +1,99 @@
+package explorviz.server.landscapeexchange;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import explorviz.server.repository.RepositoryStorage;
+import explorviz.server.repository.helper.ConcurrentLruCache;
+import explorviz.shared.landscapeexchange.LandscapeLayout;
+import explorviz.shared.landscapeexchange.LandscapeLayoutState;
+import explorviz.shared.model.Landscape;
+import explorviz.visualization.layout.exceptions.LayoutException;
+import explorviz.visualization.layout.landscape.LandscapeKielerInterface;
+
+/**
+ * Lays out landscapes on the server, so clients only apply the positions. A
+ * landscape is laid out once per layout hash and opened and closed states
+ * of the clients, all other polls are answered from the cache.
+ */
+public class LandscapeLayoutCache {
+	private final ConcurrentLruCache<String, LandscapeLayout> layouts;
+
+	// the landscape layouter keeps its graph in static fields
+	private final Object layoutLock = new Object();
+	private String lastLayoutKey;
+	private LandscapeLayout lastLayout;
+
+	private final AtomicLong layoutCount = new AtomicLong();
+	private final AtomicLong layoutTimeInNanos = new AtomicLong();
+
+	public LandscapeLayoutCache(final int maximumSize) {
+		layouts = new ConcurrentLruCache<String, LandscapeLayout>(maximumSize, 1);
+	}
+
+	/**
+	 * The landscape itself is not changed, it is laid out on a copy.
+	 *
+	 * @param state
+	 *            the states of the landscape shown by the client or null
+	 * @return null if the landscape could not be laid out
+	 */
+	public LandscapeLayout getLayout(final Landscape landscape, final LandscapeLayoutState state) {
+		final String key = LandscapeLayout.computeLayoutHash(landscape) + "/"
+				+ (state == null ? "" : state.getKey());
+
+		final LandscapeLayout cachedLayout = layouts.get(key);
+		if (cachedLayout != null) {
+			return cachedLayout;
+		}
+
+		synchronized (layoutLock) {
+			// another poll could have laid out the same landscape meanwhile
+			if (key.equals(lastLayoutKey)) {
+				return lastLayout;
+			}
+
+			final long start = java.lang.System.nanoTime();
+			final Landscape copy = RepositoryStorage.deserialize(RepositoryStorage
+					.serialize(landscape));
+			if (state != null) {
+				state.applyTo(copy);
+			}
+			try {
+				LandscapeKielerInterface.applyLayout(copy);
+			} catch (final LayoutException e) {
+				e.printStackTrace();
+				return null;
+			}
+			final LandscapeLayout layout = LandscapeLayout.extract(copy);
+
+			layoutTimeInNanos.addAndGet(java.lang.System.nanoTime() - start);
+			layoutCount.incrementAndGet();
+
+			layouts.put(key, layout);
+			lastLayoutKey = key;
+			lastLayout = layout;
+			return layout;
+		}
+	}
+
+	public ConcurrentLruCache<String, LandscapeLayout> getLayouts() {
+		return layouts;
+	}
+
+	public long getLayoutCount() {
+		return layoutCount.get();
+	}
+
+	public long getAverageLayoutTimeInNanos() {
+		final long count = layoutCount.get();
+		if (count == 0) {
+			return 0L;
+		}
+		return layoutTimeInNanos.get() / count;
+	}
+
+	public String getStatistics() {
+		return "layouts: " + layouts + ", laidOut=" + getLayoutCount() + ", averageLayoutMillis="
+				+ (getAverageLayoutTimeInNanos() / 1000000L);
+	}
+}
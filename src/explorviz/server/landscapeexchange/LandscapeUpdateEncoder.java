@@ -0,0 +1,59 @@
+package explorviz.server.landscapeexchange;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import explorviz.shared.landscapeexchange.*;
+import explorviz.shared.model.Landscape;
+
+/**
+ * Creates the answers to landscape polls. The metrics and the structure hash
+ * are extracted once per landscape and shared by all clients, so polls of
+ * clients that already show the current structure cost the same regardless
+ * of the landscape size.
+ */
+public class LandscapeUpdateEncoder {
+	// structure hashes of the landscapes clients may still show
+	private static final int KNOWN_LANDSCAPES = 32;
+
+	private final Map<Long, Long> structureHashes = new LinkedHashMap<Long, Long>() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Long, Long> eldest) {
+			return size() > KNOWN_LANDSCAPES;
+		}
+	};
+
+	private Landscape encodedLandscape;
+	private long encodedStructureHash;
+	private LandscapeMetrics encodedMetrics;
+
+	/**
+	 * @param knownHash
+	 *            hash of the landscape shown by the client or
+	 *            {@link LandscapeUpdate#NO_HASH}
+	 */
+	public synchronized LandscapeUpdate encode(final Landscape landscape, final long knownHash) {
+		if (landscape == null) {
+			return LandscapeUpdate.full(null);
+		}
+		if ((knownHash != LandscapeUpdate.NO_HASH) && (landscape.getHash() == knownHash)) {
+			return LandscapeUpdate.notModified(knownHash);
+		}
+
+		if (landscape != encodedLandscape) {
+			encodedStructureHash = LandscapeMetricTargets.computeStructureHash(landscape);
+			encodedMetrics = LandscapeMetrics.extract(landscape, new LandscapeMetricTargets(
+					landscape));
+			encodedLandscape = landscape;
+			structureHashes.put(landscape.getHash(), encodedStructureHash);
+		}
+
+		final Long knownStructureHash = structureHashes.get(knownHash);
+		if ((knownStructureHash != null) && (knownStructureHash == encodedStructureHash)) {
+			return LandscapeUpdate.metricsOnly(knownHash, encodedMetrics);
+		}
+		return LandscapeUpdate.full(landscape);
+	}
+}
@@ -96,6 +96,21 @@ class Configuration {
 	
 	public static var rsfExportEnabled = false
 	public static var outputIntervalSeconds = 10
+	// print the statistics of the server's caches and queues, 0 disables it
+	public static var statisticsOutputIntervalSeconds = 60
+	// more than one worker inserts traces of different applications in parallel
+	public static var repositoryIngestionWorkers = 1
+	public static var repositoryIngestionQueueCapacity = 1024
+	// records inserted per acquisition of the period lock
+	public static var repositoryIngestionBatchSize = 64
+	// "block", "drop-oldest" or "sample" (keeps a share of the traces by trace id)
+	public static var repositoryOverloadPolicy = "block"
+	public static var repositorySamplePercent = 25
+	// lay out landscapes on the server and send the positions to the clients
+	public static var serverSideLandscapeLayout = false
+	public static var landscapeLayoutCacheSize = 64
+	// more than one thread lays out crossing minimization restarts and nested graphs in parallel
+	public static var landscapeLayoutThreads = Runtime.getRuntime().availableProcessors()
 	public static val List<String> databaseNames = new ArrayList<String>()
 	
 	public static var TIMESHIFT_INTERVAL_IN_MINUTES = 10
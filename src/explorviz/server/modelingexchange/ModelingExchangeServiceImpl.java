@@ -5,6 +5,8 @@ import java.util.List;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
 import explorviz.server.repository.RepositoryStorage;
+import explorviz.shared.landscapeexchange.LandscapeLayoutState;
+import explorviz.shared.landscapeexchange.LandscapeUpdate;
 import explorviz.shared.model.Landscape;
 import explorviz.visualization.modelingexchange.ModelingExchangeService;
 
@@ -18,6 +20,12 @@ public class ModelingExchangeServiceImpl extends RemoteServiceServlet
 		return RepositoryStorage.readTargetArchitecture();
 	}
 
+	@Override
+	public LandscapeUpdate getCurrentLandscapeUpdate(final long knownHash,
+			final LandscapeLayoutState layoutState) {
+		return LandscapeUpdate.full(getCurrentLandscape());
+	}
+
 	@Override
 	public Landscape getLandscape(final long timestamp) {
 		return null;
@@ -0,0 +1,126 @@
+package explorviz.server.repository;
+
+import java.util.*;
+
+import explorviz.shared.model.*;
+
+/**
+ * Hash lookup tables kept alongside the component, class and communication
+ * lists of one application. Names are compared case insensitive like in the
+ * lists, so the keys are stored in lower case.
+ */
+class ApplicationIndex {
+	private final Map<String, Clazz> clazzesByFullQName = new HashMap<String, Clazz>();
+	private final Map<String, Clazz> clazzesIgnoringCase = new HashMap<String, Clazz>();
+	private final Map<String, Component> componentsByPath = new HashMap<String, Component>();
+	private final Map<CallKey, CommunicationClazz> calls = new HashMap<CallKey, CommunicationClazz>();
+
+	// classes and calls whose metrics changed since the last period switch
+	private final Set<Clazz> periodClazzes = Collections
+			.newSetFromMap(new IdentityHashMap<Clazz, Boolean>());
+	private final Set<CommunicationClazz> periodCalls = Collections
+			.newSetFromMap(new IdentityHashMap<CommunicationClazz, Boolean>());
+
+	private Component defaultComponent;
+
+	public Clazz getClazz(final String fullQName) {
+		return clazzesByFullQName.get(fullQName);
+	}
+
+	public void putClazz(final String fullQName, final Clazz clazz) {
+		clazzesByFullQName.put(fullQName, clazz);
+	}
+
+	public Clazz getClazzIgnoringCase(final String fullQName) {
+		return clazzesIgnoringCase.get(fullQName.toLowerCase());
+	}
+
+	public void putClazzIgnoringCase(final String fullQName, final Clazz clazz) {
+		clazzesIgnoringCase.put(fullQName.toLowerCase(), clazz);
+	}
+
+	public Component getComponent(final String packagePath) {
+		return componentsByPath.get(packagePath.toLowerCase());
+	}
+
+	public void putComponent(final String packagePath, final Component component) {
+		componentsByPath.put(packagePath.toLowerCase(), component);
+	}
+
+	public Component getDefaultComponent() {
+		return defaultComponent;
+	}
+
+	public void setDefaultComponent(final Component defaultComponent) {
+		this.defaultComponent = defaultComponent;
+	}
+
+	public CommunicationClazz getCall(final Clazz source, final Clazz target,
+			final String methodName) {
+		return calls.get(new CallKey(source, target, methodName.toLowerCase()));
+	}
+
+	public void putCall(final CommunicationClazz call) {
+		calls.put(new CallKey(call.getSource(), call.getTarget(), call.getMethodName()
+				.toLowerCase()), call);
+	}
+
+	public void markInstancesUpdated(final Clazz clazz) {
+		periodClazzes.add(clazz);
+	}
+
+	public void markCallUpdated(final CommunicationClazz call) {
+		periodCalls.add(call);
+	}
+
+	/**
+	 * Resets the metrics of all classes and calls marked since the last
+	 * reset
+	 */
+	public void resetPeriodMetrics() {
+		for (final Clazz clazz : periodClazzes) {
+			clazz.getObjectIds().clear();
+			clazz.setInstanceCount(0);
+		}
+		periodClazzes.clear();
+
+		for (final CommunicationClazz call : periodCalls) {
+			call.reset();
+		}
+		periodCalls.clear();
+	}
+
+	private static final class CallKey {
+		private final Clazz source;
+		private final Clazz target;
+		private final String methodName;
+		private final int hash;
+
+		private CallKey(final Clazz source, final Clazz target, final String methodName) {
+			this.source = source;
+			this.target = target;
+			this.methodName = methodName;
+
+			hash = (31 * ((31 * java.lang.System.identityHashCode(source)) + java.lang.System
+					.identityHashCode(target))) + methodName.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof CallKey)) {
+				return false;
+			}
+			final CallKey other = (CallKey) obj;
+			return (source == other.source) && (target == other.target)
+					&& methodName.equals(other.methodName);
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package explorviz.server.repository;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import explorviz.live_trace_processing.record.IRecord;
 import explorviz.live_trace_processing.record.event.*;
@@ -13,8 +14,7 @@ import explorviz.live_trace_processing.record.trace.HostApplicationMetaDataRecor
 import explorviz.live_trace_processing.record.trace.Trace;
 import explorviz.server.export.rsf.RigiStandardFormatExporter;
 import explorviz.server.main.Configuration;
-import explorviz.server.repository.helper.Signature;
-import explorviz.server.repository.helper.SignatureParser;
+import explorviz.server.repository.helper.SignatureCache;
 import explorviz.shared.model.*;
 import explorviz.shared.model.System;
 import explorviz.shared.model.helper.ELanguage;
@@ -26,7 +26,7 @@ public class InsertionRepositoryPart {
 
 	private final Map<String, Node> nodeCache = new HashMap<String, Node>();
 	private final Map<String, Application> applicationCache = new HashMap<String, Application>();
-	private final Map<Application, Map<String, Clazz>> clazzCache = new HashMap<Application, Map<String, Clazz>>();
+	private final Map<Application, ApplicationIndex> applicationIndexes = new ConcurrentHashMap<Application, ApplicationIndex>();
 
 	public void insertIntoModel(final IRecord inputIRecord, final Landscape landscape,
 			final RemoteCallRepositoryPart remoteCallRepositoryPart) {
@@ -40,74 +40,95 @@ public class InsertionRepositoryPart {
 			final List<HostApplicationMetaDataRecord> hostApplicationMetadataList = trace
 					.getTraceEvents().get(0).getHostApplicationMetadataList();
 
-			synchronized (landscape) {
-				for (int i = 0; i < hostApplicationMetadataList.size(); i++) {
-					final HostApplicationMetaDataRecord hostApplicationRecord = hostApplicationMetadataList
-							.get(i);
-					final System system = seekOrCreateSystem(landscape,
-							hostApplicationRecord.getSystemname());
-
-					final boolean isNewNode = nodeCache.get(hostApplicationRecord.getHostname()
-							+ "_" + hostApplicationRecord.getIpaddress()) == null;
-					final Node node = seekOrCreateNode(hostApplicationRecord, landscape);
-
-					final boolean isNewApplication = applicationCache.get(node.getName() + "_"
-							+ hostApplicationRecord.getApplication()) == null;
-					final Application application = seekOrCreateApplication(node,
-							hostApplicationRecord, landscape);
-
-					if (isNewNode) {
-						final NodeGroup nodeGroup = seekOrCreateNodeGroup(system, node);
-						nodeGroup.getNodes().add(node);
-						node.setParent(nodeGroup);
-
-						nodeGroup.updateName();
-					} else {
-						if (isNewApplication) {
-							// if new app, node might be placed in a different
-							// nodeGroup
-
-							final NodeGroup oldNodeGroup = node.getParent();
-							oldNodeGroup.getNodes().remove(node);
-
-							final NodeGroup nodeGroup = seekOrCreateNodeGroup(system, node);
-
-							if (oldNodeGroup != nodeGroup) {
-								if (oldNodeGroup.getNodes().isEmpty()) {
-									oldNodeGroup.getParent().getNodeGroups().remove(oldNodeGroup);
-								} else {
-									oldNodeGroup.updateName();
-								}
-							}
+			for (int i = 0; i < hostApplicationMetadataList.size(); i++) {
+				final HostApplicationMetaDataRecord hostApplicationRecord = hostApplicationMetadataList
+						.get(i);
 
-							nodeGroup.getNodes().add(node);
-							node.setParent(nodeGroup);
-
-							nodeGroup.updateName();
-						}
-					}
+				final Application application;
+				synchronized (landscape) {
+					application = seekOrCreateStructure(landscape, hostApplicationRecord);
+				}
 
-					createCommunicationInApplication(trace, hostApplicationRecord.getHostname(),
-							application, landscape, remoteCallRepositoryPart, i);
+				// traces of different applications only share the landscape
+				// structure, so the per-class work is guarded by the
+				// application alone
+				final long activities;
+				synchronized (application) {
+					activities = createCommunicationInApplication(trace,
+							hostApplicationRecord.getHostname(), application, landscape,
+							remoteCallRepositoryPart, i);
+				}
 
+				synchronized (landscape) {
+					landscape.setActivities(landscape.getActivities() + activities);
 					landscape.updateLandscapeAccess(java.lang.System.nanoTime());
 				}
 			}
 		} else if (inputIRecord instanceof SystemMonitoringRecord) {
 			final SystemMonitoringRecord systemMonitoringRecord = (SystemMonitoringRecord) inputIRecord;
 
-			for (final Node node : nodeCache.values()) {
-				if (node.getName().equalsIgnoreCase(
-						systemMonitoringRecord.getHostApplicationMetadata().getHostname())
-						&& node.getIpAddress().equalsIgnoreCase(
-								systemMonitoringRecord.getHostApplicationMetadata().getIpaddress())) {
-					node.setCpuUtilization(systemMonitoringRecord.getCpuUtilization());
-					node.setFreeRAM(systemMonitoringRecord.getAbsoluteRAM()
-							- systemMonitoringRecord.getUsedRAM());
-					node.setUsedRAM(systemMonitoringRecord.getUsedRAM());
+			synchronized (landscape) {
+				for (final Node node : nodeCache.values()) {
+					if (node.getName().equalsIgnoreCase(
+							systemMonitoringRecord.getHostApplicationMetadata().getHostname())
+							&& node.getIpAddress().equalsIgnoreCase(
+									systemMonitoringRecord.getHostApplicationMetadata()
+											.getIpaddress())) {
+						node.setCpuUtilization(systemMonitoringRecord.getCpuUtilization());
+						node.setFreeRAM(systemMonitoringRecord.getAbsoluteRAM()
+								- systemMonitoringRecord.getUsedRAM());
+						node.setUsedRAM(systemMonitoringRecord.getUsedRAM());
+					}
+				}
+			}
+		}
+	}
+
+	private Application seekOrCreateStructure(final Landscape landscape,
+			final HostApplicationMetaDataRecord hostApplicationRecord) {
+		final System system = seekOrCreateSystem(landscape, hostApplicationRecord.getSystemname());
+
+		final boolean isNewNode = nodeCache.get(hostApplicationRecord.getHostname() + "_"
+				+ hostApplicationRecord.getIpaddress()) == null;
+		final Node node = seekOrCreateNode(hostApplicationRecord, landscape);
+
+		final boolean isNewApplication = applicationCache.get(node.getName() + "_"
+				+ hostApplicationRecord.getApplication()) == null;
+		final Application application = seekOrCreateApplication(node, hostApplicationRecord,
+				landscape);
+
+		if (isNewNode) {
+			final NodeGroup nodeGroup = seekOrCreateNodeGroup(system, node);
+			nodeGroup.getNodes().add(node);
+			node.setParent(nodeGroup);
+
+			nodeGroup.updateName();
+		} else {
+			if (isNewApplication) {
+				// if new app, node might be placed in a different
+				// nodeGroup
+
+				final NodeGroup oldNodeGroup = node.getParent();
+				oldNodeGroup.getNodes().remove(node);
+
+				final NodeGroup nodeGroup = seekOrCreateNodeGroup(system, node);
+
+				if (oldNodeGroup != nodeGroup) {
+					if (oldNodeGroup.getNodes().isEmpty()) {
+						oldNodeGroup.getParent().getNodeGroups().remove(oldNodeGroup);
+					} else {
+						oldNodeGroup.updateName();
+					}
 				}
+
+				nodeGroup.getNodes().add(node);
+				node.setParent(nodeGroup);
+
+				nodeGroup.updateName();
 			}
 		}
+
+		return application;
 	}
 
 	private System seekOrCreateSystem(final Landscape landscape, final String systemname) {
@@ -136,11 +157,13 @@ public class InsertionRepositoryPart {
 	}
 
 	private void addToErrors(final Landscape landscape, final String cause) {
-		long currentMillis = java.lang.System.currentTimeMillis();
-		while (landscape.getErrors().containsKey(currentMillis)) {
-			currentMillis++;
+		synchronized (landscape) {
+			long currentMillis = java.lang.System.currentTimeMillis();
+			while (landscape.getErrors().containsKey(currentMillis)) {
+				currentMillis++;
+			}
+			landscape.getErrors().put(currentMillis, cause);
 		}
-		landscape.getErrors().put(currentMillis, cause);
 	}
 
 	Node seekOrCreateNode(final HostApplicationMetaDataRecord hostApplicationRecord,
@@ -260,9 +283,13 @@ public class InsertionRepositoryPart {
 		return isDatabase;
 	}
 
-	private void createCommunicationInApplication(final Trace trace, final String currentHostname,
+	/**
+	 * @return the activities caused by the trace inside the application
+	 */
+	private long createCommunicationInApplication(final Trace trace, final String currentHostname,
 			final Application currentApplication, final Landscape landscape,
 			final RemoteCallRepositoryPart remoteCallRepositoryPart, final int runtimeIndex) {
+		long activities = 0L;
 		Clazz callerClazz = null;
 		final Stack<Clazz> callerClazzesHistory = new Stack<Clazz>();
 
@@ -308,6 +335,8 @@ public class InsertionRepositoryPart {
 					}
 
 					if (!isAbstractConstructor) {
+						activities += abstractBeforeEventRecord
+								.getRuntimeStatisticInformationList().get(runtimeIndex).getCount();
 						createOrUpdateCall(
 								callerClazz,
 								currentClazz,
@@ -316,8 +345,7 @@ public class InsertionRepositoryPart {
 										.get(runtimeIndex).getCount(), abstractBeforeEventRecord
 										.getRuntimeStatisticInformationList().get(runtimeIndex)
 										.getAverage(), overallTraceDuration,
-								abstractBeforeEventRecord.getTraceId(), orderIndex, methodName,
-								landscape);
+								abstractBeforeEventRecord.getTraceId(), orderIndex, methodName);
 						orderIndex++;
 					}
 
@@ -394,6 +422,8 @@ public class InsertionRepositoryPart {
 			} else if (event instanceof BeforeUnknownReceivedRemoteCallRecord) {
 			}
 		}
+
+		return activities;
 	}
 
 	public static String getClazzName(
@@ -405,6 +435,13 @@ public class InsertionRepositoryPart {
 			final String implementedInterface = abstractBeforeEventRecord.getImplementedInterface();
 
 			if ((implementedInterface != null) && !implementedInterface.isEmpty()) {
+				final String cachedClazzName = SignatureCache.getAnonymousClazzName(clazzName,
+						implementedInterface);
+				if (cachedClazzName != null) {
+					return cachedClazzName;
+				}
+
+				final String originalClazzName = clazzName;
 				final int lastIndexOfDollar = clazzName.lastIndexOf('$');
 				if ((lastIndexOfDollar > -1) && ((lastIndexOfDollar + 1) < clazzName.length())) {
 					final char suffixChar = clazzName.charAt(lastIndexOfDollar + 1);
@@ -419,6 +456,9 @@ public class InsertionRepositoryPart {
 								+ interfaceName + "]" + clazzName.substring(lastIndexOfDollar + 1);
 					}
 				}
+
+				SignatureCache.putAnonymousClazzName(originalClazzName, implementedInterface,
+						clazzName);
 			}
 		}
 		return clazzName;
@@ -427,17 +467,16 @@ public class InsertionRepositoryPart {
 	private void createOrUpdateCall(final Clazz caller, final Clazz callee,
 			final Application application, final int requests, final double average,
 			final double overallTraceDuration, final long traceId, final int orderIndex,
-			final String methodName, final Landscape landscape) {
-		landscape.setActivities(landscape.getActivities() + requests);
-
-		for (final CommunicationClazz commu : application.getCommunications()) {
-			if (((commu.getSource() == caller) && (commu.getTarget() == callee) && (commu
-					.getMethodName().equalsIgnoreCase(methodName)))) {
-
-				commu.addRuntimeInformation(traceId, requests, orderIndex, requests,
-						(float) average, (float) overallTraceDuration);
-				return;
-			}
+			final String methodName) {
+		final ApplicationIndex applicationIndex = getApplicationIndex(application);
+
+		final CommunicationClazz existingCommu = applicationIndex.getCall(caller, callee,
+				methodName);
+		if (existingCommu != null) {
+			existingCommu.addRuntimeInformation(traceId, requests, orderIndex, requests,
+					(float) average, (float) overallTraceDuration);
+			applicationIndex.markCallUpdated(existingCommu);
+			return;
 		}
 
 		final CommunicationClazz commu = new CommunicationClazz();
@@ -450,22 +489,42 @@ public class InsertionRepositoryPart {
 		commu.setMethodName(methodName);
 
 		application.getCommunications().add(commu);
+		applicationIndex.putCall(commu);
+		applicationIndex.markCallUpdated(commu);
 	}
 
-	private Clazz seekOrCreateClazz(final String fullQName, final Application application,
-			final TIntHashSet objectIds) {
-		final String[] splittedName = fullQName.split("\\.");
+	/**
+	 * Resets the per-period metrics of all classes and calls updated since the
+	 * last reset, instead of walking the whole landscape. Must not run
+	 * concurrently to insertions.
+	 */
+	public void resetPeriodMetrics() {
+		for (final Map.Entry<Application, ApplicationIndex> entry : applicationIndexes
+				.entrySet()) {
+			entry.getKey().getDatabaseQueries().clear();
+			entry.getValue().resetPeriodMetrics();
+		}
+	}
 
-		Map<String, Clazz> appCached = clazzCache.get(application);
-		if (appCached == null) {
-			appCached = new HashMap<String, Clazz>();
-			clazzCache.put(application, appCached);
+	private ApplicationIndex getApplicationIndex(final Application application) {
+		ApplicationIndex applicationIndex = applicationIndexes.get(application);
+		if (applicationIndex == null) {
+			applicationIndex = new ApplicationIndex();
+			applicationIndexes.put(application, applicationIndex);
 		}
-		Clazz clazz = appCached.get(fullQName);
+		return applicationIndex;
+	}
+
+	private Clazz seekOrCreateClazz(final String fullQName, final Application application,
+			final TIntHashSet objectIds) {
+		final ApplicationIndex applicationIndex = getApplicationIndex(application);
+		Clazz clazz = applicationIndex.getClazz(fullQName);
 
 		if (clazz == null) {
-			clazz = seekrOrCreateClazzHelper(fullQName, splittedName, application, null, 0);
-			appCached.put(fullQName, clazz);
+			final String[] splittedName = fullQName.split("\\.");
+			clazz = seekrOrCreateClazzHelper(fullQName, splittedName, application,
+					applicationIndex);
+			applicationIndex.putClazz(fullQName, clazz);
 		}
 
 		if (objectIds != null) {
@@ -474,80 +533,70 @@ public class InsertionRepositoryPart {
 				clazz.getObjectIds().add(iterator.next());
 			}
 			clazz.setInstanceCount(clazz.getObjectIds().size());
+			applicationIndex.markInstancesUpdated(clazz);
 		}
 
 		return clazz;
 	}
 
 	private Clazz seekrOrCreateClazzHelper(final String fullQName, final String[] splittedName,
-			final Application application, Component parent, final int index) {
-		final String currentPart = splittedName[index];
-
-		if (index < (splittedName.length - 1)) {
-			List<Component> list = null;
-
-			if (parent == null) {
-				list = application.getComponents();
+			final Application application, final ApplicationIndex applicationIndex) {
+		Component parent = null;
+		String fullQNameComponent = null;
+
+		for (int index = 0; index < (splittedName.length - 1); index++) {
+			final String currentPart = splittedName[index];
+			if (fullQNameComponent == null) {
+				fullQNameComponent = currentPart;
 			} else {
-				list = parent.getChildren();
-			}
-
-			for (final Component component : list) {
-				if (component.getName().equalsIgnoreCase(currentPart)) {
-					return seekrOrCreateClazzHelper(fullQName, splittedName, application,
-							component, index + 1);
-				}
+				fullQNameComponent += "." + currentPart;
 			}
-			final Component component = new Component();
-			String fullQNameComponent = "";
-			for (int i = 0; i <= index; i++) {
-				fullQNameComponent += splittedName[i] + ".";
-			}
-			fullQNameComponent = fullQNameComponent.substring(0, fullQNameComponent.length() - 1);
-			component.setFullQualifiedName(fullQNameComponent);
-			component.setName(currentPart);
-			component.setParentComponent(parent);
-			component.setBelongingApplication(application);
-			list.add(component);
-			return seekrOrCreateClazzHelper(fullQName, splittedName, application, component,
-					index + 1);
-		} else {
-			if (parent == null) {
-				for (final Component component : application.getComponents()) {
-					if (component.getFullQualifiedName().equals(DEFAULT_COMPONENT_NAME)) {
-						parent = component;
-						break;
-					}
-				}
 
+			Component component = applicationIndex.getComponent(fullQNameComponent);
+			if (component == null) {
+				component = new Component();
+				component.setFullQualifiedName(fullQNameComponent);
+				component.setName(currentPart);
+				component.setParentComponent(parent);
+				component.setBelongingApplication(application);
 				if (parent == null) {
-					final Component component = new Component();
-					component.setFullQualifiedName(DEFAULT_COMPONENT_NAME);
-					component.setName(DEFAULT_COMPONENT_NAME);
-					component.setParentComponent(null);
-					component.setBelongingApplication(application);
 					application.getComponents().add(component);
-					parent = component;
+				} else {
+					parent.getChildren().add(component);
 				}
+				applicationIndex.putComponent(fullQNameComponent, component);
 			}
+			parent = component;
+		}
 
-			for (final Clazz clazz : parent.getClazzes()) {
-				if (clazz.getName().equalsIgnoreCase(currentPart)) {
-					return clazz;
-				}
+		if (parent == null) {
+			parent = applicationIndex.getDefaultComponent();
+
+			if (parent == null) {
+				final Component component = new Component();
+				component.setFullQualifiedName(DEFAULT_COMPONENT_NAME);
+				component.setName(DEFAULT_COMPONENT_NAME);
+				component.setParentComponent(null);
+				component.setBelongingApplication(application);
+				application.getComponents().add(component);
+				applicationIndex.setDefaultComponent(component);
+				parent = component;
 			}
+		}
 
-			final Clazz clazz = new Clazz();
-			clazz.setName(currentPart);
+		Clazz clazz = applicationIndex.getClazzIgnoringCase(fullQName);
+		if (clazz == null) {
+			clazz = new Clazz();
+			clazz.setName(splittedName[splittedName.length - 1]);
 			clazz.setFullQualifiedName(fullQName);
 			clazz.setParent(parent);
 			parent.getClazzes().add(clazz);
-			return clazz;
+			applicationIndex.putClazzIgnoringCase(fullQName, clazz);
 		}
+		return clazz;
 	}
 
 	public static String getMethodName(final String operationSignatureStr, final boolean constructor) {
-		final Signature signature = SignatureParser.parse(operationSignatureStr, constructor);
-		return signature.getOperationName();
+		return SignatureCache.getOperationName(operationSignatureStr, constructor);
 	}
 }
@@ -0,0 +1,639 @@
+package explorviz.server.repository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import explorviz.shared.model.*;
+import explorviz.shared.model.System;
+
+/**
+ * Encodes a landscape as the changes against a keyframe landscape, entity by
+ * entity. Systems, node groups, nodes, applications, components, classes and
+ * communications are matched by their names, so only the entities whose
+ * fields changed and the lists whose members changed are written. Fields that
+ * are no entities, like counters or runtime information, are written with
+ * Kryo; references to other entities are written as their position in the
+ * landscape.
+ */
+public class LandscapeDelta {
+	private static final int HAS_STATE = 1;
+	private static final int HAS_CHILDREN = 2;
+
+	private static final int SAME_CHILDREN = 0;
+	private static final int OTHER_CHILDREN = 1;
+	private static final int NO_CHILD_LIST = 2;
+
+	private static final Map<Class<?>, EntityType> ENTITY_TYPES = new HashMap<Class<?>, EntityType>();
+
+	static {
+		addEntityType(Landscape.class, null, "systems", "applicationCommunication");
+		addEntityType(System.class, "parent", "nodeGroups");
+		addEntityType(NodeGroup.class, "parent", "nodes");
+		addEntityType(Node.class, "parent", "applications");
+		addEntityType(Application.class, "parent", "components", "communications");
+		addEntityType(Component.class, "parentComponent", "children", "clazzes");
+		addEntityType(Clazz.class, "parent");
+		addEntityType(Communication.class, null);
+		addEntityType(CommunicationClazz.class, null);
+
+		// entities and lists of entities which are contained elsewhere
+		for (final EntityType type : ENTITY_TYPES.values()) {
+			for (final Field field : type.stateFields) {
+				if (ENTITY_TYPES.containsKey(field.getType())) {
+					type.referenceFields.add(field);
+				}
+			}
+			type.stateFields.removeAll(type.referenceFields);
+		}
+		addReferenceList(Application.class, "incomingCommunications");
+		addReferenceList(Application.class, "outgoingCommunications");
+	}
+
+	private static final class EntityType {
+		private final Field parentField;
+		private final Field[] childListFields;
+		private final List<Field> stateFields = new ArrayList<Field>();
+		private final List<Field> referenceFields = new ArrayList<Field>();
+		private final List<Field> referenceListFields = new ArrayList<Field>();
+
+		private EntityType(final Field parentField, final Field[] childListFields) {
+			this.parentField = parentField;
+			this.childListFields = childListFields;
+		}
+	}
+
+	/**
+	 * A landscape to encode deltas against, with the positions of its entities.
+	 * The landscape must not be changed afterwards.
+	 */
+	public static final class Keyframe {
+		private final Landscape landscape;
+		private final Map<Object, int[]> positions;
+
+		public Keyframe(final Landscape landscape) {
+			this.landscape = landscape;
+			positions = collectPositions(landscape);
+		}
+
+		public Landscape getLandscape() {
+			return landscape;
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if an entity refers to an entity outside of its landscape,
+	 *             which can only be stored as keyframe
+	 */
+	public static byte[] encode(final Kryo kryo, final Keyframe keyframe, final Landscape landscape) {
+		final Encoder encoder = new Encoder(kryo, keyframe.positions, collectPositions(landscape));
+		final Output output = new Output(1024, -1);
+		if (!encoder.encodeEntity(output, keyframe.landscape, landscape, 0)) {
+			// neither state nor children changed
+			output.writeVarInt(0, true);
+		}
+		return output.toBytes();
+	}
+
+	/**
+	 * Turns the keyframe landscape into the landscape of the delta.
+	 *
+	 * @param keyframe
+	 *            a freshly read copy of the keyframe, which is changed
+	 */
+	public static Landscape decode(final Kryo kryo, final Landscape keyframe, final byte[] delta) {
+		final Decoder decoder = new Decoder(kryo, collectPositions(keyframe));
+		final Input input = new Input(delta);
+		try {
+			decoder.decodeEntity(input, keyframe);
+		} finally {
+			input.close();
+		}
+		decoder.resolveReferences(keyframe);
+		return keyframe;
+	}
+
+	private static final class Encoder {
+		private final Kryo kryo;
+		private final Map<Object, int[]> oldPositions;
+		private final Map<Object, int[]> newPositions;
+		// reused buffers per depth of the landscape
+		private final List<Output[]> buffers = new ArrayList<Output[]>();
+
+		private Encoder(final Kryo kryo, final Map<Object, int[]> oldPositions,
+				final Map<Object, int[]> newPositions) {
+			this.kryo = kryo;
+			this.oldPositions = oldPositions;
+			this.newPositions = newPositions;
+		}
+
+		/**
+		 * @return whether anything was written, i.e. the entity or its
+		 *         contents changed
+		 */
+		private boolean encodeEntity(final Output output, final Object oldEntity,
+				final Object newEntity, final int depth) {
+			final EntityType type = ENTITY_TYPES.get(newEntity.getClass());
+			final Output[] depthBuffers = getBuffers(depth);
+			final Output newState = depthBuffers[0];
+			final Output oldState = depthBuffers[1];
+			final Output children = depthBuffers[2];
+
+			newState.clear();
+			writeState(newState, type, newEntity, newPositions);
+			boolean stateChanged = true;
+			if (oldEntity != null) {
+				oldState.clear();
+				writeState(oldState, type, oldEntity, oldPositions);
+				stateChanged = !equalBuffers(oldState, newState);
+			}
+
+			children.clear();
+			boolean childrenChanged = false;
+			for (final Field field : type.childListFields) {
+				childrenChanged |= encodeChildList(children,
+						oldEntity == null ? null : (List<?>) get(field, oldEntity),
+						(List<?>) get(field, newEntity), oldEntity == null, depth);
+			}
+
+			if (!stateChanged && !childrenChanged) {
+				return false;
+			}
+			if (oldEntity == null) {
+				kryo.writeClass(output, newEntity.getClass());
+			}
+			output.writeVarInt((stateChanged ? HAS_STATE : 0) | (childrenChanged ? HAS_CHILDREN : 0),
+					true);
+			if (stateChanged) {
+				output.writeBytes(newState.getBuffer(), 0, newState.position());
+			}
+			if (childrenChanged) {
+				output.writeBytes(children.getBuffer(), 0, children.position());
+			}
+			return true;
+		}
+
+		private boolean encodeChildList(final Output output, final List<?> oldList,
+				final List<?> newList, final boolean newParent, final int depth) {
+			// every list is written, it is dropped with the other lists if none changed
+			if (newList == null) {
+				output.writeVarInt(NO_CHILD_LIST, true);
+				return newParent || (oldList != null);
+			}
+
+			final int[] oldIndexes = matchChildren(oldList, newList);
+			boolean sameChildren = !newParent && (oldList != null)
+					&& (oldList.size() == newList.size());
+			for (int i = 0; sameChildren && (i < oldIndexes.length); i++) {
+				sameChildren = oldIndexes[i] == i;
+			}
+
+			final Output[] depthBuffers = getBuffers(depth);
+			final Output entries = depthBuffers[3];
+			final Output child = depthBuffers[4];
+			entries.clear();
+			int changedCount = 0;
+			for (int i = 0; i < newList.size(); i++) {
+				child.clear();
+				final Object oldChild = oldIndexes[i] < 0 ? null : oldList.get(oldIndexes[i]);
+				if (encodeEntity(child, oldChild, newList.get(i), depth + 1)) {
+					entries.writeVarInt(i, true);
+					entries.writeBytes(child.getBuffer(), 0, child.position());
+					changedCount++;
+				}
+			}
+
+			if (sameChildren) {
+				output.writeVarInt(SAME_CHILDREN, true);
+			} else {
+				output.writeVarInt(OTHER_CHILDREN, true);
+				output.writeVarInt(newList.size(), true);
+				for (final int oldIndex : oldIndexes) {
+					output.writeVarInt(oldIndex + 1, true);
+				}
+			}
+			output.writeVarInt(changedCount, true);
+			output.writeBytes(entries.getBuffer(), 0, entries.position());
+			return !sameChildren || (changedCount > 0);
+		}
+
+		private void writeState(final Output output, final EntityType type, final Object entity,
+				final Map<Object, int[]> positions) {
+			for (final Field field : type.stateFields) {
+				kryo.writeClassAndObject(output, get(field, entity));
+			}
+			for (final Field field : type.referenceFields) {
+				writePosition(output, get(field, entity), positions);
+			}
+			for (final Field field : type.referenceListFields) {
+				final List<?> references = (List<?>) get(field, entity);
+				if (references == null) {
+					output.writeVarInt(0, true);
+				} else {
+					output.writeVarInt(references.size() + 1, true);
+					for (final Object reference : references) {
+						writePosition(output, reference, positions);
+					}
+				}
+			}
+		}
+
+		private Output[] getBuffers(final int depth) {
+			while (buffers.size() <= depth) {
+				final Output[] depthBuffers = new Output[5];
+				for (int i = 0; i < depthBuffers.length; i++) {
+					depthBuffers[i] = new Output(256, -1);
+				}
+				buffers.add(depthBuffers);
+			}
+			return buffers.get(depth);
+		}
+	}
+
+	private static final class Decoder {
+		private final Kryo kryo;
+		private final Map<Object, int[]> keyframePositions;
+		// references of every entity, resolved when all entities are in place
+		private final Map<Object, int[][]> references = new IdentityHashMap<Object, int[][]>();
+		private final Map<Object, int[][][]> referenceLists = new IdentityHashMap<Object, int[][][]>();
+
+		private Decoder(final Kryo kryo, final Map<Object, int[]> keyframePositions) {
+			this.kryo = kryo;
+			this.keyframePositions = keyframePositions;
+		}
+
+		private void decodeEntity(final Input input, final Object entity) {
+			final EntityType type = ENTITY_TYPES.get(entity.getClass());
+			final int flags = input.readVarInt(true);
+
+			if ((flags & HAS_STATE) != 0) {
+				readState(input, type, entity);
+			}
+			if ((flags & HAS_CHILDREN) != 0) {
+				for (final Field field : type.childListFields) {
+					decodeChildList(input, field, entity);
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void decodeChildList(final Input input, final Field field, final Object entity) {
+			final int mode = input.readVarInt(true);
+			if (mode == NO_CHILD_LIST) {
+				set(field, entity, null);
+				return;
+			}
+
+			List<Object> list = (List<Object>) get(field, entity);
+			if (mode == OTHER_CHILDREN) {
+				final List<Object> oldList = list == null ? Collections.emptyList() : new ArrayList<Object>(
+						list);
+				if (list == null) {
+					list = new ArrayList<Object>();
+					set(field, entity, list);
+				}
+				list.clear();
+
+				final int size = input.readVarInt(true);
+				for (int i = 0; i < size; i++) {
+					final int oldIndex = input.readVarInt(true) - 1;
+					// new entities follow with all their fields
+					list.add(oldIndex < 0 ? null : oldList.get(oldIndex));
+				}
+			}
+
+			final int changedCount = input.readVarInt(true);
+			for (int i = 0; i < changedCount; i++) {
+				final int index = input.readVarInt(true);
+				Object child = list.get(index);
+				if (child == null) {
+					child = createEntity(input);
+					list.set(index, child);
+				} else {
+					decodeEntity(input, child);
+				}
+			}
+		}
+
+		private Object createEntity(final Input input) {
+			final Object entity = kryo.newInstance(kryo.readClass(input).getType());
+			decodeEntity(input, entity);
+			return entity;
+		}
+
+		private void readState(final Input input, final EntityType type, final Object entity) {
+			for (final Field field : type.stateFields) {
+				set(field, entity, kryo.readClassAndObject(input));
+			}
+
+			final int[][] entityReferences = new int[type.referenceFields.size()][];
+			for (int i = 0; i < entityReferences.length; i++) {
+				entityReferences[i] = readPosition(input);
+			}
+			references.put(entity, entityReferences);
+
+			final int[][][] entityReferenceLists = new int[type.referenceListFields.size()][][];
+			for (int i = 0; i < entityReferenceLists.length; i++) {
+				final int size = input.readVarInt(true) - 1;
+				if (size >= 0) {
+					entityReferenceLists[i] = new int[size][];
+					for (int j = 0; j < size; j++) {
+						entityReferenceLists[i][j] = readPosition(input);
+					}
+				}
+			}
+			referenceLists.put(entity, entityReferenceLists);
+		}
+
+		/**
+		 * Sets the parents and references of all entities. Unchanged
+		 * entities refer to the entities at the positions of their former
+		 * references.
+		 */
+		@SuppressWarnings("unchecked")
+		private void resolveReferences(final Landscape landscape) {
+			for (final Map.Entry<Object, int[]> entry : collectPositions(landscape).entrySet()) {
+				final Object entity = entry.getKey();
+				final EntityType type = ENTITY_TYPES.get(entity.getClass());
+
+				int[][] entityReferences = references.get(entity);
+				if (entityReferences == null) {
+					entityReferences = new int[type.referenceFields.size()][];
+					for (int i = 0; i < entityReferences.length; i++) {
+						entityReferences[i] = keyframePosition(get(type.referenceFields.get(i),
+								entity));
+					}
+				}
+				for (int i = 0; i < entityReferences.length; i++) {
+					set(type.referenceFields.get(i), entity,
+							resolve(landscape, entityReferences[i]));
+				}
+
+				int[][][] entityReferenceLists = referenceLists.get(entity);
+				if (entityReferenceLists == null) {
+					entityReferenceLists = new int[type.referenceListFields.size()][][];
+					for (int i = 0; i < entityReferenceLists.length; i++) {
+						final List<Object> list = (List<Object>) get(
+								type.referenceListFields.get(i), entity);
+						if (list != null) {
+							entityReferenceLists[i] = new int[list.size()][];
+							for (int j = 0; j < list.size(); j++) {
+								entityReferenceLists[i][j] = keyframePosition(list.get(j));
+							}
+						}
+					}
+				}
+				for (int i = 0; i < entityReferenceLists.length; i++) {
+					final Field field = type.referenceListFields.get(i);
+					if (entityReferenceLists[i] == null) {
+						set(field, entity, null);
+						continue;
+					}
+					List<Object> list = (List<Object>) get(field, entity);
+					if (list == null) {
+						list = new ArrayList<Object>();
+						set(field, entity, list);
+					}
+					list.clear();
+					for (final int[] position : entityReferenceLists[i]) {
+						list.add(resolve(landscape, position));
+					}
+				}
+
+				if (type.parentField != null) {
+					final int[] position = entry.getValue();
+					final Object parent = resolve(landscape,
+							Arrays.copyOf(position, position.length - 2));
+					set(type.parentField, entity, type.parentField.getType().isInstance(parent) ? parent
+							: null);
+				}
+			}
+		}
+
+		private int[] keyframePosition(final Object entity) {
+			if (entity == null) {
+				return null;
+			}
+			final int[] position = keyframePositions.get(entity);
+			if (position == null) {
+				throw new IllegalStateException("Entity outside of the keyframe");
+			}
+			return position;
+		}
+	}
+
+	private static void addEntityType(final Class<?> type, final String parentFieldName,
+			final String... childListFieldNames) {
+		final Field[] childListFields = new Field[childListFieldNames.length];
+		for (int i = 0; i < childListFields.length; i++) {
+			childListFields[i] = findField(type, childListFieldNames[i]);
+		}
+		final Field parentField = parentFieldName == null ? null : findField(type,
+				parentFieldName);
+		final EntityType entityType = new EntityType(parentField, childListFields);
+
+		// the serialized fields like Kryo's FieldSerializer, superclasses first
+		final List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+		for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+			hierarchy.add(0, current);
+		}
+		for (final Class<?> current : hierarchy) {
+			final List<Field> fields = new ArrayList<Field>();
+			for (final Field field : current.getDeclaredFields()) {
+				final int modifiers = field.getModifiers();
+				if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+						&& !field.isSynthetic() && !field.equals(parentField)
+						&& !Arrays.asList(childListFields).contains(field)) {
+					field.setAccessible(true);
+					fields.add(field);
+				}
+			}
+			Collections.sort(fields, new Comparator<Field>() {
+				@Override
+				public int compare(final Field f1, final Field f2) {
+					return f1.getName().compareTo(f2.getName());
+				}
+			});
+			entityType.stateFields.addAll(fields);
+		}
+
+		ENTITY_TYPES.put(type, entityType);
+	}
+
+	private static void addReferenceList(final Class<?> type, final String fieldName) {
+		final EntityType entityType = ENTITY_TYPES.get(type);
+		final Field field = findField(type, fieldName);
+		entityType.stateFields.remove(field);
+		entityType.referenceListFields.add(field);
+	}
+
+	private static Field findField(final Class<?> type, final String name) {
+		for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+			try {
+				final Field field = current.getDeclaredField(name);
+				field.setAccessible(true);
+				return field;
+			} catch (final NoSuchFieldException e) {
+				// declared in a superclass
+			}
+		}
+		throw new IllegalStateException("No field " + name + " in " + type.getName());
+	}
+
+	/**
+	 * @return for every entity the child lists and indexes leading to it from
+	 *         the landscape, as pairs of numbers
+	 */
+	private static Map<Object, int[]> collectPositions(final Landscape landscape) {
+		final Map<Object, int[]> positions = new IdentityHashMap<Object, int[]>();
+		collectPositions(landscape, new int[0], positions);
+		return positions;
+	}
+
+	private static void collectPositions(final Object entity, final int[] position,
+			final Map<Object, int[]> positions) {
+		positions.put(entity, position);
+		final Field[] childListFields = ENTITY_TYPES.get(entity.getClass()).childListFields;
+		for (int i = 0; i < childListFields.length; i++) {
+			final List<?> children = (List<?>) get(childListFields[i], entity);
+			if (children != null) {
+				for (int j = 0; j < children.size(); j++) {
+					final int[] childPosition = Arrays.copyOf(position, position.length + 2);
+					childPosition[position.length] = i;
+					childPosition[position.length + 1] = j;
+					collectPositions(children.get(j), childPosition, positions);
+				}
+			}
+		}
+	}
+
+	private static void writePosition(final Output output, final Object entity,
+			final Map<Object, int[]> positions) {
+		if (entity == null) {
+			output.writeVarInt(0, true);
+			return;
+		}
+		final int[] position = positions.get(entity);
+		if (position == null) {
+			throw new IllegalArgumentException("Reference to a " + entity.getClass().getSimpleName()
+					+ " outside of the landscape");
+		}
+		output.writeVarInt(position.length + 1, true);
+		for (final int value : position) {
+			output.writeVarInt(value, true);
+		}
+	}
+
+	private static int[] readPosition(final Input input) {
+		final int length = input.readVarInt(true) - 1;
+		if (length < 0) {
+			return null;
+		}
+		final int[] position = new int[length];
+		for (int i = 0; i < length; i++) {
+			position[i] = input.readVarInt(true);
+		}
+		return position;
+	}
+
+	private static Object resolve(final Landscape landscape, final int[] position) {
+		if (position == null) {
+			return null;
+		}
+		Object entity = landscape;
+		for (int i = 0; i < position.length; i += 2) {
+			final Field field = ENTITY_TYPES.get(entity.getClass()).childListFields[position[i]];
+			entity = ((List<?>) get(field, entity)).get(position[i + 1]);
+		}
+		return entity;
+	}
+
+	/**
+	 * @return for every new child the index of the child with the same name in
+	 *         the old list or -1
+	 */
+	private static int[] matchChildren(final List<?> oldList, final List<?> newList) {
+		final Map<String, LinkedList<Integer>> oldIndexesByKey = new HashMap<String, LinkedList<Integer>>();
+		if (oldList != null) {
+			for (int i = 0; i < oldList.size(); i++) {
+				final String key = getKey(oldList.get(i));
+				LinkedList<Integer> indexes = oldIndexesByKey.get(key);
+				if (indexes == null) {
+					indexes = new LinkedList<Integer>();
+					oldIndexesByKey.put(key, indexes);
+				}
+				indexes.add(i);
+			}
+		}
+
+		final int[] oldIndexes = new int[newList.size()];
+		for (int i = 0; i < oldIndexes.length; i++) {
+			// entities with the same name are matched in their order
+			final LinkedList<Integer> indexes = oldIndexesByKey.get(getKey(newList.get(i)));
+			oldIndexes[i] = (indexes == null) || indexes.isEmpty() ? -1 : indexes.removeFirst();
+		}
+		return oldIndexes;
+	}
+
+	private static String getKey(final Object entity) {
+		if (entity instanceof Node) {
+			return ((Node) entity).getIpAddress();
+		} else if (entity instanceof Application) {
+			final Application application = (Application) entity;
+			return application.getId() + "/" + application.getName();
+		} else if (entity instanceof Component) {
+			return ((Component) entity).getFullQualifiedName();
+		} else if (entity instanceof Clazz) {
+			return ((Clazz) entity).getFullQualifiedName();
+		} else if (entity instanceof CommunicationClazz) {
+			final CommunicationClazz communication = (CommunicationClazz) entity;
+			return getKey(communication.getSource()) + ">" + getKey(communication.getTarget()) + "#"
+					+ communication.getMethodName();
+		} else if (entity instanceof Communication) {
+			final Communication communication = (Communication) entity;
+			return getKey(communication.getSource()) + "/" + getKey(communication.getSourceClazz())
+					+ ">" + getKey(communication.getTarget()) + "/"
+					+ getKey(communication.getTargetClazz()) + "#" + communication.getTechnology();
+		} else if (entity instanceof System) {
+			return ((System) entity).getName();
+		} else if (entity instanceof NodeGroup) {
+			return ((NodeGroup) entity).getName();
+		}
+		return String.valueOf(entity);
+	}
+
+	private static boolean equalBuffers(final Output output1, final Output output2) {
+		if (output1.position() != output2.position()) {
+			return false;
+		}
+		final byte[] buffer1 = output1.getBuffer();
+		final byte[] buffer2 = output2.getBuffer();
+		for (int i = 0; i < output1.position(); i++) {
+			if (buffer1[i] != buffer2[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Object get(final Field field, final Object entity) {
+		try {
+			return field.get(entity);
+		} catch (final IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void set(final Field field, final Object entity, final Object value) {
+		try {
+			field.set(entity, value);
+		} catch (final IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
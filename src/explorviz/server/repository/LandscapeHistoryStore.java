@@ -0,0 +1,361 @@
+package explorviz.server.repository;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * Append-only store for serialized landscape snapshots. Snapshots are
+ * appended to segment files that each cover a fixed time span, and an
+ * in-memory timestamp index points to their offsets. Reads of older segments
+ * go through a memory mapping of the whole segment, reads of the active
+ * segment read from its file. Retention drops whole segments.
+ *
+ * A record consists of a header (timestamp, activities, keyframe timestamp,
+ * payload length) followed by the payload. The keyframe timestamp is
+ * {@link #NO_KEYFRAME} for keyframes.
+ */
+public class LandscapeHistoryStore {
+	public static final String SEGMENT_EXTENSION = ".expls";
+	public static final long NO_KEYFRAME = -1L;
+
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final int HEADER_SIZE = 8 + 8 + 8 + 4;
+
+	private final File folder;
+	private final long segmentDurationInMillis;
+
+	private final TreeMap<Long, Segment> segments = new TreeMap<Long, Segment>();
+	private final TreeMap<Long, Record> index = new TreeMap<Long, Record>();
+	private boolean closed = false;
+
+	public LandscapeHistoryStore(final File folder, final long segmentDurationInMillis) {
+		this.folder = folder;
+		this.segmentDurationInMillis = segmentDurationInMillis;
+
+		folder.mkdirs();
+		loadSegments();
+	}
+
+	public static final class Record {
+		private final long timestamp;
+		private final long activities;
+		private final long keyframeTimestamp;
+		private final Segment segment;
+		private final long offset;
+		private final int length;
+
+		private Record(final long timestamp, final long activities,
+				final long keyframeTimestamp, final Segment segment, final long offset,
+				final int length) {
+			this.timestamp = timestamp;
+			this.activities = activities;
+			this.keyframeTimestamp = keyframeTimestamp;
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		public long getActivities() {
+			return activities;
+		}
+
+		public long getKeyframeTimestamp() {
+			return keyframeTimestamp;
+		}
+
+		public boolean isKeyframe() {
+			return keyframeTimestamp == NO_KEYFRAME;
+		}
+
+		/**
+		 * @return the size of the stored keyframe or delta in bytes
+		 */
+		public int getLength() {
+			return length;
+		}
+	}
+
+	private static final class Segment {
+		private final File file;
+		private final long firstTimestamp;
+		private long lastTimestamp;
+		private RandomAccessFile randomAccessFile;
+		private FileChannel channel;
+		private MappedByteBuffer sealedMapping;
+
+		private Segment(final File file, final long firstTimestamp) throws IOException {
+			this.file = file;
+			this.firstTimestamp = firstTimestamp;
+			lastTimestamp = firstTimestamp;
+			randomAccessFile = new RandomAccessFile(file, "rw");
+			channel = randomAccessFile.getChannel();
+		}
+
+		private void close() {
+			sealedMapping = null;
+			try {
+				randomAccessFile.close();
+			} catch (final IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * @return whether a snapshot with this timestamp will be the first one of
+	 *         a new segment. The first record of a segment must be a keyframe,
+	 *         so segments can be dropped independently.
+	 */
+	public synchronized boolean startsNewSegment(final long timestamp) {
+		final Segment activeSegment = getActiveSegment();
+		return (activeSegment == null)
+				|| ((timestamp - activeSegment.firstTimestamp) >= segmentDurationInMillis);
+	}
+
+	public synchronized void append(final long timestamp, final long activities,
+			final long keyframeTimestamp, final byte[] payload) throws IOException {
+		if (closed) {
+			throw new IOException("History store " + folder + " is closed");
+		}
+		if (startsNewSegment(timestamp)) {
+			final Segment segment = new Segment(new File(folder, SEGMENT_PREFIX + timestamp
+					+ SEGMENT_EXTENSION), timestamp);
+			final Segment previousSegment = getActiveSegment();
+			segments.put(timestamp, segment);
+
+			if (previousSegment != null) {
+				seal(previousSegment);
+			}
+		}
+
+		final Segment segment = getActiveSegment();
+		final long recordStart = segment.channel.size();
+
+		final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+		buffer.putLong(timestamp);
+		buffer.putLong(activities);
+		buffer.putLong(keyframeTimestamp);
+		buffer.putInt(payload.length);
+		buffer.put(payload);
+		buffer.flip();
+
+		long position = recordStart;
+		while (buffer.hasRemaining()) {
+			position += segment.channel.write(buffer, position);
+		}
+
+		segment.lastTimestamp = timestamp;
+		index.put(timestamp, new Record(timestamp, activities, keyframeTimestamp, segment,
+				recordStart + HEADER_SIZE, payload.length));
+	}
+
+	/**
+	 * @return the newest record not newer than the timestamp, or null
+	 */
+	public synchronized Record floorRecord(final long timestamp) {
+		final Entry<Long, Record> entry = index.floorEntry(timestamp);
+		return entry == null ? null : entry.getValue();
+	}
+
+	public synchronized Record getRecord(final long timestamp) {
+		return index.get(timestamp);
+	}
+
+	/**
+	 * @return timestamp to activities of all records newer than the timestamp
+	 */
+	public synchronized Map<Long, Long> getActivitiesSince(final long fromTimestampExclusive) {
+		final Map<Long, Long> result = new TreeMap<Long, Long>();
+		for (final Record record : index.tailMap(fromTimestampExclusive, false).values()) {
+			result.put(record.timestamp, record.activities);
+		}
+		return result;
+	}
+
+	public byte[] read(final Record record) throws IOException {
+		final byte[] result = new byte[record.length];
+		final ByteBuffer sealedRegion = getSealedRegion(record);
+		if (sealedRegion != null) {
+			sealedRegion.get(result);
+		} else {
+			readFromChannel(record, ByteBuffer.wrap(result));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the region of the record in the mapping of its segment, or null
+	 *         if the segment is the active one
+	 */
+	private synchronized ByteBuffer getSealedRegion(final Record record) throws IOException {
+		final Segment segment = record.segment;
+		if (segment.channel == null) {
+			throw new FileNotFoundException("Segment " + segment.file + " is closed or was dropped");
+		}
+		if (segment.sealedMapping == null) {
+			return null;
+		}
+
+		final ByteBuffer region = segment.sealedMapping.duplicate();
+		region.position((int) record.offset);
+		region.limit((int) record.offset + record.length);
+		return region;
+	}
+
+	/**
+	 * The active segment still grows, so it is read with positional reads
+	 * instead of mapping a region per read
+	 */
+	private synchronized void readFromChannel(final Record record, final ByteBuffer target)
+			throws IOException {
+		final Segment segment = record.segment;
+		if (segment.channel == null) {
+			throw new FileNotFoundException("Segment " + segment.file + " is closed or was dropped");
+		}
+
+		while (target.hasRemaining()) {
+			if (segment.channel.read(target, record.offset + target.position()) < 0) {
+				throw new EOFException("Record " + record.timestamp + " exceeds segment "
+						+ segment.file);
+			}
+		}
+	}
+
+	/**
+	 * Drops all segments whose newest record is not newer than the end date.
+	 * The active segment is never dropped.
+	 */
+	public synchronized void dropSegmentsUntil(final long enddate) {
+		final Segment activeSegment = getActiveSegment();
+
+		final Iterator<Segment> iterator = segments.values().iterator();
+		while (iterator.hasNext()) {
+			final Segment segment = iterator.next();
+			if ((segment == activeSegment) || (segment.lastTimestamp > enddate)) {
+				break;
+			}
+
+			index.subMap(segment.firstTimestamp, true, segment.lastTimestamp, true).clear();
+			iterator.remove();
+			deleteSegment(segment);
+		}
+	}
+
+	public synchronized void clear() {
+		for (final Segment segment : segments.values()) {
+			deleteSegment(segment);
+		}
+		segments.clear();
+		index.clear();
+	}
+
+	/**
+	 * Closes the segment files, records cannot be read or appended
+	 * afterwards. The segments stay on disk unless the store is cleared.
+	 */
+	public synchronized void close() {
+		for (final Segment segment : segments.values()) {
+			segment.close();
+			segment.channel = null;
+		}
+		closed = true;
+	}
+
+	private void deleteSegment(final Segment segment) {
+		segment.close();
+		segment.channel = null;
+		if (!segment.file.delete() && segment.file.exists()) {
+			// e.g. still mapped on Windows, it would be loaded again on restart
+			System.err.println("Could not delete history segment " + segment.file);
+			segment.file.deleteOnExit();
+		}
+	}
+
+	private Segment getActiveSegment() {
+		final Entry<Long, Segment> lastEntry = segments.lastEntry();
+		return lastEntry == null ? null : lastEntry.getValue();
+	}
+
+	private void seal(final Segment segment) {
+		try {
+			segment.sealedMapping = segment.channel.map(MapMode.READ_ONLY, 0,
+					segment.channel.size());
+		} catch (final IOException e) {
+			// reads fall back to positional reads
+			e.printStackTrace();
+		}
+	}
+
+	private void loadSegments() {
+		final File[] files = folder.listFiles();
+		if (files == null) {
+			return;
+		}
+
+		for (final File file : files) {
+			final String name = file.getName();
+			if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_EXTENSION)) {
+				try {
+					final long firstTimestamp = Long.parseLong(name.substring(
+							SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length()));
+					final Segment segment = new Segment(file, firstTimestamp);
+					segments.put(firstTimestamp, segment);
+					loadRecords(segment);
+				} catch (final NumberFormatException e) {
+					continue;
+				} catch (final IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		final Segment activeSegment = getActiveSegment();
+		for (final Segment segment : segments.values()) {
+			if (segment != activeSegment) {
+				seal(segment);
+			}
+		}
+	}
+
+	private void loadRecords(final Segment segment) throws IOException {
+		final long size = segment.channel.size();
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+		long position = 0;
+		while ((position + HEADER_SIZE) <= size) {
+			header.clear();
+			while (header.hasRemaining()) {
+				segment.channel.read(header, position + header.position());
+			}
+			header.flip();
+
+			final long timestamp = header.getLong();
+			final long activities = header.getLong();
+			final long keyframeTimestamp = header.getLong();
+			final int length = header.getInt();
+
+			if ((position + HEADER_SIZE + length) > size) {
+				break;
+			}
+
+			index.put(timestamp, new Record(timestamp, activities, keyframeTimestamp, segment,
+					position + HEADER_SIZE, length));
+			segment.lastTimestamp = timestamp;
+			position += HEADER_SIZE + length;
+		}
+
+		if (position < size) {
+			// incomplete record of an interrupted write
+			segment.channel.truncate(position);
+		}
+	}
+}
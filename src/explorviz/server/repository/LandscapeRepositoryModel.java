@@ -4,8 +4,8 @@ import java.io.FileNotFoundException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
-
-import com.esotericsoftware.kryo.Kryo;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import explorviz.live_trace_processing.reader.IPeriodicTimeSignalReceiver;
 import explorviz.live_trace_processing.reader.TimeSignalReader;
@@ -17,22 +17,29 @@ import explorviz.shared.model.System;
 public class LandscapeRepositoryModel implements IPeriodicTimeSignalReceiver {
 	private static final boolean LOAD_LAST_LANDSCAPE_ON_LOAD = false;
 
-	private Landscape lastPeriodLandscape;
+	/**
+	 * Decoded from the serialized period snapshot, so it shares nothing with
+	 * the in-memory model and is never modified after publication
+	 */
+	private volatile Landscape lastPeriodLandscape;
 	private final Landscape internalLandscape;
-	private final Kryo kryo;
+
+	/**
+	 * Inserting threads share this lock, the period switch takes it
+	 * exclusively only for serializing and resetting the in-memory model
+	 */
+	private final ReadWriteLock periodLock = new ReentrantReadWriteLock();
 
 	private final InsertionRepositoryPart insertionRepositoryPart;
 
 	private final RemoteCallRepositoryPart remoteCallRepositoryPart;
 
 	public final Landscape getLastPeriodLandscape() {
-		synchronized (lastPeriodLandscape) {
-			return lastPeriodLandscape;
-		}
+		return lastPeriodLandscape;
 	}
 
 	public final Landscape getLandscape(final long timestamp) throws FileNotFoundException {
-		return LandscapePreparer.prepareLandscape(RepositoryStorage.readFromFile(timestamp));
+		return RepositoryStorage.readPreparedFromFile(timestamp);
 	}
 
 	public final Map<Long, Long> getAvailableLandscapes() {
@@ -50,8 +57,6 @@ public class LandscapeRepositoryModel implements IPeriodicTimeSignalReceiver {
 	}
 
 	public LandscapeRepositoryModel() {
-		kryo = initKryo();
-
 		if (LOAD_LAST_LANDSCAPE_ON_LOAD) {
 			Landscape readLandscape = null;
 			try {
@@ -62,6 +67,7 @@ public class LandscapeRepositoryModel implements IPeriodicTimeSignalReceiver {
 			}
 
 			internalLandscape = readLandscape;
+			resetLoadedCommunication();
 		} else {
 			internalLandscape = new Landscape();
 		}
@@ -71,42 +77,52 @@ public class LandscapeRepositoryModel implements IPeriodicTimeSignalReceiver {
 
 		internalLandscape.updateLandscapeAccess(java.lang.System.nanoTime());
 
-		lastPeriodLandscape = LandscapePreparer.prepareLandscape(kryo.copy(internalLandscape));
+		lastPeriodLandscape = LandscapePreparer.prepareLandscape(RepositoryStorage
+				.deserialize(RepositoryStorage.serialize(internalLandscape)));
 
 		new TimeSignalReader(TimeUnit.SECONDS.toMillis(Configuration.outputIntervalSeconds), this)
 				.start();
 	}
 
-	public Kryo initKryo() {
-		return RepositoryStorage.createKryoInstance();
-	}
-
 	public void reset() {
-		synchronized (internalLandscape) {
+		periodLock.writeLock().lock();
+		try {
 			internalLandscape.getApplicationCommunication().clear();
 			internalLandscape.getSystems().clear();
 			internalLandscape.getEvents().clear();
 			internalLandscape.getErrors().clear();
 			internalLandscape.setActivities(0L);
 			internalLandscape.updateLandscapeAccess(java.lang.System.nanoTime());
+		} finally {
+			periodLock.writeLock().unlock();
 		}
 	}
 
 	@Override
 	public void periodicTimeSignal(final long timestamp) {
-		synchronized (internalLandscape) {
-			synchronized (lastPeriodLandscape) {
-				RepositoryStorage.writeToFile(internalLandscape,
-						java.lang.System.currentTimeMillis());
-				lastPeriodLandscape = LandscapePreparer.prepareLandscape(kryo
-						.copy(internalLandscape));
+		final byte[] snapshot;
+		final long activities;
 
-				remoteCallRepositoryPart.checkForTimedoutRemoteCalls();
+		periodLock.writeLock().lock();
+		try {
+			snapshot = RepositoryStorage.serialize(internalLandscape);
+			activities = internalLandscape.getActivities();
 
-				resetCommunication();
-			}
+			remoteCallRepositoryPart.checkForTimedoutRemoteCalls();
+
+			resetCommunication();
+		} finally {
+			periodLock.writeLock().unlock();
 		}
 
+		// inserting continues while the snapshot is written and decoded
+		final Landscape landscape = RepositoryStorage.deserialize(snapshot);
+		final boolean keptAsKeyframe = RepositoryStorage.writeSnapshot(snapshot, landscape,
+				activities, java.lang.System.currentTimeMillis());
+		// preparing restructures the landscape, which the keyframe must not see
+		lastPeriodLandscape = LandscapePreparer.prepareLandscape(keptAsKeyframe ? RepositoryStorage
+				.deserialize(snapshot) : landscape);
+
 		RepositoryStorage.cleanUpTooOldFiles(java.lang.System.currentTimeMillis());
 	}
 
@@ -114,6 +130,21 @@ public class LandscapeRepositoryModel implements IPeriodicTimeSignalReceiver {
 		internalLandscape.getErrors().clear();
 		internalLandscape.setActivities(0L);
 
+		insertionRepositoryPart.resetPeriodMetrics();
+
+		for (final Communication commu : internalLandscape.getApplicationCommunication()) {
+			commu.setRequests(0);
+			commu.setAverageResponseTimeInNanoSec(0);
+		}
+
+		internalLandscape.updateLandscapeAccess(java.lang.System.nanoTime());
+	}
+
+	/**
+	 * Metrics of a loaded landscape are not tracked by the insertion, so they
+	 * are reset by walking the whole landscape once
+	 */
+	private void resetLoadedCommunication() {
 		for (final System system : internalLandscape.getSystems()) {
 			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
 				for (final Node node : nodeGroup.getNodes()) {
@@ -129,13 +160,6 @@ public class LandscapeRepositoryModel implements IPeriodicTimeSignalReceiver {
 				}
 			}
 		}
-
-		for (final Communication commu : internalLandscape.getApplicationCommunication()) {
-			commu.setRequests(0);
-			commu.setAverageResponseTimeInNanoSec(0);
-		}
-
-		internalLandscape.updateLandscapeAccess(java.lang.System.nanoTime());
 	}
 
 	private void resetClazzInstances(final List<Component> components) {
@@ -150,7 +174,27 @@ public class LandscapeRepositoryModel implements IPeriodicTimeSignalReceiver {
 	}
 
 	public void insertIntoModel(final IRecord inputIRecord) {
-		insertionRepositoryPart.insertIntoModel(inputIRecord, internalLandscape,
-				remoteCallRepositoryPart);
+		periodLock.readLock().lock();
+		try {
+			insertionRepositoryPart.insertIntoModel(inputIRecord, internalLandscape,
+					remoteCallRepositoryPart);
+		} finally {
+			periodLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Inserts several records while holding the period lock only once
+	 */
+	public void insertIntoModel(final List<IRecord> inputIRecords) {
+		periodLock.readLock().lock();
+		try {
+			for (final IRecord inputIRecord : inputIRecords) {
+				insertionRepositoryPart.insertIntoModel(inputIRecord, internalLandscape,
+						remoteCallRepositoryPart);
+			}
+		} finally {
+			periodLock.readLock().unlock();
+		}
 	}
 }
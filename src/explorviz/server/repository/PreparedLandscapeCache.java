@@ -0,0 +1,121 @@
+package explorviz.server.repository;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+import explorviz.shared.model.Landscape;
+
+/**
+ * Least recently used cache for deserialized and prepared landscapes, so
+ * users scrubbing to the same point in time share one decoded landscape.
+ * Cached landscapes are shared and must not be modified.
+ *
+ * The cache is bounded by the estimated heap size of its landscapes, which
+ * is derived from their serialized size.
+ */
+public class PreparedLandscapeCache {
+	// deserialized object graphs are roughly this much larger than Kryo output
+	private static final int HEAP_TO_SERIALIZED_SIZE_FACTOR = 8;
+
+	private static final PreparedLandscapeCache sharedInstance = new PreparedLandscapeCache(
+			256L * 1024 * 1024);
+
+	private final long maximumWeight;
+	private long currentWeight = 0L;
+
+	private final LinkedHashMap<String, CachedLandscape> entries = new LinkedHashMap<String, CachedLandscape>(
+			16, 0.75f, true);
+
+	private long hits = 0L;
+	private long misses = 0L;
+	private long evictions = 0L;
+
+	public PreparedLandscapeCache(final long maximumWeight) {
+		this.maximumWeight = maximumWeight;
+	}
+
+	public static PreparedLandscapeCache getSharedInstance() {
+		return sharedInstance;
+	}
+
+	public static long estimateWeight(final long serializedSize) {
+		return serializedSize * HEAP_TO_SERIALIZED_SIZE_FACTOR;
+	}
+
+	public synchronized Landscape get(final String snapshotId) {
+		final CachedLandscape cached = entries.get(snapshotId);
+		if (cached == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return cached.landscape;
+	}
+
+	public synchronized void put(final String snapshotId, final Landscape landscape,
+			final long weight) {
+		if (weight > maximumWeight) {
+			return;
+		}
+
+		final CachedLandscape previous = entries.put(snapshotId, new CachedLandscape(landscape,
+				weight));
+		if (previous != null) {
+			currentWeight -= previous.weight;
+		}
+		currentWeight += weight;
+
+		final Iterator<Entry<String, CachedLandscape>> iterator = entries.entrySet().iterator();
+		while ((currentWeight > maximumWeight) && iterator.hasNext()) {
+			final Entry<String, CachedLandscape> eldest = iterator.next();
+			if (eldest.getKey().equals(snapshotId)) {
+				continue;
+			}
+			currentWeight -= eldest.getValue().weight;
+			iterator.remove();
+			evictions++;
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		currentWeight = 0L;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getWeight() {
+		return currentWeight;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "size=" + entries.size() + ", weight=" + currentWeight + "/" + maximumWeight
+				+ ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions;
+	}
+
+	private static final class CachedLandscape {
+		private final Landscape landscape;
+		private final long weight;
+
+		private CachedLandscape(final Landscape landscape, final long weight) {
+			this.landscape = landscape;
+			this.weight = weight;
+		}
+	}
+}
@@ -1,109 +1,87 @@
 package explorviz.server.repository;
 
-import java.util.*;
-import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
 import explorviz.live_trace_processing.record.event.AbstractEventRecord;
 import explorviz.live_trace_processing.record.event.remote.BeforeReceivedRemoteCallRecord;
 import explorviz.live_trace_processing.record.event.remote.BeforeSentRemoteCallRecord;
 import explorviz.live_trace_processing.record.trace.HostApplicationMetaDataRecord;
+import explorviz.server.repository.RemoteRecordIndex.IndexEntry;
 import explorviz.server.repository.helper.RemoteRecordBuffer;
 import explorviz.shared.model.*;
 
 public class RemoteCallRepositoryPart {
-	private final Map<BeforeSentRemoteCallRecord, RemoteRecordBuffer> sentRemoteCallRecordCache = new HashMap<BeforeSentRemoteCallRecord, RemoteRecordBuffer>();
-	private final Map<BeforeReceivedRemoteCallRecord, RemoteRecordBuffer> receivedRemoteCallRecordCache = new HashMap<BeforeReceivedRemoteCallRecord, RemoteRecordBuffer>();
+	private static final long REMOTE_CALL_TIMEOUT_IN_NANOS = TimeUnit.SECONDS.toNanos(30);
+	private static final long EXPIRY_BUCKET_WIDTH_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	// keyed by (traceId, orderIndex) of the sent record
+	private final RemoteRecordIndex<BeforeSentRemoteCallRecord> sentRemoteCallRecordCache = new RemoteRecordIndex<BeforeSentRemoteCallRecord>(
+			EXPIRY_BUCKET_WIDTH_IN_NANOS);
+	// keyed by (callerTraceId, callerOrderIndex) of the received record
+	private final RemoteRecordIndex<BeforeReceivedRemoteCallRecord> receivedRemoteCallRecordCache = new RemoteRecordIndex<BeforeReceivedRemoteCallRecord>(
+			EXPIRY_BUCKET_WIDTH_IN_NANOS);
 
 	protected void checkForTimedoutRemoteCalls() {
 		final long currentTime = java.lang.System.nanoTime();
 
-		final Iterator<Entry<BeforeReceivedRemoteCallRecord, RemoteRecordBuffer>> receivedIterator = receivedRemoteCallRecordCache
-				.entrySet().iterator();
-		while (receivedIterator.hasNext()) {
-			final Entry<BeforeReceivedRemoteCallRecord, RemoteRecordBuffer> entry = receivedIterator
-					.next();
-
-			if ((currentTime - TimeUnit.SECONDS.toNanos(30)) > entry.getValue()
-					.getTimestampPutIntoBuffer()) {
-				receivedIterator.remove();
-			}
-		}
-
-		final Iterator<Entry<BeforeSentRemoteCallRecord, RemoteRecordBuffer>> sentIterator = sentRemoteCallRecordCache
-				.entrySet().iterator();
-
-		while (sentIterator.hasNext()) {
-			final Entry<BeforeSentRemoteCallRecord, RemoteRecordBuffer> entry = sentIterator.next();
-
-			if ((currentTime - TimeUnit.SECONDS.toNanos(30)) > entry.getValue()
-					.getTimestampPutIntoBuffer()) {
-				sentIterator.remove();
-			}
-		}
+		receivedRemoteCallRecordCache.expire(currentTime, REMOTE_CALL_TIMEOUT_IN_NANOS);
+		sentRemoteCallRecordCache.expire(currentTime, REMOTE_CALL_TIMEOUT_IN_NANOS);
 	}
 
 	public void insertSentRecord(final Clazz callerClazz,
 			final BeforeSentRemoteCallRecord sentRemoteCallRecord, final Landscape landscape,
 			final InsertionRepositoryPart inserter, final int runtimeIndex) {
-		final BeforeReceivedRemoteCallRecord receivedRecord = seekMatchingReceivedRemoteRecord(sentRemoteCallRecord);
-
-		if (receivedRecord == null) {
-			final RemoteRecordBuffer remoteRecordBuffer = new RemoteRecordBuffer();
-			remoteRecordBuffer.setBelongingClazz(callerClazz);
-
-			sentRemoteCallRecordCache.put(sentRemoteCallRecord, remoteRecordBuffer);
-		} else {
-			seekOrCreateCommunication(sentRemoteCallRecord, receivedRecord, callerClazz,
-					receivedRemoteCallRecordCache.get(receivedRecord).getBelongingClazz(),
-					landscape, inserter, runtimeIndex);
-
-			receivedRemoteCallRecordCache.remove(receivedRecord);
+		// remote calls connect applications of different shards
+		synchronized (landscape) {
+			final IndexEntry<BeforeReceivedRemoteCallRecord> receivedEntry = receivedRemoteCallRecordCache
+					.remove(sentRemoteCallRecord.getTraceId(),
+							sentRemoteCallRecord.getOrderIndex());
+
+			if (receivedEntry == null) {
+				final RemoteRecordBuffer remoteRecordBuffer = new RemoteRecordBuffer();
+				remoteRecordBuffer.setBelongingClazz(callerClazz);
+
+				sentRemoteCallRecordCache.put(sentRemoteCallRecord.getTraceId(),
+						sentRemoteCallRecord.getOrderIndex(), sentRemoteCallRecord,
+						remoteRecordBuffer);
+			} else {
+				seekOrCreateCommunication(sentRemoteCallRecord, receivedEntry.getRecord(),
+						callerClazz, receivedEntry.getBuffer().getBelongingClazz(), landscape,
+						inserter, runtimeIndex);
+			}
 		}
 	}
 
 	public void insertReceivedRecord(final BeforeReceivedRemoteCallRecord receivedRemoteCallRecord,
 			final Clazz firstReceiverClazz, final Landscape landscape,
 			final InsertionRepositoryPart inserter, final int runtimeIndex) {
-		final BeforeSentRemoteCallRecord sentRecord = seekSentRemoteTraceIDandOrderID(receivedRemoteCallRecord);
-
-		if (sentRecord == null) {
-			final RemoteRecordBuffer remoteRecordBuffer = new RemoteRecordBuffer();
-			remoteRecordBuffer.setBelongingClazz(firstReceiverClazz);
-
-			receivedRemoteCallRecordCache.put(receivedRemoteCallRecord, remoteRecordBuffer);
-		} else {
-			seekOrCreateCommunication(sentRecord, receivedRemoteCallRecord,
-					sentRemoteCallRecordCache.get(sentRecord).getBelongingClazz(),
-					firstReceiverClazz, landscape, inserter, runtimeIndex);
-
-			sentRemoteCallRecordCache.remove(sentRecord);
-		}
-	}
-
-	private BeforeReceivedRemoteCallRecord seekMatchingReceivedRemoteRecord(
-			final BeforeSentRemoteCallRecord sentRecord) {
-		for (final BeforeReceivedRemoteCallRecord receivedRemoteRecord : receivedRemoteCallRecordCache
-				.keySet()) {
-			if ((receivedRemoteRecord.getCallerTraceId() == sentRecord.getTraceId())
-					&& (receivedRemoteRecord.getCallerOrderIndex() == sentRecord.getOrderIndex())) {
-				return receivedRemoteRecord;
+		// remote calls connect applications of different shards
+		synchronized (landscape) {
+			final IndexEntry<BeforeSentRemoteCallRecord> sentEntry = sentRemoteCallRecordCache
+					.remove(receivedRemoteCallRecord.getCallerTraceId(),
+							receivedRemoteCallRecord.getCallerOrderIndex());
+
+			if (sentEntry == null) {
+				final RemoteRecordBuffer remoteRecordBuffer = new RemoteRecordBuffer();
+				remoteRecordBuffer.setBelongingClazz(firstReceiverClazz);
+
+				receivedRemoteCallRecordCache.put(receivedRemoteCallRecord.getCallerTraceId(),
+						receivedRemoteCallRecord.getCallerOrderIndex(), receivedRemoteCallRecord,
+						remoteRecordBuffer);
+			} else {
+				seekOrCreateCommunication(sentEntry.getRecord(), receivedRemoteCallRecord,
+						sentEntry.getBuffer().getBelongingClazz(), firstReceiverClazz, landscape,
+						inserter, runtimeIndex);
 			}
 		}
-
-		return null;
 	}
 
-	private BeforeSentRemoteCallRecord seekSentRemoteTraceIDandOrderID(
-			final BeforeReceivedRemoteCallRecord remoteRecord) {
-		for (final BeforeSentRemoteCallRecord sentRemoteRecord : sentRemoteCallRecordCache.keySet()) {
-			if ((sentRemoteRecord.getTraceId() == remoteRecord.getCallerTraceId())
-					&& (sentRemoteRecord.getOrderIndex() == remoteRecord.getCallerOrderIndex())) {
-				return sentRemoteRecord;
-			}
-		}
+	int getPendingSentRecordCount() {
+		return sentRemoteCallRecordCache.size();
+	}
 
-		return null;
+	int getPendingReceivedRecordCount() {
+		return receivedRemoteCallRecordCache.size();
 	}
 
 	private void seekOrCreateCommunication(final BeforeSentRemoteCallRecord sentRemoteCallRecord,
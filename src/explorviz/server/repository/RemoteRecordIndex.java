@@ -0,0 +1,135 @@
+package explorviz.server.repository;
+
+import java.util.*;
+
+import explorviz.server.repository.helper.RemoteRecordBuffer;
+
+/**
+ * Buffers remote records by their (traceId, orderIndex) correlation key.
+ * Expiry works on coarse insertion-time buckets, so timed out records are
+ * dropped without sweeping the whole index.
+ */
+class RemoteRecordIndex<T> {
+	private final long bucketWidthInNanos;
+
+	private final Map<RemoteCallKey, IndexEntry<T>> entries = new HashMap<RemoteCallKey, IndexEntry<T>>();
+	private final ArrayDeque<Bucket<T>> buckets = new ArrayDeque<Bucket<T>>();
+
+	public RemoteRecordIndex(final long bucketWidthInNanos) {
+		this.bucketWidthInNanos = bucketWidthInNanos;
+	}
+
+	public void put(final long traceId, final int orderIndex, final T record,
+			final RemoteRecordBuffer buffer) {
+		final IndexEntry<T> entry = new IndexEntry<T>(new RemoteCallKey(traceId, orderIndex),
+				record, buffer);
+		entries.put(entry.key, entry);
+
+		final long timestamp = buffer.getTimestampPutIntoBuffer();
+		Bucket<T> bucket = buckets.peekLast();
+		if ((bucket == null) || ((timestamp - bucket.firstTimestamp) >= bucketWidthInNanos)) {
+			bucket = new Bucket<T>(timestamp);
+			buckets.addLast(bucket);
+		}
+		bucket.add(entry, timestamp);
+	}
+
+	public IndexEntry<T> remove(final long traceId, final int orderIndex) {
+		return entries.remove(new RemoteCallKey(traceId, orderIndex));
+	}
+
+	/**
+	 * Drops every bucket whose newest record was put into the buffer before
+	 * <code>currentTime - timeoutInNanos</code>. Records therefore live
+	 * between the timeout and the timeout plus one bucket width.
+	 */
+	public void expire(final long currentTime, final long timeoutInNanos) {
+		Bucket<T> bucket = buckets.peekFirst();
+		while ((bucket != null) && ((currentTime - timeoutInNanos) > bucket.lastTimestamp)) {
+			for (final IndexEntry<T> entry : bucket.entries) {
+				// the key might already be matched or overwritten by a newer
+				// record
+				if (entries.get(entry.key) == entry) {
+					entries.remove(entry.key);
+				}
+			}
+			buckets.pollFirst();
+			bucket = buckets.peekFirst();
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public void clear() {
+		entries.clear();
+		buckets.clear();
+	}
+
+	static final class IndexEntry<T> {
+		private final RemoteCallKey key;
+		private final T record;
+		private final RemoteRecordBuffer buffer;
+
+		private IndexEntry(final RemoteCallKey key, final T record,
+				final RemoteRecordBuffer buffer) {
+			this.key = key;
+			this.record = record;
+			this.buffer = buffer;
+		}
+
+		public T getRecord() {
+			return record;
+		}
+
+		public RemoteRecordBuffer getBuffer() {
+			return buffer;
+		}
+	}
+
+	private static final class Bucket<T> {
+		private final long firstTimestamp;
+		private long lastTimestamp;
+		private final List<IndexEntry<T>> entries = new ArrayList<IndexEntry<T>>();
+
+		private Bucket(final long firstTimestamp) {
+			this.firstTimestamp = firstTimestamp;
+			lastTimestamp = firstTimestamp;
+		}
+
+		private void add(final IndexEntry<T> entry, final long timestamp) {
+			entries.add(entry);
+			if (timestamp > lastTimestamp) {
+				lastTimestamp = timestamp;
+			}
+		}
+	}
+
+	private static final class RemoteCallKey {
+		private final long traceId;
+		private final int orderIndex;
+
+		private RemoteCallKey(final long traceId, final int orderIndex) {
+			this.traceId = traceId;
+			this.orderIndex = orderIndex;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * (int) (traceId ^ (traceId >>> 32))) + orderIndex;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof RemoteCallKey)) {
+				return false;
+			}
+			final RemoteCallKey other = (RemoteCallKey) obj;
+			return (traceId == other.traceId) && (orderIndex == other.orderIndex);
+		}
+	}
+}
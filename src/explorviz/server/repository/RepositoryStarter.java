@@ -1,22 +1,42 @@
 package explorviz.server.repository;
 
-import java.util.Queue;
+import java.util.*;
 
 import explorviz.live_trace_processing.configuration.Configuration;
 import explorviz.live_trace_processing.configuration.ConfigurationFactory;
 import explorviz.live_trace_processing.filter.SinglePipeConnector;
 import explorviz.live_trace_processing.main.FilterConfiguration;
 import explorviz.live_trace_processing.record.IRecord;
+import explorviz.server.repository.ingestion.IngestionStatistics;
+import explorviz.server.repository.ingestion.OverloadPolicy;
 
 public class RepositoryStarter {
+	private volatile ShardedLandscapeRepositorySink repositorySink;
+
 	public void start(final LandscapeRepositoryModel model) {
 		final SinglePipeConnector<IRecord> modelConnector = new SinglePipeConnector<IRecord>(64);
 
-		new LandscapeRepositorySink(modelConnector, model).start();
+		repositorySink = new ShardedLandscapeRepositorySink(modelConnector, model, Math.max(1,
+				explorviz.server.main.Configuration.repositoryIngestionWorkers),
+				explorviz.server.main.Configuration.repositoryIngestionQueueCapacity,
+				explorviz.server.main.Configuration.repositoryIngestionBatchSize,
+				OverloadPolicy.parse(explorviz.server.main.Configuration.repositoryOverloadPolicy),
+				explorviz.server.main.Configuration.repositorySamplePercent);
+		repositorySink.start();
 
 		final Queue<IRecord> sink = modelConnector.registerProducer();
 
 		final Configuration configuration = ConfigurationFactory.createSingletonConfiguration();
 		FilterConfiguration.configureAndStartFilters(configuration, sink);
 	}
+
+	/**
+	 * @return the statistics of each ingestion worker, empty before the start
+	 */
+	public List<IngestionStatistics> getIngestionStatistics() {
+		if (repositorySink == null) {
+			return new ArrayList<IngestionStatistics>();
+		}
+		return repositorySink.getStatistics();
+	}
 }
@@ -1,14 +1,14 @@
 package explorviz.server.repository;
 
 import java.io.*;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeMap;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoFactory;
+import com.esotericsoftware.kryo.pool.KryoPool;
 
 import explorviz.server.main.Configuration;
 import explorviz.server.main.FileSystemHelper;
@@ -18,13 +18,32 @@ import explorviz.shared.model.helper.*;
 
 public class RepositoryStorage {
 	private static String FOLDER;
+	private static final LandscapeHistoryStore historyStore;
 	private static String FOLDER_FOR_TARGET_MODEL;
 	private static String FILENAME_FOR_TARGET_MODEL = "targetModel" + Configuration.MODEL_EXTENSION;
 
 	private static final Kryo kryoWriter;
+	private static final KryoPool kryoPool = new KryoPool.Builder(new KryoFactory() {
+		@Override
+		public Kryo create() {
+			return createKryoInstance();
+		}
+	}).softReferences().build();
 
 	private static final int HISTORY_INTERVAL_IN_MINUTES = 24 * 60; // one day
 
+	// segments cover one hour, so retention works in steps of one hour
+	private static final long SEGMENT_DURATION_IN_MILLIS = TimeUnit.HOURS.toMillis(1);
+	// a new keyframe is written at least every ten minutes with the default
+	// output interval
+	private static final int MAX_DELTAS_PER_KEYFRAME = 60;
+	// write a keyframe instead if the delta is not considerably smaller
+	private static final double MAX_DELTA_RATIO = 0.5;
+
+	private static LandscapeDelta.Keyframe currentKeyframe;
+	private static long currentKeyframeTimestamp;
+	private static int deltasSinceKeyframe;
+
 	static {
 		kryoWriter = createKryoInstance();
 
@@ -34,6 +53,8 @@ public class RepositoryStorage {
 		java.lang.System.out.println("writing to " + FOLDER);
 
 		new File(FOLDER).mkdir();
+
+		historyStore = new LandscapeHistoryStore(new File(FOLDER), SEGMENT_DURATION_IN_MILLIS);
 	}
 
 	public static Kryo createKryoInstance() {
@@ -54,6 +75,12 @@ public class RepositoryStorage {
 		result.register(CommunicationClazz.class);
 		result.register(CommunicationAppAccumulator.class);
 		result.register(Point.class);
+		// written by id instead of by name with every changed entity of a
+		// delta
+		result.register(ArrayList.class);
+		result.register(HashMap.class);
+		result.register(HashSet.class);
+		result.register(TreeMap.class);
 
 		return result;
 	}
@@ -72,8 +99,81 @@ public class RepositoryStorage {
 	}
 
 	public static void writeToFile(final Landscape landscape, final long timestamp) {
-		writeToFileGeneric(landscape, FOLDER,
-				timestamp + "-" + landscape.getActivities() + Configuration.MODEL_EXTENSION);
+		writeSnapshot(serialize(landscape), landscape.getActivities(), timestamp);
+	}
+
+	/**
+	 * Appends a serialized landscape to the history either as keyframe or as
+	 * delta of the changed entities against the last keyframe. The first
+	 * snapshot of each segment is always a keyframe.
+	 */
+	public static void writeSnapshot(final byte[] snapshot, final long activities,
+			final long timestamp) {
+		writeSnapshot(snapshot, deserialize(snapshot), activities, timestamp);
+	}
+
+	/**
+	 * Like {@link #writeSnapshot(byte[], long, long)} for a snapshot the
+	 * caller already deserialized.
+	 *
+	 * @return true if the landscape was kept as the new keyframe, it must not
+	 *         be changed afterwards then
+	 */
+	public static synchronized boolean writeSnapshot(final byte[] snapshot,
+			final Landscape landscape, final long activities, final long timestamp) {
+		try {
+			if ((currentKeyframe != null) && (deltasSinceKeyframe < MAX_DELTAS_PER_KEYFRAME)
+					&& !historyStore.startsNewSegment(timestamp)) {
+				final byte[] delta = encodeDelta(landscape);
+
+				if ((delta != null) && (delta.length < (snapshot.length * MAX_DELTA_RATIO))) {
+					historyStore.append(timestamp, activities, currentKeyframeTimestamp, delta);
+					deltasSinceKeyframe++;
+					return false;
+				}
+			}
+
+			historyStore.append(timestamp, activities, LandscapeHistoryStore.NO_KEYFRAME,
+					snapshot);
+			currentKeyframe = new LandscapeDelta.Keyframe(landscape);
+			currentKeyframeTimestamp = timestamp;
+			deltasSinceKeyframe = 0;
+			return true;
+		} catch (final IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * @return the delta against the current keyframe or null if the landscape
+	 *         can only be stored as keyframe
+	 */
+	private static byte[] encodeDelta(final Landscape landscape) {
+		final Kryo kryo = kryoPool.borrow();
+		try {
+			return LandscapeDelta.encode(kryo, currentKeyframe, landscape);
+		} catch (final IllegalArgumentException e) {
+			return null;
+		} finally {
+			kryoPool.release(kryo);
+		}
+	}
+
+	/**
+	 * Serializes a landscape with a pooled Kryo instance
+	 */
+	public static byte[] serialize(final Landscape landscape) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final Output output = new Output(bytes);
+		final Kryo kryo = kryoPool.borrow();
+		try {
+			kryo.writeObject(output, landscape);
+		} finally {
+			kryoPool.release(kryo);
+		}
+		output.close();
+		return bytes.toByteArray();
 	}
 
 	private static void writeToFileGeneric(final Landscape landscape, final String destFolder,
@@ -94,30 +194,107 @@ public class RepositoryStorage {
 	}
 
 	public static Landscape readFromFile(final long timestamp) throws FileNotFoundException {
-		final Map<Long, Long> availableModels = getAvailableModels(HISTORY_INTERVAL_IN_MINUTES);
-		String readInModel = null;
+		final LandscapeHistoryStore.Record record = findRecord(timestamp);
+		return readRecord(record, findKeyframe(record));
+	}
 
-		for (final Entry<Long, Long> availableModel : availableModels.entrySet()) {
-			if (availableModel.getKey() <= timestamp) {
-				readInModel = availableModel.getKey() + "-" + availableModel.getValue()
-						+ Configuration.MODEL_EXTENSION;
-			}
+	/**
+	 * Like {@link #readFromFile(long)} but already prepared for the
+	 * visualization. The returned landscape is shared with other callers and
+	 * must not be modified.
+	 */
+	public static Landscape readPreparedFromFile(final long timestamp)
+			throws FileNotFoundException {
+		final LandscapeHistoryStore.Record record = findRecord(timestamp);
+		final String snapshotId = "history-" + record.getTimestamp();
+
+		final PreparedLandscapeCache cache = PreparedLandscapeCache.getSharedInstance();
+		Landscape landscape = cache.get(snapshotId);
+		if (landscape == null) {
+			final LandscapeHistoryStore.Record keyframe = findKeyframe(record);
+			landscape = LandscapePreparer.prepareLandscape(readRecord(record, keyframe));
+			cache.put(snapshotId, landscape,
+					PreparedLandscapeCache.estimateWeight(keyframe.getLength()));
 		}
+		return landscape;
+	}
+
+	private static LandscapeHistoryStore.Record findRecord(final long timestamp)
+			throws FileNotFoundException {
+		final LandscapeHistoryStore.Record record = historyStore.floorRecord(timestamp);
 
-		if (readInModel == null) {
+		if ((record == null)
+				|| (record.getTimestamp() <= (java.lang.System.currentTimeMillis() - TimeUnit.MINUTES
+						.toMillis(HISTORY_INTERVAL_IN_MINUTES)))) {
 			throw new FileNotFoundException("Model not found for timestamp " + timestamp);
 		}
+		return record;
+	}
+
+	private static LandscapeHistoryStore.Record findKeyframe(
+			final LandscapeHistoryStore.Record record) throws FileNotFoundException {
+		if (record.isKeyframe()) {
+			return record;
+		}
+		final LandscapeHistoryStore.Record keyframe = historyStore.getRecord(record
+				.getKeyframeTimestamp());
+		if (keyframe == null) {
+			throw new FileNotFoundException("Keyframe " + record.getKeyframeTimestamp()
+					+ " not found for timestamp " + record.getTimestamp());
+		}
+		return keyframe;
+	}
+
+	private static Landscape readRecord(final LandscapeHistoryStore.Record record,
+			final LandscapeHistoryStore.Record keyframe) throws FileNotFoundException {
+		try {
+			final Landscape keyframeLandscape = deserialize(historyStore.read(keyframe));
+			if (record == keyframe) {
+				return keyframeLandscape;
+			}
+
+			final byte[] delta = historyStore.read(record);
+			final Kryo kryo = kryoPool.borrow();
+			try {
+				return LandscapeDelta.decode(kryo, keyframeLandscape, delta);
+			} finally {
+				kryoPool.release(kryo);
+			}
+		} catch (final IOException e) {
+			throw new FileNotFoundException("Could not read model for timestamp "
+					+ record.getTimestamp() + ": " + e.getMessage());
+		}
+	}
 
-		return readFromFileGeneric(FOLDER, readInModel);
+	public static Landscape deserialize(final byte[] snapshot) {
+		final Input input = new Input(snapshot);
+		try {
+			return readLandscape(input);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Reads a landscape with a pooled Kryo instance
+	 */
+	public static Landscape readLandscape(final Input input) {
+		final Kryo kryoReader = kryoPool.borrow();
+		try {
+			return kryoReader.readObject(input, Landscape.class);
+		} finally {
+			kryoPool.release(kryoReader);
+		}
 	}
 
 	public static Landscape readFromFileGeneric(final String sourceFolder,
 			final String sourceFilename) throws FileNotFoundException {
 		final Input input = new Input(new FileInputStream(sourceFolder + "/" + sourceFilename));
-		final Kryo kryoReader = createKryoInstance();
-		final Landscape landscape = kryoReader.readObject(input, Landscape.class);
-		input.close();
-		return landscape;
+		try {
+			return readLandscape(input);
+		} finally {
+			input.close();
+		}
 	}
 
 	public static Map<Long, Long> getAvailableModelsForTimeshift() {
@@ -125,40 +302,21 @@ public class RepositoryStorage {
 	}
 
 	private static Map<Long, Long> getAvailableModels(final int minutesBackwards) {
-		final Map<Long, Long> result = new TreeMap<Long, Long>();
-
-		final File[] files = new File(FOLDER).listFiles();
-		for (final File file : files) {
-			if (isExplorVizFile(file)) {
-				final String[] split = file.getName().split("-");
-				final long timestamp = Long.parseLong(split[0]);
-
-				if ((java.lang.System.currentTimeMillis()
-						- TimeUnit.MINUTES.toMillis(minutesBackwards)) < timestamp) {
-					final long activities = Long.parseLong(split[1].split("\\.")[0]);
-					result.put(timestamp, activities);
-				}
-			}
-		}
-
-		return result;
+		return historyStore.getActivitiesSince(java.lang.System.currentTimeMillis()
+				- TimeUnit.MINUTES.toMillis(minutesBackwards));
 	}
 
 	public static void cleanUpTooOldFiles(final long currentTimestamp) {
 		final long enddate = currentTimestamp
 				- TimeUnit.MINUTES.toMillis(HISTORY_INTERVAL_IN_MINUTES);
-		final File[] files = new File(FOLDER).listFiles();
-		for (final File file : files) {
-			if (isExplorVizFile(file)) {
-				if (Long.parseLong(
-						file.getName().substring(0, file.getName().indexOf("-"))) <= enddate) {
-					file.delete();
-				}
-			}
-		}
+		historyStore.dropSegmentsUntil(enddate);
 	}
 
-	public static void clearRepository() {
+	public static synchronized void clearRepository() {
+		currentKeyframe = null;
+		historyStore.clear();
+		PreparedLandscapeCache.getSharedInstance().clear();
+
 		final File[] files = new File(FOLDER).listFiles();
 		for (final File file : files) {
 			if (isExplorVizFile(file)) {
@@ -167,6 +325,14 @@ public class RepositoryStorage {
 		}
 	}
 
+	/**
+	 * Closes the history, snapshots are not written afterwards
+	 */
+	public static synchronized void close() {
+		historyStore.close();
+		currentKeyframe = null;
+	}
+
 	public static boolean isExplorVizFile(final File file) {
 		return !file.getName().equals(".") && !file.getName().equals("..")
 				&& file.getName().endsWith(Configuration.MODEL_EXTENSION);
@@ -0,0 +1,158 @@
+package explorviz.server.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import explorviz.live_trace_processing.filter.*;
+import explorviz.live_trace_processing.record.IRecord;
+import explorviz.live_trace_processing.record.misc.SystemMonitoringRecord;
+import explorviz.live_trace_processing.record.trace.HostApplicationMetaDataRecord;
+import explorviz.live_trace_processing.record.trace.Trace;
+import explorviz.server.repository.ingestion.*;
+
+/**
+ * Distributes the incoming records onto one or more insertion workers.
+ * Records are partitioned by their application, so traces of the same
+ * application are still inserted in order while different applications are
+ * inserted in parallel.
+ *
+ * Each worker has a bounded queue with an {@link OverloadPolicy} and inserts
+ * the queued records in batches.
+ */
+public final class ShardedLandscapeRepositorySink extends AbstractSink implements ITraceSink {
+	private final SinglePipeConnector<IRecord> modelConnector;
+	private final List<IngestionQueue<IRecord>> shardQueues;
+
+	public ShardedLandscapeRepositorySink(final SinglePipeConnector<IRecord> modelConnector,
+			final LandscapeRepositoryModel model, final int shardCount, final int queueCapacity,
+			final int batchSize, final OverloadPolicy policy, final int samplePercent) {
+		super();
+		this.modelConnector = modelConnector;
+
+		shardQueues = new ArrayList<IngestionQueue<IRecord>>(shardCount);
+		for (int i = 0; i < shardCount; i++) {
+			final IngestionQueue<IRecord> shardQueue = new RecordIngestionQueue(queueCapacity,
+					policy, samplePercent, new IngestionStatistics("shard-" + i));
+			shardQueues.add(shardQueue);
+
+			final ShardWorker worker = new ShardWorker(shardQueue, model, batchSize);
+			worker.setName("LandscapeRepositoryShard-" + i);
+			worker.setDaemon(true);
+			worker.start();
+		}
+	}
+
+	@Override
+	public void run() {
+		modelConnector.process(this);
+	}
+
+	@Override
+	public void processRecord(final IRecord record) {
+		final IngestionQueue<IRecord> shardQueue = shardQueues.get(getShardIndex(record,
+				shardQueues.size()));
+		try {
+			shardQueue.put(record);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public List<IngestionStatistics> getStatistics() {
+		final List<IngestionStatistics> result = new ArrayList<IngestionStatistics>(
+				shardQueues.size());
+		for (final IngestionQueue<IRecord> shardQueue : shardQueues) {
+			result.add(shardQueue.getStatistics());
+		}
+		return result;
+	}
+
+	public List<Integer> getQueueDepths() {
+		final List<Integer> result = new ArrayList<Integer>(shardQueues.size());
+		for (final IngestionQueue<IRecord> shardQueue : shardQueues) {
+			result.add(shardQueue.size());
+		}
+		return result;
+	}
+
+	static int getShardIndex(final IRecord record, final int shardCount) {
+		final String shardKey = getShardKey(record);
+		if (shardKey == null) {
+			return 0;
+		}
+		return (shardKey.hashCode() & Integer.MAX_VALUE) % shardCount;
+	}
+
+	private static String getShardKey(final IRecord record) {
+		if (record instanceof Trace) {
+			final Trace trace = (Trace) record;
+			if (trace.getTraceEvents().isEmpty()) {
+				return null;
+			}
+
+			final HostApplicationMetaDataRecord hostMeta = trace.getTraceEvents().get(0)
+					.getHostApplicationMetadataList().get(0);
+			return hostMeta.getHostname() + "_" + hostMeta.getApplication();
+		} else if (record instanceof SystemMonitoringRecord) {
+			return ((SystemMonitoringRecord) record).getHostApplicationMetadata().getHostname();
+		}
+
+		return null;
+	}
+
+	private static final class RecordIngestionQueue extends IngestionQueue<IRecord> {
+		private RecordIngestionQueue(final int capacity, final OverloadPolicy policy,
+				final int samplePercent, final IngestionStatistics statistics) {
+			super(capacity, policy, samplePercent, statistics);
+		}
+
+		@Override
+		protected long getSampleKey(final IRecord record) {
+			if (record instanceof Trace) {
+				final Trace trace = (Trace) record;
+				if (!trace.getTraceEvents().isEmpty()) {
+					return trace.getTraceEvents().get(0).getTraceId();
+				}
+			}
+			return NO_SAMPLE_KEY;
+		}
+	}
+
+	private static final class ShardWorker extends Thread {
+		private final IngestionQueue<IRecord> shardQueue;
+		private final LandscapeRepositoryModel model;
+		private final int batchSize;
+
+		private ShardWorker(final IngestionQueue<IRecord> shardQueue,
+				final LandscapeRepositoryModel model, final int batchSize) {
+			this.shardQueue = shardQueue;
+			this.model = model;
+			this.batchSize = batchSize;
+		}
+
+		@Override
+		public void run() {
+			final IngestionStatistics statistics = shardQueue.getStatistics();
+			final List<IRecord> batch = new ArrayList<IRecord>(batchSize);
+			final long[] enqueueTimes = new long[batchSize];
+
+			while (!isInterrupted()) {
+				final int drained;
+				try {
+					drained = shardQueue.drainTo(batch, enqueueTimes, batchSize);
+				} catch (final InterruptedException e) {
+					return;
+				}
+
+				model.insertIntoModel(batch);
+				batch.clear();
+
+				final long now = java.lang.System.nanoTime();
+				for (int i = 0; i < drained; i++) {
+					statistics.recordLatency(now - enqueueTimes[i]);
+				}
+				statistics.recordBatch(drained);
+			}
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package explorviz.server.repository.helper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded least recently used cache that is safe for concurrent use. Keys are
+ * spread over independently locked segments, each segment evicts its own
+ * least recently used entry.
+ */
+public class ConcurrentLruCache<K, V> {
+	private final Segment<K, V>[] segments;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public ConcurrentLruCache(final int maximumSize, final int segmentCount) {
+		segments = new Segment[segmentCount];
+		final int segmentSize = Math.max(1, maximumSize / segmentCount);
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = new Segment<K, V>(segmentSize, evictions);
+		}
+	}
+
+	public V get(final K key) {
+		final Segment<K, V> segment = segmentFor(key);
+		final V value;
+		synchronized (segment) {
+			value = segment.get(key);
+		}
+
+		if (value == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		return value;
+	}
+
+	public void put(final K key, final V value) {
+		final Segment<K, V> segment = segmentFor(key);
+		synchronized (segment) {
+			segment.put(key, value);
+		}
+	}
+
+	public void clear() {
+		for (final Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (final Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	public double getHitRate() {
+		final long hitCount = hits.get();
+		final long requestCount = hitCount + misses.get();
+		if (requestCount == 0) {
+			return 0d;
+		}
+		return (double) hitCount / requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return "size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+				+ ", evictions=" + getEvictions() + ", hitRate=" + getHitRate();
+	}
+
+	private Segment<K, V> segmentFor(final K key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return segments[(hash & Integer.MAX_VALUE) % segments.length];
+	}
+
+	private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+		private static final long serialVersionUID = 1L;
+
+		private final int maximumSize;
+		private final AtomicLong evictions;
+
+		private Segment(final int maximumSize, final AtomicLong evictions) {
+			super(16, 0.75f, true);
+			this.maximumSize = maximumSize;
+			this.evictions = evictions;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+			if (size() > maximumSize) {
+				evictions.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package explorviz.server.repository.helper;
+
+/**
+ * Caches the results of signature parsing and class name handling that are
+ * shared by the trace insertion and the RSF export. Operation signatures
+ * repeat heavily in traces, so most lookups avoid the parsing completely.
+ */
+public class SignatureCache {
+	private static final int MAXIMUM_SIZE = 64 * 1024;
+	private static final int SEGMENT_COUNT = 16;
+
+	private static final ConcurrentLruCache<String, String> methodNames = new ConcurrentLruCache<String, String>(
+			MAXIMUM_SIZE, SEGMENT_COUNT);
+	private static final ConcurrentLruCache<String, String> constructorNames = new ConcurrentLruCache<String, String>(
+			MAXIMUM_SIZE, SEGMENT_COUNT);
+	private static final ConcurrentLruCache<String, AnonymousClazzName> anonymousClazzNames = new ConcurrentLruCache<String, AnonymousClazzName>(
+			MAXIMUM_SIZE, SEGMENT_COUNT);
+	private static final ConcurrentLruCache<String, String[]> splittedClazzNames = new ConcurrentLruCache<String, String[]>(
+			MAXIMUM_SIZE, SEGMENT_COUNT);
+
+	public static String getOperationName(final String operationSignatureStr,
+			final boolean javaConstructor) {
+		final ConcurrentLruCache<String, String> cache = javaConstructor ? constructorNames
+				: methodNames;
+
+		String operationName = cache.get(operationSignatureStr);
+		if (operationName == null) {
+			operationName = SignatureParser.parse(operationSignatureStr, javaConstructor)
+					.getOperationName();
+			cache.put(operationSignatureStr, operationName);
+		}
+		return operationName;
+	}
+
+	public static String getAnonymousClazzName(final String clazzName,
+			final String implementedInterface) {
+		final AnonymousClazzName cached = anonymousClazzNames.get(clazzName);
+		if ((cached != null) && cached.implementedInterface.equals(implementedInterface)) {
+			return cached.clazzName;
+		}
+		return null;
+	}
+
+	public static void putAnonymousClazzName(final String clazzName,
+			final String implementedInterface, final String resultingClazzName) {
+		anonymousClazzNames.put(clazzName, new AnonymousClazzName(implementedInterface,
+				resultingClazzName));
+	}
+
+	/**
+	 * The returned array is shared between all callers and must not be
+	 * modified.
+	 */
+	public static String[] splitClazzName(final String fullQName) {
+		String[] splittedName = splittedClazzNames.get(fullQName);
+		if (splittedName == null) {
+			splittedName = fullQName.split("\\.");
+			splittedClazzNames.put(fullQName, splittedName);
+		}
+		return splittedName;
+	}
+
+	public static ConcurrentLruCache<String, String> getMethodNameCache() {
+		return methodNames;
+	}
+
+	public static ConcurrentLruCache<String, String> getConstructorNameCache() {
+		return constructorNames;
+	}
+
+	public static ConcurrentLruCache<String, AnonymousClazzName> getAnonymousClazzNameCache() {
+		return anonymousClazzNames;
+	}
+
+	public static ConcurrentLruCache<String, String[]> getSplittedClazzNameCache() {
+		return splittedClazzNames;
+	}
+
+	public static String getStatistics() {
+		return "methodNames: " + methodNames + "\nconstructorNames: " + constructorNames
+				+ "\nanonymousClazzNames: " + anonymousClazzNames + "\nsplittedClazzNames: "
+				+ splittedClazzNames;
+	}
+
+	public static final class AnonymousClazzName {
+		private final String implementedInterface;
+		private final String clazzName;
+
+		private AnonymousClazzName(final String implementedInterface, final String clazzName) {
+			this.implementedInterface = implementedInterface;
+			this.clazzName = clazzName;
+		}
+	}
+}
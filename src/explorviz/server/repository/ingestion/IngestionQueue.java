@@ -0,0 +1,154 @@
+package explorviz.server.repository.ingestion;
+
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue between the trace reception and an insertion worker. What
+ * happens to new elements while the queue is full is decided by the
+ * {@link OverloadPolicy}. Consumers drain the queue in batches.
+ *
+ * Subclasses provide the trace id used by
+ * {@link OverloadPolicy#SAMPLE_BY_TRACE_ID}.
+ */
+public class IngestionQueue<T> {
+	public static final long NO_SAMPLE_KEY = Long.MIN_VALUE;
+
+	// sampling starts when the queue is filled to three quarters
+	private static final int SAMPLING_THRESHOLD_NUMERATOR = 3;
+	private static final int SAMPLING_THRESHOLD_DENOMINATOR = 4;
+
+	private final Object[] elements;
+	private final long[] enqueueTimes;
+	private int head = 0;
+	private int count = 0;
+
+	private final OverloadPolicy policy;
+	private final int samplingThreshold;
+	private final int samplePercent;
+	private final IngestionStatistics statistics;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+
+	public IngestionQueue(final int capacity, final OverloadPolicy policy,
+			final int samplePercent, final IngestionStatistics statistics) {
+		elements = new Object[capacity];
+		enqueueTimes = new long[capacity];
+		this.policy = policy;
+		this.samplePercent = samplePercent;
+		this.statistics = statistics;
+
+		samplingThreshold = Math.max(1, (capacity * SAMPLING_THRESHOLD_NUMERATOR)
+				/ SAMPLING_THRESHOLD_DENOMINATOR);
+	}
+
+	/**
+	 * @return false if the element was dropped because of the overload policy
+	 */
+	public boolean put(final T element) throws InterruptedException {
+		final long enqueueTime = java.lang.System.nanoTime();
+
+		lock.lockInterruptibly();
+		try {
+			if ((policy == OverloadPolicy.SAMPLE_BY_TRACE_ID) && (count >= samplingThreshold)
+					&& !isSampled(element)) {
+				statistics.recordDropped();
+				return false;
+			}
+
+			if ((policy == OverloadPolicy.DROP_OLDEST) && (count == elements.length)) {
+				elements[head] = null;
+				head = (head + 1) % elements.length;
+				count--;
+				statistics.recordDropped();
+			}
+
+			while (count == elements.length) {
+				notFull.await();
+			}
+
+			final int tail = (head + count) % elements.length;
+			elements[tail] = element;
+			enqueueTimes[tail] = enqueueTime;
+			count++;
+
+			statistics.recordAccepted();
+			notEmpty.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits for at least one element and moves up to maxElements elements to
+	 * the batch. The enqueue times of the moved elements are written to
+	 * enqueueTimes.
+	 *
+	 * @return the number of moved elements
+	 */
+	@SuppressWarnings("unchecked")
+	public int drainTo(final List<T> batch, final long[] enqueueTimes, final int maxElements)
+			throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (count == 0) {
+				notEmpty.await();
+			}
+
+			final int drained = Math.min(count, Math.min(maxElements, enqueueTimes.length));
+			for (int i = 0; i < drained; i++) {
+				batch.add((T) elements[head]);
+				enqueueTimes[i] = this.enqueueTimes[head];
+				elements[head] = null;
+				head = (head + 1) % elements.length;
+			}
+			count -= drained;
+
+			notFull.signalAll();
+			return drained;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int size() {
+		lock.lock();
+		try {
+			return count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getCapacity() {
+		return elements.length;
+	}
+
+	public IngestionStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return the trace id of the element or {@link #NO_SAMPLE_KEY} if the
+	 *         element must not be sampled
+	 */
+	protected long getSampleKey(final T element) {
+		return NO_SAMPLE_KEY;
+	}
+
+	private boolean isSampled(final T element) {
+		final long sampleKey = getSampleKey(element);
+		if (sampleKey == NO_SAMPLE_KEY) {
+			return true;
+		}
+
+		// trace ids are sequential, so they are mixed before taking the share
+		long hash = sampleKey * 0x9E3779B97F4A7C15L;
+		hash ^= (hash >>> 32);
+		return ((hash & Long.MAX_VALUE) % 100) < samplePercent;
+	}
+}
@@ -0,0 +1,136 @@
+package explorviz.server.repository.ingestion;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of one ingestion stage. Latencies are measured from enqueueing a
+ * record until its batch is inserted and are kept in a histogram with
+ * power of two buckets.
+ */
+public class IngestionStatistics {
+	private static final int LATENCY_BUCKETS = 64;
+
+	private final String stageName;
+
+	private final AtomicLong accepted = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong processed = new AtomicLong();
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS);
+
+	private long lastThroughputTime = java.lang.System.nanoTime();
+	private long lastThroughputProcessed = 0L;
+
+	public IngestionStatistics(final String stageName) {
+		this.stageName = stageName;
+	}
+
+	public String getStageName() {
+		return stageName;
+	}
+
+	public void recordAccepted() {
+		accepted.incrementAndGet();
+	}
+
+	public void recordDropped() {
+		dropped.incrementAndGet();
+	}
+
+	public void recordBatch(final int batchSize) {
+		processed.addAndGet(batchSize);
+		batches.incrementAndGet();
+	}
+
+	public void recordLatency(final long latencyInNanos) {
+		latencyHistogram.incrementAndGet(getBucket(latencyInNanos));
+	}
+
+	public long getAccepted() {
+		return accepted.get();
+	}
+
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	public long getProcessed() {
+		return processed.get();
+	}
+
+	public long getBatches() {
+		return batches.get();
+	}
+
+	public double getAverageBatchSize() {
+		final long batchCount = batches.get();
+		if (batchCount == 0) {
+			return 0d;
+		}
+		return (double) processed.get() / batchCount;
+	}
+
+	/**
+	 * @return the upper bound in nanoseconds of the histogram bucket that
+	 *         contains the percentile, or 0 if no latency was recorded
+	 */
+	public long getLatencyPercentile(final double percentile) {
+		long total = 0L;
+		for (int i = 0; i < LATENCY_BUCKETS; i++) {
+			total += latencyHistogram.get(i);
+		}
+		if (total == 0L) {
+			return 0L;
+		}
+
+		final long rank = (long) Math.ceil(total * percentile);
+		long count = 0L;
+		for (int i = 0; i < LATENCY_BUCKETS; i++) {
+			count += latencyHistogram.get(i);
+			if (count >= rank) {
+				return getBucketUpperBound(i);
+			}
+		}
+		return getBucketUpperBound(LATENCY_BUCKETS - 1);
+	}
+
+	/**
+	 * @return processed records per second since the last call
+	 */
+	public synchronized double getThroughput() {
+		final long now = java.lang.System.nanoTime();
+		final long processedNow = processed.get();
+
+		final long elapsed = now - lastThroughputTime;
+		final double throughput = elapsed <= 0L ? 0d
+				: ((processedNow - lastThroughputProcessed) * 1000000000d) / elapsed;
+
+		lastThroughputTime = now;
+		lastThroughputProcessed = processedNow;
+		return throughput;
+	}
+
+	/**
+	 * @return the smallest bucket whose upper bound 2^bucket is not below the
+	 *         latency
+	 */
+	static int getBucket(final long latencyInNanos) {
+		if (latencyInNanos <= 1L) {
+			return 0;
+		}
+		return 64 - Long.numberOfLeadingZeros(latencyInNanos - 1);
+	}
+
+	private static long getBucketUpperBound(final int bucket) {
+		return bucket >= 63 ? Long.MAX_VALUE : 1L << bucket;
+	}
+
+	@Override
+	public String toString() {
+		return stageName + ": accepted=" + getAccepted() + ", dropped=" + getDropped()
+				+ ", processed=" + getProcessed() + ", avgBatch=" + getAverageBatchSize()
+				+ ", p50=" + getLatencyPercentile(0.5) + "ns, p99="
+				+ getLatencyPercentile(0.99) + "ns";
+	}
+}
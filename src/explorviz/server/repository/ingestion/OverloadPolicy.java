@@ -0,0 +1,30 @@
+package explorviz.server.repository.ingestion;
+
+/**
+ * Defines what an ingestion queue does with new records while it is full
+ */
+public enum OverloadPolicy {
+	/**
+	 * Producers wait until the queue has space again
+	 */
+	BLOCK,
+	/**
+	 * The oldest queued record is dropped in favor of the new one
+	 */
+	DROP_OLDEST,
+	/**
+	 * Once the queue fills up, only a fixed share of the traces is accepted.
+	 * The share is selected by trace id, so a trace is either kept or dropped
+	 * as a whole. Records without trace id block like {@link #BLOCK}.
+	 */
+	SAMPLE_BY_TRACE_ID;
+
+	public static OverloadPolicy parse(final String name) {
+		if ("drop-oldest".equalsIgnoreCase(name)) {
+			return DROP_OLDEST;
+		} else if ("sample".equalsIgnoreCase(name)) {
+			return SAMPLE_BY_TRACE_ID;
+		}
+		return BLOCK;
+	}
+}
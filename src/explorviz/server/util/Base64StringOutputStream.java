@@ -0,0 +1,86 @@
+package explorviz.server.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.codec.binary.Base64;
+
+/**
+ * Encodes everything written to it to Base64 on the fly, so only the encoded
+ * string and a small buffer of raw bytes are kept in memory. The buffer holds
+ * a multiple of three bytes, so the encoded chunks need no padding and join
+ * to the encoding of the whole stream.
+ */
+public class Base64StringOutputStream extends OutputStream {
+	private static final int BUFFER_SIZE = 3 * 16 * 1024;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int bufferCount = 0;
+	private final StringBuilder encoded = new StringBuilder();
+	private boolean closed = false;
+
+	@Override
+	public void write(final int b) throws IOException {
+		ensureOpen();
+		buffer[bufferCount++] = (byte) b;
+		if (bufferCount == BUFFER_SIZE) {
+			encodeBuffer();
+		}
+	}
+
+	@Override
+	public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+		ensureOpen();
+		int position = offset;
+		final int end = offset + length;
+		while (position < end) {
+			final int count = Math.min(end - position, BUFFER_SIZE - bufferCount);
+			System.arraycopy(bytes, position, buffer, bufferCount, count);
+			bufferCount += count;
+			position += count;
+			if (bufferCount == BUFFER_SIZE) {
+				encodeBuffer();
+			}
+		}
+	}
+
+	/**
+	 * Encodes the remaining bytes with padding, nothing can be written
+	 * afterwards.
+	 */
+	@Override
+	public void close() {
+		if (!closed) {
+			encodeBuffer();
+			closed = true;
+		}
+	}
+
+	/**
+	 * @return the encoding of all bytes written up to the last full buffer,
+	 *         or of all bytes after {@link #close()}
+	 */
+	@Override
+	public String toString() {
+		return encoded.toString();
+	}
+
+	private void encodeBuffer() {
+		if (bufferCount > 0) {
+			byte[] bytes = buffer;
+			if (bufferCount < BUFFER_SIZE) {
+				bytes = new byte[bufferCount];
+				System.arraycopy(buffer, 0, bytes, 0, bufferCount);
+			}
+			encoded.append(new String(Base64.encodeBase64(bytes), StandardCharsets.US_ASCII));
+			bufferCount = 0;
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+}
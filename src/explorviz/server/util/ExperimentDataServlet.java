@@ -0,0 +1,42 @@
+package explorviz.server.util;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.*;
+
+/**
+ * Serves the zip archive of an experiment's data as a plain download, which
+ * is streamed to the client while it is written instead of being encoded to
+ * Base64 for the RPC. Expects the experiment's file name as the parameter
+ * "filename".
+ */
+public class ExperimentDataServlet extends HttpServlet {
+
+	private static final long serialVersionUID = -2271860548154946093L;
+
+	private final JSONServiceImpl jsonService = new JSONServiceImpl();
+
+	@Override
+	protected void doGet(final HttpServletRequest req, final HttpServletResponse resp)
+			throws ServletException, IOException {
+		final String filename = req.getParameter("filename");
+
+		// only experiments directly in the experiment folder
+		if ((filename == null) || filename.contains("/") || filename.contains("\\")
+				|| filename.contains("..")) {
+			resp.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+		if (!new File(JSONServiceImpl.EXP_FOLDER + File.separator + filename).isFile()) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
+		resp.setContentType("application/zip");
+		resp.setHeader("Content-Disposition", "attachment; filename=\"experimentData.zip\"");
+		jsonService.writeExperimentData(filename, resp.getOutputStream());
+		resp.flushBuffer();
+	}
+}
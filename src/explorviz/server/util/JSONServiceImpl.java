@@ -5,12 +5,12 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import javax.xml.bind.DatatypeConverter;
 
-import org.apache.commons.codec.binary.Base64;
 import org.json.*;
-import org.zeroturnaround.zip.ZipUtil;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.fge.jackson.JsonLoader;
@@ -480,17 +480,32 @@ public class JSONServiceImpl extends RemoteServiceServlet implements JSONService
 
 	@Override
 	public String downloadExperimentData(final String filename) throws IOException {
+		// # zip and encode to Base64 in one pass #
+		final Base64StringOutputStream encoded = new Base64StringOutputStream();
+		writeExperimentData(filename, encoded);
+		encoded.close();
 
-		// # add user results and logs to zip #
-		final JSONObject experimentJson = new JSONObject(getExperiment(filename));
+		// # Send back to client #
+		return encoded.toString();
+	}
+
+	/**
+	 * Writes the experiment, all answers and tracking logs of its
+	 * questionnaires and all landscapes it uses as one zip archive to the
+	 * stream, without temporary files. The stream is not closed.
+	 */
+	public void writeExperimentData(final String filename, final OutputStream out)
+			throws IOException {
+
+		final String jsonString = getExperiment(filename);
+		final JSONObject experimentJson = new JSONObject(jsonString);
 
-		// # create zip #
-		final File zip = new File(EXP_FOLDER + File.separator + "experimentData.zip");
+		final ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out));
 
 		// # add .json to zip #
-		final File experimentFile = new File(EXP_FOLDER + File.separator + filename);
-		ZipUtil.packEntries(new File[] { experimentFile }, zip);
+		addZipEntry(zip, filename, Paths.get(EXP_FOLDER, filename));
 
+		// # add user results and logs to zip #
 		final JSONArray jsonQuestionnaires = experimentJson.getJSONArray("questionnaires");
 		final int length = jsonQuestionnaires.length();
 
@@ -502,66 +517,42 @@ public class JSONServiceImpl extends RemoteServiceServlet implements JSONService
 					+ getQuestionnairePrefix(questionnaire.getString("questionnareID"),
 							jsonQuestionnaires);
 
-			final File answersFolder = new File(EXP_ANSWER_FOLDER + File.separator + questPrefix);
-			File[] listOfFiles = answersFolder.listFiles();
-
-			if (listOfFiles != null) {
-				for (final File file : listOfFiles) {
-					if (file.isFile()) {
-						ZipUtil.addEntry(zip, "answers/" + questPrefix + "/" + file.getName(),
-								file);
-					}
-				}
-			}
-
-			final File trackingFolder = new File(FileSystemHelper.getExplorVizDirectory()
-					+ File.separator + "usertracking" + File.separator + questPrefix);
-			listOfFiles = trackingFolder.listFiles();
-
-			if (listOfFiles != null) {
-				for (final File file : listOfFiles) {
-					if (file.isFile()) {
-						ZipUtil.addEntry(zip, "usertracking/" + questPrefix + "/" + file.getName(),
-								file);
-					}
-				}
-			}
+			addZipEntries(zip, "answers/" + questPrefix + "/",
+					new File(EXP_ANSWER_FOLDER + File.separator + questPrefix));
+			addZipEntries(zip, "usertracking/" + questPrefix + "/",
+					new File(Tracking_FOLDER + File.separator + questPrefix));
 		}
 
 		// # add all related landscapes to zip #
 		final List<String> landscapeNames = getLandScapeNamesOfExperiment(filename);
 		for (final String landscapeName : landscapeNames) {
-
-			final File landscape = new File(
-					LANDSCAPE_FOLDER + File.separator + landscapeName + ".expl");
-
-			ZipUtil.addEntry(zip, "landscapes/" + landscapeName + ".expl", landscape);
-
+			addZipEntry(zip, "landscapes/" + landscapeName + ".expl",
+					Paths.get(LANDSCAPE_FOLDER, landscapeName + ".expl"));
 		}
 
-		// # Now encode to Base64 #
-		final List<Byte> result = new ArrayList<Byte>();
+		// completes the archive, but leaves the stream open
+		zip.finish();
+		zip.flush();
+	}
 
-		final byte[] buffer = new byte[1024];
+	private void addZipEntries(final ZipOutputStream zip, final String prefix,
+			final File folder) throws IOException {
+		final File[] listOfFiles = folder.listFiles();
 
-		final InputStream is = new FileInputStream(zip);
-		int b = is.read(buffer);
-		while (b != -1) {
-			for (int i = 0; i < b; i++) {
-				result.add(buffer[i]);
+		if (listOfFiles != null) {
+			for (final File file : listOfFiles) {
+				if (file.isFile()) {
+					addZipEntry(zip, prefix + file.getName(), file.toPath());
+				}
 			}
-			b = is.read(buffer);
-		}
-		is.close();
-
-		final byte[] buf = new byte[result.size()];
-		for (int i = 0; i < result.size(); i++) {
-			buf[i] = result.get(i);
 		}
-		final String encoded = Base64.encodeBase64String(buf);
+	}
 
-		// # Send back to client #
-		return encoded;
+	private void addZipEntry(final ZipOutputStream zip, final String name, final Path file)
+			throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		Files.copy(file, zip);
+		zip.closeEntry();
 	}
 
 	@Override
@@ -0,0 +1,220 @@
+package explorviz.shared.landscapeexchange;
+
+import java.util.*;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import explorviz.shared.model.*;
+import explorviz.shared.model.System;
+import explorviz.shared.model.helper.DrawNodeEntity;
+import explorviz.shared.model.helper.Point;
+
+/**
+ * The result of laying out a landscape: the positions and sizes of systems,
+ * node groups, nodes and applications and the points of the application
+ * communications. It only fits landscapes with the same layout hash and the
+ * same opened and closed states.
+ */
+public class LandscapeLayout implements IsSerializable {
+	private static final int VALUES_PER_ENTITY = 4;
+
+	private long layoutHash;
+	private String stateSignature;
+
+	// positionX, positionY, width and height of each entity
+	private float[] entityValues;
+	private int[] pointCounts;
+	private float[] points;
+
+	public LandscapeLayout() {
+	}
+
+	/**
+	 * Must be called on a laid out landscape.
+	 */
+	public static LandscapeLayout extract(final Landscape landscape) {
+		sortNodeGroups(landscape);
+		final List<DrawNodeEntity> entities = collectEntities(landscape);
+		final List<Communication> communications = landscape.getApplicationCommunication();
+
+		final LandscapeLayout layout = new LandscapeLayout();
+		layout.layoutHash = computeLayoutHash(landscape);
+		layout.stateSignature = computeStateSignature(landscape);
+
+		layout.entityValues = new float[entities.size() * VALUES_PER_ENTITY];
+		for (int i = 0; i < entities.size(); i++) {
+			final DrawNodeEntity entity = entities.get(i);
+			final int offset = i * VALUES_PER_ENTITY;
+			layout.entityValues[offset] = entity.getPositionX();
+			layout.entityValues[offset + 1] = entity.getPositionY();
+			layout.entityValues[offset + 2] = entity.getWidth();
+			layout.entityValues[offset + 3] = entity.getHeight();
+		}
+
+		int pointCount = 0;
+		layout.pointCounts = new int[communications.size()];
+		for (int i = 0; i < communications.size(); i++) {
+			layout.pointCounts[i] = communications.get(i).getPoints().size();
+			pointCount += layout.pointCounts[i];
+		}
+
+		layout.points = new float[pointCount * 2];
+		int pointIndex = 0;
+		for (final Communication commu : communications) {
+			for (final Point point : commu.getPoints()) {
+				layout.points[pointIndex++] = point.getX();
+				layout.points[pointIndex++] = point.getY();
+			}
+		}
+
+		return layout;
+	}
+
+	/**
+	 * Sets the layout of the landscape instead of laying it out.
+	 *
+	 * @return false without changing the positions if the layout was created
+	 *         for a different structure or different opened and closed states
+	 */
+	public boolean applyTo(final Landscape landscape) {
+		sortNodeGroups(landscape);
+		if ((computeLayoutHash(landscape) != layoutHash)
+				|| !computeStateSignature(landscape).equals(stateSignature)) {
+			return false;
+		}
+
+		final List<DrawNodeEntity> entities = collectEntities(landscape);
+		final List<Communication> communications = landscape.getApplicationCommunication();
+		if (((entities.size() * VALUES_PER_ENTITY) != entityValues.length)
+				|| (communications.size() != pointCounts.length)) {
+			return false;
+		}
+
+		for (int i = 0; i < entities.size(); i++) {
+			final DrawNodeEntity entity = entities.get(i);
+			final int offset = i * VALUES_PER_ENTITY;
+			entity.setPositionX(entityValues[offset]);
+			entity.setPositionY(entityValues[offset + 1]);
+			entity.setWidth(entityValues[offset + 2]);
+			entity.setHeight(entityValues[offset + 3]);
+		}
+
+		int pointIndex = 0;
+		for (int i = 0; i < communications.size(); i++) {
+			final Communication commu = communications.get(i);
+			commu.getKielerEdgeReferences().clear();
+			commu.getPoints().clear();
+			for (int j = 0; j < pointCounts[i]; j++) {
+				final Point point = new Point();
+				point.setX(points[pointIndex++]);
+				point.setY(points[pointIndex++]);
+				commu.getPoints().add(point);
+			}
+		}
+
+		return true;
+	}
+
+	public long getLayoutHash() {
+		return layoutHash;
+	}
+
+	public String getStateSignature() {
+		return stateSignature;
+	}
+
+	private static List<DrawNodeEntity> collectEntities(final Landscape landscape) {
+		final List<DrawNodeEntity> entities = new ArrayList<DrawNodeEntity>();
+		for (final System system : landscape.getSystems()) {
+			entities.add(system);
+			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
+				entities.add(nodeGroup);
+				for (final Node node : nodeGroup.getNodes()) {
+					entities.add(node);
+					entities.addAll(node.getApplications());
+				}
+			}
+		}
+		return entities;
+	}
+
+	/**
+	 * The layouter sorts the nodes of visible node groups by IP address, so a
+	 * laid out landscape and a fresh one have the same order after this.
+	 */
+	private static void sortNodeGroups(final Landscape landscape) {
+		for (final System system : landscape.getSystems()) {
+			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
+				if (nodeGroup.getNodes().size() > 1) {
+					Collections.sort(nodeGroup.getNodes(), new Comparator<Node>() {
+						@Override
+						public int compare(final Node node1, final Node node2) {
+							return node1.getIpAddress().compareTo(node2.getIpAddress());
+						}
+					});
+				}
+			}
+		}
+	}
+
+	/**
+	 * Hashes everything the landscape layout depends on apart from the opened
+	 * and closed states. In contrast to the structure hash, clazzes and their
+	 * communication are left out.
+	 */
+	public static long computeLayoutHash(final Landscape landscape) {
+		long hash = 17L;
+		hash = mix(hash, landscape.getSystems().size());
+		for (final System system : landscape.getSystems()) {
+			hash = mix(hash, system.getName());
+			hash = mix(hash, system.getNodeGroups().size());
+			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
+				hash = mix(hash, nodeGroup.getName());
+				hash = mix(hash, nodeGroup.getNodes().size());
+				for (final Node node : nodeGroup.getNodes()) {
+					hash = mix(hash, node.getName());
+					hash = mix(hash, node.getIpAddress());
+					hash = mix(hash, node.getApplications().size());
+					for (final Application application : node.getApplications()) {
+						hash = mix(hash, application.getId());
+						hash = mix(hash, application.getName());
+					}
+				}
+			}
+		}
+
+		hash = mix(hash, landscape.getApplicationCommunication().size());
+		for (final Communication commu : landscape.getApplicationCommunication()) {
+			hash = mix(hash, commu.getSource() == null ? -1 : commu.getSource().getId());
+			hash = mix(hash, commu.getTarget() == null ? -1 : commu.getTarget().getId());
+		}
+		return hash;
+	}
+
+	/**
+	 * @return the opened states and visibilities of the systems, node groups
+	 *         and nodes in traversal order
+	 */
+	public static String computeStateSignature(final Landscape landscape) {
+		final StringBuilder signature = new StringBuilder();
+		for (final System system : landscape.getSystems()) {
+			signature.append(system.isOpened() ? '1' : '0');
+			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
+				signature.append(nodeGroup.isVisible() ? '1' : '0');
+				signature.append(nodeGroup.isOpened() ? '1' : '0');
+				for (final Node node : nodeGroup.getNodes()) {
+					signature.append(node.isVisible() ? '1' : '0');
+				}
+			}
+		}
+		return signature.toString();
+	}
+
+	private static long mix(final long hash, final String value) {
+		return mix(hash, value == null ? 0 : value.hashCode());
+	}
+
+	private static long mix(final long hash, final int value) {
+		return (hash * 1099511628211L) ^ value;
+	}
+}
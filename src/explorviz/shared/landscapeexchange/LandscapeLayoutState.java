@@ -0,0 +1,75 @@
+package explorviz.shared.landscapeexchange;
+
+import java.util.TreeMap;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import explorviz.shared.model.*;
+import explorviz.shared.model.System;
+
+/**
+ * The opened and closed states of the systems and node groups of a shown
+ * landscape. They are carried over to a new landscape by name, so the server
+ * can lay out a landscape the way the client will show it.
+ */
+public class LandscapeLayoutState implements IsSerializable {
+	private TreeMap<String, Boolean> systemStates = new TreeMap<String, Boolean>();
+	private TreeMap<String, Boolean> nodeGroupStates = new TreeMap<String, Boolean>();
+
+	public LandscapeLayoutState() {
+	}
+
+	public static LandscapeLayoutState from(final Landscape landscape) {
+		final LandscapeLayoutState state = new LandscapeLayoutState();
+		for (final System system : landscape.getSystems()) {
+			// like for node groups, the first one of equally named systems wins
+			if (state.systemStates.containsKey(system.getName())) {
+				continue;
+			}
+			state.systemStates.put(system.getName(), system.isOpened());
+
+			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
+				final String key = getNodeGroupKey(system, nodeGroup);
+				if (!state.nodeGroupStates.containsKey(key)) {
+					state.nodeGroupStates.put(key, nodeGroup.isOpened());
+				}
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Sets the states of all systems and node groups that have a counterpart
+	 * with the same name.
+	 */
+	public void applyTo(final Landscape landscape) {
+		for (final System system : landscape.getSystems()) {
+			final Boolean systemOpened = systemStates.get(system.getName());
+			if (systemOpened == null) {
+				continue;
+			}
+
+			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
+				final Boolean nodeGroupOpened = nodeGroupStates.get(getNodeGroupKey(system,
+						nodeGroup));
+				if ((nodeGroupOpened != null) && (nodeGroupOpened != nodeGroup.isOpened())) {
+					nodeGroup.setOpened(nodeGroupOpened);
+				}
+			}
+			if (systemOpened != system.isOpened()) {
+				system.setOpened(systemOpened);
+			}
+		}
+	}
+
+	/**
+	 * @return a string that is equal for equal states
+	 */
+	public String getKey() {
+		return systemStates.toString() + nodeGroupStates.toString();
+	}
+
+	private static String getNodeGroupKey(final System system, final NodeGroup nodeGroup) {
+		return system.getName() + "\n" + nodeGroup.getName();
+	}
+}
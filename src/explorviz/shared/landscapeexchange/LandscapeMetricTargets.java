@@ -0,0 +1,141 @@
+package explorviz.shared.landscapeexchange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import explorviz.shared.model.*;
+import explorviz.shared.model.System;
+
+/**
+ * All entities of a landscape that carry metrics, in a fixed traversal
+ * order. The client collects them when it receives a landscape, before the
+ * visualization restructures it (e.g. by clustering), so later metrics can be
+ * assigned by position.
+ */
+public class LandscapeMetricTargets {
+	private final List<Node> nodes = new ArrayList<Node>();
+	private final List<Application> applications = new ArrayList<Application>();
+	private final List<Clazz> clazzes = new ArrayList<Clazz>();
+	private final List<CommunicationClazz> communications = new ArrayList<CommunicationClazz>();
+	private final List<Communication> applicationCommunications = new ArrayList<Communication>();
+
+	public LandscapeMetricTargets(final Landscape landscape) {
+		for (final System system : landscape.getSystems()) {
+			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
+				for (final Node node : nodeGroup.getNodes()) {
+					nodes.add(node);
+					for (final Application application : node.getApplications()) {
+						applications.add(application);
+						collectClazzes(application.getComponents());
+						communications.addAll(application.getCommunications());
+					}
+				}
+			}
+		}
+		applicationCommunications.addAll(landscape.getApplicationCommunication());
+	}
+
+	private void collectClazzes(final List<Component> components) {
+		for (final Component component : components) {
+			clazzes.addAll(component.getClazzes());
+			collectClazzes(component.getChildren());
+		}
+	}
+
+	public List<Node> getNodes() {
+		return nodes;
+	}
+
+	public List<Application> getApplications() {
+		return applications;
+	}
+
+	public List<Clazz> getClazzes() {
+		return clazzes;
+	}
+
+	public List<CommunicationClazz> getCommunications() {
+		return communications;
+	}
+
+	public List<Communication> getApplicationCommunications() {
+		return applicationCommunications;
+	}
+
+	/**
+	 * Hashes everything of the landscape that is not a metric. Metrics can
+	 * only be exchanged between landscapes with the same structure hash.
+	 */
+	public static long computeStructureHash(final Landscape landscape) {
+		long hash = 17L;
+		hash = mix(hash, landscape.getSystems().size());
+		for (final System system : landscape.getSystems()) {
+			hash = mix(hash, system.getName());
+			hash = mix(hash, system.getNodeGroups().size());
+			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
+				hash = mix(hash, nodeGroup.getName());
+				hash = mix(hash, nodeGroup.getNodes().size());
+				for (final Node node : nodeGroup.getNodes()) {
+					hash = mix(hash, node.getName());
+					hash = mix(hash, node.getIpAddress());
+					hash = mix(hash, node.getApplications().size());
+					for (final Application application : node.getApplications()) {
+						hash = mixApplication(hash, application);
+					}
+				}
+			}
+		}
+
+		hash = mix(hash, landscape.getApplicationCommunication().size());
+		for (final Communication commu : landscape.getApplicationCommunication()) {
+			hash = mix(hash, commu.getTechnology());
+			hash = mix(hash, commu.getSource() == null ? -1 : commu.getSource().getId());
+			hash = mix(hash, commu.getTarget() == null ? -1 : commu.getTarget().getId());
+			hash = mix(hash, commu.getSourceClazz() == null ? null : commu.getSourceClazz()
+					.getFullQualifiedName());
+			hash = mix(hash, commu.getTargetClazz() == null ? null : commu.getTargetClazz()
+					.getFullQualifiedName());
+		}
+		return hash;
+	}
+
+	private static long mixApplication(long hash, final Application application) {
+		hash = mix(hash, application.getId());
+		hash = mix(hash, application.getName());
+		hash = mix(hash, application.isDatabase() ? 1 : 0);
+		hash = mix(hash, application.getProgrammingLanguage() == null ? null : application
+				.getProgrammingLanguage().toString());
+		hash = mixComponents(hash, application.getComponents());
+
+		hash = mix(hash, application.getCommunications().size());
+		for (final CommunicationClazz commu : application.getCommunications()) {
+			hash = mix(hash, commu.getMethodName());
+			hash = mix(hash, commu.getSource().getFullQualifiedName());
+			hash = mix(hash, commu.getTarget().getFullQualifiedName());
+		}
+		return hash;
+	}
+
+	private static long mixComponents(long hash, final List<Component> components) {
+		hash = mix(hash, components.size());
+		for (final Component component : components) {
+			hash = mix(hash, component.getFullQualifiedName());
+			hash = mix(hash, component.isSynthetic() ? 1 : 0);
+			hash = mix(hash, component.isFoundation() ? 1 : 0);
+			hash = mix(hash, component.getClazzes().size());
+			for (final Clazz clazz : component.getClazzes()) {
+				hash = mix(hash, clazz.getFullQualifiedName());
+			}
+			hash = mixComponents(hash, component.getChildren());
+		}
+		return hash;
+	}
+
+	private static long mix(final long hash, final String value) {
+		return mix(hash, value == null ? 0 : value.hashCode());
+	}
+
+	private static long mix(final long hash, final int value) {
+		return (hash * 1099511628211L) ^ value;
+	}
+}
@@ -0,0 +1,158 @@
+package explorviz.shared.landscapeexchange;
+
+import java.util.*;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import explorviz.shared.model.*;
+
+/**
+ * The metrics of a landscape without its structure. The values are stored in
+ * the order of {@link LandscapeMetricTargets}.
+ */
+public class LandscapeMetrics implements IsSerializable {
+	private long hash;
+	private long activities;
+	private Map<Long, String> events;
+	private Map<Long, String> errors;
+
+	private double[] nodeCpuUtilizations;
+	private long[] nodeFreeRAMs;
+	private long[] nodeUsedRAMs;
+
+	private long[] applicationLastUsages;
+	private List<List<DatabaseQuery>> applicationDatabaseQueries;
+
+	private int[] clazzInstanceCounts;
+	private List<Map<Long, RuntimeInformation>> communicationRuntimes;
+	private int[] communicationRequests;
+
+	private int[] applicationCommunicationRequests;
+	private float[] applicationCommunicationResponseTimes;
+
+	public LandscapeMetrics() {
+	}
+
+	public static LandscapeMetrics extract(final Landscape landscape,
+			final LandscapeMetricTargets targets) {
+		final LandscapeMetrics metrics = new LandscapeMetrics();
+		metrics.hash = landscape.getHash();
+		metrics.activities = landscape.getActivities();
+		metrics.events = landscape.getEvents();
+		metrics.errors = landscape.getErrors();
+
+		final List<Node> nodes = targets.getNodes();
+		metrics.nodeCpuUtilizations = new double[nodes.size()];
+		metrics.nodeFreeRAMs = new long[nodes.size()];
+		metrics.nodeUsedRAMs = new long[nodes.size()];
+		for (int i = 0; i < nodes.size(); i++) {
+			final Node node = nodes.get(i);
+			metrics.nodeCpuUtilizations[i] = node.getCpuUtilization();
+			metrics.nodeFreeRAMs[i] = node.getFreeRAM();
+			metrics.nodeUsedRAMs[i] = node.getUsedRAM();
+		}
+
+		final List<Application> applications = targets.getApplications();
+		metrics.applicationLastUsages = new long[applications.size()];
+		metrics.applicationDatabaseQueries = new ArrayList<List<DatabaseQuery>>(
+				applications.size());
+		for (int i = 0; i < applications.size(); i++) {
+			final Application application = applications.get(i);
+			metrics.applicationLastUsages[i] = application.getLastUsage();
+			metrics.applicationDatabaseQueries.add(application.getDatabaseQueries());
+		}
+
+		final List<Clazz> clazzes = targets.getClazzes();
+		metrics.clazzInstanceCounts = new int[clazzes.size()];
+		for (int i = 0; i < clazzes.size(); i++) {
+			metrics.clazzInstanceCounts[i] = clazzes.get(i).getInstanceCount();
+		}
+
+		final List<CommunicationClazz> communications = targets.getCommunications();
+		metrics.communicationRuntimes = new ArrayList<Map<Long, RuntimeInformation>>(
+				communications.size());
+		metrics.communicationRequests = new int[communications.size()];
+		for (int i = 0; i < communications.size(); i++) {
+			final CommunicationClazz commu = communications.get(i);
+			metrics.communicationRuntimes.add(commu.getTraceIdToRuntimeMap());
+			metrics.communicationRequests[i] = commu.getRequests();
+		}
+
+		final List<Communication> applicationCommunications = targets
+				.getApplicationCommunications();
+		metrics.applicationCommunicationRequests = new int[applicationCommunications.size()];
+		metrics.applicationCommunicationResponseTimes = new float[applicationCommunications
+				.size()];
+		for (int i = 0; i < applicationCommunications.size(); i++) {
+			final Communication commu = applicationCommunications.get(i);
+			metrics.applicationCommunicationRequests[i] = commu.getRequests();
+			metrics.applicationCommunicationResponseTimes[i] = commu
+					.getAverageResponseTimeInNanoSec();
+		}
+
+		return metrics;
+	}
+
+	/**
+	 * Replaces the metrics of the landscape the targets were collected from.
+	 *
+	 * @return false without changing anything if the targets do not match the
+	 *         metrics
+	 */
+	public boolean applyTo(final Landscape landscape, final LandscapeMetricTargets targets) {
+		final List<Node> nodes = targets.getNodes();
+		final List<Application> applications = targets.getApplications();
+		final List<Clazz> clazzes = targets.getClazzes();
+		final List<CommunicationClazz> communications = targets.getCommunications();
+		final List<Communication> applicationCommunications = targets
+				.getApplicationCommunications();
+
+		final boolean sameSizes = (nodes.size() == nodeCpuUtilizations.length)
+				&& (applications.size() == applicationLastUsages.length)
+				&& (clazzes.size() == clazzInstanceCounts.length)
+				&& (communications.size() == communicationRuntimes.size())
+				&& (applicationCommunications.size() == applicationCommunicationRequests.length);
+		if (!sameSizes) {
+			return false;
+		}
+
+		landscape.setHash(hash);
+		landscape.setActivities(activities);
+		landscape.setEvents(events);
+		landscape.setErrors(errors);
+
+		for (int i = 0; i < nodes.size(); i++) {
+			final Node node = nodes.get(i);
+			node.setCpuUtilization(nodeCpuUtilizations[i]);
+			node.setFreeRAM(nodeFreeRAMs[i]);
+			node.setUsedRAM(nodeUsedRAMs[i]);
+		}
+
+		for (int i = 0; i < applications.size(); i++) {
+			final Application application = applications.get(i);
+			application.setLastUsage(applicationLastUsages[i]);
+			application.setDatabaseQueries(applicationDatabaseQueries.get(i));
+		}
+
+		for (int i = 0; i < clazzes.size(); i++) {
+			clazzes.get(i).setInstanceCount(clazzInstanceCounts[i]);
+		}
+
+		for (int i = 0; i < communications.size(); i++) {
+			communications.get(i).replaceRuntimeInformation(communicationRuntimes.get(i),
+					communicationRequests[i]);
+		}
+
+		for (int i = 0; i < applicationCommunications.size(); i++) {
+			final Communication commu = applicationCommunications.get(i);
+			commu.setRequests(applicationCommunicationRequests[i]);
+			commu.setAverageResponseTimeInNanoSec(applicationCommunicationResponseTimes[i]);
+		}
+
+		return true;
+	}
+
+	public long getHash() {
+		return hash;
+	}
+}
@@ -0,0 +1,87 @@
+package explorviz.shared.landscapeexchange;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import explorviz.shared.model.Landscape;
+
+/**
+ * Answer to a landscape poll of a client that already shows a landscape. It
+ * is either empty if the landscape did not change, only contains the metrics
+ * if the structure of the shown landscape did not change, or contains the
+ * whole landscape.
+ */
+public class LandscapeUpdate implements IsSerializable {
+	/**
+	 * Hash to send if the client does not show a landscape yet
+	 */
+	public static final long NO_HASH = Long.MIN_VALUE;
+
+	private Landscape landscape;
+	private LandscapeMetrics metrics;
+	private long baseHash;
+	private LandscapeLayout layout;
+
+	public LandscapeUpdate() {
+	}
+
+	public static LandscapeUpdate notModified(final long hash) {
+		final LandscapeUpdate update = new LandscapeUpdate();
+		update.baseHash = hash;
+		return update;
+	}
+
+	public static LandscapeUpdate metricsOnly(final long baseHash, final LandscapeMetrics metrics) {
+		final LandscapeUpdate update = new LandscapeUpdate();
+		update.baseHash = baseHash;
+		update.metrics = metrics;
+		return update;
+	}
+
+	public static LandscapeUpdate full(final Landscape landscape) {
+		final LandscapeUpdate update = new LandscapeUpdate();
+		update.baseHash = NO_HASH;
+		update.landscape = landscape;
+		return update;
+	}
+
+	public boolean isNotModified() {
+		return (landscape == null) && (metrics == null);
+	}
+
+	public boolean isMetricsOnly() {
+		return metrics != null;
+	}
+
+	/**
+	 * @return the whole landscape or null
+	 */
+	public Landscape getLandscape() {
+		return landscape;
+	}
+
+	/**
+	 * @return the new metrics or null
+	 */
+	public LandscapeMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return the hash of the landscape the update applies to
+	 */
+	public long getBaseHash() {
+		return baseHash;
+	}
+
+	/**
+	 * @return the layout computed by the server for the whole landscape or
+	 *         null
+	 */
+	public LandscapeLayout getLayout() {
+		return layout;
+	}
+
+	public void setLayout(final LandscapeLayout layout) {
+		this.layout = layout;
+	}
+}
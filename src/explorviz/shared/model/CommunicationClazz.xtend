@@ -41,6 +41,11 @@ class CommunicationClazz implements IsSerializable {
 		requestsCacheCount += requests
 	}
 
+	def void replaceRuntimeInformation(Map<Long, RuntimeInformation> traceIdToRuntimeMap, int requests) {
+		this.traceIdToRuntimeMap = traceIdToRuntimeMap
+		requestsCacheCount = requests
+	}
+
 	def void reset() {
 		requestsCacheCount = 0
 		traceIdToRuntimeMap.clear()
@@ -0,0 +1,119 @@
+package explorviz.visualization.clustering;
+
+/**
+ * Computes the merge order of agglomerative clustering on a triangular
+ * distance matrix. Every cluster keeps its nearest neighbour among the
+ * clusters with a higher index, so finding the closest pair only scans one
+ * value per cluster instead of the whole matrix.
+ *
+ * Ties are broken like a row by row scan of the full matrix: the pair with
+ * the lowest first and then the lowest second index wins. The merged cluster
+ * takes the lower index.
+ */
+public class AgglomerativeClustering {
+
+	private AgglomerativeClustering() {
+	}
+
+	/**
+	 * @return the index in a triangular matrix for i < j
+	 */
+	public static int index(final int i, final int j) {
+		return ((j * (j - 1)) / 2) + i;
+	}
+
+	public static double[] createTriangularMatrix(final int size) {
+		return new double[(size * (size - 1)) / 2];
+	}
+
+	/**
+	 * The distances are modified during the clustering.
+	 *
+	 * @return the pairs of merged cluster indices, merge n is stored at 2n and
+	 *         2n + 1
+	 */
+	public static int[] computeMerges(final double[] distances, final int size,
+			final GenericClusterLink link) {
+		final int[] merges = new int[2 * Math.max(0, size - 1)];
+
+		final boolean[] active = new boolean[size];
+		final int[] nearest = new int[size];
+		final double[] nearestDistance = new double[size];
+
+		for (int i = 0; i < size; i++) {
+			active[i] = true;
+		}
+		for (int i = 0; i < size; i++) {
+			updateNearest(distances, size, active, nearest, nearestDistance, i);
+		}
+
+		for (int n = 0; n < (size - 1); n++) {
+			int cluster1 = -1;
+			double minValue = Double.MAX_VALUE;
+			for (int i = 0; i < size; i++) {
+				if (active[i] && (nearestDistance[i] < minValue)) {
+					minValue = nearestDistance[i];
+					cluster1 = i;
+				}
+			}
+			if (cluster1 < 0) {
+				break;
+			}
+			final int cluster2 = nearest[cluster1];
+
+			merges[2 * n] = cluster1;
+			merges[(2 * n) + 1] = cluster2;
+
+			active[cluster2] = false;
+
+			for (int j = 0; j < size; j++) {
+				if (active[j] && (j != cluster1)) {
+					final int index1 = cluster1 < j ? index(cluster1, j) : index(j, cluster1);
+					final int index2 = cluster2 < j ? index(cluster2, j) : index(j, cluster2);
+					distances[index1] = link.linkDistance(distances[index1], distances[index2]);
+				}
+			}
+
+			updateNearest(distances, size, active, nearest, nearestDistance, cluster1);
+
+			for (int i = 0; i < cluster2; i++) {
+				if (!active[i] || (i == cluster1)) {
+					continue;
+				}
+
+				if ((nearest[i] == cluster1) || (nearest[i] == cluster2)) {
+					updateNearest(distances, size, active, nearest, nearestDistance, i);
+				} else if (i < cluster1) {
+					final double distance = distances[index(i, cluster1)];
+					if ((distance < nearestDistance[i])
+							|| ((distance == nearestDistance[i]) && (cluster1 < nearest[i]))) {
+						nearest[i] = cluster1;
+						nearestDistance[i] = distance;
+					}
+				}
+			}
+		}
+
+		return merges;
+	}
+
+	private static void updateNearest(final double[] distances, final int size,
+			final boolean[] active, final int[] nearest, final double[] nearestDistance,
+			final int i) {
+		int nearestCluster = -1;
+		double minValue = Double.POSITIVE_INFINITY;
+
+		for (int j = i + 1; j < size; j++) {
+			if (active[j]) {
+				final double distance = distances[index(i, j)];
+				if ((nearestCluster < 0) || (distance < minValue)) {
+					minValue = distance;
+					nearestCluster = j;
+				}
+			}
+		}
+
+		nearest[i] = nearestCluster;
+		nearestDistance[i] = minValue;
+	}
+}
@@ -15,17 +15,31 @@ public class BuildMatrix {
 	static final int INSTANCE_WEIGHT = 1;
 	static final int CLASSNAME_WEIGHT = 1;
 
-	public static double[][] buildMatrix(final List<ClusterData> clusterdata) {
-		final double[][] distanceMatrix = new double[clusterdata.size()][clusterdata.size()];
+	/**
+	 * Computes each distance once, see {@link AgglomerativeClustering#index}
+	 * for the layout
+	 */
+	public static double[] buildTriangularMatrix(final List<ClusterData> clusterdata) {
+		final int size = clusterdata.size();
+		final double[] distanceMatrix = AgglomerativeClustering.createTriangularMatrix(size);
 
-		for (int i = 0; i < clusterdata.size(); i++) {
-			for (int j = 0; j < clusterdata.size(); j++) {
+		final String[] names = new String[size];
+		int maxNameLength = 0;
+		for (int i = 0; i < size; i++) {
+			names[i] = clusterdata.get(i).getName().toLowerCase();
+			maxNameLength = Math.max(maxNameLength, names[i].length());
+		}
+		final int[] costs = new int[maxNameLength + 1];
+
+		for (int j = 1; j < size; j++) {
+			final ClusterData class2 = clusterdata.get(j);
+			final int rowStart = AgglomerativeClustering.index(0, j);
 
-				if (i == j) {
-					distanceMatrix[i][j] = Double.POSITIVE_INFINITY;
-				} else {
-					distanceMatrix[i][j] = distance(clusterdata.get(i), clusterdata.get(j));
-				}
+			for (int i = 0; i < j; i++) {
+				final int levenshteinDistance = levenshteinDistanceLowerCase(names[i], names[j],
+						costs);
+				distanceMatrix[rowStart + i] = euclidianDistance(clusterdata.get(i), class2)
+						+ (levenshteinDistance * CLASSNAME_WEIGHT);
 			}
 		}
 
@@ -47,12 +61,14 @@ public class BuildMatrix {
 		return euclidianDistance;
 	}
 
-	public static int levenshteinDistance(String classname1, String classname2) {
-		classname1 = classname1.toLowerCase();
-		classname2 = classname2.toLowerCase();
+	public static int levenshteinDistance(final String classname1, final String classname2) {
+		return levenshteinDistanceLowerCase(classname1.toLowerCase(), classname2.toLowerCase(),
+				new int[classname2.length() + 1]);
+	}
 
-		final int[] costs = new int[classname2.length() + 1];
-		for (int j = 0; j < costs.length; j++) {
+	private static int levenshteinDistanceLowerCase(final String classname1,
+			final String classname2, final int[] costs) {
+		for (int j = 0; j <= classname2.length(); j++) {
 			costs[j] = j;
 		}
 		for (int i = 1; i <= classname1.length(); i++) {
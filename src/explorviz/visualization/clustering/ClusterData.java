@@ -22,6 +22,13 @@ public class ClusterData {
 		clazz = null;
 	}
 
+	ClusterData(final String name, final int instances, final int methods) {
+		this.name = name;
+		this.instances = instances;
+		this.methods = methods;
+		clazz = null;
+	}
+
 	public ClusterData(final Clazz clazz) {
 		name = clazz.getName();
 		instances = clazz.getInstanceCount();
@@ -20,30 +20,17 @@ public abstract class GenericClusterLink {
 
 		final Component[] components = initComponents(clusterdata, application);
 
-		final double[][] distanceMatrix = BuildMatrix.buildMatrix(clusterdata);
+		final double[] distanceMatrix = BuildMatrix.buildTriangularMatrix(clusterdata);
+		final int[] merges = AgglomerativeClustering.computeMerges(distanceMatrix,
+				clusterdata.size(), this);
 
 		int cluster1 = 0;
-		int cluster2 = 0;
 
-		for (int n = 0; n < (clusterdata.size() - 1); n++) {
-			double minValue = Double.MAX_VALUE;
+		for (int n = 0; n < (merges.length / 2); n++) {
+			cluster1 = merges[2 * n];
+			final int cluster2 = merges[(2 * n) + 1];
 
-			// find nearest clusters to form a new cluster:
-			for (int i = 0; i < clusterdata.size(); i++) {
-				for (int j = 0; j < clusterdata.size(); j++) {
-
-					if (distanceMatrix[i][j] < minValue) {
-						minValue = distanceMatrix[i][j];
-						cluster1 = i;
-						cluster2 = j;
-					}
-				}
-			}
-
-			calculateNewMatrix(clusterdata, distanceMatrix, cluster1, cluster2);
-
-			mergeCluster(clusterdata, application, distanceMatrix, cluster1, cluster2, components,
-					n);
+			mergeCluster(application, cluster1, cluster2, components, n);
 		}
 
 		final Component firstComponent = components[cluster1];
@@ -155,29 +142,8 @@ public abstract class GenericClusterLink {
 		return c;
 	}
 
-	private void calculateNewMatrix(final List<ClusterData> clusterdata,
-			final double[][] distanceMatrix, final int cluster1, final int cluster2) {
-		// row and column of one merged cluster serve as new place for
-		// values of new cluster
-		for (int j = 0; j < clusterdata.size(); j++) {
-			if (cluster1 == j) {
-				distanceMatrix[cluster1][j] = Double.POSITIVE_INFINITY;
-			} else {
-				applyMetric(distanceMatrix, cluster1, cluster2, j);
-			}
-		}
-	}
-
-	private void mergeCluster(final List<ClusterData> clusterdata, final Application application,
-			final double[][] distanceMatrix, final int cluster1, final int cluster2,
-			final Component[] c, final int n) {
-		// set row and column values of the other merged cluster to Positive
-		// Infinity to simulate deletion of said cluster from matrix
-		for (int j = 0; j < clusterdata.size(); j++) {
-			distanceMatrix[cluster2][j] = Double.POSITIVE_INFINITY;
-			distanceMatrix[j][cluster2] = Double.POSITIVE_INFINITY;
-		}
-
+	private void mergeCluster(final Application application, final int cluster1,
+			final int cluster2, final Component[] c, final int n) {
 		// create new component out of 2
 		final Component mergedCluster = new Component();
 		mergedCluster.setParentComponent(c[cluster1].getParentComponent());
@@ -204,8 +170,12 @@ public abstract class GenericClusterLink {
 		c[cluster1] = mergedCluster;
 	}
 
-	abstract void applyMetric(final double[][] distanceMatrix, final int cluster1,
-			final int cluster2, final int j);
+	/**
+	 * @return the distance of a cluster to the cluster merged from two
+	 *         clusters with the given distances to it
+	 */
+	abstract double linkDistance(final double distanceToCluster1,
+			final double distanceToCluster2);
 
 	private void setColors(final Component component, final int i) {
 		for (final Component child : component.getChildren()) {
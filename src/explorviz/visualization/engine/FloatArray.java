@@ -23,6 +23,26 @@ public class FloatArray {
 		array.set(values, offset);
 	}-*/;
 
+	/**
+	 * Writes one attribute of consecutive vertices into an interleaved array,
+	 * starting at the given float offset and skipping stride floats per vertex
+	 */
+	public native static void setInterleaved(Float32Array array, float[] values, int length,
+			int dim, int offset, int stride) /*-{
+		var vertexOffset = offset;
+		for (var i = 0; i < length; i += dim) {
+			for (var j = 0; j < dim && i + j < length; j++) {
+				array[vertexOffset + j] = values[i + j];
+			}
+			vertexOffset += stride;
+		}
+	}-*/;
+
+	public static void setInterleaved(final Float32Array array, final float[] values,
+			final int dim, final int offset, final int stride) {
+		setInterleaved(array, values, values.length, dim, offset, stride);
+	}
+
 	public static Float32Array create(final int length, final float... nums) {
 		return createFloat32Array(length, nums);
 	}
@@ -10,6 +10,11 @@ import explorviz.visualization.engine.shaders.ShaderObject
 import static extension explorviz.visualization.main.ArrayExtensions.*
 import explorviz.visualization.engine.primitives.Pipe
 
+/**
+ * One WebGL buffer holding all primitives of the scene. The attributes of a
+ * vertex are stored interleaved, so a changed primitive is one contiguous
+ * range which is uploaded with the next frame.
+ */
 class BufferManager {
 	private static WebGLRenderingContext glContext
 	private static ShaderObject shaderObject
@@ -22,12 +27,25 @@ class BufferManager {
 	private static val int COLORS_DIM = 4
 	private static val int NORMALS_DIM = 3
 
-	private static Float32Array vertices
-	private static Float32Array textureCoords
-	private static Float32Array colors
-	private static Float32Array normals
+	private static val int VERTICES_OFFSET = 0
+	private static val int TEXTURECOORDS_OFFSET = VERTICES_OFFSET + VERTICES_DIM
+	private static val int COLORS_OFFSET = TEXTURECOORDS_OFFSET + TEXTURECOORDS_DIM
+	private static val int NORMALS_OFFSET = COLORS_OFFSET + COLORS_DIM
+	private static val int STRIDE = NORMALS_OFFSET + NORMALS_DIM
+	private static val int BYTES_PER_FLOAT = 4
+
+	// more changed ranges are uploaded as one range spanning all of them
+	private static val int MAX_DIRTY_RANGES = 16
+
+	private static Float32Array data
 
 	private static int currentBufferItemCount = 0
+	private static int drawCallCount = 0
+
+	private static boolean building = false
+	private static val int[] dirtyStarts = newIntArrayOfSize(MAX_DIRTY_RANGES)
+	private static val int[] dirtyEnds = newIntArrayOfSize(MAX_DIRTY_RANGES)
+	private static int dirtyRangeCount = 0
 
 	private new() {
 	}
@@ -50,111 +68,152 @@ class BufferManager {
 	}
 
 	private def static void clear() {
-		vertices = FloatArray::create(DEFAULT_BUFFER_POINT_LENGTH * VERTICES_DIM)
-		textureCoords = FloatArray::create(DEFAULT_BUFFER_POINT_LENGTH * TEXTURECOORDS_DIM)
-		colors = FloatArray::create(DEFAULT_BUFFER_POINT_LENGTH * COLORS_DIM)
-		normals = FloatArray::create(DEFAULT_BUFFER_POINT_LENGTH * NORMALS_DIM)
+		data = FloatArray::create(DEFAULT_BUFFER_POINT_LENGTH * STRIDE)
 		currentBufferItemCount = 0
+		dirtyRangeCount = 0
 	}
 
+	/**
+	 * The array is kept between scenes, so it only grows until it fits the
+	 * largest scene shown so far.
+	 */
 	def static begin() {
 		currentBufferItemCount = 0
+		dirtyRangeCount = 0
+		building = true
 	}
 
 	def static int addTriangle(float[] verticesToAdd, float[] textureCoordsToAdd, float[] colorToAdd,
 		float[] normalToAdd) {
-		val startOffset = currentBufferItemCount
-
-		vertices = mergeArray(verticesToAdd, vertices, currentBufferItemCount * VERTICES_DIM)
-		textureCoords = mergeArray(textureCoordsToAdd, textureCoords, currentBufferItemCount * TEXTURECOORDS_DIM)
-		colors = mergeArray(colorToAdd, colors, currentBufferItemCount * COLORS_DIM)
-		normals = mergeArray(normalToAdd, normals, currentBufferItemCount * NORMALS_DIM)
-
-		currentBufferItemCount = currentBufferItemCount + 3
-		startOffset
+		addVertices(verticesToAdd, textureCoordsToAdd, colorToAdd, normalToAdd, 3)
 	}
 
-	def private static mergeArray(float[] valuesToAdd, Float32Array targetArray, int startOffset) {
-		val currentMaxBufferSize = targetArray.getLength
-
-		var currentTargetArray = targetArray
-
-		if (currentMaxBufferSize <= startOffset + valuesToAdd.length) {
-			currentTargetArray = FloatArray::create(currentMaxBufferSize * 2)
-			FloatArray::set(currentTargetArray, targetArray, 0)
-		}
+	def static int addQuad(float[] verticesToAdd, float[] textureCoordsToAdd, float[] colorToAdd, float[] normalToAdd) {
+		addVertices(verticesToAdd, textureCoordsToAdd, colorToAdd, normalToAdd, 6)
+	}
 
-		FloatArray::set(currentTargetArray, valuesToAdd, startOffset)
-		currentTargetArray
+	/**
+	 * Adds the quads of e.g. a label at once, the arrays may be longer than
+	 * needed.
+	 */
+	def static int addQuads(float[] verticesToAdd, float[] textureCoordsToAdd, float[] colorToAdd,
+		float[] normalToAdd, int quadCount) {
+		addVertices(verticesToAdd, textureCoordsToAdd, colorToAdd, normalToAdd, quadCount * 6)
 	}
 
-	def static int addQuad(float[] verticesToAdd, float[] textureCoordsToAdd, float[] colorToAdd, float[] normalToAdd) {
+	def private static int addVertices(float[] verticesToAdd, float[] textureCoordsToAdd, float[] colorToAdd,
+		float[] normalToAdd, int vertexCount) {
 		val startOffset = currentBufferItemCount
+		ensureCapacity(currentBufferItemCount + vertexCount)
 
-		vertices = mergeArray(verticesToAdd, vertices, currentBufferItemCount * VERTICES_DIM)
-		textureCoords = mergeArray(textureCoordsToAdd, textureCoords, currentBufferItemCount * TEXTURECOORDS_DIM)
-		colors = mergeArray(colorToAdd, colors, currentBufferItemCount * COLORS_DIM)
-		normals = mergeArray(normalToAdd, normals, currentBufferItemCount * NORMALS_DIM)
+		val floatOffset = startOffset * STRIDE
+		setAttribute(verticesToAdd, VERTICES_DIM, vertexCount, floatOffset + VERTICES_OFFSET)
+		setAttribute(textureCoordsToAdd, TEXTURECOORDS_DIM, vertexCount, floatOffset + TEXTURECOORDS_OFFSET)
+		setAttribute(colorToAdd, COLORS_DIM, vertexCount, floatOffset + COLORS_OFFSET)
+		setAttribute(normalToAdd, NORMALS_DIM, vertexCount, floatOffset + NORMALS_OFFSET)
 
-		currentBufferItemCount = currentBufferItemCount + 6
+		currentBufferItemCount = currentBufferItemCount + vertexCount
 		startOffset
 	}
 
+	def private static void setAttribute(float[] values, int dim, int vertexCount, int floatOffset) {
+		FloatArray::setInterleaved(data, values, Math.min(values.length, vertexCount * dim), dim, floatOffset, STRIDE)
+	}
+
+	def private static void ensureCapacity(int vertexCount) {
+		val capacity = data.getLength / STRIDE
+		if (vertexCount > capacity) {
+			val newData = FloatArray::create(Math.max(capacity * 2, vertexCount) * STRIDE)
+			FloatArray::set(newData, data.subarray(0, currentBufferItemCount * STRIDE), 0)
+			data = newData
+		}
+	}
+
 	def static end() {
+		building = false
 		fillBuffer()
 	}
 
 	def static void fillBuffer() {
-		val texCoordsOffset = vertices.getByteLength()
-		val colorsOffset = texCoordsOffset + textureCoords.getByteLength()
-		val normalsOffset = colorsOffset + colors.getByteLength()
-
-		glContext.bufferData(WebGLRenderingContext::ARRAY_BUFFER, normalsOffset + normals.getByteLength(),
+		dirtyRangeCount = 0
+		glContext.bufferData(WebGLRenderingContext::ARRAY_BUFFER, data.subarray(0, currentBufferItemCount * STRIDE),
 			WebGLRenderingContext::STATIC_DRAW)
 
-		glContext.bufferSubData(WebGLRenderingContext::ARRAY_BUFFER, 0, vertices)
-		glContext.bufferSubData(WebGLRenderingContext::ARRAY_BUFFER, texCoordsOffset, textureCoords)
-		glContext.bufferSubData(WebGLRenderingContext::ARRAY_BUFFER, colorsOffset, colors)
-		glContext.bufferSubData(WebGLRenderingContext::ARRAY_BUFFER, normalsOffset, normals)
-
+		val strideInBytes = STRIDE * BYTES_PER_FLOAT
 		glContext.vertexAttribPointer(shaderObject.vertexPositionAttribute, VERTICES_DIM,
-			WebGLRenderingContext::FLOAT, false, 0, 0)
+			WebGLRenderingContext::FLOAT, false, strideInBytes, VERTICES_OFFSET * BYTES_PER_FLOAT)
 		glContext.vertexAttribPointer(shaderObject.textureCoordAttribute, TEXTURECOORDS_DIM,
-			WebGLRenderingContext::FLOAT, false, 0, texCoordsOffset)
+			WebGLRenderingContext::FLOAT, false, strideInBytes, TEXTURECOORDS_OFFSET * BYTES_PER_FLOAT)
 		glContext.vertexAttribPointer(shaderObject.vertexColorAttribute, COLORS_DIM, WebGLRenderingContext::FLOAT,
-			false, 0, colorsOffset)
+			false, strideInBytes, COLORS_OFFSET * BYTES_PER_FLOAT)
 		glContext.vertexAttribPointer(shaderObject.vertexNormalAttribute, NORMALS_DIM, WebGLRenderingContext::FLOAT,
-			false, 0, normalsOffset)
+			false, strideInBytes, NORMALS_OFFSET * BYTES_PER_FLOAT)
 	}
 
-	def static void refillVertices() {
-		val verticesOffset = 0
+	/**
+	 * Remembers changed vertices for the upload before the next frame. While
+	 * the scene is built, everything is uploaded at the end anyway.
+	 */
+	def private static void markDirty(int offsetInBuffer, int vertexCount) {
+		if (building || glContext == null) {
+			return
+		}
+		val start = offsetInBuffer
+		val end = offsetInBuffer + vertexCount
+
+		for (var i = 0; i < dirtyRangeCount; i++) {
+			if (start <= dirtyEnds.get(i) && end >= dirtyStarts.get(i)) {
+				dirtyStarts.set(i, Math.min(start, dirtyStarts.get(i)))
+				dirtyEnds.set(i, Math.max(end, dirtyEnds.get(i)))
+				return
+			}
+		}
 
-		if (glContext != null) {
-			glContext.bufferSubData(WebGLRenderingContext::ARRAY_BUFFER, verticesOffset, vertices)
+		if (dirtyRangeCount < MAX_DIRTY_RANGES) {
+			dirtyStarts.set(dirtyRangeCount, start)
+			dirtyEnds.set(dirtyRangeCount, end)
+			dirtyRangeCount = dirtyRangeCount + 1
+		} else {
+			for (var i = 1; i < dirtyRangeCount; i++) {
+				dirtyStarts.set(0, Math.min(dirtyStarts.get(0), dirtyStarts.get(i)))
+				dirtyEnds.set(0, Math.max(dirtyEnds.get(0), dirtyEnds.get(i)))
+			}
+			dirtyStarts.set(0, Math.min(start, dirtyStarts.get(0)))
+			dirtyEnds.set(0, Math.max(end, dirtyEnds.get(0)))
+			dirtyRangeCount = 1
 		}
 	}
-	
-	def static void refillColors() {
-		val colorsOffset = vertices.getByteLength() + textureCoords.getByteLength()
 
-		if (glContext != null) {
-			glContext.bufferSubData(WebGLRenderingContext::ARRAY_BUFFER, colorsOffset, colors)
+	/**
+	 * Uploads the vertices changed since the last frame.
+	 */
+	def static void flushDirtyRanges() {
+		for (var i = 0; i < dirtyRangeCount; i++) {
+			glContext.bufferSubData(WebGLRenderingContext::ARRAY_BUFFER,
+				dirtyStarts.get(i) * STRIDE * BYTES_PER_FLOAT,
+				data.subarray(dirtyStarts.get(i) * STRIDE, dirtyEnds.get(i) * STRIDE))
 		}
+		dirtyRangeCount = 0
 	}
-	
-	def static void refillNormals() {
-		val normalsOffset = vertices.getByteLength() + textureCoords.getByteLength() + colors.getByteLength()
 
-		if (glContext != null) {
-			glContext.bufferSubData(WebGLRenderingContext::ARRAY_BUFFER, normalsOffset, normals)
-		}
+	def private static void drawTriangles(int offsetInBuffer, int vertexCount) {
+		glContext.drawArrays(WebGLRenderingContext::TRIANGLES, offsetInBuffer, vertexCount)
+		drawCallCount = drawCallCount + 1
+	}
+
+	/**
+	 * @return the draw calls since the last call
+	 */
+	def static int resetDrawCallCount() {
+		val count = drawCallCount
+		drawCallCount = 0
+		count
 	}
 
 	def static final void drawTriangle(int offsetInBuffer, WebGLTexture texture, boolean transparent, boolean drawWithoutDepthTest) {
 		drawAbstractGeo(transparent, drawWithoutDepthTest, texture)
 
-		glContext.drawArrays(WebGLRenderingContext::TRIANGLES, offsetInBuffer, 3)
+		drawTriangles(offsetInBuffer, 3)
 	}
 
 	def private static drawAbstractGeo(boolean transparent, boolean drawWithoutDepthTest, WebGLTexture texture) {
@@ -181,70 +240,59 @@ class BufferManager {
 	def static final void drawQuad(int offsetInBuffer, WebGLTexture texture, boolean transparent, boolean drawWithoutDepthTest) {
 		drawAbstractGeo(transparent, drawWithoutDepthTest, texture)
 
-		glContext.drawArrays(WebGLRenderingContext::TRIANGLES, offsetInBuffer, 6)
+		drawTriangles(offsetInBuffer, 6)
 	}
 	
 	def static final void drawLabelsAtOnce(int offsetInBuffer, WebGLTexture texture, int letterCount) {
 		drawAbstractGeo(true, true, texture)
 
-		glContext.drawArrays(WebGLRenderingContext::TRIANGLES, offsetInBuffer, letterCount * 6)
+		drawTriangles(offsetInBuffer, letterCount * 6)
 	}
 	
 	def static final void drawLineAtOnce(int offsetInBuffer, int lineQuadsCount, int lineTrianglesCount) {
 		drawAbstractGeo(false, false, null)
 
-		glContext.drawArrays(WebGLRenderingContext::TRIANGLES, offsetInBuffer, lineQuadsCount * 2 * 3 + lineTrianglesCount * 3)
+		drawTriangles(offsetInBuffer, lineQuadsCount * 2 * 3 + lineTrianglesCount * 3)
 	}
 	
 	def static final void drawLineTrianglesAtOnce(int offsetInBuffer, int lineTrianglesCount) {
 		drawAbstractGeo(false, false, null)
 
-		glContext.drawArrays(WebGLRenderingContext::TRIANGLES, offsetInBuffer, lineTrianglesCount * 3)
+		drawTriangles(offsetInBuffer, lineTrianglesCount * 3)
 	}
 	
 	def static final void drawBoxesAtOnce(int offsetInBuffer, int boxCount) {
 		drawAbstractGeo(false, false, null)
 
-		glContext.drawArrays(WebGLRenderingContext::TRIANGLES, offsetInBuffer, boxCount * 6 * 6)
+		drawTriangles(offsetInBuffer, boxCount * 6 * 6)
 	}
 	
 	def static final void drawQuadsAtOnce(int offsetInBuffer, int quadCount) {
 		drawAbstractGeo(false, false, null)
 
-		glContext.drawArrays(WebGLRenderingContext::TRIANGLES, offsetInBuffer, quadCount * 2 * 3)
+		drawTriangles(offsetInBuffer, quadCount * 2 * 3)
 	}
 	
 	def static final void drawQuadsWithAppTextureAtOnce(int offsetInBuffer, int quadCount, WebGLTexture texture) {
 		drawAbstractGeo(false, false, texture)
 
-		glContext.drawArrays(WebGLRenderingContext::TRIANGLES, offsetInBuffer, quadCount * 2 * 3)
+		drawTriangles(offsetInBuffer, quadCount * 2 * 3)
 	}
 	
 	def static final void drawPipesAtOnce(int offsetInBuffer, int pipeCount, boolean transparent, int extraTrianglesCount) {
 		drawAbstractGeo(transparent, true, null)
 
-		glContext.drawArrays(WebGLRenderingContext::TRIANGLES, offsetInBuffer, pipeCount * 6 * Pipe::smoothnessQuadsCount + extraTrianglesCount * 3)
+		drawTriangles(offsetInBuffer, pipeCount * 6 * Pipe::smoothnessQuadsCount + extraTrianglesCount * 3)
 	}
 
 	def static overrideColor(int offsetInBuffer, float[] newColor) {
-		val ithComponent = offsetInBuffer
-
-		val localColorsOffset = ithComponent * COLORS_DIM
-		for (var i = 0; i < newColor.length; i++) {
-			FloatArray::set(colors, newColor.get(i), localColorsOffset + i)
-		}
-
-		refillColors()
+		FloatArray::setInterleaved(data, newColor, COLORS_DIM, offsetInBuffer * STRIDE + COLORS_OFFSET, STRIDE)
+		markDirty(offsetInBuffer, (newColor.length + COLORS_DIM - 1) / COLORS_DIM)
 	}
 
 	def static setNewVerticesPosition(int offsetInBuffer, float[] newPositions, int numberOfVertices) {
-		val ithComponent = offsetInBuffer
-		val loopMax = numberOfVertices * VERTICES_DIM		
-		val localNewVerticesOffset = ithComponent * VERTICES_DIM
-				
-		for (var i = 0; i < loopMax; i++) {
-			FloatArray::set(vertices, newPositions.get(i), localNewVerticesOffset + i)
-		}
-		refillVertices()
+		FloatArray::setInterleaved(data, newPositions, numberOfVertices * VERTICES_DIM, VERTICES_DIM,
+			offsetInBuffer * STRIDE + VERTICES_OFFSET, STRIDE)
+		markDirty(offsetInBuffer, numberOfVertices)
 	}
 }
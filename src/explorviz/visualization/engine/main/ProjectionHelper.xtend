@@ -11,6 +11,10 @@ class ProjectionHelper {
 		projectMatrix = projectMatrixParam
 	}
 
+	def static Matrix44f getMatrix() {
+		projectMatrix
+	}
+
 	public def static unproject(int winX, int winY, int winZ, int viewportWidth, int viewportHeight, Matrix44f modelView) {
 		val normalized = new Vector4f()
 		normalized.x = winX / (viewportWidth as float) * 2.0f - 1f
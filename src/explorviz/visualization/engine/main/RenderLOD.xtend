@@ -0,0 +1,190 @@
+package explorviz.visualization.engine.main
+
+import explorviz.visualization.engine.math.BoundingSphere
+import explorviz.visualization.engine.math.Matrix44f
+import explorviz.visualization.engine.math.Plane
+import java.util.ArrayList
+import java.util.List
+
+/**
+ * Level of detail for the 3D application view: primitives outside of the view
+ * frustum are not drawn, neither are labels which would be too small to read.
+ * Opened components far away from the camera are drawn as one aggregate box
+ * instead of their contents. Evaluated once per drawn frame (and eye).
+ */
+class RenderLOD {
+	public static var enabled = true
+	// opened components smaller than this share of their distance are aggregated
+	public static var componentMinSizeToDistance = 0.05f
+	// labels smaller than this share of their distance are not drawn
+	public static var labelMinSizeToDistance = 0.02f
+
+	/** The primitive is drawn. */
+	public val static DRAWN = 0
+	/**
+	 * The primitive is outside of the view frustum or too small to read, it
+	 * may still be drawn along with its neighbours.
+	 */
+	public val static CULLED = 1
+	/**
+	 * The primitive does not belong to the current level of detail and must
+	 * not be drawn at all.
+	 */
+	public val static REPLACED = 2
+
+	val static OPEN = 0
+	val static AGGREGATED = 1
+	val static HIDDEN = 2
+
+	val static Plane[] frustum = newArrayOfSize(6)
+	var static Matrix44f modelView
+	var static boolean active = false
+
+	// the opened components, parents are always registered before their children
+	val static List<BoundingSphere> groupSpheres = new ArrayList<BoundingSphere>()
+	val static List<Integer> groupParents = new ArrayList<Integer>()
+	var static int[] groupStates = newIntArrayOfSize(0)
+
+	/**
+	 * The group of the primitives currently created, -1 for primitives which
+	 * are never aggregated
+	 */
+	public static var currentGroup = -1
+
+	var static int culledUnits = 0
+
+	private new() {
+	}
+
+	def static void clear() {
+		groupSpheres.clear()
+		groupParents.clear()
+		groupStates = newIntArrayOfSize(0)
+		currentGroup = -1
+	}
+
+	/**
+	 * @param sphere
+	 *            encloses the opened component and its contents
+	 * @return the group of the primitives inside of the component
+	 */
+	def static int createGroup(BoundingSphere sphere, int parentGroup) {
+		groupSpheres.add(sphere)
+		groupParents.add(parentGroup)
+		// grown geometrically, new groups are open until the next frame
+		if (groupStates.length < groupSpheres.size) {
+			val states = newIntArrayOfSize(Math::max(16, groupStates.length * 2))
+			System::arraycopy(groupStates, 0, states, 0, groupStates.length)
+			groupStates = states
+		}
+		groupSpheres.size - 1
+	}
+
+	/**
+	 * Must be called after the model view matrix is activated.
+	 */
+	def static void beginFrame() {
+		val projection = ProjectionHelper::getMatrix()
+		// the eyes of a VR device use their own projections
+		if (SceneDrawer::lastViewedApplication != null && projection != null && !WebGLStart::webVRMode) {
+			beginFrame(WebGLManipulation::getModelViewMatrix(), projection)
+		} else {
+			active = false
+		}
+	}
+
+	/**
+	 * Evaluates the view frustum and the level of detail of every group for
+	 * the given matrices.
+	 */
+	def static void beginFrame(Matrix44f modelView, Matrix44f projection) {
+		active = enabled
+		if (!active) {
+			return
+		}
+
+		RenderLOD::modelView = modelView
+		extractFrustum(modelView.mult(projection).entries)
+
+		for (var i = 0; i < groupSpheres.size; i++) {
+			val parent = groupParents.get(i)
+			groupStates.set(i,
+				if (parent >= 0 && groupStates.get(parent) != OPEN) {
+					HIDDEN
+				} else if (isTooSmall(groupSpheres.get(i), componentMinSizeToDistance)) {
+					AGGREGATED
+				} else {
+					OPEN
+				})
+		}
+	}
+
+	def static boolean isActive() {
+		active
+	}
+
+	/**
+	 * @param aggregate
+	 *            whether the primitive replaces the contents of its group
+	 * @return {@link #DRAWN}, {@link #CULLED} or {@link #REPLACED}
+	 */
+	def static int visibility(BoundingSphere sphere, int group, boolean aggregate, boolean label) {
+		val state = if (group < 0) OPEN else groupStates.get(group)
+		if (aggregate) {
+			if (state != AGGREGATED) {
+				return REPLACED
+			}
+		} else if (state != OPEN) {
+			return REPLACED
+		}
+
+		if (label && isTooSmall(sphere, labelMinSizeToDistance)) {
+			return CULLED
+		}
+		if (sphere.isVisible(frustum)) DRAWN else CULLED
+	}
+
+	def private static boolean isTooSmall(BoundingSphere sphere, float minSizeToDistance) {
+		// distance in view space, the camera is at the origin
+		val m = modelView.entries
+		val c = sphere.center
+		val x = m.get(0) * c.x + m.get(4) * c.y + m.get(8) * c.z + m.get(12)
+		val y = m.get(1) * c.x + m.get(5) * c.y + m.get(9) * c.z + m.get(13)
+		val z = m.get(2) * c.x + m.get(6) * c.y + m.get(10) * c.z + m.get(14)
+		val distance = Math.sqrt(x * x + y * y + z * z)
+
+		sphere.radius * 2f < minSizeToDistance * distance
+	}
+
+	/**
+	 * Planes of the view frustum in model space, taken from the rows of the
+	 * column major clip matrix (Gribb and Hartmann).
+	 */
+	def private static void extractFrustum(float[] m) {
+		frustum.set(0, plane(m.get(3) + m.get(0), m.get(7) + m.get(4), m.get(11) + m.get(8), m.get(15) + m.get(12)))
+		frustum.set(1, plane(m.get(3) - m.get(0), m.get(7) - m.get(4), m.get(11) - m.get(8), m.get(15) - m.get(12)))
+		frustum.set(2, plane(m.get(3) + m.get(1), m.get(7) + m.get(5), m.get(11) + m.get(9), m.get(15) + m.get(13)))
+		frustum.set(3, plane(m.get(3) - m.get(1), m.get(7) - m.get(5), m.get(11) - m.get(9), m.get(15) - m.get(13)))
+		frustum.set(4, plane(m.get(3) + m.get(2), m.get(7) + m.get(6), m.get(11) + m.get(10), m.get(15) + m.get(14)))
+		frustum.set(5, plane(m.get(3) - m.get(2), m.get(7) - m.get(6), m.get(11) - m.get(10), m.get(15) - m.get(14)))
+	}
+
+	def private static Plane plane(float a, float b, float c, float d) {
+		val plane = new Plane(a, b, c, d)
+		plane.normalize()
+		plane
+	}
+
+	def static void countCulled(int units) {
+		culledUnits = culledUnits + units
+	}
+
+	/**
+	 * @return the boxes and letters left out since the last call
+	 */
+	def static int resetCulledCount() {
+		val count = culledUnits
+		culledUnits = 0
+		count
+	}
+}
@@ -1,14 +1,14 @@
 package explorviz.visualization.engine.main
 
 import elemental.html.WebGLRenderingContext
+import explorviz.shared.landscapeexchange.LandscapeLayoutState
 import explorviz.shared.model.Application
 import explorviz.shared.model.Component
 import explorviz.shared.model.Landscape
-import explorviz.shared.model.NodeGroup
-import explorviz.shared.model.System
 import explorviz.visualization.clustering.Clustering
 import explorviz.visualization.engine.animation.ObjectMoveAnimater
 import explorviz.visualization.engine.buffer.BufferManager
+import explorviz.visualization.engine.picking.ObjectPicker
 import explorviz.visualization.engine.navigation.Camera
 import explorviz.visualization.engine.navigation.Navigation
 import explorviz.visualization.engine.primitives.BoxContainer
@@ -94,34 +94,8 @@ class SceneDrawer {
 	}
 
 	private static def void setOpenedAndClosedStatesLandscape(Landscape oldLandscape, Landscape landscape) {
-		for (system : landscape.systems) {
-			setOpenedAndClosedStatesLandscapeHelper(oldLandscape, system)
-		}
-	}
-
-	private static def void setOpenedAndClosedStatesLandscapeHelper(Landscape oldLandscape, System system) {
-		for (oldSystem : oldLandscape.systems) {
-			if (system.name == oldSystem.name) {
-				for (nodegroup : system.nodeGroups) {
-					setOpenedAndClosedStatesLandscapeHelperNodeGroup(oldSystem, nodegroup)
-				}
-				if (oldSystem.opened != system.opened) {
-					system.opened = oldSystem.opened
-				}
-				return
-			}
-		}
-	}
-
-	private static def void setOpenedAndClosedStatesLandscapeHelperNodeGroup(System oldSystem, NodeGroup nodegroup) {
-		for (oldNodegroup : oldSystem.nodeGroups) {
-			if (nodegroup.name == oldNodegroup.name) {
-				if (oldNodegroup.opened != nodegroup.opened) {
-					nodegroup.opened = oldNodegroup.opened
-				}
-				return
-			}
-		}
+		// the server applies the same states when it lays out the landscape
+		LandscapeLayoutState::from(oldLandscape).applyTo(landscape)
 	}
 
 	private static def void setStatesFromOldApplication(Application oldApplication, Application application) {
@@ -174,6 +148,7 @@ class SceneDrawer {
 		} else {
 			LandscapeInteraction::createInteraction(landscape)
 		}
+		ObjectPicker::buildIndex()
 
 		if (doAnimation) {
 			ObjectMoveAnimater::startAnimation()
@@ -216,6 +191,7 @@ class SceneDrawer {
 		BufferManager::end
 
 		ApplicationInteraction::createInteraction(application)
+		ObjectPicker::buildIndex()
 
 		if (doAnimation) {
 			ObjectMoveAnimater::startAnimation()
@@ -282,10 +258,12 @@ class SceneDrawer {
 	}
 
 	def static private void drawObjects() {
+		BufferManager::flushDirtyRanges
 
 		if (WebGLStart::webVRMode && !showVRObjects) {
 			//if (vrLabel != null) drawPrimitiveWithBillboarding(vrLabel)
 		} else {
+			RenderLOD::beginFrame
 
 			BoxContainer::drawLowLevelBoxes
 			LabelContainer::drawDownwardLabels
@@ -17,9 +17,9 @@ public class BoundingSphere {
 		// calculate midpoint
 		center = new Vector3f(0f, 0f, 0f);
 		for (final Vector3f vertex : vertices) {
-			center.add(vertex);
+			center = center.add(vertex);
 		}
-		center.div(count);
+		center = center.div(count);
 
 		// calculate farthest point of center => radius
 		radius = 0.0f;
@@ -0,0 +1,229 @@
+package explorviz.visualization.engine.math;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounding volume hierarchy over the axis aligned bounding boxes of items,
+ * e.g. the primitives of the scene. Built top down by splitting at the median
+ * of the longest axis. A query visits the nodes front to back and skips every
+ * node behind the nearest hit found so far.
+ */
+public class BoundingVolumeHierarchy<T> {
+	private static final int MAX_LEAF_SIZE = 4;
+
+	public interface Intersector<T> {
+		/**
+		 * @return the exact intersect coefficient of the ray and the item,
+		 *         {@link Float#MAX_VALUE} if it is missed
+		 */
+		float getIntersectCoefficient(Ray ray, T item);
+	}
+
+	private final List<T> items;
+	private final float[] itemBounds;
+	private final float[] centers;
+	private final int[] order;
+
+	private final float[] nodeBounds;
+	// leaves: first item in order, inner nodes: first child (second is next)
+	private final int[] nodeStart;
+	private final int[] nodeItemCount;
+	private int nodeCount = 0;
+	private int depth = 0;
+
+	/**
+	 * @param bounds
+	 *            per item minimum x, y, z followed by maximum x, y, z
+	 */
+	public BoundingVolumeHierarchy(final List<T> items, final float[] bounds) {
+		this.items = new ArrayList<T>(items);
+		itemBounds = bounds;
+
+		final int itemCount = items.size();
+		centers = new float[itemCount * 3];
+		order = new int[itemCount];
+		for (int i = 0; i < itemCount; i++) {
+			order[i] = i;
+			for (int axis = 0; axis < 3; axis++) {
+				centers[(i * 3) + axis] = (bounds[(i * 6) + axis] + bounds[(i * 6) + axis + 3]) / 2f;
+			}
+		}
+
+		final int maxNodeCount = Math.max(1, 2 * itemCount);
+		nodeBounds = new float[maxNodeCount * 6];
+		nodeStart = new int[maxNodeCount];
+		nodeItemCount = new int[maxNodeCount];
+
+		nodeCount = 1;
+		build(0, 0, itemCount, 1);
+	}
+
+	private void build(final int node, final int start, final int end, final int level) {
+		depth = Math.max(depth, level);
+		setBounds(node, start, end);
+
+		if ((end - start) <= MAX_LEAF_SIZE) {
+			nodeStart[node] = start;
+			nodeItemCount[node] = end - start;
+			return;
+		}
+
+		final int axis = getLongestAxis(start, end);
+		final int middle = (start + end) >>> 1;
+		select(start, end - 1, middle, axis);
+
+		final int firstChild = nodeCount;
+		nodeCount += 2;
+		nodeStart[node] = firstChild;
+		nodeItemCount[node] = 0;
+		build(firstChild, start, middle, level + 1);
+		build(firstChild + 1, middle, end, level + 1);
+	}
+
+	private void setBounds(final int node, final int start, final int end) {
+		final int offset = node * 6;
+		for (int axis = 0; axis < 3; axis++) {
+			nodeBounds[offset + axis] = Float.MAX_VALUE;
+			nodeBounds[offset + axis + 3] = -Float.MAX_VALUE;
+		}
+		for (int i = start; i < end; i++) {
+			final int itemOffset = order[i] * 6;
+			for (int axis = 0; axis < 3; axis++) {
+				nodeBounds[offset + axis] = Math.min(nodeBounds[offset + axis], itemBounds[itemOffset
+						+ axis]);
+				nodeBounds[offset + axis + 3] = Math.max(nodeBounds[offset + axis + 3],
+						itemBounds[itemOffset + axis + 3]);
+			}
+		}
+	}
+
+	private int getLongestAxis(final int start, final int end) {
+		int longestAxis = 0;
+		float longestExtent = -1f;
+		for (int axis = 0; axis < 3; axis++) {
+			float min = Float.MAX_VALUE;
+			float max = -Float.MAX_VALUE;
+			for (int i = start; i < end; i++) {
+				final float center = centers[(order[i] * 3) + axis];
+				min = Math.min(min, center);
+				max = Math.max(max, center);
+			}
+			if ((max - min) > longestExtent) {
+				longestExtent = max - min;
+				longestAxis = axis;
+			}
+		}
+		return longestAxis;
+	}
+
+	/**
+	 * Quickselect, afterwards the items before k have smaller centers on the
+	 * axis than the ones after k.
+	 */
+	private void select(int left, int right, final int k, final int axis) {
+		while (left < right) {
+			final float pivot = centers[(order[(left + right) >>> 1] * 3) + axis];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (centers[(order[i] * 3) + axis] < pivot) {
+					i++;
+				}
+				while (centers[(order[j] * 3) + axis] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					final int swap = order[i];
+					order[i] = order[j];
+					order[j] = swap;
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the item hit first by the ray, null if none is hit
+	 */
+	public T getNearest(final Ray ray, final Intersector<T> intersector) {
+		if (items.isEmpty()) {
+			return null;
+		}
+
+		final int[] nodeStack = new int[(depth * 2) + 1];
+		final float[] entryStack = new float[(depth * 2) + 1];
+		int stackSize = 0;
+
+		float nearestCoefficient = Float.MAX_VALUE;
+		T nearest = null;
+
+		final float rootEntry = ray.getEntryCoefficient(nodeBounds, 0);
+		if (rootEntry == Float.MAX_VALUE) {
+			return null;
+		}
+		nodeStack[stackSize] = 0;
+		entryStack[stackSize] = rootEntry;
+		stackSize++;
+
+		while (stackSize > 0) {
+			stackSize--;
+			final int node = nodeStack[stackSize];
+			if (entryStack[stackSize] >= nearestCoefficient) {
+				continue;
+			}
+
+			if (nodeItemCount[node] > 0) {
+				final int end = nodeStart[node] + nodeItemCount[node];
+				for (int i = nodeStart[node]; i < end; i++) {
+					final int item = order[i];
+					if (ray.getEntryCoefficient(itemBounds, item * 6) < nearestCoefficient) {
+						final float coefficient = intersector.getIntersectCoefficient(ray,
+								items.get(item));
+						if (coefficient < nearestCoefficient) {
+							nearestCoefficient = coefficient;
+							nearest = items.get(item);
+						}
+					}
+				}
+			} else {
+				final int first = nodeStart[node];
+				final float firstEntry = ray.getEntryCoefficient(nodeBounds, first * 6);
+				final float secondEntry = ray.getEntryCoefficient(nodeBounds, (first + 1) * 6);
+
+				// the nearer child is on top of the stack
+				if (firstEntry <= secondEntry) {
+					stackSize = push(nodeStack, entryStack, stackSize, first + 1, secondEntry);
+					stackSize = push(nodeStack, entryStack, stackSize, first, firstEntry);
+				} else {
+					stackSize = push(nodeStack, entryStack, stackSize, first, firstEntry);
+					stackSize = push(nodeStack, entryStack, stackSize, first + 1, secondEntry);
+				}
+			}
+		}
+
+		return nearest;
+	}
+
+	private static int push(final int[] nodeStack, final float[] entryStack, final int stackSize,
+			final int node, final float entry) {
+		if (entry == Float.MAX_VALUE) {
+			return stackSize;
+		}
+		nodeStack[stackSize] = node;
+		entryStack[stackSize] = entry;
+		return stackSize + 1;
+	}
+
+	public int size() {
+		return items.size();
+	}
+}
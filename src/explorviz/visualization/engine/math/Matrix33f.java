@@ -46,6 +46,12 @@ public class Matrix33f {
 						+ (entries[5] * v.y) + (entries[8] * v.z));
 	}
 
+	public Vector3f mult(final Vector3f v, final Vector3f result) {
+		return result.set((entries[0] * v.x) + (entries[3] * v.y) + (entries[6] * v.z),
+				(entries[1] * v.x) + (entries[4] * v.y) + (entries[7] * v.z), (entries[2] * v.x)
+						+ (entries[5] * v.y) + (entries[8] * v.z));
+	}
+
 	public Matrix33f mult(final Matrix33f m) {
 		return new Matrix33f(
 				((entries[0] * m.entries[0]) + (entries[1] * m.entries[3]) + (entries[2] * m.entries[6])),
@@ -63,6 +63,34 @@ public class Matrix44f {
 		entries[15] = _33;
 	}
 
+	public Matrix44f set(final float _00, final float _01, final float _02, final float _03,
+			final float _10, final float _11, final float _12, final float _13, final float _20,
+			final float _21, final float _22, final float _23, final float _30, final float _31,
+			final float _32, final float _33) {
+		entries[0] = _00;
+		entries[1] = _01;
+		entries[2] = _02;
+		entries[3] = _03;
+		entries[4] = _10;
+		entries[5] = _11;
+		entries[6] = _12;
+		entries[7] = _13;
+		entries[8] = _20;
+		entries[9] = _21;
+		entries[10] = _22;
+		entries[11] = _23;
+		entries[12] = _30;
+		entries[13] = _31;
+		entries[14] = _32;
+		entries[15] = _33;
+		return this;
+	}
+
+	public Matrix44f set(final Matrix44f m) {
+		System.arraycopy(m.entries, 0, entries, 0, 16);
+		return this;
+	}
+
 	public void reset() {
 		entries[0] = 1;
 		entries[1] = 0;
@@ -90,6 +118,24 @@ public class Matrix44f {
 				+ (entries[7] * v.y) + (entries[11] * v.z) + (entries[15] * v.w));
 	}
 
+	public Vector4f mult(final Vector4f v, final Vector4f result) {
+		return result.set((entries[0] * v.x) + (entries[4] * v.y) + (entries[8] * v.z)
+				+ (entries[12] * v.w), (entries[1] * v.x) + (entries[5] * v.y) + (entries[9] * v.z)
+				+ (entries[13] * v.w), (entries[2] * v.x) + (entries[6] * v.y)
+				+ (entries[10] * v.z) + (entries[14] * v.w), (entries[3] * v.x)
+				+ (entries[7] * v.y) + (entries[11] * v.z) + (entries[15] * v.w));
+	}
+
+	/**
+	 * Transforms the point (w = 1) without dividing by w.
+	 */
+	public Vector3f transformPoint(final Vector3f v, final Vector3f result) {
+		return result.set((entries[0] * v.x) + (entries[4] * v.y) + (entries[8] * v.z)
+				+ entries[12], (entries[1] * v.x) + (entries[5] * v.y) + (entries[9] * v.z)
+				+ entries[13], (entries[2] * v.x) + (entries[6] * v.y) + (entries[10] * v.z)
+				+ entries[14]);
+	}
+
 	public Matrix44f mult(final Matrix44f m) {
 		return new Matrix44f(((entries[0] * m.entries[0]) + (entries[1] * m.entries[4])
 				+ (entries[2] * m.entries[8]) + (entries[3] * m.entries[12])),
@@ -128,12 +174,58 @@ public class Matrix44f {
 						+ (entries[14] * m.entries[11]) + (entries[15] * m.entries[15])));
 	}
 
+	/**
+	 * Like {@link #mult(Matrix44f)}, but writes into result, which may be
+	 * this or m
+	 */
+	public Matrix44f mult(final Matrix44f m, final Matrix44f result) {
+		final float e0 = (entries[0] * m.entries[0]) + (entries[1] * m.entries[4])
+				+ (entries[2] * m.entries[8]) + (entries[3] * m.entries[12]);
+		final float e1 = (entries[0] * m.entries[1]) + (entries[1] * m.entries[5])
+				+ (entries[2] * m.entries[9]) + (entries[3] * m.entries[13]);
+		final float e2 = (entries[0] * m.entries[2]) + (entries[1] * m.entries[6])
+				+ (entries[2] * m.entries[10]) + (entries[3] * m.entries[14]);
+		final float e3 = (entries[0] * m.entries[3]) + (entries[1] * m.entries[7])
+				+ (entries[2] * m.entries[11]) + (entries[3] * m.entries[15]);
+		final float e4 = (entries[4] * m.entries[0]) + (entries[5] * m.entries[4])
+				+ (entries[6] * m.entries[8]) + (entries[7] * m.entries[12]);
+		final float e5 = (entries[4] * m.entries[1]) + (entries[5] * m.entries[5])
+				+ (entries[6] * m.entries[9]) + (entries[7] * m.entries[13]);
+		final float e6 = (entries[4] * m.entries[2]) + (entries[5] * m.entries[6])
+				+ (entries[6] * m.entries[10]) + (entries[7] * m.entries[14]);
+		final float e7 = (entries[4] * m.entries[3]) + (entries[5] * m.entries[7])
+				+ (entries[6] * m.entries[11]) + (entries[7] * m.entries[15]);
+		final float e8 = (entries[8] * m.entries[0]) + (entries[9] * m.entries[4])
+				+ (entries[10] * m.entries[8]) + (entries[11] * m.entries[12]);
+		final float e9 = (entries[8] * m.entries[1]) + (entries[9] * m.entries[5])
+				+ (entries[10] * m.entries[9]) + (entries[11] * m.entries[13]);
+		final float e10 = (entries[8] * m.entries[2]) + (entries[9] * m.entries[6])
+				+ (entries[10] * m.entries[10]) + (entries[11] * m.entries[14]);
+		final float e11 = (entries[8] * m.entries[3]) + (entries[9] * m.entries[7])
+				+ (entries[10] * m.entries[11]) + (entries[11] * m.entries[15]);
+		final float e12 = (entries[12] * m.entries[0]) + (entries[13] * m.entries[4])
+				+ (entries[14] * m.entries[8]) + (entries[15] * m.entries[12]);
+		final float e13 = (entries[12] * m.entries[1]) + (entries[13] * m.entries[5])
+				+ (entries[14] * m.entries[9]) + (entries[15] * m.entries[13]);
+		final float e14 = (entries[12] * m.entries[2]) + (entries[13] * m.entries[6])
+				+ (entries[14] * m.entries[10]) + (entries[15] * m.entries[14]);
+		final float e15 = (entries[12] * m.entries[3]) + (entries[13] * m.entries[7])
+				+ (entries[14] * m.entries[11]) + (entries[15] * m.entries[15]);
+		return result.set(e0, e1, e2, e3, e4, e5, e6, e7, e8, e9, e10, e11, e12, e13, e14, e15);
+	}
+
 	public Matrix44f transpose() {
 		return new Matrix44f(entries[0], entries[4], entries[8], entries[12], entries[1],
 				entries[5], entries[9], entries[13], entries[2], entries[6], entries[10],
 				entries[14], entries[3], entries[7], entries[11], entries[15]);
 	}
 
+	public Matrix44f transpose(final Matrix44f result) {
+		return result.set(entries[0], entries[4], entries[8], entries[12], entries[1], entries[5],
+				entries[9], entries[13], entries[2], entries[6], entries[10], entries[14],
+				entries[3], entries[7], entries[11], entries[15]);
+	}
+
 	public Matrix33f normalMatrix() {
 		final float det = ((entries[0] * ((entries[10] * entries[5]) - (entries[9] * entries[6]))) - (entries[4] * ((entries[10] * entries[1]) - (entries[9] * entries[2]))))
 				+ (entries[8] * ((entries[6] * entries[1]) - (entries[5] * entries[2])));
@@ -7,10 +7,29 @@ public class Ray {
 	public final Vector3f dir;
 	private final float[] firstTriangles = new float[9];
 	private final float[] secondTriangles = new float[9];
+	private final float[] originAxes;
+	private final float[] dirAxes;
 
 	public Ray(final Vector3f origin, final Vector3f dir) {
 		this.origin = new Vector3f(origin);
 		this.dir = new Vector3f(dir);
+		originAxes = new float[] { origin.x, origin.y, origin.z };
+		dirAxes = new float[] { dir.x, dir.y, dir.z };
+	}
+
+	/**
+	 * Reuses this ray for another origin and direction.
+	 */
+	public Ray set(final Vector3f origin, final Vector3f dir) {
+		this.origin.set(origin);
+		this.dir.set(dir);
+		originAxes[0] = origin.x;
+		originAxes[1] = origin.y;
+		originAxes[2] = origin.z;
+		dirAxes[0] = dir.x;
+		dirAxes[1] = dir.y;
+		dirAxes[2] = dir.z;
+		return this;
 	}
 
 	@Override
@@ -107,6 +126,44 @@ public class Ray {
 				getIntersectCoefficient(secondTriangles));
 	}
 
+	/**
+	 * Slab test against an axis aligned bounding box.
+	 *
+	 * @param bounds
+	 *            minimum x, y, z followed by maximum x, y, z
+	 * @return the coefficient where the ray enters the box, 0 if the origin
+	 *         is inside, {@link Float#MAX_VALUE} if the box is missed
+	 */
+	public float getEntryCoefficient(final float[] bounds, final int offset) {
+		float entry = 0f;
+		float exit = Float.MAX_VALUE;
+
+		for (int axis = 0; axis < 3; axis++) {
+			final float min = bounds[offset + axis];
+			final float max = bounds[offset + axis + 3];
+			if (Math.abs(dirAxes[axis]) < 0.00001f) {
+				if ((originAxes[axis] < min) || (originAxes[axis] > max)) {
+					return Float.MAX_VALUE;
+				}
+			} else {
+				float near = (min - originAxes[axis]) / dirAxes[axis];
+				float far = (max - originAxes[axis]) / dirAxes[axis];
+				if (near > far) {
+					final float swap = near;
+					near = far;
+					far = swap;
+				}
+				entry = Math.max(entry, near);
+				exit = Math.min(exit, far);
+				if (entry > exit) {
+					return Float.MAX_VALUE;
+				}
+			}
+		}
+
+		return entry;
+	}
+
 	/**
 	 * Algorithm inspired by
 	 * http://geomalgorithms.com/a06-_intersect-2.html#intersect3D_RayTriangle
@@ -115,26 +172,29 @@ public class Ray {
 	 * @param triangle
 	 * @return
 	 */
-	private float getIntersectCoefficient(final float[] verticesTriangle) {
-		final Vector3f triangleV0 = new Vector3f(verticesTriangle[0], verticesTriangle[1],
-				verticesTriangle[2]);
-		final Vector3f triangleV1 = new Vector3f(verticesTriangle[3], verticesTriangle[4],
-				verticesTriangle[5]);
-		final Vector3f triangleV2 = new Vector3f(verticesTriangle[6], verticesTriangle[7],
-				verticesTriangle[8]);
-
-		final Vector3f u = triangleV1.sub(triangleV0);
-		final Vector3f v = triangleV2.sub(triangleV0);
-
-		final Vector3f n = u.cross(v);
-
-		if (n == new Vector3f(0, 0, 0)) { // triangle is degenerate
-			return Float.MAX_VALUE;
-		}
-
-		final Vector3f w0 = origin.sub(triangleV0);
-		final float a = -1 * n.dot(w0);
-		final float b = n.dot(dir);
+	public float getIntersectCoefficient(final float[] verticesTriangle) {
+		final float v0x = verticesTriangle[0];
+		final float v0y = verticesTriangle[1];
+		final float v0z = verticesTriangle[2];
+
+		// u = v1 - v0, v = v2 - v0
+		final float ux = verticesTriangle[3] - v0x;
+		final float uy = verticesTriangle[4] - v0y;
+		final float uz = verticesTriangle[5] - v0z;
+		final float vx = verticesTriangle[6] - v0x;
+		final float vy = verticesTriangle[7] - v0y;
+		final float vz = verticesTriangle[8] - v0z;
+
+		// n = u x v, zero for a degenerate triangle, which counts as parallel
+		final float nx = (uy * vz) - (uz * vy);
+		final float ny = (uz * vx) - (ux * vz);
+		final float nz = (ux * vy) - (uy * vx);
+
+		final float w0x = origin.x - v0x;
+		final float w0y = origin.y - v0y;
+		final float w0z = origin.z - v0z;
+		final float a = -((nx * w0x) + (ny * w0y) + (nz * w0z));
+		final float b = (nx * dir.x) + (ny * dir.y) + (nz * dir.z);
 
 		if (Math.abs(b) < 0.00001f) { // ray is parallel
 			return Float.MAX_VALUE;
@@ -145,25 +205,23 @@ public class Ray {
 			return Float.MAX_VALUE;
 		}
 
-		final Vector3f intersectPointOfPlane = origin.add(dir.scale(r));
-
 		// is I inside T?
-		float uu, uv, vv, wu, wv, D;
-		uu = u.dot(u);
-		uv = u.dot(v);
-		vv = v.dot(v);
-		final Vector3f w = intersectPointOfPlane.sub(triangleV0);
-		wu = w.dot(u);
-		wv = w.dot(v);
-		D = (uv * uv) - (uu * vv);
+		final float wx = (origin.x + (dir.x * r)) - v0x;
+		final float wy = (origin.y + (dir.y * r)) - v0y;
+		final float wz = (origin.z + (dir.z * r)) - v0z;
+		final float uu = (ux * ux) + (uy * uy) + (uz * uz);
+		final float uv = (ux * vx) + (uy * vy) + (uz * vz);
+		final float vv = (vx * vx) + (vy * vy) + (vz * vz);
+		final float wu = (wx * ux) + (wy * uy) + (wz * uz);
+		final float wv = (wx * vx) + (wy * vy) + (wz * vz);
+		final float D = (uv * uv) - (uu * vv);
 
 		// get and test parametric coords
-		float s, t;
-		s = ((uv * wv) - (vv * wu)) / D;
+		final float s = ((uv * wv) - (vv * wu)) / D;
 		if ((s < 0.0f) || (s > 1.0001f)) {
 			return Float.MAX_VALUE;
 		}
-		t = ((uv * wu) - (uu * wv)) / D;
+		final float t = ((uv * wu) - (uu * wv)) / D;
 		if ((t < 0.0f) || ((s + t) > 1.0001f)) {
 			return Float.MAX_VALUE;
 		}
@@ -29,14 +29,45 @@ public class Vector3f {
 		this.z = z;
 	}
 
+	public Vector3f set(final float x, final float y, final float z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+
+	public Vector3f set(final Vector3f v) {
+		return set(v.x, v.y, v.z);
+	}
+
 	public Vector3f add(final Vector3f v) {
 		return new Vector3f(x + v.x, y + v.y, z + v.z);
 	}
 
+	/**
+	 * Like {@link #add(Vector3f)}, but writes into result, which may be this
+	 * or v
+	 */
+	public Vector3f add(final Vector3f v, final Vector3f result) {
+		return result.set(x + v.x, y + v.y, z + v.z);
+	}
+
+	public Vector3f addLocal(final Vector3f v) {
+		return add(v, this);
+	}
+
 	public Vector3f sub(final Vector3f v) {
 		return new Vector3f(x - v.x, y - v.y, z - v.z);
 	}
 
+	public Vector3f sub(final Vector3f v, final Vector3f result) {
+		return result.set(x - v.x, y - v.y, z - v.z);
+	}
+
+	public Vector3f subLocal(final Vector3f v) {
+		return sub(v, this);
+	}
+
 	public Vector3f negate() {
 		return new Vector3f(-x, -y, -z);
 	}
@@ -45,6 +76,14 @@ public class Vector3f {
 		return new Vector3f(x * c, y * c, z * c);
 	}
 
+	public Vector3f scale(final float c, final Vector3f result) {
+		return result.set(x * c, y * c, z * c);
+	}
+
+	public Vector3f scaleLocal(final float c) {
+		return scale(c, this);
+	}
+
 	public Vector3f div(final float c) {
 		if ((c < 0.000001) && (c > -0.000001)) {
 			throw new IllegalArgumentException("c must not be 0");
@@ -52,6 +91,13 @@ public class Vector3f {
 		return new Vector3f(x / c, y / c, z / c);
 	}
 
+	public Vector3f divLocal(final float c) {
+		if ((c < 0.000001) && (c > -0.000001)) {
+			throw new IllegalArgumentException("c must not be 0");
+		}
+		return set(x / c, y / c, z / c);
+	}
+
 	public float dot(final Vector3f v) {
 		return (x * v.x) + (y * v.y) + (z * v.z);
 	}
@@ -60,6 +106,10 @@ public class Vector3f {
 		return new Vector3f((y * v.z) - (z * v.y), (z * v.x) - (x * v.z), (x * v.y) - (y * v.x));
 	}
 
+	public Vector3f cross(final Vector3f v, final Vector3f result) {
+		return result.set((y * v.z) - (z * v.y), (z * v.x) - (x * v.z), (x * v.y) - (y * v.x));
+	}
+
 	public float length() {
 		return (float) Math.sqrt((x * x) + (y * y) + (z * z));
 	}
@@ -73,6 +123,15 @@ public class Vector3f {
 		return new Vector3f(x * invlen, y * invlen, z * invlen);
 	}
 
+	public Vector3f normalize(final Vector3f result) {
+		final float invlen = (float) (1.0 / Math.sqrt((x * x) + (y * y) + (z * z)));
+		return result.set(x * invlen, y * invlen, z * invlen);
+	}
+
+	public Vector3f normalizeLocal() {
+		return normalize(this);
+	}
+
 	@Override
 	public boolean equals(final Object other) {
 		if (other instanceof Vector3f) {
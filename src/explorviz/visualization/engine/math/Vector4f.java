@@ -30,14 +30,50 @@ public class Vector4f implements IsSerializable {
 		this.w = w;
 	}
 
+	public Vector4f set(final float x, final float y, final float z, final float w) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.w = w;
+		return this;
+	}
+
+	public Vector4f set(final Vector4f v) {
+		return set(v.x, v.y, v.z, v.w);
+	}
+
+	public Vector4f set(final Vector3f v, final float w) {
+		return set(v.x, v.y, v.z, w);
+	}
+
 	public Vector4f add(final Vector4f v) {
 		return new Vector4f(x + v.x, y + v.y, z + v.z, w + v.w);
 	}
 
+	/**
+	 * Like {@link #add(Vector4f)}, but writes into result, which may be this
+	 * or v
+	 */
+	public Vector4f add(final Vector4f v, final Vector4f result) {
+		return result.set(x + v.x, y + v.y, z + v.z, w + v.w);
+	}
+
+	public Vector4f addLocal(final Vector4f v) {
+		return add(v, this);
+	}
+
 	public Vector4f sub(final Vector4f v) {
 		return new Vector4f(x - v.x, y - v.y, z - v.z, w - v.w);
 	}
 
+	public Vector4f sub(final Vector4f v, final Vector4f result) {
+		return result.set(x - v.x, y - v.y, z - v.z, w - v.w);
+	}
+
+	public Vector4f subLocal(final Vector4f v) {
+		return sub(v, this);
+	}
+
 	public Vector4f negate() {
 		return new Vector4f(-x, -y, -z, -w);
 	}
@@ -46,6 +82,10 @@ public class Vector4f implements IsSerializable {
 		return new Vector4f(x * c, y * c, z * c, w * c);
 	}
 
+	public Vector4f scaleLocal(final float c) {
+		return set(x * c, y * c, z * c, w * c);
+	}
+
 	public Vector4f div(final float c) {
 		if ((c < 0.000001) && (c > -0.000001)) {
 			throw new IllegalArgumentException("c must not be 0");
@@ -66,6 +106,11 @@ public class Vector4f implements IsSerializable {
 		return new Vector4f(x * invlen, y * invlen, z * invlen, w * invlen);
 	}
 
+	public Vector4f normalizeLocal() {
+		final float invlen = (float) (1.0 / Math.sqrt((x * x) + (y * y) + (z * z) + (w * w)));
+		return set(x * invlen, y * invlen, z * invlen, w * invlen);
+	}
+
 	@Override
 	public String toString() {
 		return "(" + x + ", " + y + ", " + z + ", " + w + ")";
@@ -74,4 +119,8 @@ public class Vector4f implements IsSerializable {
 	public Vector3f convertTo3f() {
 		return new Vector3f(x, y, z);
 	}
+
+	public Vector3f convertTo3f(final Vector3f result) {
+		return result.set(x, y, z);
+	}
 }
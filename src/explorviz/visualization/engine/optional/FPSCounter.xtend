@@ -1,10 +1,14 @@
 package explorviz.visualization.engine.optional
 
 import com.google.gwt.dom.client.Element
+import explorviz.visualization.engine.buffer.BufferManager
+import explorviz.visualization.engine.main.RenderLOD
 import explorviz.visualization.main.ClientConfiguration
 
 public class FPSCounter {
 	static var fpsCounter = 0
+	static var drawCallCounter = 0
+	static var culledCounter = 0
 	static var lastTimeFpsUpdate = 0L
 	static Element fpsLabel
 
@@ -13,6 +17,8 @@ public class FPSCounter {
 
 	def static init(Element fpsLabelParam) {
 		fpsCounter = 0
+		drawCallCounter = 0
+		culledCounter = 0
 		fpsLabel = fpsLabelParam
 		if (fpsLabel != null) {
 			if (ClientConfiguration::showFPS) {
@@ -25,13 +31,20 @@ public class FPSCounter {
 	def static countFPS() {
 		if (ClientConfiguration::showFPS) {
 			fpsCounter = fpsCounter + 1
+			drawCallCounter = drawCallCounter + BufferManager::resetDrawCallCount()
+			culledCounter = culledCounter + RenderLOD::resetCulledCount()
 			val currentTimeMillis = System::currentTimeMillis()
 			if ((currentTimeMillis - lastTimeFpsUpdate) >= 1000) {
 				if (fpsLabel != null) {
-					fpsLabel.setInnerText("FPS: " + fpsCounter)
+					// per frame: draw calls and the boxes and letters left out by the level of detail
+					fpsLabel.setInnerText(
+						"FPS: " + fpsCounter + " | draw calls: " + (drawCallCounter / fpsCounter) + " | culled: " +
+							(culledCounter / fpsCounter))
 				}
 				lastTimeFpsUpdate = currentTimeMillis
 				fpsCounter = 0
+				drawCallCounter = 0
+				culledCounter = 0
 			}
 		}
 	}
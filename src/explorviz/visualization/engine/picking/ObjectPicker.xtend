@@ -1,14 +1,8 @@
 package explorviz.visualization.engine.picking
 
-import explorviz.shared.model.Clazz
-import explorviz.shared.model.Component
-import explorviz.shared.model.helper.CommunicationAppAccumulator
-import explorviz.shared.model.helper.EdgeState
 import explorviz.visualization.engine.main.ProjectionHelper
 import explorviz.visualization.engine.main.WebGLStart
 import explorviz.visualization.engine.math.Ray
-import explorviz.visualization.highlighting.NodeHighlighter
-import explorviz.visualization.highlighting.TraceHighlighter
 import java.util.ArrayList
 import java.util.HashMap
 import java.util.List
@@ -17,6 +11,8 @@ import explorviz.visualization.engine.main.SceneDrawer
 
 class ObjectPicker {
 	val static eventAndObjects = new HashMap<EventType, List<EventObserver>>
+	// built on demand, dropped whenever the observers change
+	val static eventAndIndex = new HashMap<EventType, PickingIndex>
 
 	def static addObject(EventObserver object, EventType event) {
 		var objects = eventAndObjects.get(event)
@@ -24,19 +20,41 @@ class ObjectPicker {
 		objects.add(object)
 
 		eventAndObjects.put(event, objects)
+		eventAndIndex.remove(event)
 	}
 
 	def static removeObject(EventObserver object, EventType event) {
 		var objects = eventAndObjects.get(event)
 
 		objects.remove(objects)
+		eventAndIndex.remove(event)
 	}
 
 	def static clear() {
 		eventAndObjects.clear()
+		eventAndIndex.clear()
 		doInit()
 	}
 
+	/**
+	 * Builds the picking indexes of the current scene, so the first mouse
+	 * move after a scene change does not have to.
+	 */
+	def static void buildIndex() {
+		for (event : eventAndObjects.keySet) {
+			getIndex(event)
+		}
+	}
+
+	private def static PickingIndex getIndex(EventType event) {
+		var index = eventAndIndex.get(event)
+		if (index == null) {
+			index = new PickingIndex(eventAndObjects.get(event))
+			eventAndIndex.put(event, index)
+		}
+		index
+	}
+
 	def static init() {
 		doInit()
 	}
@@ -90,9 +108,7 @@ class ObjectPicker {
 
 			val ray = new Ray(origin, direction)
 
-			val intersectsList = getIntersectsList(ray, event)
-
-			val intersectObject = getTopOrCommunicationClazzEntityFromList(ray, intersectsList)
+			val intersectObject = getIndex(event).pick(ray)
 
 			if (intersectObject != null) {
 				val clickEvent = new ClickEvent()
@@ -111,67 +127,6 @@ class ObjectPicker {
 		eventAndObjects.get(event) != null && !eventAndObjects.get(event).empty
 	}
 
-	private def static getIntersectsList(Ray ray, EventType event) {
-		val intersectsList = new ArrayList<EventObserver>
-		val objects = eventAndObjects.get(event)
-
-		for (object : objects) {
-			for (primitiveObject : object.primitiveObjects) {
-				if (ray.intersects(primitiveObject)) {
-					intersectsList.add(object)
-				}
-			}
-		}
-
-		intersectsList
-	}
-
-	private def static EventObserver getTopOrCommunicationClazzEntityFromList(Ray ray, List<EventObserver> entities) {
-		var topCoefficient = Float::MAX_VALUE
-		var EventObserver topEntity = null
-
-		var commuTopCoefficient = Float::MAX_VALUE
-		var CommunicationAppAccumulator commu = null
-
-		for (entity : entities) {
-			for (primitiveObject : entity.primitiveObjects) {
-				var currentCoefficient = ray.getIntersectCoefficient(primitiveObject)
-
-				if (entity instanceof CommunicationAppAccumulator) {
-					if (NodeHighlighter::isCurrentlyHighlighting() || TraceHighlighter::isCurrentlyHighlighting) {
-						if (entity.state != EdgeState.TRANSPARENT && entity.state != EdgeState.HIDDEN &&
-							entity.state != EdgeState.NORMAL) {
-
-							// highlighted edge found...
-							commuTopCoefficient = Float.MIN_VALUE
-							commu = entity
-						}
-					}
-
-					if (commuTopCoefficient > currentCoefficient) {
-						commuTopCoefficient = currentCoefficient
-						commu = entity
-					}
-				} else {
-					if (topCoefficient > currentCoefficient) {
-						topCoefficient = currentCoefficient
-						topEntity = entity
-					}
-				}
-			}
-		}
-
-		if (topEntity instanceof Component) {
-			if (!topEntity.opened) {
-				return topEntity
-			}
-		} else if (topEntity instanceof Clazz) {
-			return topEntity
-		}
-
-		if (commu != null) commu else topEntity
-	}
-
 	private def static fireEvent(EventType event, EventObserver intersectObject, ClickEvent clickEvent) {
 		if (event == EventType::CLICK_EVENT) {
 			intersectObject.mouseClickHandler.handleClick(clickEvent)
@@ -0,0 +1,127 @@
+package explorviz.visualization.engine.picking
+
+import explorviz.shared.model.Clazz
+import explorviz.shared.model.Component
+import explorviz.shared.model.helper.CommunicationAppAccumulator
+import explorviz.shared.model.helper.EdgeState
+import explorviz.visualization.engine.math.BoundingVolumeHierarchy
+import explorviz.visualization.engine.math.Ray
+import explorviz.visualization.engine.primitives.Box
+import explorviz.visualization.engine.primitives.Line
+import explorviz.visualization.engine.primitives.Pipe
+import explorviz.visualization.engine.primitives.PrimitiveObject
+import explorviz.visualization.engine.primitives.Quad
+import explorviz.visualization.engine.primitives.Triangle
+import explorviz.visualization.highlighting.NodeHighlighter
+import explorviz.visualization.highlighting.TraceHighlighter
+import java.util.ArrayList
+import java.util.List
+import org.eclipse.xtend.lib.annotations.Accessors
+
+import static extension explorviz.visualization.main.ArrayExtensions.*
+
+/**
+ * The primitives of the observers of one event type in two bounding volume
+ * hierarchies, one for communications and one for everything else.
+ */
+class PickingIndex {
+	// the triangle test allows a little tolerance at the edges
+	val static BOUNDS_PADDING = 0.01f
+
+	val BoundingVolumeHierarchy<PickableEntry> entities
+	val BoundingVolumeHierarchy<PickableEntry> communications
+
+	new(List<EventObserver> observers) {
+		val entityEntries = new ArrayList<PickableEntry>()
+		val communicationEntries = new ArrayList<PickableEntry>()
+		for (observer : observers) {
+			for (primitiveObject : observer.primitiveObjects) {
+				val entry = new PickableEntry()
+				entry.observer = observer
+				entry.primitiveObject = primitiveObject
+				if (observer instanceof CommunicationAppAccumulator) {
+					communicationEntries.add(entry)
+				} else {
+					entityEntries.add(entry)
+				}
+			}
+		}
+
+		entities = createHierarchy(entityEntries)
+		communications = createHierarchy(communicationEntries)
+	}
+
+	def private static BoundingVolumeHierarchy<PickableEntry> createHierarchy(List<PickableEntry> entries) {
+		val float[] bounds = createFloatArray(entries.size * 6)
+		for (var i = 0; i < entries.size; i++) {
+			for (var axis = 0; axis < 3; axis++) {
+				bounds.set(i * 6 + axis, Float::MAX_VALUE)
+				bounds.set(i * 6 + axis + 3, -Float::MAX_VALUE)
+			}
+			addBounds(entries.get(i).primitiveObject, bounds, i * 6)
+			for (var axis = 0; axis < 3; axis++) {
+				bounds.set(i * 6 + axis, bounds.get(i * 6 + axis) - BOUNDS_PADDING)
+				bounds.set(i * 6 + axis + 3, bounds.get(i * 6 + axis + 3) + BOUNDS_PADDING)
+			}
+		}
+		new BoundingVolumeHierarchy<PickableEntry>(entries, bounds)
+	}
+
+	def private static void addBounds(PrimitiveObject primitiveObject, float[] bounds, int offset) {
+		switch (primitiveObject) {
+			Box: for (quad : primitiveObject.quads) addBounds(quad.vertices, bounds, offset)
+			Line: for (quad : primitiveObject.quads) addBounds(quad.vertices, bounds, offset)
+			Pipe: for (quad : primitiveObject.quads) addBounds(quad.vertices, bounds, offset)
+			Quad: addBounds(primitiveObject.vertices, bounds, offset)
+			Triangle: addBounds(primitiveObject.vertices, bounds, offset)
+		}
+	}
+
+	def private static void addBounds(float[] vertices, float[] bounds, int offset) {
+		for (var i = 0; i < vertices.length; i++) {
+			val axis = i % 3
+			bounds.set(offset + axis, Math.min(bounds.get(offset + axis), vertices.get(i)))
+			bounds.set(offset + axis + 3, Math.max(bounds.get(offset + axis + 3), vertices.get(i)))
+		}
+	}
+
+	/**
+	 * A closed component or a class in front wins, otherwise a highlighted
+	 * communication, otherwise the nearest communication or entity.
+	 */
+	def EventObserver pick(Ray ray) {
+		val top = entities.getNearest(ray, [r, entry|r.getIntersectCoefficient(entry.primitiveObject)])?.observer
+
+		if (top instanceof Component) {
+			if (!top.opened) {
+				return top
+			}
+		} else if (top instanceof Clazz) {
+			return top
+		}
+
+		if (NodeHighlighter::isCurrentlyHighlighting() || TraceHighlighter::isCurrentlyHighlighting) {
+			val highlighted = communications.getNearest(ray, [ r, entry |
+				if (isHighlighted(entry.observer as CommunicationAppAccumulator))
+					r.getIntersectCoefficient(entry.primitiveObject)
+				else
+					Float::MAX_VALUE
+			])
+			if (highlighted != null) {
+				return highlighted.observer
+			}
+		}
+
+		val commu = communications.getNearest(ray, [r, entry|r.getIntersectCoefficient(entry.primitiveObject)])
+		if (commu != null) commu.observer else top
+	}
+
+	def private static boolean isHighlighted(CommunicationAppAccumulator commu) {
+		commu.state != EdgeState.TRANSPARENT && commu.state != EdgeState.HIDDEN && commu.state != EdgeState.NORMAL
+	}
+
+	private static class PickableEntry {
+		@Accessors EventObserver observer
+		@Accessors PrimitiveObject primitiveObject
+	}
+}
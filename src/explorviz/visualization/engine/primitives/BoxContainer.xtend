@@ -9,26 +9,27 @@ import explorviz.shared.model.helper.Draw3DNodeEntity
 import explorviz.shared.model.Clazz
 import explorviz.visualization.renderer.ColorDefinitions
 import org.eclipse.xtend.lib.annotations.Accessors
+import explorviz.visualization.engine.main.RenderLOD
+import explorviz.visualization.engine.math.BoundingSphere
 
 class BoxContainer {
 	val static List<RememberedBox> rememberedBoxes = new ArrayList<RememberedBox>()
+	val static List<RememberedBox> rememberedAggregateBoxes = new ArrayList<RememberedBox>()
 
-	var static int boxLowLevelCount = 0
-	var static int boxLowLevelOffsetInBuffer = 0
+	val static VERTICES_PER_BOX = 6 * 6
 
-	var static int boxHighLevelCount = 0
-	var static int boxHighLevelOffsetInBuffer = 0
+	val static boxesLowLevel = new CullableRange(VERTICES_PER_BOX, false, false)
+	val static boxesHighLevel = new CullableRange(VERTICES_PER_BOX, false, false)
+	val static aggregateBoxes = new CullableRange(VERTICES_PER_BOX, true, false)
 
 	def static init() {
 		clear()
 	}
 
 	def static clear() {
-		boxLowLevelCount = 0
-		boxLowLevelOffsetInBuffer = 0
-
-		boxHighLevelCount = 0
-		boxHighLevelOffsetInBuffer = 0
+		boxesLowLevel.clear()
+		boxesHighLevel.clear()
+		aggregateBoxes.clear()
 	}
 
 	/**
@@ -39,10 +40,26 @@ class BoxContainer {
 		rememberedBox.entity = entity
 		rememberedBox.viewCenterPoint = viewCenterPoint
 		rememberedBox.lowLevel = lowLevel
+		rememberedBox.lodGroup = RenderLOD::currentGroup
 
 		rememberedBoxes.add(rememberedBox)
 	}
 
+	/**
+	 * Creates the box which replaces the contents of an opened component far
+	 * away from the camera. Not part of the primitive objects of the component.
+	 */
+	def static void createAggregateBox(Component component, Vector3f center, Vector3f extensionInEachDirection,
+		int lodGroup) {
+		val rememberedBox = new RememberedBox()
+		rememberedBox.entity = component
+		rememberedBox.viewCenterPoint = center
+		rememberedBox.aggregateExtension = extensionInEachDirection
+		rememberedBox.lodGroup = lodGroup
+
+		rememberedAggregateBoxes.add(rememberedBox)
+	}
+
 	def static void doBoxCreation() {
 		rememberedBoxes.sortInplaceBy[lowLevel == true]
 		
@@ -53,41 +70,46 @@ class BoxContainer {
 				else
 					(entity as Component).color
 
-			val box = new Box(entity.centerPoint.sub(rememberedBox.viewCenterPoint), entity.getExtension(), color)
+			val box = new Box(entity.centerPoint.subLocal(rememberedBox.viewCenterPoint), entity.getExtension(), color)
 			entity.primitiveObjects.add(box)
 			
 			if (entity.highlighted) {
 				entity.highlight()
 			}
 
+			val sphere = new BoundingSphere(box.center, box.extensionInEachDirection.length)
 			if (rememberedBox.lowLevel) {
-				if (boxLowLevelCount == 0) {
-					boxLowLevelOffsetInBuffer = box.quads.get(0).offsetStart
-				}
-				boxLowLevelCount++
+				boxesLowLevel.add(box.quads.get(0).offsetStart, 1, sphere, rememberedBox.lodGroup)
 			} else {
-				if (boxHighLevelCount == 0) {
-					boxHighLevelOffsetInBuffer = box.quads.get(0).offsetStart
-				}
-				boxHighLevelCount++
+				boxesHighLevel.add(box.quads.get(0).offsetStart, 1, sphere, rememberedBox.lodGroup)
 			}
 		}
 		rememberedBoxes.clear()
+
+		// created last, so they are in one part of the buffer
+		for (rememberedBox : rememberedAggregateBoxes) {
+			val box = new Box(rememberedBox.viewCenterPoint, rememberedBox.aggregateExtension,
+				(rememberedBox.entity as Component).color)
+			aggregateBoxes.add(box.quads.get(0).offsetStart, 1,
+				new BoundingSphere(box.center, box.extensionInEachDirection.length), rememberedBox.lodGroup)
+		}
+		rememberedAggregateBoxes.clear()
 	}
 
 	def static void drawLowLevelBoxes() {
-		if (boxLowLevelCount > 0)
-			BufferManager::drawBoxesAtOnce(boxLowLevelOffsetInBuffer, boxLowLevelCount)
+		boxesLowLevel.draw[offset, count|BufferManager::drawBoxesAtOnce(offset, count)]
+		aggregateBoxes.draw[offset, count|BufferManager::drawBoxesAtOnce(offset, count)]
 	}
 
 	def static void drawHighLevelBoxes() {
-		if (boxHighLevelCount > 0)
-			BufferManager::drawBoxesAtOnce(boxHighLevelOffsetInBuffer, boxHighLevelCount)
+		boxesHighLevel.draw[offset, count|BufferManager::drawBoxesAtOnce(offset, count)]
 	}
 
 	private static class RememberedBox {
 		@Accessors Draw3DNodeEntity entity
 		@Accessors Vector3f viewCenterPoint
 		@Accessors boolean lowLevel
+		@Accessors int lodGroup
+		@Accessors Vector3f aggregateExtension
 	}
 }
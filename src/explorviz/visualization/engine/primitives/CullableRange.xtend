@@ -0,0 +1,121 @@
+package explorviz.visualization.engine.primitives
+
+import explorviz.visualization.engine.main.RenderLOD
+import explorviz.visualization.engine.math.BoundingSphere
+import java.util.ArrayList
+import java.util.List
+import org.eclipse.xtend.lib.annotations.Accessors
+
+/**
+ * Primitives in one contiguous part of the buffer which are drawn at once,
+ * e.g. all white letters. Every item remembers its bounding sphere and level
+ * of detail group, so invisible items are left out while neighbouring visible
+ * items are still drawn with one draw call.
+ */
+class CullableRange {
+	// culled items between two visible ones are drawn anyway to save a draw call,
+	// items of another level of detail are not
+	val static MAX_DRAWN_GAP = 8
+
+	val List<RangeItem> items = new ArrayList<RangeItem>()
+	val int verticesPerUnit
+	val boolean aggregates
+	val boolean labels
+
+	var int unitCount = 0
+
+	/**
+	 * @param verticesPerUnit
+	 *            vertices of one box or letter in the buffer
+	 * @param aggregates
+	 *            whether the items replace far away components
+	 * @param labels
+	 *            whether the items are labels, which are left out when they
+	 *            are too small to read
+	 */
+	new(int verticesPerUnit, boolean aggregates, boolean labels) {
+		this.verticesPerUnit = verticesPerUnit
+		this.aggregates = aggregates
+		this.labels = labels
+	}
+
+	def void clear() {
+		items.clear()
+		unitCount = 0
+	}
+
+	def void add(int offsetInBuffer, int units, BoundingSphere sphere, int lodGroup) {
+		val item = new RangeItem()
+		item.offsetInBuffer = offsetInBuffer
+		item.units = units
+		item.sphere = sphere
+		item.lodGroup = lodGroup
+		items.add(item)
+		unitCount = unitCount + units
+	}
+
+	def int getUnitCount() {
+		unitCount
+	}
+
+	/**
+	 * @param drawCall
+	 *            draws the given number of units starting at the offset
+	 */
+	def void draw((int, int)=>void drawCall) {
+		if (unitCount == 0) {
+			return
+		}
+		if (!RenderLOD::active) {
+			if (!aggregates) {
+				drawCall.apply(items.get(0).offsetInBuffer, unitCount)
+			}
+			return
+		}
+
+		var runStart = -1
+		var runEnd = -1
+		var gapUnits = 0
+		var drawnUnits = 0
+		for (item : items) {
+			val visibility = RenderLOD::visibility(item.sphere, item.lodGroup, aggregates, labels)
+			if (visibility == RenderLOD::DRAWN) {
+				if (runStart >= 0 && gapUnits > MAX_DRAWN_GAP) {
+					drawnUnits = drawnUnits + drawRun(drawCall, runStart, runEnd)
+					runStart = -1
+				}
+				if (runStart < 0) {
+					runStart = item.offsetInBuffer
+				}
+				runEnd = item.offsetInBuffer + item.units * verticesPerUnit
+				gapUnits = 0
+			} else if (runStart >= 0) {
+				if (visibility == RenderLOD::CULLED) {
+					gapUnits = gapUnits + item.units
+				} else {
+					// replaced items belong to another level of detail, never bridged
+					drawnUnits = drawnUnits + drawRun(drawCall, runStart, runEnd)
+					runStart = -1
+					gapUnits = 0
+				}
+			}
+		}
+		if (runStart >= 0) {
+			drawnUnits = drawnUnits + drawRun(drawCall, runStart, runEnd)
+		}
+		RenderLOD::countCulled(unitCount - drawnUnits)
+	}
+
+	def private int drawRun((int, int)=>void drawCall, int runStart, int runEnd) {
+		val units = (runEnd - runStart) / verticesPerUnit
+		drawCall.apply(runStart, units)
+		units
+	}
+
+	private static class RangeItem {
+		@Accessors int offsetInBuffer
+		@Accessors int units
+		@Accessors BoundingSphere sphere
+		@Accessors int lodGroup
+	}
+}
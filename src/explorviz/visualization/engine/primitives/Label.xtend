@@ -1,20 +1,35 @@
 package explorviz.visualization.engine.primitives
 
+import explorviz.visualization.engine.buffer.BufferManager
 import explorviz.visualization.engine.main.ClassnameSplitter
 import explorviz.visualization.engine.math.Vector3f
 import explorviz.visualization.engine.math.Vector4f
-import explorviz.visualization.engine.textures.TextureManager
-import java.util.ArrayList
-import java.util.List
+import org.eclipse.xtend.lib.annotations.Accessors
 
-class Label extends PrimitiveObject {
-	protected val List<Quad> letters = new ArrayList<Quad>()
+import static extension explorviz.visualization.main.ArrayExtensions.*
 
+/**
+ * A text as one run of letter quads. The geometry is kept in float arrays,
+ * so an unchanged label can be added to the buffer again without laying it
+ * out anew (see TextEngine).
+ */
+class Label extends PrimitiveObject {
 	static val MINIMUM_LETTER_SIZE = 1.75f
 	static val SPACE_BETWEEN_LETTERS_IN_PERCENT = 0.09f
 
+	val float[] vertices
+	val float[] textureCoords
+	val float[] normals
+
+	@Accessors var int letterCount = 0
+	@Accessors var int offsetStart = 0
+
 	public new(String text, Vector3f LEFT_BOTTOM, Vector3f RIGHT_BOTTOM, Vector3f RIGHT_TOP, Vector3f LEFT_TOP,
 		boolean downwards, boolean isClazz) {
+		// split class names have at most the letters of the whole name
+		vertices = createFloatArray(text.length * 6 * 3)
+		textureCoords = createFloatArray(text.length * 6 * 2)
+
 		if (downwards) {
 			createLabelDownwards(text, LEFT_BOTTOM, RIGHT_BOTTOM, RIGHT_TOP, LEFT_TOP)
 		} else {
@@ -42,6 +57,19 @@ class Label extends PrimitiveObject {
 				createLabelSideWays(text, LEFT_BOTTOM, RIGHT_BOTTOM, RIGHT_TOP, LEFT_TOP)
 			}
 		}
+
+		// all letters lie in the same plane
+		normals = if (letterCount > 0) calculateNormal(vertices, letterCount * 6) else createFloatArray(0)
+	}
+
+	/**
+	 * Adds the letters to the buffer of the current scene.
+	 */
+	def void addToBuffer() {
+		if (letterCount > 0) {
+			offsetStart = BufferManager::addQuads(vertices, textureCoords, TextEngine::getNoColor(letterCount),
+				normals, letterCount)
+		}
 	}
 
 	private def void createLabelDownwards(String text, Vector3f LEFT_BOTTOM, Vector3f RIGHT_BOTTOM, Vector3f RIGHT_TOP,
@@ -66,17 +94,15 @@ class Label extends PrimitiveObject {
 		val Y = LEFT_BOTTOM.y
 		val Z_START = (LEFT_BOTTOM.z + maxAvailableLength / 2f - (requiredLength / 2f) - (quadSize * 0.25f))
 
+		addGlyphRun(text)
 		for (var int i = 0; i < text.length; i++) {
 			var offset = ((0.5f - SPACE_BETWEEN_LETTERS_IN_PERCENT) * quadSize)
 			val zPosition = (quadSize - offset) * i
-			letters.add(
-				createLetter(
-					text.charAt(i),
-					new Vector3f(X, Y, Z_START + zPosition),
-					new Vector3f(X, Y, Z_START + zPosition + quadSize),
-					new Vector3f(X + quadSize, Y, Z_START + zPosition + quadSize),
-					new Vector3f(X + quadSize, Y, Z_START + zPosition)
-				)
+			addLetter(
+				X, Y, Z_START + zPosition,
+				X, Y, Z_START + zPosition + quadSize,
+				X + quadSize, Y, Z_START + zPosition + quadSize,
+				X + quadSize, Y, Z_START + zPosition
 			)
 		}
 	}
@@ -89,20 +115,31 @@ class Label extends PrimitiveObject {
 		((text.length * quadSize * 0.5f) + ((text.length - 1) * quadSize * SPACE_BETWEEN_LETTERS_IN_PERCENT))
 	}
 
-	private def createLetter(char letter, Vector3f LEFT_BOTTOM, Vector3f RIGHT_BOTTOM, Vector3f RIGHT_TOP,
-		Vector3f LEFT_TOP) {
-		val fontSize = TextureManager::fontSize
-		val lettersPerSide = TextureManager::lettersPerSide
-
-		val textureSize = (fontSize * lettersPerSide) as float
+	private def void addGlyphRun(String text) {
+		System::arraycopy(TextEngine::getGlyphRun(text), 0, textureCoords, letterCount * 6 * 2, text.length * 6 * 2)
+	}
 
-		val i = letter as int - TextureManager::letterStartCode
-		val textureStartX = ((i % lettersPerSide) * fontSize) / textureSize
-		val textureStartY = ((i / lettersPerSide) * fontSize) / textureSize + 0.003f
-		val textureDimX = 1f / lettersPerSide
-		val textureDimY = textureDimX - 0.006f
+	/**
+	 * Adds the two triangles of the next letter, the texture coordinates are
+	 * already set by the glyph run.
+	 */
+	private def void addLetter(float leftBottomX, float leftBottomY, float leftBottomZ, float rightBottomX,
+		float rightBottomY, float rightBottomZ, float rightTopX, float rightTopY, float rightTopZ, float leftTopX,
+		float leftTopY, float leftTopZ) {
+		val offset = letterCount * 6 * 3
+		setVertex(offset, leftBottomX, leftBottomY, leftBottomZ)
+		setVertex(offset + 3, rightBottomX, rightBottomY, rightBottomZ)
+		setVertex(offset + 6, rightTopX, rightTopY, rightTopZ)
+		setVertex(offset + 9, rightTopX, rightTopY, rightTopZ)
+		setVertex(offset + 12, leftTopX, leftTopY, leftTopZ)
+		setVertex(offset + 15, leftBottomX, leftBottomY, leftBottomZ)
+		letterCount = letterCount + 1
+	}
 
-		new Quad(LEFT_BOTTOM, RIGHT_BOTTOM, RIGHT_TOP, LEFT_TOP, textureStartX, textureStartY, textureDimX, textureDimY)
+	private def void setVertex(int offset, float x, float y, float z) {
+		vertices.set(offset, x)
+		vertices.set(offset + 1, y)
+		vertices.set(offset + 2, z)
 	}
 
 	private def void createLabelSideWays(String text, Vector3f LEFT_BOTTOM, Vector3f RIGHT_BOTTOM, Vector3f RIGHT_TOP,
@@ -119,18 +156,16 @@ class Label extends PrimitiveObject {
 
 			val Z = LEFT_BOTTOM.z
 
+			addGlyphRun(text)
 			for (var int i = 0; i < text.length; i++) {
 				var offset = ((0.5f - SPACE_BETWEEN_LETTERS_IN_PERCENT) * quadSize)
 				val position = (quadSize - offset) * i
 
-				letters.add(
-					createLetter(
-						text.charAt(i),
-						new Vector3f(X_START + position, Y_START, Z),
-						new Vector3f(X_START + position + quadSize, Y_START, Z),
-						new Vector3f(X_START + position + quadSize, Y_START + quadSize, Z),
-						new Vector3f(X_START + position, Y_START + quadSize, Z)
-					)
+				addLetter(
+					X_START + position, Y_START, Z,
+					X_START + position + quadSize, Y_START, Z,
+					X_START + position + quadSize, Y_START + quadSize, Z,
+					X_START + position, Y_START + quadSize, Z
 				)
 			}
 		} else {
@@ -159,18 +194,16 @@ class Label extends PrimitiveObject {
 			val BOTTOM_Z_START = LEFT_BOTTOM.z + Math.abs(RIGHT_BOTTOM.z - LEFT_BOTTOM.z) / 2f - (requiredLength / 2f) -
 				(quadSize * 0.25f)
 
+			addGlyphRun(text)
 			for (var int i = 0; i < text.length; i++) {
 				var offset = ((0.5f - SPACE_BETWEEN_LETTERS_IN_PERCENT) * quadSize)
 				val position = (quadSize - offset) * i
 
-				letters.add(
-					createLetter(
-						text.charAt(i),
-						new Vector3f(BOTTOM_X_START + position, Y + 0.2f, BOTTOM_Z_START + position),
-						new Vector3f(BOTTOM_X_START + position + quadSize, Y + 0.2f, BOTTOM_Z_START + position + quadSize),
-						new Vector3f(TOP_X_START + position + quadSize, Y + 0.2f, TOP_Z_START + position + quadSize),
-						new Vector3f(TOP_X_START + position, Y + 0.2f, TOP_Z_START + position)
-					)
+				addLetter(
+					BOTTOM_X_START + position, Y + 0.2f, BOTTOM_Z_START + position,
+					BOTTOM_X_START + position + quadSize, Y + 0.2f, BOTTOM_Z_START + position + quadSize,
+					TOP_X_START + position + quadSize, Y + 0.2f, TOP_Z_START + position + quadSize,
+					TOP_X_START + position, Y + 0.2f, TOP_Z_START + position
 				)
 			}
 		}
@@ -183,12 +216,12 @@ class Label extends PrimitiveObject {
 	override getVertices() {
 
 		// not used
-		letters.get(0).vertices
+		vertices
 	}
 
 	override draw() {
-		for (letter : letters)
-			letter.draw()
+		if (letterCount > 0)
+			BufferManager::drawLabelsAtOnce(offsetStart, null, letterCount)
 	}
 
 	override isHighlighted() {
@@ -7,6 +7,8 @@ import java.util.List
 import java.util.ArrayList
 import explorviz.visualization.engine.buffer.BufferManager
 import org.eclipse.xtend.lib.annotations.Accessors
+import explorviz.visualization.engine.main.RenderLOD
+import explorviz.visualization.engine.math.BoundingSphere
 
 class LabelContainer {
 	var static WebGLTexture letterTextureWhite
@@ -16,20 +18,13 @@ class LabelContainer {
 
 	val static List<RememberedLabel> rememberedLabels = new ArrayList<RememberedLabel>()
 
-	var static int whiteLetterCount
-	var static int whiteLetterOffsetInBuffer
+	val static VERTICES_PER_LETTER = 6
 
-	var static int whiteAppLetterCount
-	var static int whiteAppLetterOffsetInBuffer
-
-	var static int highlighLetterCount
-	var static int highlightLetterOffsetInBuffer
-
-	var static int blackLetterCount
-	var static int blackLetterOffsetInBuffer
-
-	var static int downwardsLetterCount
-	var static int downwardsLetterOffsetInBuffer
+	val static whiteLetters = new CullableRange(VERTICES_PER_LETTER, false, true)
+	val static whiteAppLetters = new CullableRange(VERTICES_PER_LETTER, false, true)
+	val static highlightLetters = new CullableRange(VERTICES_PER_LETTER, false, true)
+	val static blackLetters = new CullableRange(VERTICES_PER_LETTER, false, true)
+	val static downwardsLetters = new CullableRange(VERTICES_PER_LETTER, false, true)
 
 	def static init() {
 		clear()
@@ -46,20 +41,11 @@ class LabelContainer {
 	}
 
 	def static clear() {
-		whiteLetterCount = 0
-		whiteLetterOffsetInBuffer = 0
-
-		whiteAppLetterCount = 0
-		whiteAppLetterOffsetInBuffer = 0
-
-		highlighLetterCount = 0
-		highlightLetterOffsetInBuffer = 0
-
-		blackLetterCount = 0
-		blackLetterOffsetInBuffer = 0
-
-		downwardsLetterCount = 0
-		downwardsLetterOffsetInBuffer = 0
+		whiteLetters.clear()
+		whiteAppLetters.clear()
+		highlightLetters.clear()
+		blackLetters.clear()
+		downwardsLetters.clear()
 	}
 
 	/**
@@ -79,6 +65,7 @@ class LabelContainer {
 		rememberedLabel.white = white
 		rememberedLabel.highlight = highlight
 		rememberedLabel.applicationLevel = applicationLevel
+		rememberedLabel.lodGroup = RenderLOD::currentGroup
 
 		rememberedLabels.add(rememberedLabel)
 	}
@@ -90,58 +77,41 @@ class LabelContainer {
 		rememberedLabels.sortInplace[c1, c2|c1.downwards <=> c2.downwards]
 
 		for (rememberedLabel : rememberedLabels) {
-			val label = new Label(rememberedLabel.text, rememberedLabel.LEFT_BOTTOM, rememberedLabel.RIGHT_BOTTOM,
-				rememberedLabel.RIGHT_TOP, rememberedLabel.LEFT_TOP, rememberedLabel.downwards, rememberedLabel.isClazz)
-			if (rememberedLabel.highlight) {
-				if (highlighLetterCount == 0) {
-					highlightLetterOffsetInBuffer = label.letters.get(0).offsetStart
-				}
-				highlighLetterCount += label.letters.size
-			} else {
-				if (rememberedLabel.white) {
-					if (rememberedLabel.applicationLevel) {
-						if (rememberedLabel.downwards) {
-							if (downwardsLetterCount == 0) {
-								downwardsLetterOffsetInBuffer = label.letters.get(0).offsetStart
-							}
-							downwardsLetterCount += label.letters.size
-						} else {
-							if (whiteAppLetterCount == 0) {
-								whiteAppLetterOffsetInBuffer = label.letters.get(0).offsetStart
-							}
-							whiteAppLetterCount += label.letters.size
-						}
-					} else {
-						if (whiteLetterCount == 0) {
-							whiteLetterOffsetInBuffer = label.letters.get(0).offsetStart
-						}
-						whiteLetterCount += label.letters.size
-					}
+			val label = TextEngine::getLabel(rememberedLabel.text, rememberedLabel.LEFT_BOTTOM,
+				rememberedLabel.RIGHT_BOTTOM, rememberedLabel.RIGHT_TOP, rememberedLabel.LEFT_TOP,
+				rememberedLabel.downwards, rememberedLabel.isClazz)
+			label.addToBuffer()
+			val letters = if (rememberedLabel.highlight) {
+					highlightLetters
+				} else if (!rememberedLabel.white) {
+					blackLetters
+				} else if (!rememberedLabel.applicationLevel) {
+					whiteLetters
+				} else if (rememberedLabel.downwards) {
+					downwardsLetters
 				} else {
-					if (blackLetterCount == 0) {
-						blackLetterOffsetInBuffer = label.letters.get(0).offsetStart
-					}
-					blackLetterCount += label.letters.size
+					whiteAppLetters
 				}
+			if (label.letterCount > 0) {
+				val sphere = new BoundingSphere(
+					newArrayList(rememberedLabel.LEFT_BOTTOM, rememberedLabel.RIGHT_BOTTOM, rememberedLabel.RIGHT_TOP,
+						rememberedLabel.LEFT_TOP))
+				letters.add(label.offsetStart, label.letterCount, sphere, rememberedLabel.lodGroup)
 			}
 		}
 		rememberedLabels.clear()
+		TextEngine::endScene()
 	}
 
 	def static void draw() {
-		if (whiteLetterCount > 0)
-			BufferManager::drawLabelsAtOnce(whiteLetterOffsetInBuffer, letterTextureWhite, whiteLetterCount)
-		if (whiteAppLetterCount > 0)
-			BufferManager::drawLabelsAtOnce(whiteAppLetterOffsetInBuffer, letterTextureWhiteApp, whiteAppLetterCount)
-		if (blackLetterCount > 0)
-			BufferManager::drawLabelsAtOnce(blackLetterOffsetInBuffer, letterTextureBlack, blackLetterCount)
-		if (highlighLetterCount > 0)
-			BufferManager::drawLabelsAtOnce(highlightLetterOffsetInBuffer, letterTextureHighlight, highlighLetterCount)
+		whiteLetters.draw[offset, count|BufferManager::drawLabelsAtOnce(offset, letterTextureWhite, count)]
+		whiteAppLetters.draw[offset, count|BufferManager::drawLabelsAtOnce(offset, letterTextureWhiteApp, count)]
+		blackLetters.draw[offset, count|BufferManager::drawLabelsAtOnce(offset, letterTextureBlack, count)]
+		highlightLetters.draw[offset, count|BufferManager::drawLabelsAtOnce(offset, letterTextureHighlight, count)]
 	}
 
 	def static void drawDownwardLabels() {
-		if (downwardsLetterCount > 0)
-			BufferManager::drawLabelsAtOnce(downwardsLetterOffsetInBuffer, letterTextureWhiteApp, downwardsLetterCount)
+		downwardsLetters.draw[offset, count|BufferManager::drawLabelsAtOnce(offset, letterTextureWhiteApp, count)]
 	}
 
 	private static class RememberedLabel {
@@ -155,5 +125,6 @@ class LabelContainer {
 		@Accessors boolean white
 		@Accessors boolean highlight
 		@Accessors boolean applicationLevel
+		@Accessors int lodGroup
 	}
 }
@@ -66,7 +66,7 @@ class Line extends PrimitiveObject {
 		val n = new Vector3f(v.y, -1 * v.x, v.z)
 
 		val L = lineThickness / 2
-		new Vector3f(n.x * L / n.length(), n.y * L / n.length(), n.z * L / n.length())
+		n.scaleLocal(L / n.length())
 	}
 
 	private def void createJointPoint(Vector3f jointPoint, Vector3f lastV, Vector3f newV, float lineThickness) {
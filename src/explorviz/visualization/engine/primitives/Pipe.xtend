@@ -14,6 +14,11 @@ class Pipe extends PrimitiveObject {
 
 	private var Vector3f lastPoint
 
+	// reused while a segment is created
+	val static segment = new Vector3f()
+	val static normal = new Vector3f()
+	val static negatedNormal = new Vector3f()
+
 	private var boolean highlighted = false
 
 	@Accessors var float lineThickness = 0.2f
@@ -32,13 +37,14 @@ class Pipe extends PrimitiveObject {
 			lastPoint = point
 		} else {
 			val thisPoint = point
-			val v = thisPoint.sub(lastPoint)
+			val v = thisPoint.sub(lastPoint, segment)
 
-			val n = new Vector4f(createLineWidthVector(v), 0)
+			createLineWidthVector(v, normal)
 			if (smoothnessEdgeCount == 2) {
-				val normal = new Vector3f(n.x, n.y, n.z)
-				createQuad(normal, new Vector3f(n.x * -1, n.y, n.z * -1), lastPoint, thisPoint)
+				negatedNormal.set(normal.x * -1, normal.y, normal.z * -1)
+				createQuad(normal, negatedNormal, lastPoint, thisPoint)
 			} else {
+				val n = new Vector4f(normal, 0)
 				val degForEachSegment = 360f / smoothnessEdgeCount * -1f
 				for (var int i = 0; i <= smoothnessEdgeCount; i++) {
 					createSegmentPart(v, degForEachSegment, i, n, thisPoint)
@@ -57,19 +63,13 @@ class Pipe extends PrimitiveObject {
 		createQuad(firstRotatedSegmentVector, secondRotatedSegmentVector, lastPoint, targetPoint)
 	}
 
-	private def createLineWidthVector(Vector3f v) {
-		val n = createNormalFrom2D(v)
-
+	/**
+	 * The normal of v in the xz plane, scaled to half the line thickness.
+	 */
+	private def Vector3f createLineWidthVector(Vector3f v, Vector3f result) {
 		val L = lineThickness / 2f
-		scaleToXYLength(n, L)
-	}
-
-	private def createNormalFrom2D(Vector3f v) {
-		new Vector3f(v.z, v.y, -1 * v.x)
-	}
-
-	private def scaleToXYLength(Vector3f v, float L) {
-		new Vector3f((v.x * L) / v.length(), (v.y * L) / v.length(), (v.z * L) / v.length())
+		val length = v.length()
+		result.set((v.z * L) / length, (v.y * L) / length, (-1 * v.x * L) / length)
 	}
 
 	private def void createQuad(Vector3f firstSegmentVector, Vector3f secondSegmentVector, Vector3f startPoint,
@@ -13,31 +13,34 @@ import explorviz.shared.model.Clazz
 import explorviz.shared.model.helper.Draw3DNodeEntity
 import explorviz.shared.model.Component
 import org.eclipse.xtend.lib.annotations.Accessors
+import explorviz.visualization.engine.math.BoundingSphere
 
 class PipeContainer {
 	val static List<PipeContainer.RememberedPipe> rememberedPipes = new ArrayList<PipeContainer.RememberedPipe>()
 	val static List<PipeContainer.RememberedTriangle> rememberedTriangles = new ArrayList<PipeContainer.RememberedTriangle>()
 
-	var static int pipeTransparentCount = 0
-	var static int pipeTransparentOffsetInBuffer = 0
+	val static VERTICES_PER_PIPE = 6 * Pipe::smoothnessQuadsCount
 
-	var static int pipeCount = 0
-	var static int pipeOffsetInBuffer = 0
+	val static transparentPipes = new CullableRange(VERTICES_PER_PIPE, false, false)
+	val static pipes = new CullableRange(VERTICES_PER_PIPE, false, false)
 
 	var static int extraTrianglesCount = 0
+	var static int extraTrianglesOffsetInBuffer = 0
+
+	// reused for every pipe, the pipes copy their corner points
+	val static pipeStart = new Vector3f()
+	val static pipeEnd = new Vector3f()
 
 	def static init() {
 		clear()
 	}
 
 	def static clear() {
-		pipeTransparentCount = 0
-		pipeTransparentOffsetInBuffer = 0
-
-		pipeCount = 0
-		pipeOffsetInBuffer = 0
+		transparentPipes.clear()
+		pipes.clear()
 
 		extraTrianglesCount = 0
+		extraTrianglesOffsetInBuffer = 0
 	}
 
 	/**
@@ -75,27 +78,22 @@ class PipeContainer {
 
 			pipe.setLineThickness(rememberedPipe.lineThickness)
 
-			val possibleStart = rememberedPipe.entity.points.get(0).sub(rememberedPipe.viewCenterPoint)
-			val possibleEnd = rememberedPipe.entity.points.get(1).sub(rememberedPipe.viewCenterPoint)
-
-			val start = possibleStart
+			val start = rememberedPipe.entity.points.get(0).sub(rememberedPipe.viewCenterPoint, pipeStart)
 			pipe.addPoint(start)
 
-			val end = possibleEnd
+			val end = rememberedPipe.entity.points.get(1).sub(rememberedPipe.viewCenterPoint, pipeEnd)
 			pipe.addPoint(end)
 
 			entity.primitiveObjects.add(pipe)
 
+			// pipes are never part of an aggregated component
+			val sphere = new BoundingSphere(
+				new Vector3f((start.x + end.x) / 2f, (start.y + end.y) / 2f, (start.z + end.z) / 2f),
+				start.sub(end).length / 2f + rememberedPipe.lineThickness)
 			if (transparent) {
-				if (pipeTransparentCount == 0) {
-					pipeTransparentOffsetInBuffer = pipe.quads.get(0).offsetStart
-				}
-				pipeTransparentCount++
+				transparentPipes.add(pipe.quads.get(0).offsetStart, 1, sphere, -1)
 			} else {
-				if (pipeCount == 0) {
-					pipeOffsetInBuffer = pipe.quads.get(0).offsetStart
-				}
-				pipeCount++
+				pipes.add(pipe.quads.get(0).offsetStart, 1, sphere, -1)
 			}
 
 			if (NodeHighlighter::highlightedNode != null) {
@@ -137,8 +135,11 @@ class PipeContainer {
 				else
 					ColorDefinitions::communicationInColor
 
-			new Triangle(null, color, false, true, rememberedTriangle.p1, rememberedTriangle.p2,
+			val triangle = new Triangle(null, color, false, true, rememberedTriangle.p1, rememberedTriangle.p2,
 				rememberedTriangle.p3, 0f, 1f, 1f, 1f, 1f, 0f)
+			if (extraTrianglesCount == 0) {
+				extraTrianglesOffsetInBuffer = triangle.offsetStart
+			}
 
 			//			rememberedTriangle.entity.primitiveObjects.add(triangle)
 			extraTrianglesCount++
@@ -285,13 +286,14 @@ class PipeContainer {
 	}
 
 	def static void drawTransparentPipes() {
-		if (pipeTransparentCount > 0)
-			BufferManager::drawPipesAtOnce(pipeTransparentOffsetInBuffer, pipeTransparentCount, true, 0)
+		transparentPipes.draw[offset, count|BufferManager::drawPipesAtOnce(offset, count, true, 0)]
 	}
 
 	def static void drawPipes() {
-		if (pipeCount > 0)
-			BufferManager::drawPipesAtOnce(pipeOffsetInBuffer, pipeCount, false, extraTrianglesCount)
+		pipes.draw[offset, count|BufferManager::drawPipesAtOnce(offset, count, false, 0)]
+		// the direction triangles are few, they are never culled
+		if (extraTrianglesCount > 0)
+			BufferManager::drawPipesAtOnce(extraTrianglesOffsetInBuffer, 0, false, extraTrianglesCount)
 	}
 
 	private static class RememberedPipe {
@@ -0,0 +1,128 @@
+package explorviz.visualization.engine.primitives
+
+import explorviz.visualization.engine.math.Vector3f
+import explorviz.visualization.engine.textures.TextureManager
+import java.util.HashMap
+import java.util.Map
+
+import static extension explorviz.visualization.main.ArrayExtensions.*
+
+/**
+ * Creates the labels of a scene. The texture coordinates of a text in the
+ * font atlas of the TextureManager are computed once per distinct text, and
+ * labels which did not change since the last scene are reused instead of
+ * laid out again. Both are kept only for the texts of the last scene.
+ */
+class TextEngine {
+	var static Map<String, float[]> previousGlyphRuns = new HashMap<String, float[]>()
+	var static Map<String, float[]> currentGlyphRuns = new HashMap<String, float[]>()
+
+	var static Map<String, Label> previousLabels = new HashMap<String, Label>()
+	var static Map<String, Label> currentLabels = new HashMap<String, Label>()
+
+	// labels have no vertex colour, so all of them share these zeros
+	var static float[] noColor = createFloatArray(0)
+
+	private new() {
+	}
+
+	def static Label getLabel(String text, Vector3f LEFT_BOTTOM, Vector3f RIGHT_BOTTOM, Vector3f RIGHT_TOP,
+		Vector3f LEFT_TOP, boolean downwards, boolean isClazz) {
+		val key = text + "|" + LEFT_BOTTOM + "|" + RIGHT_BOTTOM + "|" + RIGHT_TOP + "|" + LEFT_TOP + "|" + downwards +
+			"|" + isClazz
+
+		var label = currentLabels.get(key)
+		if (label == null) {
+			label = previousLabels.get(key)
+			if (label == null) {
+				label = new Label(text, LEFT_BOTTOM, RIGHT_BOTTOM, RIGHT_TOP, LEFT_TOP, downwards, isClazz)
+			} else {
+				// the text is still part of the scene
+				keepGlyphRun(text)
+			}
+			currentLabels.put(key, label)
+		}
+		label
+	}
+
+	/**
+	 * Forgets the labels and glyph runs which were not part of the scene
+	 * created last.
+	 */
+	def static void endScene() {
+		previousLabels = currentLabels
+		currentLabels = new HashMap<String, Label>()
+		previousGlyphRuns = currentGlyphRuns
+		currentGlyphRuns = new HashMap<String, float[]>()
+	}
+
+	/**
+	 * @return the texture coordinates of the letters of the text, two
+	 *         triangles per letter
+	 */
+	def static float[] getGlyphRun(String text) {
+		var glyphRun = keepGlyphRun(text)
+		if (glyphRun == null) {
+			glyphRun = createGlyphRun(text)
+			currentGlyphRuns.put(text, glyphRun)
+		}
+		glyphRun
+	}
+
+	/**
+	 * Moves the glyph run of the text from the last scene to the current one.
+	 *
+	 * @return the glyph run or null if there is none yet
+	 */
+	def private static float[] keepGlyphRun(String text) {
+		var glyphRun = currentGlyphRuns.get(text)
+		if (glyphRun == null) {
+			glyphRun = previousGlyphRuns.get(text)
+			if (glyphRun != null) {
+				currentGlyphRuns.put(text, glyphRun)
+			}
+		}
+		glyphRun
+	}
+
+	def private static float[] createGlyphRun(String text) {
+		val fontSize = TextureManager::fontSize
+		val lettersPerSide = TextureManager::lettersPerSide
+
+		val textureSize = (fontSize * lettersPerSide) as float
+		val textureDimX = 1f / lettersPerSide
+		val textureDimY = textureDimX - 0.006f
+
+		val float[] glyphRun = createFloatArray(text.length * 6 * 2)
+		for (var int l = 0; l < text.length; l++) {
+			val i = text.charAt(l) as int - TextureManager::letterStartCode
+			val textureStartX = ((i % lettersPerSide) * fontSize) / textureSize
+			val textureStartY = ((i / lettersPerSide) * fontSize) / textureSize + 0.003f
+
+			val offset = l * 6 * 2
+			glyphRun.set(offset, textureStartX)
+			glyphRun.set(offset + 1, textureStartY + textureDimY)
+			glyphRun.set(offset + 2, textureStartX + textureDimX)
+			glyphRun.set(offset + 3, textureStartY + textureDimY)
+			glyphRun.set(offset + 4, textureStartX + textureDimX)
+			glyphRun.set(offset + 5, textureStartY)
+			glyphRun.set(offset + 6, textureStartX + textureDimX)
+			glyphRun.set(offset + 7, textureStartY)
+			glyphRun.set(offset + 8, textureStartX)
+			glyphRun.set(offset + 9, textureStartY)
+			glyphRun.set(offset + 10, textureStartX)
+			glyphRun.set(offset + 11, textureStartY + textureDimY)
+		}
+		glyphRun
+	}
+
+	/**
+	 * @return at least the colours of the given number of letters
+	 */
+	def static float[] getNoColor(int letterCount) {
+		if (noColor.length < letterCount * 6 * 4) {
+			noColor = createFloatArray(Math.max(noColor.length * 2, letterCount * 6 * 4))
+		}
+		noColor
+	}
+}
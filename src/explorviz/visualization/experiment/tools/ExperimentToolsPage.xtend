@@ -1,8 +1,11 @@
 package explorviz.visualization.experiment.tools
 
+import com.google.gwt.core.client.GWT
+import com.google.gwt.http.client.URL
 import com.google.gwt.user.client.DOM
 import com.google.gwt.user.client.Event
 import com.google.gwt.user.client.EventListener
+import com.google.gwt.user.client.Window
 import explorviz.visualization.experiment.Experiment
 import explorviz.visualization.experiment.Questionnaire
 import explorviz.visualization.experiment.services.JSONServiceAsync
@@ -17,7 +20,6 @@ import static explorviz.visualization.experiment.tools.ExperimentSlider.*
 import static explorviz.visualization.experiment.tools.ExperimentTools.*
 import elemental.json.Json
 import elemental.json.JsonObject
-import explorviz.visualization.experiment.callbacks.ZipCallback
 import elemental.json.JsonArray
 import explorviz.visualization.experiment.callbacks.JsonExperimentCallback
 import explorviz.visualization.experiment.services.ConfigurationServiceAsync
@@ -293,7 +295,9 @@ class ExperimentToolsPage implements IPage {
 			Event::setEventListener(buttonDownload, new EventListener {
 
 				override onBrowserEvent(Event event) {
-					jsonService.downloadExperimentData(filename, new ZipCallback("experimentData.zip"))
+					// streamed by the download servlet, large studies do not fit the Base64 RPC
+					Window::open(GWT::getModuleBaseURL() + "experimentdata?filename=" +
+						URL::encodeQueryString(filename), "_self", "")
 				}
 			})
 
@@ -10,10 +10,14 @@ import explorviz.visualization.experiment.landscapeexchange.TutorialLandscapeExc
 import explorviz.visualization.landscapeinformation.EventViewer
 import explorviz.visualization.landscapeinformation.ErrorViewer
 import explorviz.visualization.engine.main.WebGLStart
+import explorviz.shared.landscapeexchange.LandscapeMetricTargets
+import explorviz.shared.landscapeexchange.LandscapeMetrics
 
 class LandscapeExchangeCallback<T> implements AsyncCallback<T> {
 
 	var public static Landscape oldLandscape
+	// collected before the visualization restructures the landscape
+	var static LandscapeMetricTargets oldLandscapeMetricTargets
 	var public static boolean firstExchange = true
 	val boolean recenter
 
@@ -32,16 +36,15 @@ class LandscapeExchangeCallback<T> implements AsyncCallback<T> {
 	override onSuccess(T result) {
 		val newLandscape = result as Landscape
 
-		if (!WebGLStart::modelingMode) {
-			EventViewer::updateEventView(newLandscape.events)
-			ErrorViewer::updateErrorView(newLandscape.errors)
-		}
+		updateInformationViews(newLandscape)
 
 		if (oldLandscape == null || newLandscape.hash != oldLandscape.hash) {
 			if (oldLandscape != null) {
 				destroyOldLandscape()
 			}
 
+			val newLandscapeMetricTargets = new LandscapeMetricTargets(newLandscape)
+
 			if ((firstExchange && !newLandscape.systems.empty) || recenter) {
 				SceneDrawer::viewScene(newLandscape, false)
 				firstExchange = false
@@ -49,8 +52,39 @@ class LandscapeExchangeCallback<T> implements AsyncCallback<T> {
 				SceneDrawer::viewScene(newLandscape, true)
 			}
 			oldLandscape = newLandscape
+			oldLandscapeMetricTargets = newLandscapeMetricTargets
+		}
+
+		finishExchange()
+	}
+
+	/**
+	 * Shows the metrics on the current landscape if it is the landscape they
+	 * were computed for
+	 */
+	def static boolean applyMetrics(LandscapeMetrics metrics, long baseHash) {
+		if (oldLandscape == null || oldLandscape.hash != baseHash ||
+			!metrics.applyTo(oldLandscape, oldLandscapeMetricTargets)) {
+			return false
 		}
 
+		updateInformationViews(oldLandscape)
+
+		oldLandscape.destroy()
+		SceneDrawer::viewScene(oldLandscape, true)
+
+		finishExchange()
+		true
+	}
+
+	def static void updateInformationViews(Landscape landscape) {
+		if (!WebGLStart::modelingMode) {
+			EventViewer::updateEventView(landscape.events)
+			ErrorViewer::updateErrorView(landscape.errors)
+		}
+	}
+
+	def static void finishExchange() {
 		if (!WebGLStart::modelingMode) {
 			if (!LandscapeExchangeManager::timeshiftStopped) {
 				TimeShiftExchangeManager::updateTimeShiftGraph()
@@ -65,6 +99,7 @@ class LandscapeExchangeCallback<T> implements AsyncCallback<T> {
 		if (oldLandscape != null) {
 			oldLandscape.destroy()
 			oldLandscape = null
+			oldLandscapeMetricTargets = null
 		}
 	}
 }
@@ -5,12 +5,25 @@ import java.util.List;
 import com.google.gwt.user.client.rpc.RemoteService;
 import com.google.gwt.user.client.rpc.RemoteServiceRelativePath;
 
+import explorviz.shared.landscapeexchange.LandscapeLayoutState;
+import explorviz.shared.landscapeexchange.LandscapeUpdate;
 import explorviz.shared.model.Landscape;
 
 @RemoteServiceRelativePath("landscapeexchange")
 public interface LandscapeExchangeService extends RemoteService {
 	public Landscape getCurrentLandscape();
 
+	/**
+	 * @param knownHash
+	 *            hash of the landscape shown by the client or
+	 *            {@link LandscapeUpdate#NO_HASH}
+	 * @param layoutState
+	 *            states of the landscape shown by the client or null, used
+	 *            if the server lays out the landscape
+	 */
+	public LandscapeUpdate getCurrentLandscapeUpdate(long knownHash,
+			LandscapeLayoutState layoutState);
+
 	void resetLandscape();
 
 	public Landscape getLandscape(long timestamp);
@@ -4,11 +4,16 @@ import java.util.List;
 
 import com.google.gwt.user.client.rpc.AsyncCallback;
 
+import explorviz.shared.landscapeexchange.LandscapeLayoutState;
+import explorviz.shared.landscapeexchange.LandscapeUpdate;
 import explorviz.shared.model.Landscape;
 
 public interface LandscapeExchangeServiceAsync {
 	void getCurrentLandscape(AsyncCallback<Landscape> callback);
 
+	void getCurrentLandscapeUpdate(long knownHash, LandscapeLayoutState layoutState,
+			AsyncCallback<LandscapeUpdate> callback);
+
 	void resetLandscape(AsyncCallback<Void> callback);
 
 	void getLandscape(long timestamp, AsyncCallback<Landscape> callback);
@@ -1,7 +1,7 @@
 package explorviz.visualization.landscapeexchange
 
 import com.google.gwt.user.client.Timer
-import explorviz.shared.model.Landscape
+import explorviz.shared.landscapeexchange.LandscapeUpdate
 
 class LandscapeExchangeTimer extends Timer {
 	val LandscapeExchangeServiceAsync landscapeExchangeService
@@ -11,6 +11,10 @@ class LandscapeExchangeTimer extends Timer {
 	}
 
 	override run() {
-		landscapeExchangeService.getCurrentLandscape(new LandscapeExchangeCallback<Landscape>(false))
+		val oldLandscape = LandscapeExchangeCallback::oldLandscape
+		val knownHash = if (oldLandscape != null) oldLandscape.hash else LandscapeUpdate::NO_HASH
+
+		landscapeExchangeService.getCurrentLandscapeUpdate(knownHash, LandscapeUpdateCallback::layoutState,
+			new LandscapeUpdateCallback(landscapeExchangeService))
 	}
 }
@@ -0,0 +1,47 @@
+package explorviz.visualization.landscapeexchange
+
+import com.google.gwt.user.client.rpc.AsyncCallback
+import explorviz.shared.landscapeexchange.LandscapeLayoutState
+import explorviz.shared.landscapeexchange.LandscapeUpdate
+import explorviz.shared.model.Landscape
+import explorviz.visualization.engine.main.SceneDrawer
+import explorviz.visualization.layout.LayoutService
+import explorviz.visualization.main.ErrorDialog
+
+class LandscapeUpdateCallback implements AsyncCallback<LandscapeUpdate> {
+	val LandscapeExchangeServiceAsync landscapeExchangeService
+
+	new(LandscapeExchangeServiceAsync landscapeExchangeService) {
+		this.landscapeExchangeService = landscapeExchangeService
+	}
+
+	override onFailure(Throwable caught) {
+		ErrorDialog::showError(caught)
+	}
+
+	override onSuccess(LandscapeUpdate update) {
+		if (update.notModified) {
+			LandscapeExchangeCallback::finishExchange()
+		} else if (update.metricsOnly) {
+			if (!LandscapeExchangeCallback::applyMetrics(update.metrics, update.baseHash)) {
+				// the shown landscape changed meanwhile, so fetch it completely
+				landscapeExchangeService.getCurrentLandscapeUpdate(LandscapeUpdate::NO_HASH,
+					getLayoutState(), this)
+			}
+		} else {
+			LayoutService::serverLayout = update.layout
+			new LandscapeExchangeCallback<Landscape>(false).onSuccess(update.landscape)
+		}
+	}
+
+	/**
+	 * @return the states the next landscape will be shown with or null
+	 */
+	def static LandscapeLayoutState getLayoutState() {
+		if (SceneDrawer::lastLandscape != null) {
+			LandscapeLayoutState::from(SceneDrawer::lastLandscape)
+		} else {
+			null
+		}
+	}
+}
@@ -1,20 +1,32 @@
 package explorviz.visualization.layout
 
+import explorviz.shared.landscapeexchange.LandscapeLayout
 import explorviz.shared.model.Application
 import explorviz.shared.model.Landscape
 import explorviz.visualization.layout.application.ApplicationLayoutInterface
+import explorviz.visualization.layout.application.PackingAlgorithm
 import explorviz.visualization.layout.exceptions.LayoutException
 import explorviz.visualization.layout.landscape.LandscapeKielerInterface
+import explorviz.visualization.layout.landscape.PreviousLandscapeLayout
 
 class LayoutService {
+	// layout computed by the server for the last received landscape
+	var public static LandscapeLayout serverLayout
+	// packing of the children of each component in the application view
+	var public static PackingAlgorithm applicationPacking = PackingAlgorithm::SEGMENT_TREE
+	// the next layout of the landscape view starts from the last one
+	val static previousLandscapeLayout = new PreviousLandscapeLayout()
 
 	def static Landscape layoutLandscape(Landscape landscape)
 			throws LayoutException {
-		LandscapeKielerInterface::applyLayout(landscape)
+		if (serverLayout != null && serverLayout.applyTo(landscape)) {
+			return landscape
+		}
+		LandscapeKielerInterface::applyLayout(landscape, previousLandscapeLayout)
 	}
 	
 	def static Application layoutApplication(Application application)
 			throws LayoutException {
-		ApplicationLayoutInterface::applyLayout(application)
+		ApplicationLayoutInterface::applyLayout(application, applicationPacking)
 	}
 }
\ No newline at end of file
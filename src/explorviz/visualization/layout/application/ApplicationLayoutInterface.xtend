@@ -33,12 +33,16 @@ class ApplicationLayoutInterface {
 	val static comp = new ComponentAndClassComparator()
 
 	def static applyLayout(Application application) throws LayoutException {
+		applyLayout(application, PackingAlgorithm::SEGMENT_TREE)
+	}
+
+	def static applyLayout(Application application, PackingAlgorithm packing) throws LayoutException {
 		val foundationComponent = application.components.get(0)
 
 		calcClazzHeight(foundationComponent)
 		initNodes(foundationComponent)
 
-		doLayout(foundationComponent)
+		doLayout(foundationComponent, packing)
 		setAbsoluteLayoutPosition(foundationComponent)
 
 		layoutEdges(application)
@@ -113,19 +117,22 @@ class ApplicationLayoutInterface {
 		}
 	}
 
-	def private static void doLayout(Component component) {
+	def private static void doLayout(Component component, PackingAlgorithm packing) {
 		for (child : component.children)
-			doLayout(child)
+			doLayout(child, packing)
 
-		layoutChildren(component)
+		layoutChildren(component, packing)
 	}
 
-	def private static layoutChildren(Component component) {
+	def private static layoutChildren(Component component, PackingAlgorithm packing) {
 		val tempList = new ArrayList<Draw3DNodeEntity>()
 		tempList.addAll(component.clazzes)
 		tempList.addAll(component.children)
 
-		val segment = layoutGeneric(tempList, component.opened)
+		val segment = if (packing == PackingAlgorithm::SKYLINE)
+				layoutSkyline(tempList)
+			else
+				layoutGeneric(tempList, component.opened)
 
 		component.width = segment.width
 		component.depth = segment.height
@@ -165,6 +172,38 @@ class ApplicationLayoutInterface {
 		rootSegment
 	}
 
+	/**
+	 * Same placement rules as {@link #layoutGeneric}, but packed by a
+	 * {@link SkylinePacker} instead of the segment tree
+	 */
+	def private static layoutSkyline(List<Draw3DNodeEntity> children) {
+		children.sortInplace(comp)
+
+		var totalArea = 0f
+		var maxWidth = 0f
+		for (child : children) {
+			val childWidth = (child.width + insetSpace * 2)
+			totalArea = totalArea + childWidth * (child.depth + insetSpace * 2)
+			maxWidth = Math.max(maxWidth, childWidth)
+		}
+
+		val packer = new SkylinePacker(SkylinePacker::getBinWidth(totalArea, maxWidth))
+		for (child : children) {
+			packer.insert(child.width + insetSpace * 2, child.depth + insetSpace * 2)
+			child.positionX = packer.lastX + insetSpace
+			child.positionY = 0f
+			child.positionZ = packer.lastZ + insetSpace
+		}
+
+		val rootSegment = new LayoutSegment()
+		rootSegment.width = packer.usedWidth
+		rootSegment.height = packer.usedDepth
+
+		addLabelInsetSpace(rootSegment, children)
+
+		rootSegment
+	}
+
 	def static addLabelInsetSpace(LayoutSegment segment, List<Draw3DNodeEntity> entities) {
 		for (entity : entities)
 			entity.positionX = entity.positionX + labelInsetSpace
@@ -0,0 +1,16 @@
+package explorviz.visualization.layout.application;
+
+/**
+ * How the classes and components inside of a component are packed.
+ */
+public enum PackingAlgorithm {
+	/**
+	 * Recursive split of free segments ({@link LayoutSegment})
+	 */
+	SEGMENT_TREE,
+	/**
+	 * Bin of nearly square width and open depth ({@link SkylinePacker}),
+	 * much faster for components with many children
+	 */
+	SKYLINE
+}
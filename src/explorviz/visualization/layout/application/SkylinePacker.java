@@ -0,0 +1,165 @@
+package explorviz.visualization.layout.application;
+
+/**
+ * Packs rectangles into a bin of fixed width and open depth. The bin keeps
+ * only its skyline, i.e. the depth already used at each x, as a list of
+ * horizontal segments. A rectangle is placed where its far edge stays
+ * nearest, ties are broken by the smaller x (bottom left). Each insert is
+ * linear in the number of segments, which stays small when the rectangles
+ * are inserted from the widest to the narrowest.
+ */
+public class SkylinePacker {
+	private static final float EPSILON = 0.0001f;
+
+	private final float binWidth;
+
+	// segment i starts at segmentX[i] and ends at the start of segment i + 1
+	private float[] segmentX = new float[16];
+	private float[] segmentZ = new float[16];
+	private int segmentCount = 1;
+
+	private float lastX = 0f;
+	private float lastZ = 0f;
+	private float usedWidth = 0f;
+	private float usedDepth = 0f;
+
+	public SkylinePacker(final float binWidth) {
+		this.binWidth = binWidth;
+	}
+
+	/**
+	 * @return a bin width for a nearly square footprint of rectangles with
+	 *         the given total area, at least the widest rectangle
+	 */
+	public static float getBinWidth(final float totalArea, final float maxWidth) {
+		return Math.max(maxWidth, (float) Math.sqrt(totalArea));
+	}
+
+	/**
+	 * Places the rectangle, its position is available from
+	 * {@link #getLastX()} and {@link #getLastZ()} afterwards. A rectangle
+	 * wider than the bin is placed at x = 0 behind everything else.
+	 */
+	public void insert(final float width, final float depth) {
+		int bestSegment = -1;
+		float bestZ = Float.MAX_VALUE;
+
+		for (int i = 0; i < segmentCount; i++) {
+			final float x = segmentX[i];
+			if ((x + width) > (binWidth + EPSILON)) {
+				break;
+			}
+			final float z = getMaxZ(i, x + width);
+			if (z < (bestZ - EPSILON)) {
+				bestZ = z;
+				bestSegment = i;
+			}
+		}
+
+		if (bestSegment < 0) {
+			bestSegment = 0;
+			bestZ = getMaxZ(0, Float.MAX_VALUE);
+		}
+
+		lastX = segmentX[bestSegment];
+		lastZ = bestZ;
+		raise(bestSegment, lastX + width, bestZ + depth);
+
+		usedWidth = Math.max(usedWidth, lastX + width);
+		usedDepth = Math.max(usedDepth, bestZ + depth);
+	}
+
+	private float getEndX(final int segment) {
+		return (segment + 1) < segmentCount ? segmentX[segment + 1] : binWidth;
+	}
+
+	private float getMaxZ(final int firstSegment, final float endX) {
+		float maxZ = segmentZ[firstSegment];
+		int i = firstSegment + 1;
+		while ((i < segmentCount) && (segmentX[i] < (endX - EPSILON))) {
+			maxZ = Math.max(maxZ, segmentZ[i]);
+			i++;
+		}
+		return maxZ;
+	}
+
+	/**
+	 * Replaces the skyline from the start of the segment up to endX by one
+	 * segment at the depth z.
+	 */
+	private void raise(final int segment, final float endX, final float z) {
+		// the first segment reaching beyond endX, it is cut off at endX
+		int rest = segment;
+		while ((rest < segmentCount) && (getEndX(rest) <= (endX + EPSILON))) {
+			rest++;
+		}
+
+		if (rest < segmentCount) {
+			final float restZ = segmentZ[rest];
+			final int tail = segmentCount - rest - 1;
+			ensureCapacity(segment + 2 + tail);
+			System.arraycopy(segmentX, rest + 1, segmentX, segment + 2, tail);
+			System.arraycopy(segmentZ, rest + 1, segmentZ, segment + 2, tail);
+			segmentX[segment + 1] = endX;
+			segmentZ[segment + 1] = restZ;
+			segmentCount = segment + 2 + tail;
+		} else {
+			segmentCount = segment + 1;
+		}
+		segmentZ[segment] = z;
+
+		merge(segment);
+	}
+
+	private void merge(final int segment) {
+		int first = segment;
+		if ((first > 0) && (Math.abs(segmentZ[first - 1] - segmentZ[first]) < EPSILON)) {
+			first--;
+		}
+		int last = first;
+		while (((last + 1) < segmentCount)
+				&& (Math.abs(segmentZ[last + 1] - segmentZ[first]) < EPSILON)) {
+			last++;
+		}
+		if (last > first) {
+			final int tail = segmentCount - last - 1;
+			System.arraycopy(segmentX, last + 1, segmentX, first + 1, tail);
+			System.arraycopy(segmentZ, last + 1, segmentZ, first + 1, tail);
+			segmentCount -= last - first;
+		}
+	}
+
+	private void ensureCapacity(final int count) {
+		if (count > segmentX.length) {
+			final int capacity = Math.max(count, segmentX.length * 2);
+			final float[] newX = new float[capacity];
+			final float[] newZ = new float[capacity];
+			System.arraycopy(segmentX, 0, newX, 0, segmentCount);
+			System.arraycopy(segmentZ, 0, newZ, 0, segmentCount);
+			segmentX = newX;
+			segmentZ = newZ;
+		}
+	}
+
+	public float getLastX() {
+		return lastX;
+	}
+
+	public float getLastZ() {
+		return lastZ;
+	}
+
+	/**
+	 * @return the width of the bounding rectangle of everything inserted
+	 */
+	public float getUsedWidth() {
+		return usedWidth;
+	}
+
+	/**
+	 * @return the depth of the bounding rectangle of everything inserted
+	 */
+	public float getUsedDepth() {
+		return usedDepth;
+	}
+}
@@ -2,6 +2,7 @@ package explorviz.visualization.layout.landscape
 
 import de.cau.cs.kieler.core.alg.BasicProgressMonitor
 import de.cau.cs.kieler.core.math.KVector
+import de.cau.cs.kieler.core.properties.Property
 import de.cau.cs.kieler.kiml.options.Direction
 import de.cau.cs.kieler.kiml.options.EdgeRouting
 import de.cau.cs.kieler.kiml.options.LayoutOptions
@@ -13,11 +14,14 @@ import de.cau.cs.kieler.klay.layered.graph.LGraph
 import de.cau.cs.kieler.klay.layered.graph.LGraphUtil
 import de.cau.cs.kieler.klay.layered.graph.LNode
 import de.cau.cs.kieler.klay.layered.graph.LPort
+import de.cau.cs.kieler.klay.layered.p1cycles.CycleBreakingStrategy
+import de.cau.cs.kieler.klay.layered.p2layers.LayeringStrategy
 import de.cau.cs.kieler.klay.layered.p3order.CrossingMinimizationStrategy
 import de.cau.cs.kieler.klay.layered.p4nodes.NodePlacementStrategy
 import de.cau.cs.kieler.klay.layered.properties.GraphProperties
 import de.cau.cs.kieler.klay.layered.properties.InternalProperties
 import de.cau.cs.kieler.klay.layered.properties.Properties
+import explorviz.shared.landscapeexchange.LandscapeLayout
 import explorviz.shared.model.Application
 import explorviz.shared.model.Landscape
 import explorviz.shared.model.Node
@@ -50,21 +54,52 @@ class LandscapeKielerInterface {
 
 	val static CONVERT_TO_KIELER_FACTOR = 180f
 
+	// nodes of a graph which start from their previous positions
+	val static SEEDED_NODES = new Property<Integer>("explorviz.landscape.seededNodes", 0)
+
+	/**
+	 * Lays out the landscape from scratch.
+	 */
 	def static applyLayout(Landscape landscape) throws LayoutException {
-		setupKieler(landscape, new KlayLayered(), new BasicProgressMonitor())
+		applyLayout(landscape, null)
+	}
+
+	/**
+	 * Reuses the previous layout if only metrics changed and otherwise lets
+	 * KIELER start from the previous positions, so the arrangement stays stable
+	 *
+	 * @param previous
+	 *            the previous layout of the same view, replaced by the new
+	 *            one, or null to lay out from scratch
+	 */
+	def static applyLayout(Landscape landscape, PreviousLandscapeLayout previous) throws LayoutException {
+		if (previous != null && previous.layout != null && previous.layout.applyTo(landscape)) {
+			return landscape
+		}
+
+		setupKieler(landscape, previous, new KlayLayered(), new BasicProgressMonitor())
 		
 //		JsonDebugUtil.writeDebugGraph(topLevelKielerGraph, 0, "explorvizGraph");
 
 		updateGraphWithResults(landscape)
+
+		if (previous != null) {
+			previous.layout = LandscapeLayout::extract(landscape)
+			rememberPositions(landscape, previous.positions)
+		}
 		landscape
 	}
 
-	def private static setupKieler(Landscape landscape, KlayLayered layouter, BasicProgressMonitor monitor) throws LayoutException {
+	def private static setupKieler(Landscape landscape, PreviousLandscapeLayout previous, KlayLayered layouter,
+		BasicProgressMonitor monitor) throws LayoutException {
 		topLevelKielerGraph = new LGraph()
 
 		setLayoutPropertiesGraph(topLevelKielerGraph)
 
-		addNodes(landscape)
+		addNodes(landscape, previous)
+		if (previous != null) {
+			useInteractiveStrategies(topLevelKielerGraph)
+		}
 		addEdges(landscape)
 
 		layouter.doCompoundLayout(topLevelKielerGraph, new BasicProgressMonitor())
@@ -84,7 +119,7 @@ class LandscapeKielerInterface {
 		graph.setProperty(InternalProperties::GRAPH_PROPERTIES, EnumSet::noneOf(typeof(GraphProperties)))
 	}
 
-	def private static void addNodes(Landscape landscape) {
+	def private static void addNodes(Landscape landscape, PreviousLandscapeLayout previous) {
 		for (system : landscape.systems) {
 			system.sourcePorts.clear()
 			system.targetPorts.clear()
@@ -94,6 +129,7 @@ class LandscapeKielerInterface {
 				topLevelKielerGraph.layerlessNodes.add(systemKielerNode)
 				system.kielerNodeReference = systemKielerNode
 				system.kielerGraphReference = null
+				seedPosition(topLevelKielerGraph, systemKielerNode, getPositionKey(system), previous)
 
 				val sizeVector = systemKielerNode.size
 				sizeVector.x = Math.max(2.5 * DEFAULT_WIDTH * CONVERT_TO_KIELER_FACTOR,
@@ -104,6 +140,7 @@ class LandscapeKielerInterface {
 				val systemKielerNode = new LNode(topLevelKielerGraph)
 				topLevelKielerGraph.layerlessNodes.add(systemKielerNode)
 				system.kielerNodeReference = systemKielerNode
+				seedPosition(topLevelKielerGraph, systemKielerNode, getPositionKey(system), previous)
 
 				val systemKielerGraph = new LGraph()
 				system.kielerGraphReference = systemKielerGraph
@@ -130,19 +167,98 @@ class LandscapeKielerInterface {
 					nodeGroup.sourcePorts.clear()
 					nodeGroup.targetPorts.clear()
 					if (nodeGroup.visible) {
-						createNodeGroup(systemKielerGraph, nodeGroup)
+						createNodeGroup(systemKielerGraph, nodeGroup, previous)
+					}
+				}
+			}
+		}
+	}
+
+	def private static seedPosition(LGraph graph, LNode kielerNode, String key, PreviousLandscapeLayout previous) {
+		val lastPosition = if (previous != null) previous.positions.get(key)
+		if (lastPosition != null) {
+			kielerNode.position.x = lastPosition.x
+			kielerNode.position.y = lastPosition.y
+			graph.setProperty(SEEDED_NODES, graph.getProperty(SEEDED_NODES) + 1)
+		}
+	}
+
+	/**
+	 * The interactive strategies order the nodes of a graph by their
+	 * positions, new nodes without a previous position come first. They are
+	 * only used for graphs whose nodes mostly kept their position, all other
+	 * graphs are laid out from scratch with the crossing minimization restarts.
+	 */
+	def private static void useInteractiveStrategies(LGraph graph) {
+		val seededNodes = graph.getProperty(SEEDED_NODES)
+		if (seededNodes > 0 && seededNodes * 2 >= graph.layerlessNodes.size) {
+			graph.setProperty(Properties::CYCLE_BREAKING, CycleBreakingStrategy::INTERACTIVE)
+			graph.setProperty(Properties::NODE_LAYERING, LayeringStrategy::INTERACTIVE)
+			graph.setProperty(Properties::CROSS_MIN, CrossingMinimizationStrategy::INTERACTIVE)
+		}
+
+		for (node : graph.layerlessNodes) {
+			val nestedGraph = node.getProperty(InternalProperties::NESTED_LGRAPH)
+			if (nestedGraph != null) {
+				useInteractiveStrategies(nestedGraph)
+			}
+		}
+	}
+
+	def private static void rememberPositions(Landscape landscape, Map<String, KVector> positions) {
+		positions.clear()
+		for (system : landscape.systems) {
+			rememberPosition(positions, getPositionKey(system), system)
+			if (system.opened) {
+				for (nodeGroup : system.nodeGroups) {
+					if (nodeGroup.visible) {
+						if (nodeGroup.nodes.size() > 1) {
+							rememberPosition(positions, getPositionKey(nodeGroup), nodeGroup)
+						}
+						for (node : nodeGroup.nodes) {
+							if (node.visible) {
+								rememberPosition(positions, getPositionKey(node), node)
+								for (application : node.applications) {
+									rememberPosition(positions, getPositionKey(application), application)
+								}
+							}
+						}
 					}
 				}
 			}
 		}
 	}
 
-	def private static createNodeGroup(LGraph parentGraph, NodeGroup nodeGroup) {
+	def private static rememberPosition(Map<String, KVector> positions, String key, DrawNodeEntity entity) {
+		if (entity.kielerNodeReference != null) {
+			positions.put(key, new KVector(entity.kielerNodeReference.position))
+		}
+	}
+
+	def private static getPositionKey(System system) {
+		"S" + system.name
+	}
+
+	def private static getPositionKey(NodeGroup nodeGroup) {
+		"G" + nodeGroup.parent.name + "/" + nodeGroup.name
+	}
+
+	def private static getPositionKey(Node node) {
+		"N" + node.parent.parent.name + "/" + node.ipAddress
+	}
+
+	def private static getPositionKey(Application application) {
+		"A" + application.parent.parent.parent.name + "/" + application.parent.ipAddress + "/" +
+			application.name
+	}
+
+	def private static createNodeGroup(LGraph parentGraph, NodeGroup nodeGroup, PreviousLandscapeLayout previous) {
 		if (nodeGroup.nodes.size() > 1) {
 			val nodeGroupKielerNode = new LNode(parentGraph)
 			parentGraph.layerlessNodes.add(nodeGroupKielerNode)
 
 			nodeGroup.kielerNodeReference = nodeGroupKielerNode
+			seedPosition(parentGraph, nodeGroupKielerNode, getPositionKey(nodeGroup), previous)
 
 			val nodeGroupKielerGraph = new LGraph()
 			nodeGroup.kielerGraphReference = nodeGroupKielerGraph
@@ -166,7 +282,7 @@ class LandscapeKielerInterface {
 				node.sourcePorts.clear()
 				node.targetPorts.clear()
 				if (node.visible) {
-					createNodeAndItsApplications(nodeGroupKielerGraph, node)
+					createNodeAndItsApplications(nodeGroupKielerGraph, node, previous)
 					val position = node.kielerNodeReference.position
 					position.x = 0
 					position.y = yCoord
@@ -178,13 +294,14 @@ class LandscapeKielerInterface {
 				node.sourcePorts.clear()
 				node.targetPorts.clear()
 				if (node.visible) {
-					createNodeAndItsApplications(parentGraph, node)
+					createNodeAndItsApplications(parentGraph, node, previous)
+					seedPosition(parentGraph, node.kielerNodeReference, getPositionKey(node), previous)
 				}
 			}
 		}
 	}
 
-	def private static createNodeAndItsApplications(LGraph parentGraph, Node node) {
+	def private static createNodeAndItsApplications(LGraph parentGraph, Node node, PreviousLandscapeLayout previous) {
 		val nodeKielerNode = new LNode(parentGraph)
 		parentGraph.layerlessNodes.add(nodeKielerNode)
 		node.kielerNodeReference = nodeKielerNode
@@ -223,6 +340,7 @@ class LandscapeKielerInterface {
 			applicationLayout.y = DEFAULT_HEIGHT * CONVERT_TO_KIELER_FACTOR
 
 			application.kielerNodeReference = applicationKielerNode
+			seedPosition(nodeKielerGraph, applicationKielerNode, getPositionKey(application), previous)
 		}
 
 		node
@@ -0,0 +1,34 @@
+package explorviz.visualization.layout.landscape
+
+import de.cau.cs.kieler.core.math.KVector
+import explorviz.shared.landscapeexchange.LandscapeLayout
+import java.util.HashMap
+import java.util.Map
+
+/**
+ * The last landscape layout of one view, from which the next layout of the
+ * same view starts, so the arrangement stays stable while the landscape
+ * changes.
+ */
+class PreviousLandscapeLayout {
+	var LandscapeLayout layout = null
+	// positions relative to their graphs
+	val Map<String, KVector> positions = new HashMap<String, KVector>()
+
+	def LandscapeLayout getLayout() {
+		layout
+	}
+
+	def void setLayout(LandscapeLayout layout) {
+		this.layout = layout
+	}
+
+	def Map<String, KVector> getPositions() {
+		positions
+	}
+
+	def void clear() {
+		layout = null
+		positions.clear()
+	}
+}
@@ -26,6 +26,8 @@ import java.util.ArrayList
 import java.util.List
 import explorviz.visualization.performanceanalysis.PerformanceAnalysis
 import explorviz.visualization.engine.primitives.Box
+import explorviz.visualization.engine.main.RenderLOD
+import explorviz.visualization.engine.math.BoundingSphere
 
 class ApplicationRenderer {
 	public static var Vector3f viewCenterPoint
@@ -49,6 +51,7 @@ class ApplicationRenderer {
 		QuadContainer::clear()
 		LineContainer::clear()
 		PipeContainer::clear()
+		RenderLOD::clear()
 		arrows.clear()
 
 		application.clearAllPrimitiveObjects
@@ -157,6 +160,19 @@ class ApplicationRenderer {
 	}
 
 	def private static void drawOpenedComponent(Component component, int index) {
+		val parentGroup = RenderLOD::currentGroup
+		if (index != 0) {
+			// far away, the component and its contents are replaced by one box
+			val contentTop = getContentTop(component)
+			val halfExtension = new Vector3f(component.extension.x, (contentTop - component.positionY) / 2f,
+				component.extension.z)
+			val center = new Vector3f(component.centerPoint.x, component.positionY + halfExtension.y,
+				component.centerPoint.z).sub(viewCenterPoint)
+			RenderLOD::currentGroup = RenderLOD::createGroup(new BoundingSphere(center, halfExtension.length),
+				parentGroup)
+			BoxContainer::createAggregateBox(component, center, halfExtension, RenderLOD::currentGroup)
+		}
+
 		BoxContainer::createBox(component, viewCenterPoint, true)
 
 		createVerticalLabel(component, index)
@@ -175,6 +191,21 @@ class ApplicationRenderer {
 			}
 
 		drawTutorialIfEnabled(component, component.position)
+
+		RenderLOD::currentGroup = parentGroup
+	}
+
+	def private static float getContentTop(Component component) {
+		var top = component.positionY + component.height
+		if (component.opened) {
+			for (clazz : component.clazzes) {
+				top = Math.max(top, clazz.positionY + clazz.height)
+			}
+			for (child : component.children) {
+				top = Math.max(top, getContentTop(child))
+			}
+		}
+		top
 	}
 
 	private def static void drawTutorialIfEnabled(Draw3DNodeEntity nodeEntity, Vector3f position) {
@@ -185,8 +216,7 @@ class ApplicationRenderer {
 
 	def private static void drawClosedComponent(Component component) {
 		BoxContainer::createBox(component, viewCenterPoint, false)
-		createHorizontalLabel(component.centerPoint.sub(viewCenterPoint), component.extension, component.name, true,
-			false, false)
+		createHorizontalLabel(component, component.name, true, false, false)
 
 		drawTutorialIfEnabled(component,
 			new Vector3f(component.positionX + 2, component.positionY + 2, component.positionZ))
@@ -205,8 +235,7 @@ class ApplicationRenderer {
 		}
 
 		createHorizontalLabel(
-			clazz.centerPoint.sub(viewCenterPoint),
-			clazz.extension,
+			clazz,
 			clazz.name,
 			true,
 			true,
@@ -218,16 +247,34 @@ class ApplicationRenderer {
 
 	def private static void createHorizontalLabel(Vector3f center, Vector3f itsExtension, String label, boolean white,
 		boolean isClazz, boolean highlight) {
-		val xExtension = Math.max(Math.max(itsExtension.x / 5f, itsExtension.z / 5f), 0.75f)
-		val yValue = center.y + itsExtension.y + 0.02f
+		createHorizontalLabel(center.x, center.y, center.z, itsExtension.x, itsExtension.y, itsExtension.z, label, white,
+			isClazz, highlight)
+	}
+
+	/**
+	 * Label on top of the entity, without the temporary vectors of its center
+	 * point and extension.
+	 */
+	def private static void createHorizontalLabel(Draw3DNodeEntity entity, String label, boolean white,
+		boolean isClazz, boolean highlight) {
+		createHorizontalLabel(entity.positionX + entity.width / 2f - viewCenterPoint.x,
+			entity.positionY + entity.height / 2f - viewCenterPoint.y,
+			entity.positionZ + entity.depth / 2f - viewCenterPoint.z, entity.width / 2f, entity.height / 2f,
+			entity.depth / 2f, label, white, isClazz, highlight)
+	}
+
+	def private static void createHorizontalLabel(float centerX, float centerY, float centerZ, float extensionX,
+		float extensionY, float extensionZ, String label, boolean white, boolean isClazz, boolean highlight) {
+		val xExtension = Math.max(Math.max(extensionX / 5f, extensionZ / 5f), 0.75f)
+		val yValue = centerY + extensionY + 0.02f
 		val zExtension = xExtension
 
 		LabelContainer::createLabel(
 			label,
-			new Vector3f(center.x - xExtension, yValue, center.z),
-			new Vector3f(center.x, yValue, center.z + zExtension),
-			new Vector3f(center.x + xExtension, yValue, center.z),
-			new Vector3f(center.x, yValue, center.z - zExtension),
+			new Vector3f(centerX - xExtension, yValue, centerZ),
+			new Vector3f(centerX, yValue, centerZ + zExtension),
+			new Vector3f(centerX + xExtension, yValue, centerZ),
+			new Vector3f(centerX, yValue, centerZ - zExtension),
 			false,
 			white,
 			isClazz,
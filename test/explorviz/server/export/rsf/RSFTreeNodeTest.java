@@ -32,5 +32,6 @@ public class RSFTreeNodeTest {
 		assertEquals("Main", fourth.getName());
 
 		assertEquals(4, root.getMaxHierarchyDepth());
+		assertEquals(5, root.getHierarchySize());
 	}
 }
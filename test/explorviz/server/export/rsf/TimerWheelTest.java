@@ -0,0 +1,55 @@
+package explorviz.server.export.rsf;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class TimerWheelTest {
+
+	@Test
+	public void testExpireAfterDeadline() {
+		final TimerWheel<String> wheel = new TimerWheel<String>(1000, 8);
+		wheel.schedule("a", 2500);
+		wheel.schedule("b", 3000);
+		wheel.schedule("c", 3001);
+
+		assertTrue(wheel.expire(2999).isEmpty());
+		assertEquals(new HashSet<String>(Arrays.asList("a", "b")),
+				new HashSet<String>(wheel.expire(3000)));
+		assertEquals(1, wheel.size());
+	}
+
+	@Test
+	public void testRescheduleMovesDeadline() {
+		final TimerWheel<String> wheel = new TimerWheel<String>(1000, 8);
+		wheel.schedule("a", 2000);
+		wheel.schedule("a", 5000);
+
+		assertTrue(wheel.expire(4000).isEmpty());
+		assertEquals(Arrays.asList("a"), wheel.expire(5000));
+		assertTrue(wheel.expire(6000).isEmpty());
+	}
+
+	@Test
+	public void testDeadlinesBeyondOneRound() {
+		final TimerWheel<String> wheel = new TimerWheel<String>(1000, 4);
+		wheel.schedule("a", 10000);
+		wheel.schedule("b", 3000);
+		wheel.cancel("b");
+
+		assertTrue(wheel.expire(9000).isEmpty());
+		assertEquals(1, wheel.size());
+		assertEquals(Arrays.asList("a"), wheel.expire(10000));
+	}
+
+	@Test
+	public void testPassedDeadlineExpiresNext() {
+		final TimerWheel<String> wheel = new TimerWheel<String>(1000, 4);
+		assertTrue(wheel.expire(50000).isEmpty());
+		wheel.schedule("a", 1000);
+
+		assertEquals(Arrays.asList("a"), wheel.expire(51000));
+	}
+}
@@ -0,0 +1,184 @@
+package explorviz.server.landscapeexchange;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import de.cau.cs.kieler.core.math.KVector;
+import de.cau.cs.kieler.core.properties.*;
+
+public class ArrayPropertyHolderTest {
+
+	private static final IProperty<Integer> FIRST = new Property<Integer>(
+			"arrayPropertyHolderTest.first", 1);
+	private static final IProperty<Integer> SECOND = new Property<Integer>(
+			"arrayPropertyHolderTest.second", 2);
+	private static final IProperty<Integer> THIRD = new Property<Integer>(
+			"arrayPropertyHolderTest.third", 3);
+	private static final IProperty<String> FOURTH = new Property<String>(
+			"arrayPropertyHolderTest.fourth", "four");
+	private static final IProperty<String> FIFTH = new Property<String>(
+			"arrayPropertyHolderTest.fifth");
+	private static final IProperty<Integer> BOUNDED = new Property<Integer>(
+			"arrayPropertyHolderTest.bounded", 5, 0, 10);
+	private static final IProperty<KVector> VECTOR = new Property<KVector>(
+			"arrayPropertyHolderTest.vector", new KVector(1, 2));
+	private static final IProperty<List<String>> LIST = new Property<List<String>>(
+			"arrayPropertyHolderTest.list", new ArrayList<String>());
+
+	@Test
+	public void testSetAndGet() {
+		final ArrayPropertyHolder holder = new ArrayPropertyHolder();
+		assertEquals(Integer.valueOf(1), holder.getProperty(FIRST));
+		assertNull(holder.getProperty(FIFTH));
+		assertTrue(holder.getAllProperties().isEmpty());
+
+		holder.setProperty(FIRST, 10);
+		holder.setProperty(FOURTH, "forty");
+		assertEquals(Integer.valueOf(10), holder.getProperty(FIRST));
+		assertEquals("forty", holder.getProperty(FOURTH));
+		assertEquals(Integer.valueOf(2), holder.getProperty(SECOND));
+
+		holder.setProperty(FIRST, 11);
+		assertEquals(Integer.valueOf(11), holder.getProperty(FIRST));
+		assertEquals(2, holder.getAllProperties().size());
+
+		// a property with the same identifier is the same property
+		assertEquals(Integer.valueOf(11),
+				holder.getProperty(new Property<Integer>("arrayPropertyHolderTest.first")));
+	}
+
+	@Test
+	public void testRemove() {
+		final ArrayPropertyHolder holder = new ArrayPropertyHolder();
+		// more properties than the initial capacity
+		holder.setProperty(FIRST, 10);
+		holder.setProperty(SECOND, 20);
+		holder.setProperty(THIRD, 30);
+		holder.setProperty(FOURTH, "forty");
+		holder.setProperty(FIFTH, "fifty");
+
+		// the last property is moved into the slot of the removed one
+		holder.setProperty(SECOND, null);
+		assertEquals(Integer.valueOf(2), holder.getProperty(SECOND));
+		assertEquals(Integer.valueOf(10), holder.getProperty(FIRST));
+		assertEquals(Integer.valueOf(30), holder.getProperty(THIRD));
+		assertEquals("forty", holder.getProperty(FOURTH));
+		assertEquals("fifty", holder.getProperty(FIFTH));
+		assertEquals(4, holder.getAllProperties().size());
+
+		holder.setProperty(FIFTH, null);
+		holder.setProperty(FIRST, null);
+		assertNull(holder.getProperty(FIFTH));
+		assertEquals(Integer.valueOf(1), holder.getProperty(FIRST));
+		assertEquals(Integer.valueOf(30), holder.getProperty(THIRD));
+		assertEquals("forty", holder.getProperty(FOURTH));
+		assertEquals(2, holder.getAllProperties().size());
+
+		// removing a property which is not set changes nothing
+		holder.setProperty(SECOND, null);
+		assertEquals(2, holder.getAllProperties().size());
+
+		holder.setProperty(SECOND, 21);
+		assertEquals(Integer.valueOf(21), holder.getProperty(SECOND));
+		assertEquals(3, holder.getAllProperties().size());
+	}
+
+	@Test
+	public void testCopyPropertiesIntoEmptyHolder() {
+		final ArrayPropertyHolder source = new ArrayPropertyHolder();
+		source.setProperty(FIRST, 10);
+		source.setProperty(FOURTH, "forty");
+
+		final ArrayPropertyHolder target = new ArrayPropertyHolder();
+		assertSame(target, target.copyProperties(source));
+		assertEquals(source.getAllProperties(), target.getAllProperties());
+
+		// the holders do not share their arrays
+		target.setProperty(FIRST, 11);
+		assertEquals(Integer.valueOf(10), source.getProperty(FIRST));
+	}
+
+	@Test
+	public void testCopyPropertiesIntoHolder() {
+		final ArrayPropertyHolder source = new ArrayPropertyHolder();
+		source.setProperty(FIRST, 10);
+		source.setProperty(FOURTH, "forty");
+
+		final ArrayPropertyHolder target = new ArrayPropertyHolder();
+		target.setProperty(FIRST, 1000);
+		target.setProperty(SECOND, 20);
+		target.setProperty(THIRD, 30);
+		target.setProperty(FIFTH, "fifty");
+		target.copyProperties(source);
+
+		assertEquals(Integer.valueOf(10), target.getProperty(FIRST));
+		assertEquals(Integer.valueOf(20), target.getProperty(SECOND));
+		assertEquals(Integer.valueOf(30), target.getProperty(THIRD));
+		assertEquals("forty", target.getProperty(FOURTH));
+		assertEquals("fifty", target.getProperty(FIFTH));
+		assertEquals(5, target.getAllProperties().size());
+
+		// from a holder of another kind
+		final MapPropertyHolder mapSource = new MapPropertyHolder();
+		mapSource.setProperty(SECOND, 21);
+		target.copyProperties(mapSource).copyProperties(null);
+		assertEquals(Integer.valueOf(21), target.getProperty(SECOND));
+		assertEquals(5, target.getAllProperties().size());
+	}
+
+	@Test
+	public void testCheckProperties() {
+		final ArrayPropertyHolder holder = new ArrayPropertyHolder();
+		holder.setProperty(FIRST, 10);
+		holder.setProperty(BOUNDED, 10);
+		holder.checkProperties(BOUNDED, SECOND);
+		assertEquals(Integer.valueOf(10), holder.getProperty(BOUNDED));
+
+		// values out of bounds are reset to the default
+		holder.setProperty(BOUNDED, 11);
+		holder.checkProperties(BOUNDED);
+		assertEquals(Integer.valueOf(5), holder.getProperty(BOUNDED));
+		assertEquals(Integer.valueOf(10), holder.getProperty(FIRST));
+
+		holder.setProperty(BOUNDED, -1);
+		holder.checkProperties(BOUNDED);
+		assertEquals(Integer.valueOf(5), holder.getProperty(BOUNDED));
+		assertEquals(1, holder.getAllProperties().size());
+
+		holder.setProperty(BOUNDED, 0);
+		holder.checkProperties(BOUNDED);
+		assertEquals(Integer.valueOf(0), holder.getProperty(BOUNDED));
+
+		// properties without bounds are kept
+		holder.setProperty(FIRST, Integer.MIN_VALUE);
+		holder.checkProperties(FIRST);
+		assertEquals(Integer.valueOf(Integer.MIN_VALUE), holder.getProperty(FIRST));
+	}
+
+	@Test
+	public void testCloneableDefaultsAreCopiedPerHolder() {
+		final ArrayPropertyHolder holder = new ArrayPropertyHolder();
+		final KVector vector = holder.getProperty(VECTOR);
+		assertNotSame(VECTOR.getDefault(), vector);
+		assertEquals(1, vector.x, 0);
+		assertEquals(2, vector.y, 0);
+		// the copy is memorized
+		assertSame(vector, holder.getProperty(VECTOR));
+		assertSame(vector, holder.getAllProperties().get(VECTOR));
+
+		final ArrayPropertyHolder otherHolder = new ArrayPropertyHolder();
+		assertNotSame(vector, otherHolder.getProperty(VECTOR));
+
+		holder.getProperty(LIST).add("element");
+		assertEquals(Arrays.asList("element"), holder.getProperty(LIST));
+		assertTrue(otherHolder.getProperty(LIST).isEmpty());
+		assertTrue(LIST.getDefault().isEmpty());
+
+		// immutable defaults are not memorized
+		holder.getProperty(FIRST);
+		assertNull(holder.getAllProperties().get(FIRST));
+	}
+}
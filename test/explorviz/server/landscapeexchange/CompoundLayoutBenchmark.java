@@ -0,0 +1,59 @@
+package explorviz.server.landscapeexchange;
+
+import de.cau.cs.kieler.core.alg.BasicProgressMonitor;
+import de.cau.cs.kieler.klay.layered.KlayLayered;
+import de.cau.cs.kieler.klay.layered.graph.LGraph;
+
+/**
+ * Compares the sequential compound layout with the parallel layout of
+ * sibling nested graphs for growing thread counts, on generated landscapes
+ * with opened systems. Run as a plain Java application.
+ */
+public class CompoundLayoutBenchmark {
+	private static final int[] SYSTEM_COUNTS = new int[] { 10, 25, 50 };
+	private static final int RUNS = 5;
+
+	public static void main(final String[] args) {
+		final int cores = Runtime.getRuntime().availableProcessors();
+
+		for (final int systemCount : SYSTEM_COUNTS) {
+			KlayLayered.setSubgraphExecutor(null);
+			// warm up
+			layout(systemCount, 0);
+			final long sequentialTime = measure(systemCount);
+			final StringBuilder result = new StringBuilder(systemCount + " systems: sequential "
+					+ (sequentialTime / 1000000) + " ms");
+
+			for (int threads = 2; threads <= cores; threads *= 2) {
+				final ForkJoinRestartExecutor executor = new ForkJoinRestartExecutor(threads);
+				KlayLayered.setSubgraphExecutor(executor);
+				layout(systemCount, 0);
+				final long parallelTime = measure(systemCount);
+				executor.shutdown();
+
+				result.append(", " + threads + " threads " + (parallelTime / 1000000) + " ms ("
+						+ String.format("%.1f", (double) sequentialTime / parallelTime) + "x)");
+			}
+			java.lang.System.out.println(result);
+		}
+		KlayLayered.setSubgraphExecutor(null);
+	}
+
+	/**
+	 * @return the average time of a layout in nanoseconds
+	 */
+	private static long measure(final int systemCount) {
+		long time = 0L;
+		for (int run = 0; run < RUNS; run++) {
+			time += layout(systemCount, run);
+		}
+		return time / RUNS;
+	}
+
+	private static long layout(final int systemCount, final int seed) {
+		final LGraph graph = CompoundLayoutTest.createGraph(systemCount, seed);
+		final long start = java.lang.System.nanoTime();
+		new KlayLayered().doCompoundLayout(graph, new BasicProgressMonitor());
+		return java.lang.System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,149 @@
+package explorviz.server.landscapeexchange;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.cau.cs.kieler.core.alg.BasicProgressMonitor;
+import de.cau.cs.kieler.core.math.KVector;
+import de.cau.cs.kieler.kiml.options.*;
+import de.cau.cs.kieler.klay.layered.KlayLayered;
+import de.cau.cs.kieler.klay.layered.graph.*;
+import de.cau.cs.kieler.klay.layered.p4nodes.NodePlacementStrategy;
+import de.cau.cs.kieler.klay.layered.properties.*;
+import de.cau.cs.kieler.klay.layered.properties.Properties;
+
+public class CompoundLayoutTest {
+
+	private static final int NODE_GROUPS_PER_SYSTEM = 3;
+	private static final int NODES_PER_NODE_GROUP = 2;
+	private static final int APPLICATIONS_PER_NODE = 3;
+
+	@After
+	public void tearDown() {
+		KlayLayered.setSubgraphExecutor(null);
+	}
+
+	@Test
+	public void testParallelLayoutIsIdentical() {
+		final ForkJoinRestartExecutor executor = new ForkJoinRestartExecutor(4);
+		try {
+			for (int seed = 0; seed < 3; seed++) {
+				KlayLayered.setSubgraphExecutor(null);
+				final LGraph serial = createGraph(8, seed);
+				new KlayLayered().doCompoundLayout(serial, new BasicProgressMonitor());
+
+				KlayLayered.setSubgraphExecutor(executor);
+				final LGraph parallel = createGraph(8, seed);
+				new KlayLayered().doCompoundLayout(parallel, new BasicProgressMonitor());
+
+				assertEquals(describe(serial), describe(parallel));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Systems with node groups, nodes and applications like the landscape
+	 * layout creates them, and edges between random applications.
+	 */
+	static LGraph createGraph(final int systemCount, final int seed) {
+		final Random random = new Random(seed);
+		final LGraph graph = createGraph(null);
+		final List<LNode> applications = new ArrayList<LNode>();
+
+		for (int s = 0; s < systemCount; s++) {
+			final LGraph systemGraph = createGraph(createNode(graph, 50f, 30f));
+			for (int g = 0; g < NODE_GROUPS_PER_SYSTEM; g++) {
+				final LGraph nodeGroupGraph = createGraph(createNode(systemGraph, 40f, 20f));
+				for (int n = 0; n < NODES_PER_NODE_GROUP; n++) {
+					final LGraph nodeGraph = createGraph(createNode(nodeGroupGraph, 30f, 20f));
+					for (int a = 0; a < APPLICATIONS_PER_NODE; a++) {
+						applications.add(createNode(nodeGraph, 20f + random.nextInt(20), 10f));
+					}
+				}
+			}
+		}
+
+		for (int i = 0; i < (applications.size() / 2); i++) {
+			final LEdge edge = new LEdge();
+			edge.setSource(createPort(applications.get(random.nextInt(applications.size())),
+					PortSide.EAST));
+			edge.setTarget(createPort(applications.get(random.nextInt(applications.size())),
+					PortSide.WEST));
+		}
+		return graph;
+	}
+
+	private static LGraph createGraph(final LNode parent) {
+		final LGraph graph = new LGraph();
+		graph.setProperty(LayoutOptions.EDGE_ROUTING, EdgeRouting.POLYLINE);
+		graph.setProperty(LayoutOptions.SPACING, 10f);
+		graph.setProperty(LayoutOptions.BORDER_SPACING, 10f);
+		graph.setProperty(LayoutOptions.DIRECTION, Direction.RIGHT);
+		graph.setProperty(Properties.NODE_PLACER, NodePlacementStrategy.LINEAR_SEGMENTS);
+		graph.setProperty(InternalProperties.GRAPH_PROPERTIES,
+				EnumSet.noneOf(GraphProperties.class));
+		if (parent != null) {
+			graph.setProperty(InternalProperties.PARENT_LNODE, parent);
+			parent.setProperty(InternalProperties.NESTED_LGRAPH, graph);
+			graph.getInsets().left = 5f;
+			graph.getInsets().right = 5f;
+			graph.getInsets().top = 5f;
+			graph.getInsets().bottom = 5f;
+		}
+		return graph;
+	}
+
+	private static LNode createNode(final LGraph graph, final float width, final float height) {
+		final LNode node = new LNode(graph);
+		node.getSize().x = width;
+		node.getSize().y = height;
+		graph.getLayerlessNodes().add(node);
+		return node;
+	}
+
+	private static LPort createPort(final LNode node, final PortSide side) {
+		final LPort port = new LPort();
+		port.getSize().x = 2f;
+		port.getSize().y = 2f;
+		port.setSide(side);
+		port.setNode(node);
+		return port;
+	}
+
+	/**
+	 * @return the exact sizes and positions of everything in the graph
+	 */
+	static String describe(final LGraph graph) {
+		final StringBuilder builder = new StringBuilder();
+		describe(graph, builder);
+		return builder.toString();
+	}
+
+	private static void describe(final LGraph graph, final StringBuilder builder) {
+		builder.append("graph ").append(graph.getSize()).append(graph.getOffset()).append('\n');
+		for (final LNode node : graph.getLayerlessNodes()) {
+			builder.append("node ").append(node.getPosition()).append(node.getSize()).append('\n');
+			for (final LPort port : node.getPorts()) {
+				builder.append("port ").append(port.getPosition()).append(port.getSide())
+						.append('\n');
+				for (final LEdge edge : port.getOutgoingEdges()) {
+					builder.append("edge");
+					for (final KVector bendPoint : edge.getBendPoints()) {
+						builder.append(' ').append(bendPoint);
+					}
+					builder.append('\n');
+				}
+			}
+			final LGraph nestedGraph = node.getProperty(InternalProperties.NESTED_LGRAPH);
+			if (nestedGraph != null) {
+				describe(nestedGraph, builder);
+			}
+		}
+	}
+}
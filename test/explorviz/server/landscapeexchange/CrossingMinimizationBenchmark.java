@@ -0,0 +1,165 @@
+package explorviz.server.landscapeexchange;
+
+import java.util.List;
+import java.util.Random;
+
+import de.cau.cs.kieler.kiml.options.*;
+import de.cau.cs.kieler.klay.layered.KlayLayered;
+import de.cau.cs.kieler.klay.layered.KlayLayered.TestExecutionState;
+import de.cau.cs.kieler.klay.layered.graph.*;
+import de.cau.cs.kieler.klay.layered.p3order.LayerSweepCrossingMinimizer;
+import de.cau.cs.kieler.klay.layered.properties.Properties;
+
+/**
+ * Compares the sequential layer sweep crossing minimization with the
+ * parallel random restarts on generated layered graphs. Only the crossing
+ * minimization phase is timed. Run as a plain Java application.
+ */
+public class CrossingMinimizationBenchmark {
+	private static final int[] NODE_COUNTS = new int[] { 50, 100, 200, 400 };
+	private static final int EDGES_PER_NODE = 2;
+	private static final int MAX_EDGE_SPAN = 3;
+	private static final int THOROUGHNESS = 16;
+	private static final int RUNS = 10;
+
+	public static void main(final String[] args) {
+		final int threads = Runtime.getRuntime().availableProcessors();
+		final ForkJoinRestartExecutor executor = new ForkJoinRestartExecutor(threads);
+		java.lang.System.out.println(THOROUGHNESS + " restarts, " + threads + " threads");
+
+		for (final int nodeCount : NODE_COUNTS) {
+			// warm up
+			for (int i = 0; i < 3; i++) {
+				LayerSweepCrossingMinimizer.setRestartExecutor(null);
+				minimizeCrossings(nodeCount, i);
+				LayerSweepCrossingMinimizer.setRestartExecutor(executor);
+				minimizeCrossings(nodeCount, i);
+			}
+
+			long sequentialTime = 0L;
+			long sequentialCrossings = 0L;
+			long parallelTime = 0L;
+			long parallelCrossings = 0L;
+			for (int run = 0; run < RUNS; run++) {
+				LayerSweepCrossingMinimizer.setRestartExecutor(null);
+				long[] result = minimizeCrossings(nodeCount, run);
+				sequentialTime += result[0];
+				sequentialCrossings += result[1];
+
+				LayerSweepCrossingMinimizer.setRestartExecutor(executor);
+				result = minimizeCrossings(nodeCount, run);
+				parallelTime += result[0];
+				parallelCrossings += result[1];
+			}
+
+			java.lang.System.out.println(nodeCount + " nodes: sequential "
+					+ (sequentialTime / RUNS / 1000) + " us, " + (sequentialCrossings / RUNS)
+					+ " crossings; parallel " + (parallelTime / RUNS / 1000) + " us, "
+					+ (parallelCrossings / RUNS) + " crossings");
+		}
+
+		LayerSweepCrossingMinimizer.setRestartExecutor(null);
+		executor.shutdown();
+	}
+
+	/**
+	 * @return the time of the crossing minimization in nanoseconds and the
+	 *         remaining crossings
+	 */
+	private static long[] minimizeCrossings(final int nodeCount, final int seed) {
+		final LGraph graph = createGraph(nodeCount, seed);
+		final KlayLayered klayLayered = new KlayLayered();
+		final TestExecutionState state = klayLayered.prepareLayoutTest(graph);
+		klayLayered.runLayoutTestUntil(LayerSweepCrossingMinimizer.class, false, state);
+
+		final long start = java.lang.System.nanoTime();
+		klayLayered.runLayoutTestStep(state);
+		final long time = java.lang.System.nanoTime() - start;
+
+		long crossings = 0L;
+		for (final LGraph component : state.getGraphs()) {
+			crossings += countCrossings(component);
+		}
+		return new long[] { time, crossings };
+	}
+
+	private static LGraph createGraph(final int nodeCount, final int seed) {
+		final Random random = new Random(seed);
+		final LGraph graph = new LGraph();
+		graph.setProperty(Properties.THOROUGHNESS, THOROUGHNESS);
+		graph.setProperty(LayoutOptions.RANDOM_SEED, seed);
+
+		final LPort[] inputs = new LPort[nodeCount];
+		final LPort[] outputs = new LPort[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			final LNode node = new LNode(graph);
+			node.getSize().x = 20;
+			node.getSize().y = 20;
+			node.setProperty(LayoutOptions.PORT_CONSTRAINTS, PortConstraints.FIXED_SIDE);
+			graph.getLayerlessNodes().add(node);
+
+			inputs[i] = new LPort();
+			inputs[i].setSide(PortSide.WEST);
+			inputs[i].setNode(node);
+			outputs[i] = new LPort();
+			outputs[i].setSide(PortSide.EAST);
+			outputs[i].setNode(node);
+		}
+
+		// edges only point to later nodes, so the graph is acyclic
+		for (int i = 0; i < (nodeCount - 1); i++) {
+			for (int j = 0; j < EDGES_PER_NODE; j++) {
+				final int target = Math.min(nodeCount - 1, i + 1 + random.nextInt(MAX_EDGE_SPAN));
+				final LEdge edge = new LEdge();
+				edge.setSource(outputs[i]);
+				edge.setTarget(inputs[target]);
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Counts the crossings of the straight edges between adjacent layers, every
+	 * node has at most one port per side after the long edges are split.
+	 */
+	private static long countCrossings(final LGraph graph) {
+		long crossings = 0L;
+		final List<Layer> layers = graph.getLayers();
+		for (int l = 0; l < (layers.size() - 1); l++) {
+			final List<LNode> leftNodes = layers.get(l).getNodes();
+			final List<LNode> rightNodes = layers.get(l + 1).getNodes();
+
+			int edgeCount = 0;
+			for (final LNode node : leftNodes) {
+				for (final LEdge edge : node.getOutgoingEdges()) {
+					if (edge.getTarget().getNode().getLayer() == layers.get(l + 1)) {
+						edgeCount++;
+					}
+				}
+			}
+
+			final int[] sources = new int[edgeCount];
+			final int[] targets = new int[edgeCount];
+			int e = 0;
+			for (int i = 0; i < leftNodes.size(); i++) {
+				for (final LEdge edge : leftNodes.get(i).getOutgoingEdges()) {
+					if (edge.getTarget().getNode().getLayer() == layers.get(l + 1)) {
+						sources[e] = i;
+						targets[e] = rightNodes.indexOf(edge.getTarget().getNode());
+						e++;
+					}
+				}
+			}
+
+			for (int i = 0; i < edgeCount; i++) {
+				for (int j = i + 1; j < edgeCount; j++) {
+					if (((sources[i] < sources[j]) && (targets[i] > targets[j]))
+							|| ((sources[i] > sources[j]) && (targets[i] < targets[j]))) {
+						crossings++;
+					}
+				}
+			}
+		}
+		return crossings;
+	}
+}
@@ -0,0 +1,57 @@
+package explorviz.server.landscapeexchange;
+
+import explorviz.server.repository.RepositoryStorage;
+import explorviz.shared.landscapeexchange.LandscapeLayoutState;
+import explorviz.shared.model.Landscape;
+import explorviz.visualization.layout.landscape.LandscapeKielerInterface;
+
+/**
+ * Compares every client laying out each landscape itself with the server
+ * side layout cache. Half of the clients show the first system closed. Run
+ * as a plain Java application, no browser is needed.
+ */
+public class LandscapeLayoutCacheBenchmark {
+	private static final int CLIENTS = 20;
+	private static final int PERIODS = 30;
+
+	public static void main(final String[] args) {
+		final byte[] snapshot = RepositoryStorage.serialize(LandscapeDummyCreator
+				.createDummyLandscape());
+
+		final Landscape closedLandscape = RepositoryStorage.deserialize(snapshot);
+		closedLandscape.getSystems().get(0).setOpened(false);
+		final LandscapeLayoutState closedState = LandscapeLayoutState.from(closedLandscape);
+
+		// warm up
+		for (int i = 0; i < 10; i++) {
+			LandscapeKielerInterface.applyLayout(RepositoryStorage.deserialize(snapshot));
+		}
+
+		long start = java.lang.System.nanoTime();
+		for (int period = 0; period < PERIODS; period++) {
+			for (int client = 0; client < CLIENTS; client++) {
+				final Landscape landscape = RepositoryStorage.deserialize(snapshot);
+				if ((client % 2) == 1) {
+					closedState.applyTo(landscape);
+				}
+				LandscapeKielerInterface.applyLayout(landscape);
+			}
+		}
+		final long clientTime = java.lang.System.nanoTime() - start;
+
+		final LandscapeLayoutCache cache = new LandscapeLayoutCache(64);
+		start = java.lang.System.nanoTime();
+		for (int period = 0; period < PERIODS; period++) {
+			final Landscape landscape = RepositoryStorage.deserialize(snapshot);
+			for (int client = 0; client < CLIENTS; client++) {
+				cache.getLayout(landscape, (client % 2) == 1 ? closedState : null);
+			}
+		}
+		final long cacheTime = java.lang.System.nanoTime() - start;
+
+		java.lang.System.out.println(CLIENTS + " clients, " + PERIODS + " periods");
+		java.lang.System.out.println("client side layout: " + (clientTime / 1000000) + " ms");
+		java.lang.System.out.println("server side layout cache: " + (cacheTime / 1000000)
+				+ " ms (" + cache.getStatistics() + ")");
+	}
+}
@@ -0,0 +1,72 @@
+package explorviz.server.landscapeexchange;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import explorviz.shared.landscapeexchange.LandscapeLayout;
+import explorviz.shared.landscapeexchange.LandscapeLayoutState;
+import explorviz.shared.model.Landscape;
+
+public class LandscapeLayoutCacheTest {
+
+	@Test
+	public void testCacheHits() throws Exception {
+		final LandscapeLayoutCache cache = new LandscapeLayoutCache(8);
+		final Landscape landscape = LandscapeDummyCreator.createDummyLandscape();
+
+		final LandscapeLayout layout = cache.getLayout(landscape, null);
+		assertNotNull(layout);
+		assertSame(layout, cache.getLayout(landscape, null));
+		// a new snapshot with the same structure
+		assertSame(layout, cache.getLayout(LandscapeDummyCreator.createDummyLandscape(), null));
+
+		assertEquals(1, cache.getLayoutCount());
+		assertEquals(2, cache.getLayouts().getHits());
+		assertEquals(1, cache.getLayouts().getMisses());
+	}
+
+	@Test
+	public void testLayoutPerState() throws Exception {
+		final LandscapeLayoutCache cache = new LandscapeLayoutCache(8);
+		final Landscape landscape = LandscapeDummyCreator.createDummyLandscape();
+
+		final Landscape shownLandscape = LandscapeDummyCreator.createDummyLandscape();
+		shownLandscape.getSystems().get(0).setOpened(false);
+		final LandscapeLayoutState state = LandscapeLayoutState.from(shownLandscape);
+
+		final LandscapeLayout defaultLayout = cache.getLayout(landscape, null);
+		final LandscapeLayout closedLayout = cache.getLayout(landscape, state);
+		assertNotSame(defaultLayout, closedLayout);
+		assertEquals(2, cache.getLayoutCount());
+
+		// the served landscape keeps its states
+		assertTrue(landscape.getSystems().get(0).isOpened());
+
+		final Landscape receivedLandscape = LandscapeDummyCreator.createDummyLandscape();
+		state.applyTo(receivedLandscape);
+		assertFalse(defaultLayout.applyTo(receivedLandscape));
+		assertTrue(closedLayout.applyTo(receivedLandscape));
+	}
+
+	@Test
+	public void testAppliedLayoutEqualsClientLayout() throws Exception {
+		final LandscapeLayout layout = new LandscapeLayoutCache(8).getLayout(
+				LandscapeDummyCreator.createDummyLandscape(), null);
+
+		final Landscape clientLandscape = LandscapeDummyCreator.createDummyLandscape();
+		explorviz.visualization.layout.landscape.LandscapeKielerInterface
+				.applyLayout(clientLandscape);
+		final Landscape receivedLandscape = LandscapeDummyCreator.createDummyLandscape();
+		assertTrue(layout.applyTo(receivedLandscape));
+
+		final explorviz.shared.model.System clientSystem = clientLandscape.getSystems().get(1);
+		final explorviz.shared.model.System receivedSystem = receivedLandscape.getSystems()
+				.get(1);
+		assertEquals(clientSystem.getPositionX(), receivedSystem.getPositionX(), 0.0001f);
+		assertEquals(clientSystem.getPositionY(), receivedSystem.getPositionY(), 0.0001f);
+		assertEquals(clientSystem.getWidth(), receivedSystem.getWidth(), 0.0001f);
+		assertEquals(clientLandscape.getApplicationCommunication().get(0).getPoints().size(),
+				receivedLandscape.getApplicationCommunication().get(0).getPoints().size());
+	}
+}
@@ -0,0 +1,116 @@
+package explorviz.server.landscapeexchange;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import explorviz.shared.landscapeexchange.*;
+import explorviz.shared.model.*;
+import explorviz.shared.model.System;
+
+public class LandscapeUpdateEncoderTest {
+
+	@Test
+	public void testNotModified() throws Exception {
+		final LandscapeUpdateEncoder encoder = new LandscapeUpdateEncoder();
+		final Landscape landscape = createLandscape(1L, 5, false);
+
+		assertNotNull(encoder.encode(landscape, LandscapeUpdate.NO_HASH).getLandscape());
+		assertTrue(encoder.encode(landscape, 1L).isNotModified());
+	}
+
+	@Test
+	public void testMetricsOnly() throws Exception {
+		final LandscapeUpdateEncoder encoder = new LandscapeUpdateEncoder();
+		encoder.encode(createLandscape(1L, 5, false), LandscapeUpdate.NO_HASH);
+
+		final LandscapeUpdate update = encoder.encode(createLandscape(2L, 7, false), 1L);
+		assertTrue(update.isMetricsOnly());
+		assertEquals(1L, update.getBaseHash());
+
+		final Landscape shownLandscape = createLandscape(1L, 5, false);
+		assertTrue(update.getMetrics().applyTo(shownLandscape,
+				new LandscapeMetricTargets(shownLandscape)));
+
+		assertEquals(2L, shownLandscape.getHash());
+		assertEquals(7L, shownLandscape.getActivities());
+		final Application application = shownLandscape.getSystems().get(0).getNodeGroups()
+				.get(0).getNodes().get(0).getApplications().get(0);
+		assertEquals(7, application.getCommunications().get(0).getRequests());
+		assertEquals(7, application.getComponents().get(0).getClazzes().get(0)
+				.getInstanceCount());
+	}
+
+	@Test
+	public void testStructureChange() throws Exception {
+		final LandscapeUpdateEncoder encoder = new LandscapeUpdateEncoder();
+		encoder.encode(createLandscape(1L, 5, false), LandscapeUpdate.NO_HASH);
+
+		final LandscapeUpdate update = encoder.encode(createLandscape(2L, 5, true), 1L);
+		assertFalse(update.isMetricsOnly());
+		assertNotNull(update.getLandscape());
+
+		// an unknown landscape is answered completely
+		assertNotNull(encoder.encode(createLandscape(3L, 5, true), 42L).getLandscape());
+	}
+
+	private static Landscape createLandscape(final long hash, final int requests,
+			final boolean additionalClazz) {
+		final Landscape landscape = new Landscape();
+		landscape.setHash(hash);
+		landscape.setActivities(requests);
+
+		final System system = new System();
+		system.setName("system");
+		system.setParent(landscape);
+		landscape.getSystems().add(system);
+
+		final NodeGroup nodeGroup = new NodeGroup();
+		nodeGroup.setName("nodegroup");
+		nodeGroup.setParent(system);
+		system.getNodeGroups().add(nodeGroup);
+
+		final Node node = new Node();
+		node.setName("node");
+		node.setIpAddress("127.0.0.1");
+		node.setParent(nodeGroup);
+		nodeGroup.getNodes().add(node);
+
+		final Application application = new Application();
+		application.setId(1);
+		application.setName("application");
+		application.setParent(node);
+		node.getApplications().add(application);
+
+		final Component component = new Component();
+		component.setName("package");
+		component.setFullQualifiedName("package");
+		component.setBelongingApplication(application);
+		application.getComponents().add(component);
+
+		final Clazz caller = createClazz(component, "Caller");
+		caller.setInstanceCount(requests);
+		final Clazz callee = createClazz(component, "Callee");
+		if (additionalClazz) {
+			createClazz(component, "Other");
+		}
+
+		final CommunicationClazz commu = new CommunicationClazz();
+		commu.setSource(caller);
+		commu.setTarget(callee);
+		commu.setMethodName("call");
+		commu.addRuntimeInformation(1L, requests, 1, requests, 10f, 20f);
+		application.getCommunications().add(commu);
+
+		return landscape;
+	}
+
+	private static Clazz createClazz(final Component component, final String name) {
+		final Clazz clazz = new Clazz();
+		clazz.setName(name);
+		clazz.setFullQualifiedName(component.getFullQualifiedName() + "." + name);
+		clazz.setParent(component);
+		component.getClazzes().add(clazz);
+		return clazz;
+	}
+}
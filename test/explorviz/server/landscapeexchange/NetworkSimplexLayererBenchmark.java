@@ -0,0 +1,51 @@
+package explorviz.server.landscapeexchange;
+
+import de.cau.cs.kieler.klay.layered.ILayoutPhase;
+import de.cau.cs.kieler.klay.layered.graph.LGraph;
+import de.cau.cs.kieler.klay.layered.p2layers.ArrayNetworkSimplexLayerer;
+import de.cau.cs.kieler.klay.layered.p2layers.NetworkSimplexLayerer;
+
+/**
+ * Compares the layering time of the network simplex layerer and its array
+ * variant on generated acyclic graphs. Run as a plain Java application.
+ */
+public class NetworkSimplexLayererBenchmark {
+	private static final int[] NODE_COUNTS = new int[] { 1000, 5000, 10000, 20000, 50000 };
+	// the original layerer recurses along paths and overflows the default stack
+	private static final int MAX_NODE_COUNT_FOR_ORIGINAL = 10000;
+	private static final int RUNS = 3;
+
+	public static void main(final String[] args) {
+		for (final int nodeCount : NODE_COUNTS) {
+			// warm up
+			layer(nodeCount, new ArrayNetworkSimplexLayerer());
+
+			long arrayTime = 0L;
+			long originalTime = 0L;
+			for (int run = 0; run < RUNS; run++) {
+				arrayTime += layer(nodeCount, new ArrayNetworkSimplexLayerer());
+				if (nodeCount <= MAX_NODE_COUNT_FOR_ORIGINAL) {
+					originalTime += layer(nodeCount, new NetworkSimplexLayerer());
+				}
+			}
+
+			String original = "skipped";
+			if (nodeCount <= MAX_NODE_COUNT_FOR_ORIGINAL) {
+				original = (originalTime / RUNS / 1000000) + " ms ("
+						+ String.format("%.1f", (double) originalTime / arrayTime) + "x)";
+			}
+			java.lang.System.out.println(nodeCount + " nodes: array " + (arrayTime / RUNS / 1000000)
+					+ " ms, original " + original);
+		}
+	}
+
+	/**
+	 * @return the time of the layering in nanoseconds
+	 */
+	private static long layer(final int nodeCount, final ILayoutPhase layerer) {
+		final LGraph graph = NetworkSimplexLayererTest.createGraph(nodeCount, nodeCount);
+		final long start = java.lang.System.nanoTime();
+		NetworkSimplexLayererTest.layer(graph, layerer);
+		return java.lang.System.nanoTime() - start;
+	}
+}
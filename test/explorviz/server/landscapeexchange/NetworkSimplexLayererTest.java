@@ -0,0 +1,103 @@
+package explorviz.server.landscapeexchange;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import de.cau.cs.kieler.core.alg.BasicProgressMonitor;
+import de.cau.cs.kieler.klay.layered.ILayoutPhase;
+import de.cau.cs.kieler.klay.layered.graph.*;
+import de.cau.cs.kieler.klay.layered.p2layers.ArrayNetworkSimplexLayerer;
+import de.cau.cs.kieler.klay.layered.p2layers.NetworkSimplexLayerer;
+import de.cau.cs.kieler.klay.layered.properties.Properties;
+
+public class NetworkSimplexLayererTest {
+
+	@Test
+	public void testSameLayeringAsNetworkSimplexLayerer() {
+		for (int seed = 0; seed < 20; seed++) {
+			final int nodeCount = 50 + (seed * 25);
+			final LGraph original = createGraph(nodeCount, seed);
+			final List<LNode> originalNodes = new ArrayList<LNode>(original.getLayerlessNodes());
+			layer(original, new NetworkSimplexLayerer());
+
+			final LGraph array = createGraph(nodeCount, seed);
+			final List<LNode> arrayNodes = new ArrayList<LNode>(array.getLayerlessNodes());
+			layer(array, new ArrayNetworkSimplexLayerer());
+
+			assertEquals(getLayering(originalNodes), getLayering(arrayNodes));
+		}
+	}
+
+	@Test
+	public void testLayeringIsFeasibleWithTimeLimit() {
+		final LGraph graph = createGraph(2000, 1);
+		graph.setProperty(Properties.NETWORK_SIMPLEX_TIME_LIMIT, 1);
+		final List<LNode> nodes = new ArrayList<LNode>(graph.getLayerlessNodes());
+		layer(graph, new ArrayNetworkSimplexLayerer());
+
+		for (final LNode node : nodes) {
+			assertNotNull(node.getLayer());
+			for (final LEdge edge : node.getOutgoingEdges()) {
+				final LNode target = edge.getTarget().getNode();
+				if (target != node) {
+					assertTrue(node.getLayer().getIndex() < target.getLayer().getIndex());
+				}
+			}
+		}
+	}
+
+	/**
+	 * An acyclic graph of several connected components with long and short
+	 * edges, parallel edges, self loops and single nodes.
+	 */
+	static LGraph createGraph(final int nodeCount, final int seed) {
+		final Random random = new Random(seed);
+		final LGraph graph = new LGraph();
+		final List<LNode> nodes = graph.getLayerlessNodes();
+		for (int i = 0; i < nodeCount; i++) {
+			nodes.add(new LNode(graph));
+		}
+
+		for (int i = 1; i < nodeCount; i++) {
+			if (random.nextInt(20) == 0) {
+				// starts a new component, unless a later edge connects it
+				continue;
+			}
+			final int source = i - 1 - random.nextInt(Math.min(i, 10));
+			createEdge(nodes.get(source), nodes.get(i));
+			if (random.nextInt(3) == 0) {
+				createEdge(nodes.get(random.nextInt(i)), nodes.get(i));
+			}
+			if (random.nextInt(50) == 0) {
+				createEdge(nodes.get(i), nodes.get(i));
+			}
+		}
+		return graph;
+	}
+
+	private static void createEdge(final LNode source, final LNode target) {
+		final LPort sourcePort = new LPort();
+		sourcePort.setNode(source);
+		final LPort targetPort = new LPort();
+		targetPort.setNode(target);
+		final LEdge edge = new LEdge();
+		edge.setSource(sourcePort);
+		edge.setTarget(targetPort);
+	}
+
+	static void layer(final LGraph graph, final ILayoutPhase layerer) {
+		layerer.getIntermediateProcessingConfiguration(graph);
+		layerer.process(graph, new BasicProgressMonitor());
+	}
+
+	private static List<Integer> getLayering(final List<LNode> nodes) {
+		final List<Integer> layering = new ArrayList<Integer>();
+		for (final LNode node : nodes) {
+			layering.add(node.getLayer().getIndex());
+		}
+		return layering;
+	}
+}
@@ -0,0 +1,130 @@
+package explorviz.server.landscapeexchange;
+
+import java.util.*;
+
+import de.cau.cs.kieler.core.alg.BasicProgressMonitor;
+import de.cau.cs.kieler.core.properties.*;
+import de.cau.cs.kieler.kiml.options.LayoutOptions;
+import de.cau.cs.kieler.klay.layered.KlayLayered;
+import de.cau.cs.kieler.klay.layered.graph.*;
+import de.cau.cs.kieler.klay.layered.properties.InternalProperties;
+
+/**
+ * Compares the hash map and the array property holders with the properties
+ * the compound layout leaves on the elements of generated landscapes: the
+ * retained memory and the time of the lookups the layout phases do most
+ * often. Run as a plain Java application.
+ */
+public class PropertyHolderBenchmark {
+	private static final int[] SYSTEM_COUNTS = new int[] { 10, 25, 50 };
+	private static final int LOOKUP_ROUNDS = 20;
+	// copies of all holders per memory measurement, for a stable heap difference
+	private static final int COPIES = 20;
+
+	private static final IProperty<?>[] LOOKUPS = new IProperty<?>[] {
+			InternalProperties.ORIGIN, InternalProperties.NESTED_LGRAPH,
+			LayoutOptions.PORT_CONSTRAINTS, InternalProperties.IN_LAYER_SUCCESSOR_CONSTRAINTS };
+
+	public static void main(final String[] args) {
+		for (final int systemCount : SYSTEM_COUNTS) {
+			final LGraph graph = CompoundLayoutTest.createGraph(systemCount, 0);
+			final long start = java.lang.System.nanoTime();
+			new KlayLayered().doCompoundLayout(graph, new BasicProgressMonitor());
+			final long layoutTime = java.lang.System.nanoTime() - start;
+
+			final List<Map<IProperty<?>, Object>> propertySets;
+			propertySets = new ArrayList<Map<IProperty<?>, Object>>();
+			collectProperties(graph, propertySets);
+
+			final long mapMemory = measureMemory(propertySets, false);
+			final long arrayMemory = measureMemory(propertySets, true);
+			final long mapTime = measureLookups(fill(propertySets, false));
+			final long arrayTime = measureLookups(fill(propertySets, true));
+
+			java.lang.System.out.println(systemCount + " systems, " + propertySets.size()
+					+ " elements, layout " + (layoutTime / 1000000) + " ms: hash map "
+					+ (mapMemory / 1024) + " KiB, lookups " + (mapTime / 1000) + " us; array "
+					+ (arrayMemory / 1024) + " KiB, lookups " + (arrayTime / 1000) + " us");
+		}
+	}
+
+	private static void collectProperties(final LGraph graph,
+			final List<Map<IProperty<?>, Object>> propertySets) {
+		propertySets.add(graph.getAllProperties());
+		for (final LNode node : graph.getLayerlessNodes()) {
+			propertySets.add(node.getAllProperties());
+			for (final LPort port : node.getPorts()) {
+				propertySets.add(port.getAllProperties());
+				for (final LEdge edge : port.getOutgoingEdges()) {
+					propertySets.add(edge.getAllProperties());
+				}
+			}
+			final LGraph nestedGraph = node.getProperty(InternalProperties.NESTED_LGRAPH);
+			if (nestedGraph != null) {
+				collectProperties(nestedGraph, propertySets);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static IPropertyHolder[] fill(final List<Map<IProperty<?>, Object>> propertySets,
+			final boolean array) {
+		final IPropertyHolder[] holders = new IPropertyHolder[propertySets.size()];
+		for (int i = 0; i < holders.length; i++) {
+			holders[i] = array ? new ArrayPropertyHolder() : new MapPropertyHolder();
+			for (final Map.Entry<IProperty<?>, Object> entry : propertySets.get(i).entrySet()) {
+				holders[i].setProperty((IProperty<Object>) entry.getKey(), entry.getValue());
+			}
+		}
+		return holders;
+	}
+
+	/**
+	 * @return the heap retained by one set of holders in bytes, without the
+	 *         values
+	 */
+	private static long measureMemory(final List<Map<IProperty<?>, Object>> propertySets,
+			final boolean array) {
+		final IPropertyHolder[][] copies = new IPropertyHolder[COPIES][];
+		final long before = usedMemory();
+		for (int i = 0; i < COPIES; i++) {
+			copies[i] = fill(propertySets, array);
+		}
+		final long after = usedMemory();
+		if (copies[COPIES - 1].length == 0) {
+			return 0L;
+		}
+		return (after - before) / COPIES;
+	}
+
+	private static long usedMemory() {
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			java.lang.System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * @return the time of the lookups of the last round in nanoseconds
+	 */
+	private static long measureLookups(final IPropertyHolder[] holders) {
+		long time = 0L;
+		int found = 0;
+		for (int round = 0; round < LOOKUP_ROUNDS; round++) {
+			final long start = java.lang.System.nanoTime();
+			for (final IPropertyHolder holder : holders) {
+				for (final IProperty<?> property : LOOKUPS) {
+					if (holder.getProperty(property) != null) {
+						found++;
+					}
+				}
+			}
+			time = java.lang.System.nanoTime() - start;
+		}
+		if (found < 0) {
+			java.lang.System.out.println(found);
+		}
+		return time;
+	}
+}
@@ -0,0 +1,80 @@
+package explorviz.server.repository;
+
+import java.util.*;
+
+import explorviz.live_trace_processing.record.event.AbstractEventRecord;
+import explorviz.live_trace_processing.record.event.normal.AfterOperationEventRecord;
+import explorviz.live_trace_processing.record.event.normal.BeforeOperationEventRecord;
+import explorviz.live_trace_processing.record.trace.*;
+import explorviz.shared.model.Landscape;
+
+/**
+ * Replays a synthetic trace corpus through {@link InsertionRepositoryPart}.
+ * The corpus spreads calls over many classes, packages and call edges of one
+ * application, so the insertion cost is dominated by the class and call
+ * lookups.
+ */
+public class InsertionRepositoryPartBenchmark {
+	private static final int TRACES = 20000;
+	private static final int CALLS_PER_TRACE = 20;
+	private static final int[] CLASS_COUNTS = { 100, 1000, 5000 };
+
+	public static void main(final String[] args) {
+		final HostApplicationMetaDataRecord hostMeta = new HostApplicationMetaDataRecord(
+				"benchSystem", "10.0.0.1", "benchHost", "benchApp", "Java");
+
+		for (final int classCount : CLASS_COUNTS) {
+			final List<Trace> corpus = createCorpus(hostMeta, classCount);
+
+			replay(corpus); // warm-up
+			final long duration = replay(corpus);
+
+			java.lang.System.out.println(classCount + " classes: " + TRACES + " traces in "
+					+ (duration / 1000000) + " ms ("
+					+ ((TRACES * 1000000000L) / Math.max(1, duration)) + " traces/s)");
+		}
+	}
+
+	private static long replay(final List<Trace> corpus) {
+		final InsertionRepositoryPart insertionRepositoryPart = new InsertionRepositoryPart();
+		final RemoteCallRepositoryPart remoteCallRepositoryPart = new RemoteCallRepositoryPart();
+		final Landscape landscape = new Landscape();
+
+		final long start = java.lang.System.nanoTime();
+		for (final Trace trace : corpus) {
+			insertionRepositoryPart.insertIntoModel(trace, landscape, remoteCallRepositoryPart);
+		}
+		return java.lang.System.nanoTime() - start;
+	}
+
+	private static List<Trace> createCorpus(final HostApplicationMetaDataRecord hostMeta,
+			final int classCount) {
+		final Random random = new Random(42);
+		final List<Trace> corpus = new ArrayList<Trace>(TRACES);
+
+		for (int t = 0; t < TRACES; t++) {
+			final List<AbstractEventRecord> events = new ArrayList<AbstractEventRecord>();
+			for (int c = 0; c < CALLS_PER_TRACE; c++) {
+				final int clazzIndex = random.nextInt(classCount);
+				final String clazzName = "org.bench.p" + (clazzIndex % 50) + ".sub"
+						+ (clazzIndex % 7) + ".Clazz" + clazzIndex;
+				final String signature = "public void " + clazzName + ".method"
+						+ random.nextInt(5) + "(String param1)";
+
+				final BeforeOperationEventRecord before = new BeforeOperationEventRecord(0, t, c,
+						signature, clazzName, "", hostMeta);
+				final List<RuntimeStatisticInformation> runtimeList = new ArrayList<RuntimeStatisticInformation>();
+				runtimeList.add(new RuntimeStatisticInformation(1, 1000, 10000));
+				before.setRuntimeStatisticInformationList(runtimeList);
+				events.add(before);
+			}
+			for (int c = 0; c < CALLS_PER_TRACE; c++) {
+				events.add(new AfterOperationEventRecord(1000, t, CALLS_PER_TRACE + c, hostMeta));
+			}
+
+			corpus.add(new Trace(events, true, false));
+		}
+
+		return corpus;
+	}
+}
@@ -0,0 +1,292 @@
+package explorviz.server.repository;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.MapReferenceResolver;
+
+import explorviz.shared.model.*;
+import explorviz.shared.model.System;
+
+public class LandscapeDeltaTest {
+	private final Kryo kryo = RepositoryStorage.createKryoInstance();
+
+	@Test
+	public void testUnchangedLandscape() throws Exception {
+		final Landscape keyframe = createLandscape();
+		final byte[] snapshot = RepositoryStorage.serialize(keyframe);
+
+		final byte[] delta = LandscapeDelta.encode(kryo, new LandscapeDelta.Keyframe(keyframe),
+				RepositoryStorage.deserialize(snapshot));
+
+		assertTrue(delta.length < 10);
+		assertDecodes(snapshot, delta, snapshot);
+	}
+
+	@Test
+	public void testChangedMetrics() throws Exception {
+		final Landscape keyframe = createLandscape();
+		final byte[] keyframeSnapshot = RepositoryStorage.serialize(keyframe);
+
+		final Landscape landscape = RepositoryStorage.deserialize(keyframeSnapshot);
+		churnMetrics(landscape, new Random(1));
+		// one new class calling an existing one
+		final Application application = landscape.getSystems().get(1).getNodeGroups().get(0)
+				.getNodes().get(1).getApplications().get(0);
+		final Component component = application.getComponents().get(0).getChildren().get(1);
+		final Clazz clazz = createClazz(component, "NewClazz");
+		component.getClazzes().add(0, clazz);
+		final CommunicationClazz communication = new CommunicationClazz();
+		communication.setSource(clazz);
+		communication.setTarget(component.getClazzes().get(2));
+		communication.setMethodName("call");
+		communication.addRuntimeInformation(42L, 1, 1, 1, 1000f, 1000f);
+		application.getCommunications().add(communication);
+		final byte[] snapshot = RepositoryStorage.serialize(landscape);
+
+		final byte[] delta = LandscapeDelta.encode(kryo, new LandscapeDelta.Keyframe(keyframe),
+				landscape);
+
+		assertTrue(delta.length + " of " + snapshot.length, delta.length < (snapshot.length / 2));
+		assertDecodes(keyframeSnapshot, delta, snapshot);
+	}
+
+	@Test
+	public void testRemovedAndAddedSystems() throws Exception {
+		final Landscape keyframe = createLandscape();
+		final byte[] keyframeSnapshot = RepositoryStorage.serialize(keyframe);
+
+		final Landscape landscape = RepositoryStorage.deserialize(keyframeSnapshot);
+		// communications of the removed system's applications go as well
+		final System removed = landscape.getSystems().remove(0);
+		for (int i = landscape.getApplicationCommunication().size() - 1; i >= 0; i--) {
+			final Communication communication = landscape.getApplicationCommunication().get(i);
+			if ((communication.getSource().getParent().getParent().getParent() == removed)
+					|| (communication.getTarget().getParent().getParent().getParent() == removed)) {
+				landscape.getApplicationCommunication().remove(i);
+				communication.getSource().getOutgoingCommunications().remove(communication);
+				communication.getTarget().getIncomingCommunications().remove(communication);
+			}
+		}
+		landscape.getSystems().add(createSystem(landscape, 7, new Random(2)));
+		final byte[] snapshot = RepositoryStorage.serialize(landscape);
+
+		final byte[] delta = LandscapeDelta.encode(kryo, new LandscapeDelta.Keyframe(keyframe),
+				landscape);
+
+		assertDecodes(keyframeSnapshot, delta, snapshot);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testReferenceOutsideOfLandscape() throws Exception {
+		final Landscape keyframe = createLandscape();
+		final Landscape landscape = RepositoryStorage.deserialize(RepositoryStorage
+				.serialize(keyframe));
+		landscape.getApplicationCommunication().get(0)
+				.setSource(createSystem(null, 8, new Random(3)).getNodeGroups().get(0)
+						.getNodes().get(0).getApplications().get(0));
+
+		LandscapeDelta.encode(kryo, new LandscapeDelta.Keyframe(keyframe), landscape);
+	}
+
+	private void assertDecodes(final byte[] keyframeSnapshot, final byte[] delta,
+			final byte[] expectedSnapshot) {
+		final Landscape decoded = LandscapeDelta.decode(kryo,
+				RepositoryStorage.deserialize(keyframeSnapshot), delta);
+		assertArrayEquals(serializeWithoutSharedStrings(RepositoryStorage
+				.deserialize(expectedSnapshot)), serializeWithoutSharedStrings(decoded));
+	}
+
+	/**
+	 * Equal strings are read as one object if they were one object when
+	 * written, which is not kept by deltas
+	 */
+	private byte[] serializeWithoutSharedStrings(final Landscape landscape) {
+		final Kryo stringCopyingKryo = RepositoryStorage.createKryoInstance();
+		stringCopyingKryo.setReferenceResolver(new MapReferenceResolver() {
+			@Override
+			@SuppressWarnings("rawtypes")
+			public boolean useReferences(final Class type) {
+				return (type != String.class) && super.useReferences(type);
+			}
+		});
+		final Output output = new Output(1024, -1);
+		stringCopyingKryo.writeObject(output, landscape);
+		return output.toBytes();
+	}
+
+	private Landscape createLandscape() {
+		final Random random = new Random(0);
+		final Landscape landscape = new Landscape();
+		landscape.setHash(1);
+		landscape.setActivities(100000);
+		landscape.getEvents().put(1L, "New application 'app0' on node 'node0' detected");
+
+		for (int i = 0; i < 3; i++) {
+			landscape.getSystems().add(createSystem(landscape, i, random));
+		}
+
+		// every application calls the next one
+		Application previous = null;
+		for (final System system : landscape.getSystems()) {
+			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
+				for (final Node node : nodeGroup.getNodes()) {
+					for (final Application application : node.getApplications()) {
+						if (previous != null) {
+							final Communication communication = new Communication();
+							communication.setSource(previous);
+							communication.setSourceClazz(previous.getComponents().get(0)
+									.getClazzes().get(0));
+							communication.setTarget(application);
+							communication.setTargetClazz(application.getComponents().get(0)
+									.getClazzes().get(0));
+							communication.setRequests(random.nextInt(1000));
+							communication.setTechnology("http");
+							communication.setAverageResponseTimeInNanoSec(random.nextFloat());
+							previous.getOutgoingCommunications().add(communication);
+							application.getIncomingCommunications().add(communication);
+							landscape.getApplicationCommunication().add(communication);
+						}
+						previous = application;
+					}
+				}
+			}
+		}
+		return landscape;
+	}
+
+	private System createSystem(final Landscape landscape, final int number, final Random random) {
+		final System system = new System();
+		system.setName("system" + number);
+		system.setParent(landscape);
+		for (int i = 0; i < 2; i++) {
+			final NodeGroup nodeGroup = new NodeGroup();
+			nodeGroup.setName("group" + number + "." + i);
+			nodeGroup.setParent(system);
+			system.getNodeGroups().add(nodeGroup);
+
+			for (int j = 0; j < 3; j++) {
+				final Node node = new Node();
+				node.setName("node" + number + "." + i + "." + j);
+				node.setIpAddress("10.0." + ((number * 2) + i) + "." + j);
+				node.setCpuUtilization(random.nextDouble());
+				node.setFreeRAM(random.nextInt(1 << 30));
+				node.setUsedRAM(random.nextInt(1 << 30));
+				node.setParent(nodeGroup);
+				nodeGroup.getNodes().add(node);
+
+				for (int k = 0; k < 2; k++) {
+					node.getApplications().add(
+							createApplication(node, (((((number * 2) + i) * 3) + j) * 2) + k,
+									random));
+				}
+			}
+		}
+		return system;
+	}
+
+	private Application createApplication(final Node node, final int id, final Random random) {
+		final Application application = new Application();
+		application.setId(id);
+		application.setName("app" + id);
+		application.setLastUsage(random.nextLong());
+		application.setParent(node);
+
+		for (int i = 0; i < 2; i++) {
+			final Component component = createComponent(application, null, "org" + i);
+			application.getComponents().add(component);
+			for (int j = 0; j < 3; j++) {
+				final Component child = createComponent(application, component,
+						component.getFullQualifiedName() + ".package" + j);
+				component.getChildren().add(child);
+				for (int k = 0; k < 5; k++) {
+					child.getClazzes().add(createClazz(child, "Clazz" + k));
+				}
+			}
+			component.getClazzes().add(createClazz(component, "Main"));
+		}
+
+		// calls between the classes of the first packages
+		for (final Component component : application.getComponents()) {
+			for (final Clazz source : component.getChildren().get(0).getClazzes()) {
+				for (final Clazz target : component.getChildren().get(1).getClazzes()) {
+					final CommunicationClazz communication = new CommunicationClazz();
+					communication.setSource(source);
+					communication.setTarget(target);
+					communication.setMethodName("method" + random.nextInt(3));
+					addRuntimeInformation(communication, random);
+					application.getCommunications().add(communication);
+				}
+			}
+		}
+		return application;
+	}
+
+	private Component createComponent(final Application application, final Component parent,
+			final String fullQualifiedName) {
+		final Component component = new Component();
+		component.setName(fullQualifiedName.substring(fullQualifiedName.lastIndexOf('.') + 1));
+		component.setFullQualifiedName(fullQualifiedName);
+		component.setParentComponent(parent);
+		component.setBelongingApplication(application);
+		return component;
+	}
+
+	private Clazz createClazz(final Component component, final String name) {
+		final Clazz clazz = new Clazz();
+		clazz.setName(name);
+		clazz.setFullQualifiedName(component.getFullQualifiedName() + "." + name);
+		clazz.setParent(component);
+		clazz.setInstanceCount(1);
+		return clazz;
+	}
+
+	private void addRuntimeInformation(final CommunicationClazz communication, final Random random) {
+		communication.addRuntimeInformation(random.nextLong(), 1 + random.nextInt(10),
+				random.nextInt(100), 1 + random.nextInt(100), random.nextFloat() * 1000000f,
+				random.nextFloat() * 1000000f);
+	}
+
+	/**
+	 * Changes the metrics like a busy landscape between two intervals
+	 */
+	private void churnMetrics(final Landscape landscape, final Random random) {
+		landscape.setHash(2);
+		landscape.setActivities(120000);
+		for (final Communication communication : landscape.getApplicationCommunication()) {
+			communication.setRequests(random.nextInt(1000));
+			communication.setAverageResponseTimeInNanoSec(random.nextFloat());
+		}
+		for (final System system : landscape.getSystems()) {
+			for (final NodeGroup nodeGroup : system.getNodeGroups()) {
+				for (final Node node : nodeGroup.getNodes()) {
+					node.setCpuUtilization(random.nextDouble());
+					for (final Application application : node.getApplications()) {
+						application.setLastUsage(random.nextLong());
+						final DatabaseQuery query = new DatabaseQuery();
+						query.setSQLStatement("SELECT * FROM table" + random.nextInt(5));
+						query.setTimeInNanos(random.nextInt(1000000));
+						application.getDatabaseQueries().add(query);
+
+						// a fifth of the calls happened in other traces
+						for (final CommunicationClazz communication : application
+								.getCommunications()) {
+							if (random.nextInt(5) == 0) {
+								communication.reset();
+								addRuntimeInformation(communication, random);
+							}
+						}
+						final Clazz clazz = application.getComponents().get(1).getChildren()
+								.get(2).getClazzes().get(random.nextInt(5));
+						clazz.setInstanceCount(clazz.getInstanceCount() + 1);
+					}
+				}
+			}
+		}
+	}
+}
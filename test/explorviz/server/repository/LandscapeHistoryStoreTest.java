@@ -0,0 +1,84 @@
+package explorviz.server.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import org.junit.*;
+
+public class LandscapeHistoryStoreTest {
+	private File folder;
+	private LandscapeHistoryStore store;
+
+	@Before
+	public void before() throws Exception {
+		folder = new File(java.lang.System.getProperty("java.io.tmpdir"), "historyStoreTest"
+				+ java.lang.System.nanoTime());
+		store = new LandscapeHistoryStore(folder, 1000);
+	}
+
+	@After
+	public void after() throws Exception {
+		store.clear();
+		store.close();
+		assertTrue(folder.delete());
+	}
+
+	@Test
+	public void testAppendAndRead() throws Exception {
+		assertTrue(store.startsNewSegment(100));
+		store.append(100, 5, LandscapeHistoryStore.NO_KEYFRAME, new byte[] { 1, 2, 3 });
+		assertFalse(store.startsNewSegment(200));
+		store.append(200, 6, 100, new byte[] { 4 });
+
+		assertEquals(2, store.getActivitiesSince(0).size());
+		assertEquals(Long.valueOf(6), store.getActivitiesSince(100).get(200L));
+
+		final LandscapeHistoryStore.Record record = store.floorRecord(150);
+		assertEquals(100, record.getTimestamp());
+		assertTrue(record.isKeyframe());
+		assertArrayEquals(new byte[] { 1, 2, 3 }, store.read(record));
+
+		assertEquals(100, store.floorRecord(250).getKeyframeTimestamp());
+		assertNull(store.floorRecord(50));
+	}
+
+	@Test
+	public void testReadActiveSegmentWhileAppending() throws Exception {
+		store.append(100, 1, LandscapeHistoryStore.NO_KEYFRAME, new byte[] { 1, 2 });
+		final LandscapeHistoryStore.Record record = store.getRecord(100);
+		store.append(200, 2, 100, new byte[] { 3, 4, 5 });
+
+		assertArrayEquals(new byte[] { 1, 2 }, store.read(record));
+		assertArrayEquals(new byte[] { 3, 4, 5 }, store.read(store.getRecord(200)));
+	}
+
+	@Test
+	public void testReloadAndRetention() throws Exception {
+		store.append(100, 1, LandscapeHistoryStore.NO_KEYFRAME, new byte[] { 1 });
+		store.append(500, 2, 100, new byte[] { 2 });
+		store.append(1200, 3, LandscapeHistoryStore.NO_KEYFRAME, new byte[] { 3 });
+		store.append(2300, 4, LandscapeHistoryStore.NO_KEYFRAME, new byte[] { 4 });
+		store.close();
+
+		store = new LandscapeHistoryStore(folder, 1000);
+		assertEquals(4, store.getActivitiesSince(0).size());
+		assertArrayEquals(new byte[] { 2 }, store.read(store.getRecord(500)));
+		assertArrayEquals(new byte[] { 4 }, store.read(store.getRecord(2300)));
+
+		store.dropSegmentsUntil(1500);
+		assertEquals(1, store.getActivitiesSince(0).size());
+		assertNull(store.floorRecord(1500));
+		assertEquals(1, folder.listFiles().length);
+	}
+
+	@Test(expected = FileNotFoundException.class)
+	public void testReadAfterClose() throws Exception {
+		store.append(100, 1, LandscapeHistoryStore.NO_KEYFRAME, new byte[] { 1 });
+		final LandscapeHistoryStore.Record record = store.getRecord(100);
+		store.close();
+
+		store.read(record);
+	}
+}
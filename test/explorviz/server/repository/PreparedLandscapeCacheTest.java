@@ -0,0 +1,51 @@
+package explorviz.server.repository;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import explorviz.shared.model.Landscape;
+
+public class PreparedLandscapeCacheTest {
+
+	@Test
+	public void testHitsAndMisses() throws Exception {
+		final PreparedLandscapeCache cache = new PreparedLandscapeCache(100);
+		final Landscape landscape = new Landscape();
+
+		assertNull(cache.get("a"));
+		cache.put("a", landscape, 10);
+		assertSame(landscape, cache.get("a"));
+
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(10, cache.getWeight());
+	}
+
+	@Test
+	public void testEvictsByWeight() throws Exception {
+		final PreparedLandscapeCache cache = new PreparedLandscapeCache(100);
+
+		cache.put("a", new Landscape(), 40);
+		cache.put("b", new Landscape(), 40);
+		cache.get("a");
+		cache.put("c", new Landscape(), 40);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+		assertEquals(80, cache.getWeight());
+	}
+
+	@Test
+	public void testIgnoresTooHeavyLandscape() throws Exception {
+		final PreparedLandscapeCache cache = new PreparedLandscapeCache(100);
+
+		cache.put("a", new Landscape(), 200);
+
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+	}
+}
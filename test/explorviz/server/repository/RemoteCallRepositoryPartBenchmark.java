@@ -0,0 +1,87 @@
+package explorviz.server.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import explorviz.live_trace_processing.record.event.remote.BeforeReceivedRemoteCallRecord;
+import explorviz.live_trace_processing.record.event.remote.BeforeSentRemoteCallRecord;
+import explorviz.live_trace_processing.record.trace.HostApplicationMetaDataRecord;
+import explorviz.live_trace_processing.record.trace.RuntimeStatisticInformation;
+import explorviz.shared.model.*;
+
+/**
+ * Throughput benchmark for the remote call correlation. Pushes synthetic
+ * sent/received pairs through {@link RemoteCallRepositoryPart} while keeping a
+ * configurable number of calls in flight.
+ */
+public class RemoteCallRepositoryPartBenchmark {
+	private static final int PAIRS = 200000;
+	private static final int[] IN_FLIGHT = { 10, 1000, 10000, 50000 };
+
+	public static void main(final String[] args) {
+		final HostApplicationMetaDataRecord callerHost = new HostApplicationMetaDataRecord(
+				"benchSystem", "10.0.0.1", "callerHost", "callerApp", "Java");
+		final HostApplicationMetaDataRecord calleeHost = new HostApplicationMetaDataRecord(
+				"benchSystem", "10.0.0.2", "calleeHost", "calleeApp", "Java");
+
+		for (final int inFlight : IN_FLIGHT) {
+			runRound(callerHost, calleeHost, inFlight); // warm-up
+			final long duration = runRound(callerHost, calleeHost, inFlight);
+
+			java.lang.System.out.println("in-flight " + inFlight + ": " + PAIRS
+					+ " pairs in " + (duration / 1000000) + " ms ("
+					+ ((PAIRS * 1000000000L) / Math.max(1, duration)) + " pairs/s)");
+		}
+	}
+
+	private static long runRound(final HostApplicationMetaDataRecord callerHost,
+			final HostApplicationMetaDataRecord calleeHost, final int inFlight) {
+		final RemoteCallRepositoryPart part = new RemoteCallRepositoryPart();
+		final InsertionRepositoryPart inserter = new InsertionRepositoryPart();
+		final Landscape landscape = new Landscape();
+		final Clazz callerClazz = new Clazz();
+		final Clazz calleeClazz = new Clazz();
+
+		final List<BeforeSentRemoteCallRecord> sentRecords = new ArrayList<BeforeSentRemoteCallRecord>(
+				PAIRS);
+		final List<BeforeReceivedRemoteCallRecord> receivedRecords = new ArrayList<BeforeReceivedRemoteCallRecord>(
+				PAIRS);
+		for (int i = 0; i < PAIRS; i++) {
+			final BeforeSentRemoteCallRecord sent = new BeforeSentRemoteCallRecord(0, "http",
+					i, i % 7, callerHost);
+			sent.setRuntimeStatisticInformationList(createStatistics());
+			sentRecords.add(sent);
+
+			final BeforeReceivedRemoteCallRecord received = new BeforeReceivedRemoteCallRecord(0,
+					i, i % 7, PAIRS + i, 0, calleeHost);
+			received.setRuntimeStatisticInformationList(createStatistics());
+			receivedRecords.add(received);
+		}
+
+		final long start = java.lang.System.nanoTime();
+		for (int i = 0; i < (PAIRS + inFlight); i++) {
+			if (i < PAIRS) {
+				part.insertSentRecord(callerClazz, sentRecords.get(i), landscape, inserter, 0);
+			}
+			final int receivedIndex = i - inFlight;
+			if (receivedIndex >= 0) {
+				part.insertReceivedRecord(receivedRecords.get(receivedIndex), calleeClazz,
+						landscape, inserter, 0);
+			}
+		}
+		final long duration = java.lang.System.nanoTime() - start;
+
+		if ((part.getPendingSentRecordCount() != 0)
+				|| (part.getPendingReceivedRecordCount() != 0)) {
+			throw new IllegalStateException("unmatched remote records left in the buffer");
+		}
+
+		return duration;
+	}
+
+	private static List<RuntimeStatisticInformation> createStatistics() {
+		final List<RuntimeStatisticInformation> runtimeList = new ArrayList<RuntimeStatisticInformation>();
+		runtimeList.add(new RuntimeStatisticInformation(1, 1000, 10000));
+		return runtimeList;
+	}
+}
@@ -0,0 +1,56 @@
+package explorviz.server.repository;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import explorviz.server.repository.helper.RemoteRecordBuffer;
+
+public class RemoteRecordIndexTest {
+
+	@Test
+	public void testPutAndRemove() throws Exception {
+		final RemoteRecordIndex<String> index = new RemoteRecordIndex<String>(1000);
+
+		index.put(1L, 2, "first", createBuffer(0));
+		index.put(1L, 3, "second", createBuffer(0));
+		assertEquals(2, index.size());
+
+		assertNull(index.remove(2L, 2));
+		assertEquals("first", index.remove(1L, 2).getRecord());
+		assertNull(index.remove(1L, 2));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	public void testExpire() throws Exception {
+		final RemoteRecordIndex<String> index = new RemoteRecordIndex<String>(1000);
+
+		index.put(1L, 1, "old", createBuffer(0));
+		index.put(2L, 1, "matched", createBuffer(500));
+		index.put(3L, 1, "new", createBuffer(5000));
+		assertNotNull(index.remove(2L, 1));
+
+		index.expire(3000, 1000);
+		assertEquals(1, index.size());
+		assertNull(index.remove(1L, 1));
+		assertEquals("new", index.remove(3L, 1).getRecord());
+	}
+
+	@Test
+	public void testExpireKeepsOverwrittenEntry() throws Exception {
+		final RemoteRecordIndex<String> index = new RemoteRecordIndex<String>(1000);
+
+		index.put(1L, 1, "old", createBuffer(0));
+		index.put(1L, 1, "new", createBuffer(5000));
+
+		index.expire(3000, 1000);
+		assertEquals("new", index.remove(1L, 1).getRecord());
+	}
+
+	private RemoteRecordBuffer createBuffer(final long timestamp) {
+		final RemoteRecordBuffer buffer = new RemoteRecordBuffer();
+		buffer.setTimestampPutIntoBuffer(timestamp);
+		return buffer;
+	}
+}
@@ -0,0 +1,40 @@
+package explorviz.server.repository.helper;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ConcurrentLruCacheTest {
+
+	@Test
+	public void testHitsAndMisses() throws Exception {
+		final ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(
+				10, 1);
+
+		assertNull(cache.get("a"));
+		cache.put("a", "1");
+		assertEquals("1", cache.get("a"));
+		assertEquals("1", cache.get("a"));
+
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(2d / 3d, cache.getHitRate(), 0.0001);
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed() throws Exception {
+		final ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(2,
+				1);
+
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.get("a");
+		cache.put("c", "3");
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertEquals("1", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals("3", cache.get("c"));
+	}
+}
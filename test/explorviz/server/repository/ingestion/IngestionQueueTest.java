@@ -0,0 +1,96 @@
+package explorviz.server.repository.ingestion;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class IngestionQueueTest {
+
+	@Test
+	public void testBatchDraining() throws Exception {
+		final IngestionQueue<Long> queue = new IngestionQueue<Long>(8, OverloadPolicy.BLOCK, 0,
+				new IngestionStatistics("test"));
+		for (long i = 0; i < 5; i++) {
+			assertTrue(queue.put(i));
+		}
+
+		final List<Long> batch = new ArrayList<Long>();
+		final long[] enqueueTimes = new long[3];
+		assertEquals(3, queue.drainTo(batch, enqueueTimes, 3));
+		assertEquals(2, queue.drainTo(batch, enqueueTimes, 3));
+
+		assertEquals(5, batch.size());
+		for (int i = 0; i < 5; i++) {
+			assertEquals(Long.valueOf(i), batch.get(i));
+		}
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	public void testDropOldest() throws Exception {
+		final IngestionStatistics statistics = new IngestionStatistics("test");
+		final IngestionQueue<Long> queue = new IngestionQueue<Long>(3,
+				OverloadPolicy.DROP_OLDEST, 0, statistics);
+		for (long i = 0; i < 5; i++) {
+			assertTrue(queue.put(i));
+		}
+
+		final List<Long> batch = new ArrayList<Long>();
+		queue.drainTo(batch, new long[10], 10);
+		assertEquals(3, batch.size());
+		assertEquals(Long.valueOf(2), batch.get(0));
+		assertEquals(Long.valueOf(4), batch.get(2));
+
+		assertEquals(5, statistics.getAccepted());
+		assertEquals(2, statistics.getDropped());
+	}
+
+	@Test
+	public void testSampleByTraceId() throws Exception {
+		final IngestionStatistics statistics = new IngestionStatistics("test");
+		final IngestionQueue<Long> queue = new IngestionQueue<Long>(10000,
+				OverloadPolicy.SAMPLE_BY_TRACE_ID, 25, statistics) {
+			@Override
+			protected long getSampleKey(final Long traceId) {
+				return traceId;
+			}
+		};
+
+		// below the sampling threshold everything is accepted
+		for (long i = 0; i < 7500; i++) {
+			assertTrue(queue.put(i));
+		}
+		assertEquals(0, statistics.getDropped());
+
+		int accepted = 0;
+		for (long i = 7500; i < 9500; i++) {
+			if (queue.put(i)) {
+				accepted++;
+			}
+		}
+		assertTrue(accepted > 300);
+		assertTrue(accepted < 700);
+		assertEquals(2000 - accepted, statistics.getDropped());
+	}
+
+	@Test
+	public void testLatencyBuckets() throws Exception {
+		assertEquals(0, IngestionStatistics.getBucket(1));
+		assertEquals(1, IngestionStatistics.getBucket(2));
+		assertEquals(2, IngestionStatistics.getBucket(3));
+		assertEquals(10, IngestionStatistics.getBucket(1024));
+		assertEquals(11, IngestionStatistics.getBucket(1025));
+
+		final IngestionStatistics statistics = new IngestionStatistics("test");
+		for (int i = 0; i < 99; i++) {
+			statistics.recordLatency(1000);
+		}
+		statistics.recordLatency(1000000);
+		assertEquals(1024, statistics.getLatencyPercentile(0.5));
+		assertEquals(1024, statistics.getLatencyPercentile(0.99));
+		assertEquals(1L << 20, statistics.getLatencyPercentile(1.0));
+	}
+}
@@ -0,0 +1,44 @@
+package explorviz.server.util;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Test;
+
+public class Base64StringOutputStreamTest {
+
+	@Test
+	public void testEncodingEqualsWholeEncoding() throws IOException {
+		final Random random = new Random(0);
+		for (final int length : new int[] { 0, 1, 2, 3, 49151, 49152, 49153, 200000 }) {
+			final byte[] bytes = new byte[length];
+			random.nextBytes(bytes);
+
+			final Base64StringOutputStream out = new Base64StringOutputStream();
+			int position = 0;
+			while (position < length) {
+				// odd write sizes, so chunks end anywhere in the buffer
+				final int count = Math.min(length - position, 1 + random.nextInt(5000));
+				if (count == 1) {
+					out.write(bytes[position]);
+				} else {
+					out.write(bytes, position, count);
+				}
+				position += count;
+			}
+			out.close();
+
+			assertEquals(new String(Base64.encodeBase64(bytes), "US-ASCII"), out.toString());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteAfterClose() throws IOException {
+		final Base64StringOutputStream out = new Base64StringOutputStream();
+		out.close();
+		out.write(1);
+	}
+}
@@ -0,0 +1,46 @@
+package explorviz.visualization.clustering;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the nearest neighbour clustering with the former full matrix scan
+ * for growing class counts. Run as a plain Java application.
+ */
+public class AgglomerativeClusteringBenchmark {
+	private static final int[] CLASS_COUNTS = new int[] { 100, 250, 500, 1000, 2000 };
+	// the full scan is cubic, larger counts take minutes
+	private static final int MAX_CLASS_COUNT_FOR_FULL_SCAN = 1000;
+
+	public static void main(final String[] args) {
+		final GenericClusterLink link = new CompleteLink();
+
+		for (final int classCount : CLASS_COUNTS) {
+			final List<ClusterData> clusterdata = AgglomerativeClusteringTest.createClusterData(
+					new Random(classCount), classCount);
+
+			// warm up
+			AgglomerativeClustering.computeMerges(BuildMatrix.buildTriangularMatrix(clusterdata),
+					classCount, link);
+
+			long start = java.lang.System.nanoTime();
+			final double[] distances = BuildMatrix.buildTriangularMatrix(clusterdata);
+			final long matrixTime = java.lang.System.nanoTime() - start;
+
+			start = java.lang.System.nanoTime();
+			AgglomerativeClustering.computeMerges(distances, classCount, link);
+			final long clusteringTime = java.lang.System.nanoTime() - start;
+
+			String fullScan = "skipped";
+			if (classCount <= MAX_CLASS_COUNT_FOR_FULL_SCAN) {
+				start = java.lang.System.nanoTime();
+				AgglomerativeClusteringTest.computeMergesWithFullScan(clusterdata, link);
+				fullScan = ((java.lang.System.nanoTime() - start) / 1000000) + " ms";
+			}
+
+			java.lang.System.out.println(classCount + " classes: matrix "
+					+ (matrixTime / 1000000) + " ms, clustering " + (clusteringTime / 1000000)
+					+ " ms, full scan (matrix and clustering) " + fullScan);
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package explorviz.visualization.clustering;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class AgglomerativeClusteringTest {
+
+	@Test
+	public void testTriangularMatrix() throws Exception {
+		final List<ClusterData> clusterdata = createClusterData(new Random(1), 40);
+		final double[] distances = BuildMatrix.buildTriangularMatrix(clusterdata);
+
+		for (int j = 0; j < clusterdata.size(); j++) {
+			for (int i = 0; i < j; i++) {
+				assertEquals(BuildMatrix.distance(clusterdata.get(i), clusterdata.get(j)),
+						distances[AgglomerativeClustering.index(i, j)], 0d);
+			}
+		}
+	}
+
+	@Test
+	public void testSameMergesAsFullScan() throws Exception {
+		final Random random = new Random(42);
+		final GenericClusterLink[] links = new GenericClusterLink[] { new SingleLink(),
+				new CompleteLink() };
+
+		for (int run = 0; run < 200; run++) {
+			final List<ClusterData> clusterdata = createClusterData(random,
+					1 + random.nextInt(80));
+
+			for (final GenericClusterLink link : links) {
+				final int[] expected = computeMergesWithFullScan(clusterdata, link);
+				final int[] actual = AgglomerativeClustering.computeMerges(
+						BuildMatrix.buildTriangularMatrix(clusterdata), clusterdata.size(), link);
+				assertArrayEquals(expected, actual);
+			}
+		}
+	}
+
+	static List<ClusterData> createClusterData(final Random random, final int size) {
+		// few different names and metrics, so there are many equal distances
+		final String[] names = new String[] { "Service", "ServiceImpl", "Dao", "DaoImpl",
+				"Helper", "Util", "Factory", "Controller" };
+
+		final List<ClusterData> clusterdata = new ArrayList<ClusterData>(size);
+		for (int i = 0; i < size; i++) {
+			clusterdata.add(new ClusterData(names[random.nextInt(names.length)]
+					+ random.nextInt(3), random.nextInt(4), random.nextInt(4)));
+		}
+		return clusterdata;
+	}
+
+	/**
+	 * The former clustering, which scans the full matrix for every merge
+	 */
+	static int[] computeMergesWithFullScan(final List<ClusterData> clusterdata,
+			final GenericClusterLink link) {
+		final int size = clusterdata.size();
+		final double[][] distanceMatrix = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				distanceMatrix[i][j] = i == j ? Double.POSITIVE_INFINITY : BuildMatrix.distance(
+						clusterdata.get(i), clusterdata.get(j));
+			}
+		}
+
+		final int[] merges = new int[2 * Math.max(0, size - 1)];
+		for (int n = 0; n < (size - 1); n++) {
+			double minValue = Double.MAX_VALUE;
+			int cluster1 = 0;
+			int cluster2 = 0;
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < size; j++) {
+					if (distanceMatrix[i][j] < minValue) {
+						minValue = distanceMatrix[i][j];
+						cluster1 = i;
+						cluster2 = j;
+					}
+				}
+			}
+			merges[2 * n] = cluster1;
+			merges[(2 * n) + 1] = cluster2;
+
+			for (int j = 0; j < size; j++) {
+				if (j != cluster1) {
+					distanceMatrix[cluster1][j] = link.linkDistance(distanceMatrix[cluster1][j],
+							distanceMatrix[cluster2][j]);
+					distanceMatrix[j][cluster1] = distanceMatrix[cluster1][j];
+				}
+			}
+			for (int j = 0; j < size; j++) {
+				distanceMatrix[cluster2][j] = Double.POSITIVE_INFINITY;
+				distanceMatrix[j][cluster2] = Double.POSITIVE_INFINITY;
+			}
+		}
+		return merges;
+	}
+}
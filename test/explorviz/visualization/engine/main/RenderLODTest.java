@@ -0,0 +1,96 @@
+package explorviz.visualization.engine.main;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import explorviz.visualization.engine.math.*;
+
+public class RenderLODTest {
+	// camera at the origin looking down the negative z axis, the scene 50 units away
+	private final Matrix44f modelView = Matrix44f.translation(0f, 0f, -50f);
+	private final Matrix44f projection = Matrix44f.perspective(45f, 1f, 0.1f, 1000f);
+
+	@Before
+	public void setUp() {
+		RenderLOD.clear();
+		RenderLOD.enabled = true;
+	}
+
+	@After
+	public void tearDown() {
+		RenderLOD.clear();
+	}
+
+	@Test
+	public void testFrustumCulling() {
+		RenderLOD.beginFrame(modelView, projection);
+
+		assertTrue(RenderLOD.isActive());
+		assertEquals(RenderLOD.DRAWN, visibility(new Vector3f(0f, 0f, 0f), 1f, -1, false));
+		assertEquals(RenderLOD.CULLED, visibility(new Vector3f(1000f, 0f, 0f), 1f, -1, false));
+		// behind the camera
+		assertEquals(RenderLOD.CULLED, visibility(new Vector3f(0f, 0f, 100f), 1f, -1, false));
+		// partly inside of the frustum
+		assertEquals(RenderLOD.DRAWN, visibility(new Vector3f(30f, 0f, 0f), 15f, -1, false));
+	}
+
+	@Test
+	public void testSmallLabelsAreCulled() {
+		RenderLOD.beginFrame(modelView, projection);
+
+		assertEquals(RenderLOD.DRAWN, visibility(new Vector3f(0f, 0f, 0f), 1f, -1, true));
+		assertEquals(RenderLOD.CULLED, visibility(new Vector3f(0f, 0f, 0f), 0.1f, -1, true));
+		// only labels are left out for their size
+		assertEquals(RenderLOD.DRAWN, visibility(new Vector3f(0f, 0f, 0f), 0.1f, -1, false));
+	}
+
+	@Test
+	public void testFarComponentsAreAggregated() {
+		final int near = RenderLOD.createGroup(new BoundingSphere(new Vector3f(0f, 0f, 0f), 10f), -1);
+		final int far = RenderLOD.createGroup(new BoundingSphere(new Vector3f(0f, 0f, -900f), 10f),
+				-1);
+		final int insideFar = RenderLOD.createGroup(
+				new BoundingSphere(new Vector3f(0f, 0f, -900f), 5f), far);
+		RenderLOD.beginFrame(modelView, projection);
+
+		final Vector3f origin = new Vector3f(0f, 0f, 0f);
+		final Vector3f farAway = new Vector3f(0f, 0f, -900f);
+		assertEquals(RenderLOD.DRAWN, visibility(origin, 1f, near, false));
+		assertEquals(RenderLOD.REPLACED, visibility(origin, 1f, near, true, true));
+
+		assertEquals(RenderLOD.REPLACED, visibility(farAway, 1f, far, false));
+		assertEquals(RenderLOD.DRAWN, visibility(farAway, 10f, far, true, false));
+		// the contents of an aggregated component are hidden, whatever their size
+		assertEquals(RenderLOD.REPLACED, visibility(farAway, 1f, insideFar, false));
+		assertEquals(RenderLOD.REPLACED, visibility(farAway, 5f, insideFar, true, false));
+	}
+
+	@Test
+	public void testReplacedBeforeCulled() {
+		final int far = RenderLOD.createGroup(new BoundingSphere(new Vector3f(0f, 0f, -900f), 10f),
+				-1);
+		RenderLOD.beginFrame(modelView, projection);
+
+		// outside of the frustum, but of the wrong level of detail first of all
+		assertEquals(RenderLOD.REPLACED, visibility(new Vector3f(5000f, 0f, -900f), 1f, far, false));
+	}
+
+	@Test
+	public void testDisabled() {
+		RenderLOD.enabled = false;
+		RenderLOD.beginFrame(modelView, projection);
+
+		assertFalse(RenderLOD.isActive());
+	}
+
+	private int visibility(final Vector3f center, final float radius, final int group,
+			final boolean label) {
+		return visibility(center, radius, group, false, label);
+	}
+
+	private int visibility(final Vector3f center, final float radius, final int group,
+			final boolean aggregate, final boolean label) {
+		return RenderLOD.visibility(new BoundingSphere(center, radius), group, aggregate, label);
+	}
+}
@@ -0,0 +1,92 @@
+package explorviz.visualization.engine.math;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import explorviz.visualization.engine.math.BoundingVolumeHierarchy.Intersector;
+
+public class BoundingVolumeHierarchyTest {
+
+	/**
+	 * Spheres stand in for primitives, the exact test is the ray cast of the
+	 * sphere.
+	 */
+	private final Intersector<BoundingSphere> intersector = new Intersector<BoundingSphere>() {
+		@Override
+		public float getIntersectCoefficient(final Ray ray, final BoundingSphere sphere) {
+			final double coefficient = sphere.rayCast(ray);
+			return coefficient < 0 ? Float.MAX_VALUE : (float) coefficient;
+		}
+	};
+
+	@Test
+	public void testNearestMatchesAllItems() {
+		final Random random = new Random(42);
+		final List<BoundingSphere> spheres = new ArrayList<BoundingSphere>();
+		for (int i = 0; i < 500; i++) {
+			spheres.add(new BoundingSphere(new Vector3f(random.nextFloat() * 100f,
+					random.nextFloat() * 10f, random.nextFloat() * 100f),
+					0.5f + random.nextFloat()));
+		}
+		final BoundingVolumeHierarchy<BoundingSphere> hierarchy = createHierarchy(spheres);
+
+		for (int i = 0; i < 200; i++) {
+			final Vector3f origin = new Vector3f(50f, 80f, -30f);
+			final Vector3f target = new Vector3f(random.nextFloat() * 100f, 0f,
+					random.nextFloat() * 100f);
+			final Ray ray = new Ray(origin, target.sub(origin));
+
+			BoundingSphere expected = null;
+			float nearest = Float.MAX_VALUE;
+			for (final BoundingSphere sphere : spheres) {
+				final float coefficient = intersector.getIntersectCoefficient(ray, sphere);
+				if (coefficient < nearest) {
+					nearest = coefficient;
+					expected = sphere;
+				}
+			}
+
+			assertSame(expected, hierarchy.getNearest(ray, intersector));
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		final BoundingVolumeHierarchy<BoundingSphere> hierarchy = createHierarchy(new ArrayList<BoundingSphere>());
+		final Ray ray = new Ray(new Vector3f(0f, 0f, 0f), new Vector3f(0f, 0f, 1f));
+
+		assertNull(hierarchy.getNearest(ray, intersector));
+	}
+
+	@Test
+	public void testEntryCoefficient() {
+		final Ray ray = new Ray(new Vector3f(0f, 0f, -10f), new Vector3f(0f, 0f, 2f));
+
+		assertEquals(4.5f, ray.getEntryCoefficient(new float[] { -1f, -1f, -1f, 1f, 1f, 1f }, 0),
+				0.001f);
+		assertEquals(0f, ray.getEntryCoefficient(new float[] { -1f, -1f, -20f, 1f, 1f, 1f }, 0),
+				0.001f);
+		assertEquals(Float.MAX_VALUE,
+				ray.getEntryCoefficient(new float[] { 2f, 2f, -1f, 3f, 3f, 1f }, 0), 0.001f);
+	}
+
+	private static BoundingVolumeHierarchy<BoundingSphere> createHierarchy(
+			final List<BoundingSphere> spheres) {
+		final float[] bounds = new float[spheres.size() * 6];
+		for (int i = 0; i < spheres.size(); i++) {
+			final BoundingSphere sphere = spheres.get(i);
+			bounds[(i * 6) + 0] = sphere.center.x - sphere.radius;
+			bounds[(i * 6) + 1] = sphere.center.y - sphere.radius;
+			bounds[(i * 6) + 2] = sphere.center.z - sphere.radius;
+			bounds[(i * 6) + 3] = sphere.center.x + sphere.radius;
+			bounds[(i * 6) + 4] = sphere.center.y + sphere.radius;
+			bounds[(i * 6) + 5] = sphere.center.z + sphere.radius;
+		}
+		return new BoundingVolumeHierarchy<BoundingSphere>(spheres, bounds);
+	}
+}
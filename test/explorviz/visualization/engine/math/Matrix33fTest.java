@@ -67,6 +67,33 @@ public class Matrix33fTest {
 	assertEquals(42.0f, multiplied.z, DELTA);
     }
     
+    @Test
+    public void testMultVector3fIntoResult() {
+	final Matrix33f base = new Matrix33f(1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f);
+	final Vector3f v = new Vector3f(1.0f, 2.0f, 3.0f);
+	final Vector3f result = new Vector3f();
+	
+	assertSame(result, base.mult(v, result));
+	assertEquals(30.0f, result.x, DELTA);
+	assertEquals(36.0f, result.y, DELTA);
+	assertEquals(42.0f, result.z, DELTA);
+	
+	assertEquals(1.0f, v.x, DELTA);
+	assertEquals(2.0f, v.y, DELTA);
+	assertEquals(3.0f, v.z, DELTA);
+    }
+    
+    @Test
+    public void testMultVector3fIntoItself() {
+	final Matrix33f base = new Matrix33f(1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f);
+	final Vector3f v = new Vector3f(1.0f, 2.0f, 3.0f);
+	
+	assertSame(v, base.mult(v, v));
+	assertEquals(30.0f, v.x, DELTA);
+	assertEquals(36.0f, v.y, DELTA);
+	assertEquals(42.0f, v.z, DELTA);
+    }
+    
     @Test
     public void testMultMatrix33d() {
 	final Matrix33f base = new Matrix33f(1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f);
@@ -569,4 +569,50 @@ public class Matrix44fTest {
 	assertEquals(1.0f, base.entries[15], DELTA);
     }
     
+    @Test
+    public void testMultMatrix44fInto() {
+	final Matrix44f a = new Matrix44f(1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f,
+		10.0f, 11.0f, 12.0f, 13.0f, 14.0f, 15.0f, 16.0f);
+	final Matrix44f b = new Matrix44f(2.0f, 0.0f, 1.0f, 0.0f, 0.0f, 3.0f, 0.0f, 1.0f, 1.0f,
+		0.0f, 2.0f, 0.0f, 0.0f, 1.0f, 0.0f, 4.0f);
+	final Matrix44f expected = a.mult(b);
+	
+	final Matrix44f result = new Matrix44f();
+	assertSame(result, a.mult(b, result));
+	assertArrayEquals(expected.entries, result.entries, DELTA);
+	
+	// the result may be one of the operands
+	a.mult(b, a);
+	assertArrayEquals(expected.entries, a.entries, DELTA);
+    }
+    
+    @Test
+    public void testMultVector4fInto() {
+	final Matrix44f base = new Matrix44f(1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f,
+		10.0f, 11.0f, 12.0f, 13.0f, 14.0f, 15.0f, 16.0f);
+	final Vector4f v = new Vector4f(1.0f, -1.0f, 2.0f, 1.0f);
+	final Vector4f expected = base.mult(v);
+	
+	final Vector4f result = new Vector4f();
+	base.mult(v, result);
+	assertEquals(expected.x, result.x, DELTA);
+	assertEquals(expected.y, result.y, DELTA);
+	assertEquals(expected.z, result.z, DELTA);
+	assertEquals(expected.w, result.w, DELTA);
+	
+	final Vector3f point = base.transformPoint(new Vector3f(1.0f, -1.0f, 2.0f), new Vector3f());
+	assertEquals(expected.x, point.x, DELTA);
+	assertEquals(expected.y, point.y, DELTA);
+	assertEquals(expected.z, point.z, DELTA);
+    }
+    
+    @Test
+    public void testTransposeInto() {
+	final Matrix44f base = new Matrix44f(1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f,
+		10.0f, 11.0f, 12.0f, 13.0f, 14.0f, 15.0f, 16.0f);
+	final Matrix44f result = new Matrix44f();
+	base.transpose(result);
+	assertArrayEquals(base.transpose().entries, result.entries, DELTA);
+    }
+    
 }
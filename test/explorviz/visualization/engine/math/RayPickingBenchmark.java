@@ -0,0 +1,155 @@
+package explorviz.visualization.engine.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import explorviz.visualization.engine.math.BoundingVolumeHierarchy.Intersector;
+
+/**
+ * Picks synthetic scenes of boxes on a grid, like the classes of a city
+ * view, once by testing the ray against every triangle and once through the
+ * bounding volume hierarchy. Run as a plain Java application.
+ */
+public class RayPickingBenchmark {
+	private static final int[] BOX_COUNTS = new int[] { 100, 1000, 10000, 50000 };
+	private static final int RAYS = 1000;
+
+	public static void main(final String[] args) {
+		for (final int boxCount : BOX_COUNTS) {
+			final Random random = new Random(boxCount);
+			final List<float[]> boxes = createBoxes(boxCount, random);
+			final List<Ray> rays = createRays(boxCount, random);
+
+			final Intersector<float[]> intersector = new Intersector<float[]>() {
+				@Override
+				public float getIntersectCoefficient(final Ray ray, final float[] box) {
+					return getBoxCoefficient(ray, box);
+				}
+			};
+
+			// warm up
+			pickLinear(rays, boxes);
+			pickWithHierarchy(rays, createHierarchy(boxes), intersector);
+
+			long start = java.lang.System.nanoTime();
+			final int linearHits = pickLinear(rays, boxes);
+			final long linearTime = java.lang.System.nanoTime() - start;
+
+			start = java.lang.System.nanoTime();
+			final BoundingVolumeHierarchy<float[]> hierarchy = createHierarchy(boxes);
+			final long buildTime = java.lang.System.nanoTime() - start;
+
+			start = java.lang.System.nanoTime();
+			final int hierarchyHits = pickWithHierarchy(rays, hierarchy, intersector);
+			final long hierarchyTime = java.lang.System.nanoTime() - start;
+
+			java.lang.System.out.println(boxCount + " boxes: linear " + (linearTime / RAYS / 1000)
+					+ " us per ray; hierarchy build " + (buildTime / 1000) + " us, "
+					+ (hierarchyTime / RAYS / 1000) + " us per ray; hits " + linearHits + "/"
+					+ hierarchyHits);
+		}
+	}
+
+	private static int pickLinear(final List<Ray> rays, final List<float[]> boxes) {
+		int hits = 0;
+		for (final Ray ray : rays) {
+			float nearest = Float.MAX_VALUE;
+			for (final float[] box : boxes) {
+				nearest = Math.min(nearest, getBoxCoefficient(ray, box));
+			}
+			if (nearest < Float.MAX_VALUE) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	private static int pickWithHierarchy(final List<Ray> rays,
+			final BoundingVolumeHierarchy<float[]> hierarchy, final Intersector<float[]> intersector) {
+		int hits = 0;
+		for (final Ray ray : rays) {
+			if (hierarchy.getNearest(ray, intersector) != null) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * The 12 triangles of a box, 9 floats each.
+	 */
+	private static float getBoxCoefficient(final Ray ray, final float[] box) {
+		final float[] triangle = new float[9];
+		float minimum = Float.MAX_VALUE;
+		for (int t = 0; t < 12; t++) {
+			java.lang.System.arraycopy(box, t * 9, triangle, 0, 9);
+			minimum = Math.min(minimum, ray.getIntersectCoefficient(triangle));
+		}
+		return minimum;
+	}
+
+	private static BoundingVolumeHierarchy<float[]> createHierarchy(final List<float[]> boxes) {
+		final float[] bounds = new float[boxes.size() * 6];
+		for (int i = 0; i < boxes.size(); i++) {
+			final float[] box = boxes.get(i);
+			for (int axis = 0; axis < 3; axis++) {
+				bounds[(i * 6) + axis] = Float.MAX_VALUE;
+				bounds[(i * 6) + axis + 3] = -Float.MAX_VALUE;
+			}
+			for (int v = 0; v < box.length; v++) {
+				final int axis = v % 3;
+				bounds[(i * 6) + axis] = Math.min(bounds[(i * 6) + axis], box[v] - 0.01f);
+				bounds[(i * 6) + axis + 3] = Math.max(bounds[(i * 6) + axis + 3], box[v] + 0.01f);
+			}
+		}
+		return new BoundingVolumeHierarchy<float[]>(boxes, bounds);
+	}
+
+	private static List<float[]> createBoxes(final int boxCount, final Random random) {
+		final int side = (int) Math.ceil(Math.sqrt(boxCount));
+		final List<float[]> boxes = new ArrayList<float[]>(boxCount);
+		for (int i = 0; i < boxCount; i++) {
+			final float x = (i % side) * 2f;
+			final float z = (i / side) * 2f;
+			final float height = 0.5f + (random.nextFloat() * 5f);
+			boxes.add(createBox(x, 0f, z, x + 1.5f, height, z + 1.5f));
+		}
+		return boxes;
+	}
+
+	private static float[] createBox(final float minX, final float minY, final float minZ,
+			final float maxX, final float maxY, final float maxZ) {
+		final float[][] corners = new float[8][];
+		for (int c = 0; c < 8; c++) {
+			corners[c] = new float[] { (c & 1) == 0 ? minX : maxX, (c & 2) == 0 ? minY : maxY,
+					(c & 4) == 0 ? minZ : maxZ };
+		}
+		// two triangles per side: bottom, top, front, back, left, right
+		final int[][] sides = new int[][] { { 0, 1, 5, 4 }, { 2, 3, 7, 6 }, { 0, 1, 3, 2 },
+				{ 4, 5, 7, 6 }, { 0, 4, 6, 2 }, { 1, 5, 7, 3 } };
+		final float[] box = new float[12 * 9];
+		int offset = 0;
+		for (final int[] sideCorners : sides) {
+			final int[] triangleCorners = new int[] { sideCorners[0], sideCorners[1], sideCorners[2],
+					sideCorners[2], sideCorners[3], sideCorners[0] };
+			for (final int corner : triangleCorners) {
+				java.lang.System.arraycopy(corners[corner], 0, box, offset, 3);
+				offset += 3;
+			}
+		}
+		return box;
+	}
+
+	private static List<Ray> createRays(final int boxCount, final Random random) {
+		final float size = (float) Math.ceil(Math.sqrt(boxCount)) * 2f;
+		final List<Ray> rays = new ArrayList<Ray>(RAYS);
+		for (int i = 0; i < RAYS; i++) {
+			final Vector3f origin = new Vector3f(size / 2f, 50f, -20f);
+			final Vector3f target = new Vector3f(random.nextFloat() * size, 0f, random.nextFloat()
+					* size);
+			rays.add(new Ray(origin, target.sub(origin)));
+		}
+		return rays;
+	}
+}
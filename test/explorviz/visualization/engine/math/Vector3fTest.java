@@ -193,4 +193,45 @@ public class Vector3fTest {
 	assertEquals("(1.1, 0.0, -3.0)", Vector3f.toString());
     }
     
+    @Test
+    public void testLocalOperations() {
+	final Vector3f vec = new Vector3f(1.0f, 2.0f, 3.0f);
+	
+	assertSame(vec, vec.addLocal(new Vector3f(1.0f, 1.0f, 1.0f)));
+	assertEquals(2.0f, vec.x, DELTA);
+	assertEquals(3.0f, vec.y, DELTA);
+	assertEquals(4.0f, vec.z, DELTA);
+	
+	vec.subLocal(new Vector3f(2.0f, 0.0f, 0.0f)).scaleLocal(2.0f);
+	assertEquals(0.0f, vec.x, DELTA);
+	assertEquals(6.0f, vec.y, DELTA);
+	assertEquals(8.0f, vec.z, DELTA);
+	
+	vec.normalizeLocal();
+	assertEquals(1.0f, vec.length(), DELTA);
+	assertEquals(0.6f, vec.y, DELTA);
+    }
+    
+    @Test
+    public void testOperationsInto() {
+	final Vector3f a = new Vector3f(1.0f, 0.0f, 0.0f);
+	final Vector3f b = new Vector3f(0.0f, 1.0f, 0.0f);
+	final Vector3f result = new Vector3f();
+	
+	a.cross(b, result);
+	assertEquals(0.0f, result.x, DELTA);
+	assertEquals(0.0f, result.y, DELTA);
+	assertEquals(1.0f, result.z, DELTA);
+	
+	// the result may be one of the operands
+	a.add(b, a);
+	assertEquals(1.0f, a.x, DELTA);
+	assertEquals(1.0f, a.y, DELTA);
+	assertEquals(0.0f, a.z, DELTA);
+	
+	a.sub(b, result).scale(3.0f, result);
+	assertEquals(3.0f, result.x, DELTA);
+	assertEquals(0.0f, result.y, DELTA);
+    }
+    
 }
@@ -40,6 +40,29 @@ public class Vector4fTest {
 	assertEquals(8.9, vector4d.w, DELTA);
     }
     
+    @Test
+    public void testSet() {
+	final Vector4f vector4d = new Vector4f();
+	
+	assertSame(vector4d, vector4d.set(1.0f, 2.0f, 3.0f, 4.0f));
+	assertEquals(1.0f, vector4d.x, DELTA);
+	assertEquals(2.0f, vector4d.y, DELTA);
+	assertEquals(3.0f, vector4d.z, DELTA);
+	assertEquals(4.0f, vector4d.w, DELTA);
+	
+	assertSame(vector4d, vector4d.set(new Vector4f(-1.0f, -2.0f, -3.0f, -4.0f)));
+	assertEquals(-1.0f, vector4d.x, DELTA);
+	assertEquals(-2.0f, vector4d.y, DELTA);
+	assertEquals(-3.0f, vector4d.z, DELTA);
+	assertEquals(-4.0f, vector4d.w, DELTA);
+	
+	assertSame(vector4d, vector4d.set(new Vector3f(5.0f, 6.0f, 7.0f), 8.0f));
+	assertEquals(5.0f, vector4d.x, DELTA);
+	assertEquals(6.0f, vector4d.y, DELTA);
+	assertEquals(7.0f, vector4d.z, DELTA);
+	assertEquals(8.0f, vector4d.w, DELTA);
+    }
+    
     @Test
     public void testAdd() {
 	final Vector4f base = new Vector4f(2.0f, -5.0f, 0.0f, 1.0f);
@@ -66,6 +89,96 @@ public class Vector4fTest {
 	assertEquals(-2.0f, result.w, DELTA);
     }
     
+    @Test
+    public void testAddIntoResult() {
+	final Vector4f base = new Vector4f(2.0f, -5.0f, 0.0f, 1.0f);
+	final Vector4f summand = new Vector4f(1.0f, 2.0f, -3.0f, 3.0f);
+	final Vector4f result = new Vector4f();
+	
+	assertSame(result, base.add(summand, result));
+	assertEquals(3.0f, result.x, DELTA);
+	assertEquals(-3.0f, result.y, DELTA);
+	assertEquals(-3.0f, result.z, DELTA);
+	assertEquals(4.0f, result.w, DELTA);
+	
+	assertEquals(2.0f, base.x, DELTA);
+	assertEquals(1.0f, summand.x, DELTA);
+    }
+    
+    @Test
+    public void testAddIntoSummand() {
+	final Vector4f base = new Vector4f(2.0f, -5.0f, 0.0f, 1.0f);
+	final Vector4f summand = new Vector4f(1.0f, 2.0f, -3.0f, 3.0f);
+	
+	assertSame(summand, base.add(summand, summand));
+	assertEquals(3.0f, summand.x, DELTA);
+	assertEquals(-3.0f, summand.y, DELTA);
+	assertEquals(-3.0f, summand.z, DELTA);
+	assertEquals(4.0f, summand.w, DELTA);
+    }
+    
+    @Test
+    public void testAddLocal() {
+	final Vector4f base = new Vector4f(2.0f, -5.0f, 0.0f, 1.0f);
+	
+	assertSame(base, base.addLocal(new Vector4f(1.0f, 2.0f, -3.0f, 3.0f)));
+	assertEquals(3.0f, base.x, DELTA);
+	assertEquals(-3.0f, base.y, DELTA);
+	assertEquals(-3.0f, base.z, DELTA);
+	assertEquals(4.0f, base.w, DELTA);
+	
+	base.addLocal(base);
+	assertEquals(6.0f, base.x, DELTA);
+	assertEquals(-6.0f, base.y, DELTA);
+	assertEquals(-6.0f, base.z, DELTA);
+	assertEquals(8.0f, base.w, DELTA);
+    }
+    
+    @Test
+    public void testSubIntoResult() {
+	final Vector4f base = new Vector4f(2.0f, -5.0f, 0.0f, 1.0f);
+	final Vector4f submand = new Vector4f(1.0f, 2.0f, -3.0f, 3.0f);
+	final Vector4f result = new Vector4f();
+	
+	assertSame(result, base.sub(submand, result));
+	assertEquals(1.0f, result.x, DELTA);
+	assertEquals(-7.0f, result.y, DELTA);
+	assertEquals(3.0f, result.z, DELTA);
+	assertEquals(-2.0f, result.w, DELTA);
+	
+	assertEquals(2.0f, base.x, DELTA);
+	assertEquals(1.0f, submand.x, DELTA);
+    }
+    
+    @Test
+    public void testSubIntoSubmand() {
+	final Vector4f base = new Vector4f(2.0f, -5.0f, 0.0f, 1.0f);
+	final Vector4f submand = new Vector4f(1.0f, 2.0f, -3.0f, 3.0f);
+	
+	assertSame(submand, base.sub(submand, submand));
+	assertEquals(1.0f, submand.x, DELTA);
+	assertEquals(-7.0f, submand.y, DELTA);
+	assertEquals(3.0f, submand.z, DELTA);
+	assertEquals(-2.0f, submand.w, DELTA);
+    }
+    
+    @Test
+    public void testSubLocal() {
+	final Vector4f base = new Vector4f(2.0f, -5.0f, 0.0f, 1.0f);
+	
+	assertSame(base, base.subLocal(new Vector4f(1.0f, 2.0f, -3.0f, 3.0f)));
+	assertEquals(1.0f, base.x, DELTA);
+	assertEquals(-7.0f, base.y, DELTA);
+	assertEquals(3.0f, base.z, DELTA);
+	assertEquals(-2.0f, base.w, DELTA);
+	
+	base.subLocal(base);
+	assertEquals(0.0f, base.x, DELTA);
+	assertEquals(0.0f, base.y, DELTA);
+	assertEquals(0.0f, base.z, DELTA);
+	assertEquals(0.0f, base.w, DELTA);
+    }
+    
     @Test
     public void testNegate() {
 	final Vector4f negated = new Vector4f(1.1f, 0f, -3.0f, 3.0f).negate();
@@ -107,6 +220,17 @@ public class Vector4fTest {
 	assertEquals(-3.0f, scaledMinus3.w, DELTA);
     }
     
+    @Test
+    public void testScaleLocal() {
+	final Vector4f vector4d = new Vector4f(1.1f, 0f, -3.0f, 1.0f);
+	
+	assertSame(vector4d, vector4d.scaleLocal(3));
+	assertEquals(3.3, vector4d.x, DELTA);
+	assertEquals(0, vector4d.y, DELTA);
+	assertEquals(-9.0f, vector4d.z, DELTA);
+	assertEquals(3.0f, vector4d.w, DELTA);
+    }
+    
     @Test
     public void testDiv() {
 	final Vector4f divided3 = new Vector4f(1.2f, 0f, -3.0f, 1.0f).div(3);
@@ -177,6 +301,34 @@ public class Vector4fTest {
 	assertEquals(0.5625, vecNormalized.w, DELTA);
     }
     
+    @Test
+    public void testNormalizeLocal() {
+	final Vector4f vec = new Vector4f(1.2f, 3f, -3.0f, 3.0f);
+	
+	assertSame(vec, vec.normalizeLocal());
+	assertEquals(1.0f, vec.length(), DELTA);
+	assertEquals(0.225, vec.x, DELTA);
+	assertEquals(0.5625, vec.y, DELTA);
+	assertEquals(-0.5625, vec.z, DELTA);
+	assertEquals(0.5625, vec.w, DELTA);
+    }
+    
+    @Test
+    public void testConvertTo3f() {
+	final Vector4f vector4d = new Vector4f(1.1f, 0f, -3.0f, 8.9f);
+	final Vector3f result = new Vector3f(5.0f, 5.0f, 5.0f);
+	
+	assertSame(result, vector4d.convertTo3f(result));
+	assertEquals(1.1, result.x, DELTA);
+	assertEquals(0, result.y, DELTA);
+	assertEquals(-3.0f, result.z, DELTA);
+	
+	final Vector3f converted = vector4d.convertTo3f();
+	assertEquals(1.1, converted.x, DELTA);
+	assertEquals(0, converted.y, DELTA);
+	assertEquals(-3.0f, converted.z, DELTA);
+    }
+    
     @Test
     public void testToString() {
 	final Vector4f vector4d = new Vector4f(1.1f, 0f, -3.0f, -0.9f);
@@ -0,0 +1,137 @@
+package explorviz.visualization.engine.primitives;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
+import org.junit.*;
+
+import explorviz.visualization.engine.main.RenderLOD;
+import explorviz.visualization.engine.math.*;
+
+public class CullableRangeTest {
+	private static final int VERTICES_PER_UNIT = 6;
+
+	private final Vector3f visible = new Vector3f(0f, 0f, 0f);
+	private final Vector3f outOfView = new Vector3f(5000f, 0f, 0f);
+
+	private final List<int[]> drawCalls = new ArrayList<int[]>();
+	private final Procedure2<Integer, Integer> drawCall = new Procedure2<Integer, Integer>() {
+		@Override
+		public void apply(final Integer offset, final Integer count) {
+			drawCalls.add(new int[] { offset, count });
+		}
+	};
+
+	@Before
+	public void setUp() {
+		RenderLOD.clear();
+		RenderLOD.enabled = true;
+		RenderLOD.resetCulledCount();
+	}
+
+	@After
+	public void tearDown() {
+		RenderLOD.clear();
+	}
+
+	@Test
+	public void testInactiveDrawsEverythingAtOnce() {
+		RenderLOD.enabled = false;
+		final CullableRange range = createRange(false, visible, outOfView, visible);
+		RenderLOD.beginFrame(modelView(), projection());
+		range.draw(drawCall);
+
+		assertDrawCalls(new int[] { 0, 3 });
+	}
+
+	@Test
+	public void testSmallGapsAreBridged() {
+		final CullableRange range = createRange(false, visible, outOfView, outOfView, visible);
+		RenderLOD.beginFrame(modelView(), projection());
+		range.draw(drawCall);
+
+		assertDrawCalls(new int[] { 0, 4 });
+		assertEquals(0, RenderLOD.resetCulledCount());
+	}
+
+	@Test
+	public void testLargeGapsSplitTheRun() {
+		final List<Vector3f> centers = new ArrayList<Vector3f>();
+		centers.add(visible);
+		for (int i = 0; i < 9; i++) {
+			centers.add(outOfView);
+		}
+		centers.add(visible);
+		centers.add(outOfView);
+		final CullableRange range = createRange(false, centers.toArray(new Vector3f[0]));
+		RenderLOD.beginFrame(modelView(), projection());
+		range.draw(drawCall);
+
+		assertDrawCalls(new int[] { 0, 1 }, new int[] { 10 * VERTICES_PER_UNIT, 1 });
+		assertEquals(10, RenderLOD.resetCulledCount());
+	}
+
+	@Test
+	public void testReplacedItemsAreNeverBridged() {
+		final int open = RenderLOD.createGroup(new BoundingSphere(visible, 10f), -1);
+		final int far = RenderLOD.createGroup(
+				new BoundingSphere(new Vector3f(0f, 0f, -900f), 10f), -1);
+
+		final CullableRange range = new CullableRange(VERTICES_PER_UNIT, false, false);
+		add(range, 0, visible, open);
+		// the contents of an aggregated component between two visible boxes
+		add(range, 1, new Vector3f(0f, 0f, -900f), far);
+		add(range, 2, visible, open);
+		RenderLOD.beginFrame(modelView(), projection());
+		range.draw(drawCall);
+
+		assertDrawCalls(new int[] { 0, 1 }, new int[] { 2 * VERTICES_PER_UNIT, 1 });
+		assertEquals(1, RenderLOD.resetCulledCount());
+	}
+
+	@Test
+	public void testAggregatesOfOpenComponentsAreNotDrawn() {
+		final int open = RenderLOD.createGroup(new BoundingSphere(visible, 10f), -1);
+		final int far = RenderLOD.createGroup(
+				new BoundingSphere(new Vector3f(0f, 0f, -900f), 10f), -1);
+
+		final CullableRange range = new CullableRange(VERTICES_PER_UNIT, true, false);
+		add(range, 0, new Vector3f(0f, 0f, -900f), far);
+		add(range, 1, visible, open);
+		add(range, 2, new Vector3f(0f, 0f, -900f), far);
+		RenderLOD.beginFrame(modelView(), projection());
+		range.draw(drawCall);
+
+		assertDrawCalls(new int[] { 0, 1 }, new int[] { 2 * VERTICES_PER_UNIT, 1 });
+	}
+
+	private CullableRange createRange(final boolean aggregates, final Vector3f... centers) {
+		final CullableRange range = new CullableRange(VERTICES_PER_UNIT, aggregates, false);
+		for (int i = 0; i < centers.length; i++) {
+			add(range, i, centers[i], -1);
+		}
+		return range;
+	}
+
+	private void add(final CullableRange range, final int index, final Vector3f center,
+			final int group) {
+		range.add(index * VERTICES_PER_UNIT, 1, new BoundingSphere(center, 1f), group);
+	}
+
+	private void assertDrawCalls(final int[]... expected) {
+		assertEquals(expected.length, drawCalls.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertArrayEquals(expected[i], drawCalls.get(i));
+		}
+	}
+
+	private static Matrix44f modelView() {
+		return Matrix44f.translation(0f, 0f, -50f);
+	}
+
+	private static Matrix44f projection() {
+		return Matrix44f.perspective(45f, 1f, 0.1f, 1000f);
+	}
+}
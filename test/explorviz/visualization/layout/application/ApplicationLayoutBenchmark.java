@@ -0,0 +1,105 @@
+package explorviz.visualization.layout.application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import explorviz.shared.model.*;
+
+/**
+ * Compares the segment tree and the skyline packing of the application
+ * layout on generated component trees, by time and by the footprint of the
+ * foundation component. Run as a plain Java application.
+ */
+public class ApplicationLayoutBenchmark {
+	private static final int[] CLASS_COUNTS = new int[] { 1000, 10000, 100000 };
+	private static final int CLASSES_PER_PACKAGE = 20;
+	// the segment tree recurses deeper with every class of a package
+	private static final int MAX_CLASS_COUNT_FOR_SEGMENT_TREE = 10000;
+	private static final int RUNS = 3;
+
+	public static void main(final String[] args) {
+		for (final int classCount : CLASS_COUNTS) {
+			// warm up
+			layout(classCount, PackingAlgorithm.SKYLINE);
+
+			long skylineTime = 0L;
+			float skylineFootprint = 0f;
+			long segmentTreeTime = 0L;
+			float segmentTreeFootprint = 0f;
+			for (int run = 0; run < RUNS; run++) {
+				float[] result = layout(classCount, PackingAlgorithm.SKYLINE);
+				skylineTime += (long) result[0];
+				skylineFootprint = result[1];
+
+				if (classCount <= MAX_CLASS_COUNT_FOR_SEGMENT_TREE) {
+					result = layout(classCount, PackingAlgorithm.SEGMENT_TREE);
+					segmentTreeTime += (long) result[0];
+					segmentTreeFootprint = result[1];
+				}
+			}
+
+			String segmentTree = "skipped";
+			if (classCount <= MAX_CLASS_COUNT_FOR_SEGMENT_TREE) {
+				segmentTree = (segmentTreeTime / RUNS / 1000000) + " ms, footprint "
+						+ segmentTreeFootprint;
+			}
+			java.lang.System.out.println(classCount + " classes: skyline "
+					+ (skylineTime / RUNS / 1000000) + " ms, footprint " + skylineFootprint
+					+ "; segment tree " + segmentTree);
+		}
+	}
+
+	/**
+	 * @return the time of the layout in nanoseconds and the area of the
+	 *         foundation component
+	 */
+	private static float[] layout(final int classCount, final PackingAlgorithm packing) {
+		final Application application = createApplication(classCount);
+		final long start = java.lang.System.nanoTime();
+		ApplicationLayoutInterface.applyLayout(application, packing);
+		final long time = java.lang.System.nanoTime() - start;
+
+		final Component foundation = application.getComponents().get(0);
+		return new float[] { time, foundation.getWidth() * foundation.getDepth() };
+	}
+
+	private static Application createApplication(final int classCount) {
+		final Random random = new Random(classCount);
+		final Application application = new Application();
+		application.setName("Application");
+
+		final Component foundation = new Component();
+		foundation.setName("Application");
+		foundation.setFoundation(true);
+		foundation.setBelongingApplication(application);
+		application.getComponents().add(foundation);
+
+		// packages are attached to a random earlier package
+		final List<Component> packages = new ArrayList<Component>();
+		packages.add(foundation);
+		for (int i = 1; i < (classCount / CLASSES_PER_PACKAGE); i++) {
+			final Component parent = packages.get(random.nextInt(packages.size()));
+			final Component component = new Component();
+			component.setName("package" + i);
+			component.setParentComponent(parent);
+			component.setBelongingApplication(application);
+			parent.getChildren().add(component);
+			packages.add(component);
+		}
+
+		// skewed towards the first packages, so a few of them get very large
+		for (int i = 0; i < classCount; i++) {
+			final float r = random.nextFloat();
+			final Component component = packages.get((int) (r * r * packages.size()));
+			final Clazz clazz = new Clazz();
+			clazz.setName("Class" + i);
+			clazz.setInstanceCount(random.nextInt(1000));
+			clazz.setParent(component);
+			component.getClazzes().add(clazz);
+		}
+
+		foundation.openAllComponents();
+		return application;
+	}
+}
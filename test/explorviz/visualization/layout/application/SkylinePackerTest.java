@@ -0,0 +1,78 @@
+package explorviz.visualization.layout.application;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SkylinePackerTest {
+
+	private static final float DELTA = 0.001f;
+
+	@Test
+	public void testEqualSquaresFillRows() {
+		final SkylinePacker packer = new SkylinePacker(SkylinePacker.getBinWidth(16 * 100f, 10f));
+		for (int i = 0; i < 16; i++) {
+			packer.insert(10f, 10f);
+			assertEquals((i % 4) * 10f, packer.getLastX(), DELTA);
+			assertEquals((i / 4) * 10f, packer.getLastZ(), DELTA);
+		}
+
+		assertEquals(40f, packer.getUsedWidth(), DELTA);
+		assertEquals(40f, packer.getUsedDepth(), DELTA);
+	}
+
+	@Test
+	public void testNarrowRectanglesFillTheGapNextToAWideOne() {
+		final SkylinePacker packer = new SkylinePacker(30f);
+		packer.insert(20f, 20f);
+		packer.insert(10f, 10f);
+		assertEquals(20f, packer.getLastX(), DELTA);
+		assertEquals(0f, packer.getLastZ(), DELTA);
+
+		packer.insert(10f, 10f);
+		assertEquals(20f, packer.getLastX(), DELTA);
+		assertEquals(10f, packer.getLastZ(), DELTA);
+
+		packer.insert(10f, 10f);
+		assertEquals(0f, packer.getLastX(), DELTA);
+		assertEquals(20f, packer.getLastZ(), DELTA);
+	}
+
+	@Test
+	public void testNoOverlaps() {
+		final Random random = new Random(0);
+		final int count = 500;
+		final float[] widths = new float[count];
+		final float[] depths = new float[count];
+		float totalArea = 0f;
+		for (int i = 0; i < count; i++) {
+			// sorted from the widest to the narrowest like the layout does
+			widths[i] = 10f + ((count - i) / 10);
+			depths[i] = 10f + random.nextInt(40);
+			totalArea += widths[i] * depths[i];
+		}
+
+		final SkylinePacker packer = new SkylinePacker(SkylinePacker.getBinWidth(totalArea,
+				widths[0]));
+		final float[] x = new float[count];
+		final float[] z = new float[count];
+		for (int i = 0; i < count; i++) {
+			packer.insert(widths[i], depths[i]);
+			x[i] = packer.getLastX();
+			z[i] = packer.getLastZ();
+		}
+
+		for (int i = 0; i < count; i++) {
+			for (int j = i + 1; j < count; j++) {
+				final boolean separated = ((x[i] + widths[i]) <= (x[j] + DELTA))
+						|| ((x[j] + widths[j]) <= (x[i] + DELTA))
+						|| ((z[i] + depths[i]) <= (z[j] + DELTA))
+						|| ((z[j] + depths[j]) <= (z[i] + DELTA));
+				assertTrue(i + " overlaps " + j, separated);
+			}
+		}
+		assertTrue((packer.getUsedWidth() * packer.getUsedDepth()) < (totalArea * 1.5f));
+	}
+}
@@ -0,0 +1,96 @@
+package explorviz.visualization.layout.landscape;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import de.cau.cs.kieler.klay.layered.p2layers.LayeringStrategy;
+import de.cau.cs.kieler.klay.layered.properties.Properties;
+import explorviz.server.landscapeexchange.LandscapeDummyCreator;
+import explorviz.shared.landscapeexchange.LandscapeLayout;
+import explorviz.shared.model.*;
+import explorviz.shared.model.System;
+
+public class LandscapeKielerInterfaceTest {
+
+	@Test
+	public void testMetricsChangeReusesPreviousLayout() throws Exception {
+		final PreviousLandscapeLayout previous = new PreviousLandscapeLayout();
+		final Landscape first = LandscapeKielerInterface.applyLayout(
+				LandscapeDummyCreator.createDummyLandscape(), previous);
+		final LandscapeLayout layout = previous.getLayout();
+		assertNotNull(layout);
+
+		// same structure, other activities
+		final Landscape second = LandscapeDummyCreator.createDummyLandscape();
+		LandscapeKielerInterface.applyLayout(second, previous);
+
+		assertSame(layout, previous.getLayout());
+		// only the positions were applied, KIELER did not run
+		assertNull(second.getSystems().get(0).getKielerNodeReference());
+		for (int i = 0; i < first.getSystems().size(); i++) {
+			assertEquals(first.getSystems().get(i).getPositionX(), second.getSystems().get(i)
+					.getPositionX(), 0.0001f);
+			assertEquals(first.getSystems().get(i).getPositionY(), second.getSystems().get(i)
+					.getPositionY(), 0.0001f);
+		}
+	}
+
+	@Test
+	public void testStructuralChangeKeepsSeededPositions() throws Exception {
+		final PreviousLandscapeLayout previous = new PreviousLandscapeLayout();
+		final Landscape first = LandscapeKielerInterface.applyLayout(
+				LandscapeDummyCreator.createDummyLandscape(), previous);
+		final LandscapeLayout layout = previous.getLayout();
+
+		final Landscape second = LandscapeDummyCreator.createDummyLandscape();
+		addApplication(second.getSystems().get(1));
+		LandscapeKielerInterface.applyLayout(second, previous);
+
+		assertNotSame(layout, previous.getLayout());
+		// every system has a previous position, so its graph is laid out interactively
+		assertEquals(LayeringStrategy.INTERACTIVE, second.getSystems().get(0)
+				.getKielerNodeReference().getGraph().getProperty(Properties.NODE_LAYERING));
+
+		// the systems stay in their layers
+		final List<System> firstSystems = first.getSystems();
+		final List<System> secondSystems = second.getSystems();
+		for (int i = 0; i < firstSystems.size(); i++) {
+			for (int j = 0; j < firstSystems.size(); j++) {
+				if ((firstSystems.get(i).getPositionX() + 0.1f) < firstSystems.get(j)
+						.getPositionX()) {
+					assertTrue(secondSystems.get(i).getPositionX() < secondSystems.get(j)
+							.getPositionX());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLayoutWithoutPreviousLayoutIsNotSeeded() throws Exception {
+		final PreviousLandscapeLayout previous = new PreviousLandscapeLayout();
+		LandscapeKielerInterface.applyLayout(LandscapeDummyCreator.createDummyLandscape(),
+				previous);
+
+		// a layout from scratch neither uses nor changes the previous layout of a view
+		final LandscapeLayout layout = previous.getLayout();
+		final Landscape landscape = LandscapeKielerInterface.applyLayout(LandscapeDummyCreator
+				.createDummyLandscape());
+
+		assertSame(layout, previous.getLayout());
+		assertNotNull(landscape.getSystems().get(0).getKielerNodeReference());
+		assertNotEquals(LayeringStrategy.INTERACTIVE, landscape.getSystems().get(0)
+				.getKielerNodeReference().getGraph().getProperty(Properties.NODE_LAYERING));
+	}
+
+	private static void addApplication(final System system) {
+		final Node node = system.getNodeGroups().get(0).getNodes().get(0);
+		final Application application = new Application();
+		application.setId(1000);
+		application.setName("New application");
+		application.setParent(node);
+		node.getApplications().add(application);
+	}
+}
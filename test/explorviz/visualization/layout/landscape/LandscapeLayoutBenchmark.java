@@ -0,0 +1,113 @@
+package explorviz.visualization.layout.landscape;
+
+import java.util.Random;
+
+import explorviz.server.repository.LandscapePreparer;
+import explorviz.shared.model.*;
+import explorviz.shared.model.System;
+
+/**
+ * Measures the landscape layout for growing landscapes, once laid out from
+ * scratch and once incrementally for a metric change and for one new
+ * application. Run as a plain Java application.
+ */
+public class LandscapeLayoutBenchmark {
+	private static final int[] SYSTEM_COUNTS = new int[] { 2, 5, 10, 20, 40 };
+	private static final int NODES_PER_SYSTEM = 4;
+	private static final int APPLICATIONS_PER_NODE = 2;
+	private static final int RUNS = 5;
+
+	public static void main(final String[] args) {
+		for (final int systemCount : SYSTEM_COUNTS) {
+			// warm up
+			LandscapeKielerInterface.applyLayout(createLandscape(systemCount, false));
+
+			long fullTime = 0L;
+			long metricsTime = 0L;
+			long structureTime = 0L;
+			for (int run = 0; run < RUNS; run++) {
+				final Landscape landscape = createLandscape(systemCount, false);
+				long start = java.lang.System.nanoTime();
+				LandscapeKielerInterface.applyLayout(landscape);
+				fullTime += java.lang.System.nanoTime() - start;
+
+				final PreviousLandscapeLayout previous = new PreviousLandscapeLayout();
+				LandscapeKielerInterface.applyLayout(createLandscape(systemCount, false), previous);
+
+				final Landscape metricsLandscape = createLandscape(systemCount, false);
+				start = java.lang.System.nanoTime();
+				LandscapeKielerInterface.applyLayout(metricsLandscape, previous);
+				metricsTime += java.lang.System.nanoTime() - start;
+
+				final Landscape structureLandscape = createLandscape(systemCount, true);
+				start = java.lang.System.nanoTime();
+				LandscapeKielerInterface.applyLayout(structureLandscape, previous);
+				structureTime += java.lang.System.nanoTime() - start;
+			}
+
+			final int applicationCount = systemCount * NODES_PER_SYSTEM * APPLICATIONS_PER_NODE;
+			java.lang.System.out.println(applicationCount + " applications: full "
+					+ (fullTime / RUNS / 1000) + " us, incremental metrics only "
+					+ (metricsTime / RUNS / 1000) + " us, incremental new application "
+					+ (structureTime / RUNS / 1000) + " us");
+		}
+	}
+
+	private static Landscape createLandscape(final int systemCount,
+			final boolean withNewApplication) {
+		final Random random = new Random(systemCount);
+		final Landscape landscape = new Landscape();
+		landscape.setHash(random.nextLong());
+
+		int applicationId = 0;
+		final Application[] applications = new Application[systemCount * NODES_PER_SYSTEM
+				* APPLICATIONS_PER_NODE];
+		for (int s = 0; s < systemCount; s++) {
+			final System system = new System();
+			system.setName("System " + s);
+			system.setParent(landscape);
+			landscape.getSystems().add(system);
+
+			for (int n = 0; n < NODES_PER_SYSTEM; n++) {
+				final NodeGroup nodeGroup = new NodeGroup();
+				nodeGroup.setName("10.0." + s + "." + (n / 2));
+				nodeGroup.setParent(system);
+				system.getNodeGroups().add(nodeGroup);
+
+				final Node node = new Node();
+				node.setIpAddress("10.0." + s + "." + n);
+				node.setParent(nodeGroup);
+				nodeGroup.getNodes().add(node);
+
+				for (int a = 0; a < APPLICATIONS_PER_NODE; a++) {
+					final Application application = new Application();
+					application.setId(applicationId);
+					application.setName("Application " + applicationId);
+					application.setParent(node);
+					node.getApplications().add(application);
+					applications[applicationId++] = application;
+				}
+			}
+		}
+
+		if (withNewApplication) {
+			final Node node = landscape.getSystems().get(0).getNodeGroups().get(0).getNodes()
+					.get(0);
+			final Application application = new Application();
+			application.setId(applicationId);
+			application.setName("New application");
+			application.setParent(node);
+			node.getApplications().add(application);
+		}
+
+		for (int i = 0; i < (applications.length * 2); i++) {
+			final Communication communication = new Communication();
+			communication.setSource(applications[random.nextInt(applications.length)]);
+			communication.setTarget(applications[random.nextInt(applications.length)]);
+			communication.setRequests(random.nextInt(1000));
+			landscape.getApplicationCommunication().add(communication);
+		}
+
+		return LandscapePreparer.prepareLandscape(landscape);
+	}
+}